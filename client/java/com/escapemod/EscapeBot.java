@@ -10,9 +10,18 @@ import com.escapemod.systems.NetherHighwayNavigator;
 import com.escapemod.systems.BacktrackRecovery;
 import com.escapemod.systems.AutoStashSystem;
 import com.escapemod.systems.CrisisMode;
+import com.escapemod.events.WorldEventBus;
 import com.escapemod.navigation.EscapeNavigator;
+import com.escapemod.rendering.PathOverlay;
 import com.escapemod.rendering.PathRenderer;
+import com.escapemod.rendering.TrailHistory;
+import com.escapemod.rendering.VisualBudget;
+import com.escapemod.simulation.SessionRecorder;
+import com.escapemod.utils.BotMetrics;
 import com.escapemod.utils.MessageThrottler;
+import com.escapemod.utils.MetricsServer;
+import com.escapemod.utils.SystemProfiler;
+import com.escapemod.utils.TickScheduler;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
@@ -36,8 +45,8 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.enchantment.EnchantmentHelper;
 import net.minecraft.registry.Registries;
 
+import java.io.IOException;
 import java.util.Random;
-import java.util.ArrayList;
 import java.util.List;
 
 public class EscapeBot {
@@ -74,6 +83,16 @@ public class EscapeBot {
     private static final int FOOD_SEARCH_INTERVAL = 200; // Search for food every 10 seconds
     private static final int MINING_TIMEOUT = 600; // 30 seconds mining timeout
     
+    // Pre-interned throttle keys for per-tick messages
+    private static final MessageThrottler.ThrottleKey PROGRESS_KEY = MessageThrottler.key("escape_progress");
+    private static final MessageThrottler.ThrottleKey MOVEMENT_DEBUG_KEY = MessageThrottler.key("movement_debug");
+    private static final MessageThrottler.ThrottleKey CLIFF_DEBUG_KEY = MessageThrottler.key("cliff_debug");
+    
+    // Profiler sections for work outside the scheduler
+    private static final SystemProfiler.Section TICK_PROFILE = SystemProfiler.get().section("bot.tick");
+    private static final SystemProfiler.Section TRAIL_PROFILE = SystemProfiler.get().section("render.trail");
+    private static final SystemProfiler.Section PATH_LINE_PROFILE = SystemProfiler.get().section("render.path_line");
+    
     // Configuration
     private boolean showProgressMessages = true;
     private boolean verboseMode = false;
@@ -82,15 +101,33 @@ public class EscapeBot {
     private boolean showPathLine = true;
     
     // Performance throttling
-    private int navigationTickCounter = 0;
-    private int renderTickCounter = 0;
+    private final TickScheduler scheduler = new TickScheduler();
+    private boolean navigationUpdated = false; // Set when the navigation task ran; movement follows it
+    private Vec3d steeredHeading = null;       // Heading the movement handler decided jump by this tick, for the recorder
     private boolean useSimpleNavigation = true; // Use simple navigation by default for performance
     
+    // Per-tick session recording for offline replay (% record)
+    private final SessionRecorder recorder = new SessionRecorder();
+    
+    // Last position counted towards travel metrics; teleports and dimension changes aren't counted
+    private static final double MAX_TRAVEL_PER_TICK = 10.0;
+    private Vec3d lastTravelPos = null;
+    
     // Particle trail
-    private List<Vec3d> pathHistory = new ArrayList<>();
+    private final TrailHistory pathHistory = new TrailHistory(TrailHistory.DEFAULT_CAPACITY);
     private int particleTimer = 0;
     private Vec3d lastParticlePos = null;
     
+    // Overlay state: the heading the path line was built for, and whether the trail has new points
+    private static final int HEADING_NEAR_COLOR = 0xFF33DDFF;
+    private static final int HEADING_MID_COLOR = 0xFF8866FF;
+    private static final int HEADING_FAR_COLOR = 0x99FFFFFF;
+    private static final int HEADING_MARKER_COLOR = 0xFFFF8833;
+    private static final int ARROW_COLOR = 0xFF55FF55;
+    private static final int TRAIL_COLOR = 0xCC55FF55;
+    private Vec3d publishedHeading = null;
+    private boolean trailChanged = false;
+    
     private Random random = new Random();
     
     public EscapeBot() {
@@ -110,6 +147,68 @@ public class EscapeBot {
         this.backtrackRecovery = new BacktrackRecovery(MinecraftClient.getInstance());
         this.autoStash = new AutoStashSystem(MinecraftClient.getInstance());
         this.crisisMode = new CrisisMode(MinecraftClient.getInstance());
+        
+        registerScheduledTasks(MinecraftClient.getInstance());
+        registerEventSubscribers();
+    }
+    
+    /**
+     * Incremental updates from world and player changes, in place of rescanning for them
+     */
+    private void registerEventSubscribers() {
+        WorldEventBus events = WorldEventBus.get();
+        events.onChunkLoad((world, chunk) -> {
+            navigator.onChunkLoad(world, chunk);
+            netherNavigator.onChunkLoad(world, chunk);
+            antiGrief.onChunkLoad(chunk.getPos().x, chunk.getPos().z);
+        });
+        events.onChunkUnload((world, chunk) -> navigator.onChunkUnload(chunk));
+        events.onBlockChange((pos, oldState, newState) -> {
+            navigator.onBlockChange(pos);
+            antiGrief.onBlockChange(pos);
+            netherNavigator.onBlockChange(pos, newState);
+            recorder.onBlockChange(pos, newState);
+        });
+        events.onSlotChange((slot, oldStack, newStack) -> {
+            autoCrafting.onInventoryChanged();
+            progression.onInventoryChanged();
+            crisisMode.onPlayerStateChanged();
+        });
+        events.onVitalsChange((health, foodLevel) -> crisisMode.onPlayerStateChanged());
+        events.onDimensionChange((from, to) -> antiGrief.onDimensionChange());
+    }
+    
+    /**
+     * Periodic work, spread across ticks by the scheduler instead of per-system cooldown counters
+     */
+    private void registerScheduledTasks(MinecraftClient client) {
+        scheduler.register("fall_protection", 1, TickScheduler.Priority.CRITICAL, 200, () -> {
+            if (fallDamageProtection) fallProtection.tick();
+        });
+        scheduler.register("anti_grief", 1, TickScheduler.Priority.HIGH, 300, antiGrief::tick);
+        scheduler.register("anti_grief_scan", 40, TickScheduler.Priority.NORMAL, 3000, antiGrief::scanForThreats);
+        scheduler.register("inventory_verify", 1, TickScheduler.Priority.HIGH, 100, inventoryManager::tick);
+        scheduler.register("inventory", 100, TickScheduler.Priority.NORMAL, 1500, inventoryManager::manageInventory);
+        scheduler.register("auto_crafting", 20, TickScheduler.Priority.NORMAL, 1000, autoCrafting::tick);
+        scheduler.register("progression", 20, TickScheduler.Priority.LOW, 300, progression::tick);
+        scheduler.register("pathfinding", 1, TickScheduler.Priority.LOW, 200, pathfinding::tick);
+        
+        // Escape-only work
+        scheduler.register("navigation", 5, TickScheduler.Priority.HIGH, 2000, () -> {
+            if (!isEscaping || client.player == null || client.world == null) return;
+            navigator.tick();
+            netherNavigator.tick();
+            navigationUpdated = true;
+        });
+        scheduler.register("path_render", 10, TickScheduler.Priority.LOW, 500, () -> {
+            if (isEscaping && showPathLine && client.player != null) renderNavigationPath(client, client.player);
+        });
+        scheduler.register("progress_indicator", 40, TickScheduler.Priority.LOW, 300, () -> {
+            if (isEscaping && showPathLine && client.player != null && navigator.isNavigating()) {
+                double progress = navigator.getProgressPercentage(client.player.getBlockPos());
+                pathRenderer.renderProgressIndicator(client.player.getPos(), progress);
+            }
+        });
     }
     
     public void toggleEscape() {
@@ -134,25 +233,43 @@ public class EscapeBot {
     }
     
     public void tick(MinecraftClient client) {
-        // Always run these systems
-        autoCrafting.tick();
-        inventoryManager.tick();
-        antiGrief.tick();
-        progression.tick();
-        pathfinding.tick();
-        
-        // Run fall protection system if enabled
-        if (fallDamageProtection) {
-            fallProtection.tick();
+        long start = System.nanoTime();
+        steeredHeading = null;
+        VisualBudget.get().beginTick(client);
+        try (var scope = TICK_PROFILE.time()) {
+            tickSystems(client);
+        }
+        BotMetrics.TICK_SECONDS.observe(System.nanoTime() - start);
+        if (steeredHeading != null) {
+            recorder.recordTick(client, isEscaping, steeredHeading, true);
+        } else {
+            recorder.recordTick(client, isEscaping, navigator.isNavigating() ? navigator.getOptimalDirection() : null, false);
         }
+    }
+    
+    private void tickSystems(MinecraftClient client) {
+        // Periodic systems (and, while escaping, navigation and path rendering)
+        scheduler.tick();
         
         if (!isEscaping || client.player == null || client.world == null) {
+            lastTravelPos = null;
+            clearOverlay();
             return;
         }
         
         tickCounter++;
         ClientPlayerEntity player = client.player;
         
+        // Horizontal distance for the metrics endpoint
+        Vec3d pos = player.getPos();
+        if (lastTravelPos != null) {
+            double moved = Math.hypot(pos.x - lastTravelPos.x, pos.z - lastTravelPos.z);
+            if (moved < MAX_TRAVEL_PER_TICK) {
+                BotMetrics.addTravel(moved);
+            }
+        }
+        lastTravelPos = pos;
+        
         // Apply fall damage protection
         if (fallDamageProtection) {
             applyFallDamageProtection(player);
@@ -160,12 +277,21 @@ public class EscapeBot {
         
         // Update particle trail
         if (showParticleTrail) {
-            updateParticleTrail(client, player);
+            try (var scope = TRAIL_PROFILE.time()) {
+                updateParticleTrail(client, player);
+            }
         }
         
         // Show path line (like Baritone)
         if (isEscaping && showPathLine) {
-            displayPathLine(client, player);
+            try (var scope = PATH_LINE_PROFILE.time()) {
+                if (PathOverlay.get().isParticleMode()) {
+                    displayPathLine(client, player);
+                    publishedHeading = null;
+                } else {
+                    publishPathLine();
+                }
+            }
         }
         
         // Check if we've reached our target distance
@@ -181,21 +307,13 @@ public class EscapeBot {
             
             // Show progress every 2 minutes using throttler (only if enabled)
             if (showProgressMessages) {
-                MessageThrottler.sendThrottledMessage(player, "escape_progress", 
-                    Text.literal("§e[EscapeMod] Progress: " + 
+                MessageThrottler.sendThrottledMessage(player, PROGRESS_KEY, 
+                    () -> Text.literal("§e[EscapeMod] Progress: " + 
                         String.format("%.0f", distanceFromSpawn) + "/" + ESCAPE_DISTANCE + " blocks"), 
                     true, 120000); // 2 minutes
             }
         }
         
-        // Throttle navigation updates to every 5 ticks (4 times per second)
-        navigationTickCounter++;
-        if (navigationTickCounter >= 5) {
-            navigator.tick();
-            netherNavigator.tick();
-            navigationTickCounter = 0;
-        }
-        
         // Record position for backtrack recovery
         backtrackRecovery.recordPosition(player.getBlockPos(), System.currentTimeMillis());
         
@@ -231,12 +349,14 @@ public class EscapeBot {
         }
         
         // Handle movement based on navigation system
+        recorder.decision("mode", isMining && miningTarget != null ? "mining" : useSimpleNavigation ? "simple" : "pathfinding");
         if (isMining && miningTarget != null) {
             // Continue current mining operation
             handleMining(client);
         } else {
             // Use navigation system (throttled)
-            if (navigationTickCounter == 0) {
+            if (navigationUpdated) {
+                navigationUpdated = false;
                 if (useSimpleNavigation) {
                     handleSimpleNavigation(client);
                 } else {
@@ -244,13 +364,6 @@ public class EscapeBot {
                 }
             }
         }
-        
-        // Render path visualization (throttled to every 10 ticks)
-        renderTickCounter++;
-        if (showPathLine && renderTickCounter >= 10) {
-            renderNavigationPath(client, player);
-            renderTickCounter = 0;
-        }
     }
     
     private void handleProgressionGoal(MinecraftClient client, ProgressionSystem.ProgressionGoal goal) {
@@ -362,9 +475,10 @@ public class EscapeBot {
         
         // Debug message to confirm we're in this method
         if (tickCounter % 60 == 0) { // Every 3 seconds
-            MessageThrottler.sendThrottledMessage(player, "movement_debug", 
-                Text.literal("§e[Debug] Moving towards target. Direction: " + 
-                    String.format("X: %.2f, Z: %.2f", targetDirection.x, targetDirection.z)), true, 2000);
+            Vec3d direction = targetDirection;
+            MessageThrottler.sendThrottledMessage(player, MOVEMENT_DEBUG_KEY, 
+                () -> Text.literal("§e[Debug] Moving towards target. Direction: " + 
+                    String.format("X: %.2f, Z: %.2f", direction.x, direction.z)), true, 2000);
         }
         
         // Calculate target position
@@ -453,8 +567,9 @@ public class EscapeBot {
         
         // Debug message to see what's happening
         if (isDangerous && tickCounter % 20 == 0) { // Every second
-            MessageThrottler.sendThrottledMessage(player, "cliff_debug", 
-                Text.literal("§c[Debug] Cliff detected! Ground distance: " + groundDistance), true, 2000);
+            int distance = groundDistance;
+            MessageThrottler.sendThrottledMessage(player, CLIFF_DEBUG_KEY, 
+                () -> Text.literal("§c[Debug] Cliff detected! Ground distance: " + distance), true, 2000);
         }
         
         return isDangerous;
@@ -692,8 +807,8 @@ public class EscapeBot {
         float targetYaw = (float) Math.toDegrees(Math.atan2(-direction.x, direction.z));
         player.setYaw(targetYaw);
         
-        // Always move forward
-        options.forwardKey.setPressed(true);
+        // Move forward unless loaded terrain ahead is running out
+        options.forwardKey.setPressed(navigator.getChunkReadiness().shouldAdvance());
         
         // Simple jumping logic
         if (shouldJumpSimple(client, direction)) {
@@ -701,6 +816,7 @@ public class EscapeBot {
         } else {
             options.jumpKey.setPressed(false);
         }
+        steeredHeading = direction;
         
         // Handle water/lava
         if (player.isTouchingWater() || player.isInLava()) {
@@ -709,23 +825,10 @@ public class EscapeBot {
     }
     
     /**
-     * Simple jump detection
+     * Simple jump detection; shared with EscapeSimulator and SessionReplay through SimplePathfinder
      */
     private boolean shouldJumpSimple(MinecraftClient client, Vec3d direction) {
-        ClientPlayerEntity player = client.player;
-        
-        // Check for obstacle directly ahead
-        Vec3d playerPos = player.getPos();
-        Vec3d checkPos = playerPos.add(direction.multiply(1.0));
-        BlockPos blockPos = BlockPos.ofFloored(checkPos);
-        
-        // Jump if there's a block at feet level
-        Block feetBlock = client.world.getBlockState(blockPos).getBlock();
-        if (feetBlock != Blocks.AIR && feetBlock != Blocks.WATER) {
-            return true;
-        }
-        
-        return false;
+        return navigator.getSimplePathfinder().isBlockedAhead(client.player.getPos(), direction);
     }
     
     /**
@@ -758,8 +861,8 @@ public class EscapeBot {
         float targetYaw = (float) Math.toDegrees(Math.atan2(-direction.x, direction.z));
         player.setYaw(targetYaw);
         
-        // Move forward
-        options.forwardKey.setPressed(true);
+        // Move forward unless loaded terrain ahead is running out
+        options.forwardKey.setPressed(navigator.getChunkReadiness().shouldAdvance());
         
         // Handle jumping
         if (navigator.shouldJump(currentPos)) {
@@ -767,6 +870,7 @@ public class EscapeBot {
         } else {
             options.jumpKey.setPressed(false);
         }
+        steeredHeading = navigator.getLocalHeading(currentPos);
         
         // Handle water/lava
         if (player.isTouchingWater() || player.isInLava()) {
@@ -782,17 +886,51 @@ public class EscapeBot {
     private void renderNavigationPath(MinecraftClient client, ClientPlayerEntity player) {
         if (!navigator.isNavigating()) return;
         
-        // Only render direction arrow and progress (much lighter)
+        // Only render the direction arrow (much lighter); progress has its own slower task
         Vec3d direction = navigator.getOptimalDirection();
         if (direction != null) {
             pathRenderer.renderNavigationArrow(player.getPos(), direction);
         }
+    }
+    
+    /**
+     * The path line and arrow as overlay lines anchored to the player; rebuilt only when the heading changes
+     */
+    private void publishPathLine() {
+        if (targetDirection == null) {
+            PathOverlay.get().clear(PathOverlay.Layer.HEADING);
+            publishedHeading = null;
+            return;
+        }
+        if (targetDirection.equals(publishedHeading)) return;
+        publishedHeading = targetDirection;
         
-        // Render progress indicator less frequently
-        if (renderTickCounter % 4 == 0) {
-            double progress = navigator.getProgressPercentage(player.getBlockPos());
-            pathRenderer.renderProgressIndicator(player.getPos(), progress);
+        PathOverlay.Lines lines = PathOverlay.Lines.followingPlayer(Vec3d.ZERO);
+        Vec3d lift = new Vec3d(0, 0.5, 0);
+        lines.line(targetDirection.add(lift), targetDirection.multiply(10).add(lift), HEADING_NEAR_COLOR);
+        lines.line(targetDirection.multiply(10).add(lift), targetDirection.multiply(25).add(lift), HEADING_MID_COLOR);
+        lines.line(targetDirection.multiply(25).add(lift), targetDirection.multiply(50).add(lift), HEADING_FAR_COLOR);
+        for (int distance = 10; distance <= 50; distance += 10) {
+            lines.ring(targetDirection.multiply(distance).add(0, 0.8, 0), 0.3, 4, HEADING_MARKER_COLOR);
         }
+        
+        // Arrow from chest height, five blocks along the heading
+        Vec3d arrowStart = new Vec3d(0, 1, 0);
+        Vec3d arrowEnd = arrowStart.add(targetDirection.multiply(5));
+        Vec3d perpendicular = new Vec3d(-targetDirection.z, 0, targetDirection.x).normalize();
+        lines.line(arrowStart, arrowEnd, ARROW_COLOR);
+        lines.line(arrowEnd, arrowEnd.add(targetDirection.multiply(-0.8)).add(perpendicular.multiply(0.4)), ARROW_COLOR);
+        lines.line(arrowEnd, arrowEnd.add(targetDirection.multiply(-0.8)).add(perpendicular.multiply(-0.4)), ARROW_COLOR);
+        PathOverlay.get().set(PathOverlay.Layer.HEADING, lines);
+    }
+    
+    /**
+     * Drop the heading line and trail from the overlay, e.g. when the escape stops
+     */
+    private void clearOverlay() {
+        publishedHeading = null;
+        PathOverlay.get().clear(PathOverlay.Layer.HEADING);
+        PathOverlay.get().clear(PathOverlay.Layer.TRAIL);
     }
     
     private void displayPathLine(MinecraftClient client, ClientPlayerEntity player) {
@@ -807,17 +945,17 @@ public class EscapeBot {
             // Different colors based on distance
             if (distance <= 10) {
                 // Close path - bright cyan
-                client.world.addParticle(ParticleTypes.SOUL_FIRE_FLAME,
-                    pathPoint.x, pathPoint.y + 0.5, pathPoint.z, 0, 0, 0);
+                VisualBudget.get().spawn(client, ParticleTypes.SOUL_FIRE_FLAME,
+                    pathPoint.x, pathPoint.y + 0.5, pathPoint.z, 0, 0, 0, VisualBudget.DEFAULT_DISTANCE);
             } else if (distance <= 25) {
                 // Medium distance - blue
-                client.world.addParticle(ParticleTypes.ENCHANT,
-                    pathPoint.x, pathPoint.y + 0.3, pathPoint.z, 0, 0, 0);
+                VisualBudget.get().spawn(client, ParticleTypes.ENCHANT,
+                    pathPoint.x, pathPoint.y + 0.3, pathPoint.z, 0, 0, 0, VisualBudget.DEFAULT_DISTANCE);
             } else {
                 // Far distance - faint particles
                 if (distance % 3 == 0) { // Every 3rd particle to reduce density
-                    client.world.addParticle(ParticleTypes.END_ROD,
-                        pathPoint.x, pathPoint.y + 0.2, pathPoint.z, 0, 0, 0);
+                    VisualBudget.get().spawn(client, ParticleTypes.END_ROD,
+                        pathPoint.x, pathPoint.y + 0.2, pathPoint.z, 0, 0, 0, VisualBudget.DEFAULT_DISTANCE);
                 }
             }
             
@@ -829,8 +967,8 @@ public class EscapeBot {
                     double offsetX = Math.cos(radians) * 0.3;
                     double offsetZ = Math.sin(radians) * 0.3;
                     
-                    client.world.addParticle(ParticleTypes.FLAME,
-                        pathPoint.x + offsetX, pathPoint.y + 0.8, pathPoint.z + offsetZ, 0, 0, 0);
+                    VisualBudget.get().spawn(client, ParticleTypes.FLAME,
+                        pathPoint.x + offsetX, pathPoint.y + 0.8, pathPoint.z + offsetZ, 0, 0, 0, VisualBudget.DEFAULT_DISTANCE);
                 }
             }
         }
@@ -843,16 +981,16 @@ public class EscapeBot {
         for (int i = 0; i <= 10; i++) {
             double progress = i / 10.0;
             Vec3d arrowPoint = arrowStart.lerp(arrowEnd, progress);
-            client.world.addParticle(ParticleTypes.HAPPY_VILLAGER,
-                arrowPoint.x, arrowPoint.y, arrowPoint.z, 0, 0, 0);
+            VisualBudget.get().spawn(client, ParticleTypes.HAPPY_VILLAGER,
+                arrowPoint.x, arrowPoint.y, arrowPoint.z, 0, 0, 0, VisualBudget.DEFAULT_DISTANCE);
         }
         
         // Create arrow head
         Vec3d perpendicular = new Vec3d(-targetDirection.z, 0, targetDirection.x).normalize();
         for (int i = -2; i <= 2; i++) {
             Vec3d arrowHeadPoint = arrowEnd.add(perpendicular.multiply(i * 0.2));
-            client.world.addParticle(ParticleTypes.HAPPY_VILLAGER,
-                arrowHeadPoint.x, arrowHeadPoint.y, arrowHeadPoint.z, 0, 0, 0);
+            VisualBudget.get().spawn(client, ParticleTypes.HAPPY_VILLAGER,
+                arrowHeadPoint.x, arrowHeadPoint.y, arrowHeadPoint.z, 0, 0, 0, VisualBudget.DEFAULT_DISTANCE);
         }
     }
     
@@ -1007,40 +1145,56 @@ public class EscapeBot {
     private void updateParticleTrail(MinecraftClient client, ClientPlayerEntity player) {
         Vec3d currentPos = player.getPos();
         
-        // Add current position to path history
-        pathHistory.add(currentPos);
-        
-        // Limit path history size to prevent memory issues
-        if (pathHistory.size() > 250) {
-            pathHistory.remove(0);
+        // Add current position to path history; only corners are kept, in a fixed-size ring
+        if (pathHistory.record(currentPos)) {
+            trailChanged = true;
         }
         
-        // Spawn particles every few ticks
+        // Spawn particles (or rebuild the trail lines) every few ticks
         particleTimer++;
         if (particleTimer >= 10) { // Every 10 ticks (0.5 seconds)
-            spawnTrailParticles(client, currentPos);
+            if (PathOverlay.get().isParticleMode()) {
+                spawnTrailParticles(client, currentPos);
+            } else {
+                publishTrail();
+            }
             particleTimer = 0;
         }
         
         lastParticlePos = currentPos;
     }
     
+    private void publishTrail() {
+        if (!trailChanged || pathHistory.size() < 2) return;
+        trailChanged = false;
+        
+        // Origin at the newest point keeps float precision best where the player is looking
+        int newest = pathHistory.size() - 1;
+        PathOverlay.Lines lines = PathOverlay.Lines.at(new Vec3d(pathHistory.getX(newest), pathHistory.getY(newest), pathHistory.getZ(newest)));
+        for (int i = 1; i <= newest; i++) {
+            if (pathHistory.isBreak(i - 1) || pathHistory.isBreak(i)) continue;
+            lines.line(pathHistory.getX(i - 1), pathHistory.getY(i - 1) + 0.1, pathHistory.getZ(i - 1),
+                pathHistory.getX(i), pathHistory.getY(i) + 0.1, pathHistory.getZ(i), TRAIL_COLOR);
+        }
+        PathOverlay.get().set(PathOverlay.Layer.TRAIL, lines);
+    }
+    
     private void spawnTrailParticles(MinecraftClient client, Vec3d pos) {
         if (client.world == null) return;
         
         // Spawn different particles based on movement state
         if (client.player.isOnGround()) {
             // Ground trail - green particles
-            client.world.addParticle(ParticleTypes.HAPPY_VILLAGER, 
-                pos.x, pos.y + 0.1, pos.z, 0, 0.1, 0);
+            VisualBudget.get().spawn(client, ParticleTypes.HAPPY_VILLAGER, 
+                pos.x, pos.y + 0.1, pos.z, 0, 0.1, 0, VisualBudget.DEFAULT_DISTANCE);
         } else if (client.player.getVelocity().y < -0.1) {
             // Falling - red particles
-            client.world.addParticle(ParticleTypes.FLAME, 
-                pos.x, pos.y, pos.z, 0, -0.1, 0);
+            VisualBudget.get().spawn(client, ParticleTypes.FLAME, 
+                pos.x, pos.y, pos.z, 0, -0.1, 0, VisualBudget.DEFAULT_DISTANCE);
         } else {
             // Flying/jumping - blue particles
-            client.world.addParticle(ParticleTypes.ENCHANT, 
-                pos.x, pos.y, pos.z, 0, 0.05, 0);
+            VisualBudget.get().spawn(client, ParticleTypes.ENCHANT, 
+                pos.x, pos.y, pos.z, 0, 0.05, 0, VisualBudget.DEFAULT_DISTANCE);
         }
         
         // Add a subtle trail behind the player
@@ -1048,8 +1202,8 @@ public class EscapeBot {
             Vec3d direction = pos.subtract(lastParticlePos).normalize();
             for (int i = 1; i <= 3; i++) {
                 Vec3d trailPos = pos.subtract(direction.multiply(i * 0.5));
-                client.world.addParticle(ParticleTypes.END_ROD, 
-                    trailPos.x, trailPos.y + 0.5, trailPos.z, 0, 0, 0);
+                VisualBudget.get().spawn(client, ParticleTypes.END_ROD, 
+                    trailPos.x, trailPos.y + 0.5, trailPos.z, 0, 0, 0, VisualBudget.DEFAULT_DISTANCE);
             }
         }
     }
@@ -1057,6 +1211,7 @@ public class EscapeBot {
     // Configuration methods for new features
     public void setShowParticleTrail(boolean show) {
         this.showParticleTrail = show;
+        if (!show) PathOverlay.get().clear(PathOverlay.Layer.TRAIL);
     }
     
     public void setFallDamageProtection(boolean protect) {
@@ -1070,6 +1225,10 @@ public class EscapeBot {
     
     public void setShowPathLine(boolean show) {
         this.showPathLine = show;
+        if (!show) {
+            PathOverlay.get().clear(PathOverlay.Layer.HEADING);
+            publishedHeading = null;
+        }
     }
     
     public boolean isShowingPathLine() {
@@ -1086,6 +1245,7 @@ public class EscapeBot {
     
     public void toggleSimpleNavigation() {
         this.useSimpleNavigation = !this.useSimpleNavigation;
+        navigator.setSimpleSteering(useSimpleNavigation);
     }
     
     public boolean isUsingSimpleNavigation() {
@@ -1097,6 +1257,7 @@ public class EscapeBot {
      */
     private void handleCrisisMode(MinecraftClient client) {
         CrisisMode.CrisisAction action = crisisMode.executeCrisisMode();
+        recorder.decision("crisis", action.name());
         GameOptions options = client.options;
         
         switch (action) {
@@ -1150,18 +1311,20 @@ public class EscapeBot {
      */
     private void handleBacktrackRecovery(MinecraftClient client) {
         BacktrackRecovery.RecoveryAction action = backtrackRecovery.executeRecovery();
+        recorder.decision("recovery", action.name());
         GameOptions options = client.options;
         
         switch (action) {
             case BACKTRACK_TO_SAFE:
-                BlockPos safePos = backtrackRecovery.getLastSafePosition();
+                BlockPos safePos = backtrackRecovery.getRecoveryTarget();
                 if (safePos != null && client.player != null) {
                     // Use Baritone for emergency backtrack if available
                     if (navigator.isUsingBaritone()) {
                         navigator.getBaritonePathfinder().handleEmergency(safePos);
                     } else {
-                        // Fallback to simple movement
-                        Vec3d direction = Vec3d.ofCenter(safePos).subtract(client.player.getPos()).normalize();
+                        // Fallback to simple movement along the breadcrumb route
+                        BlockPos waypoint = backtrackRecovery.getNextRecoveryWaypoint(client.player.getBlockPos());
+                        Vec3d direction = Vec3d.ofCenter(waypoint).subtract(client.player.getPos()).normalize();
                         float targetYaw = (float) Math.toDegrees(Math.atan2(-direction.x, direction.z));
                         client.player.setYaw(targetYaw);
                         options.forwardKey.setPressed(true);
@@ -1202,6 +1365,7 @@ public class EscapeBot {
      */
     private void handleAutoStash(MinecraftClient client) {
         AutoStashSystem.StashResult result = autoStash.executeStash();
+        recorder.decision("stash", result.name());
         
         switch (result) {
             case SUCCESS:
@@ -1247,6 +1411,7 @@ public class EscapeBot {
         
         // Find or create portal
         BlockPos portalPos = netherNavigator.findOrCreatePortal(currentPos);
+        recorder.decision("nether", portalPos != null ? "to_portal" : "no_portal");
         if (portalPos != null) {
             // Navigate to portal using current pathfinder
             if (navigator.isUsingBaritone()) {
@@ -1261,19 +1426,49 @@ public class EscapeBot {
     
     // Getters for new systems
     public NetherHighwayNavigator getNetherNavigator() { return netherNavigator; }
+    public TickScheduler getScheduler() { return scheduler; }
     public BacktrackRecovery getBacktrackRecovery() { return backtrackRecovery; }
     public AutoStashSystem getAutoStash() { return autoStash; }
     public CrisisMode getCrisisMode() { return crisisMode; }
+    public SessionRecorder getRecorder() { return recorder; }
     
     public boolean isFallDamageProtectionEnabled() {
         return fallDamageProtection;
     }
     
+    /**
+     * Flush background work (stash journal, terrain workers, nether network) and close the metrics
+     * endpoint when the client is stopping
+     */
+    public void shutdown() {
+        // Flush the buffered ticks and finish the gzip stream, or replay reports the file as truncated
+        try {
+            recorder.stop();
+        } catch (IOException e) {
+            System.err.println("[EscapeMod] Could not finish session recording: " + e.getMessage());
+        }
+        MetricsServer.get().stop();
+        autoStash.shutdown();
+        navigator.shutdown();
+        netherNavigator.shutdown();
+    }
+    
     public void clearPathHistory() {
         pathHistory.clear();
+        PathOverlay.get().clear(PathOverlay.Layer.TRAIL);
     }
     
+    /**
+     * Points kept in the simplified trail
+     */
     public int getPathHistorySize() {
         return pathHistory.size();
     }
+    
+    /**
+     * Positions recorded into the trail since it was last cleared
+     */
+    public long getPathHistoryRecorded() {
+        return pathHistory.getRecorded();
+    }
 }
\ No newline at end of file
@@ -2,15 +2,26 @@ package com.escapemod;
 
 import com.escapemod.assistant.AnarchyAssistant;
 import com.escapemod.commands.CommandManager;
+import com.escapemod.events.WorldEventBus;
+import com.escapemod.rendering.PathOverlay;
+import com.escapemod.rendering.VisualBudget;
+import com.escapemod.utils.MetricsServer;
+import com.escapemod.utils.WorldIdentity;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientChunkEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
 import net.fabricmc.fabric.api.client.message.v1.ClientSendMessageEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderEvents;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
 import net.minecraft.text.Text;
 import org.lwjgl.glfw.GLFW;
 
+import java.io.IOException;
+
 public class EscapeModClient implements ClientModInitializer {
     private static KeyBinding escapeKey;
     private static KeyBinding assistantKey;
@@ -41,6 +52,16 @@ public class EscapeModClient implements ClientModInitializer {
         anarchyAssistant = new AnarchyAssistant();
         commandManager = new CommandManager(escapeBot, anarchyAssistant);
 
+        // Metrics endpoint for dashboards when launched with -Descapemod.metrics.port; % metrics starts it later
+        Integer metricsPort = Integer.getInteger(MetricsServer.PORT_PROPERTY);
+        if (metricsPort != null) {
+            try {
+                MetricsServer.get().start(metricsPort, escapeBot);
+            } catch (IOException e) {
+                System.err.println("[EscapeMod] Could not start metrics endpoint on port " + metricsPort + ": " + e.getMessage());
+            }
+        }
+
         // Register chat command interceptor
         ClientSendMessageEvents.ALLOW_CHAT.register((message) -> {
             if (commandManager.handleCommand(message)) {
@@ -62,11 +83,31 @@ public class EscapeModClient implements ClientModInitializer {
                     anarchyAssistant.analyzeAndAdvise();
                 }
 
-                // Update the bot
+                // Publish inventory, health and dimension changes, then update the bot
+                WorldEventBus.get().pollPlayerState(client);
                 escapeBot.tick(client);
+                commandManager.tick(client);
             }
         });
         
+        // Chunk events go through the world event bus; subscribers register in EscapeBot
+        ClientChunkEvents.CHUNK_LOAD.register((world, chunk) -> WorldEventBus.get().publishChunkLoad(world, chunk));
+        ClientChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> WorldEventBus.get().publishChunkUnload(world, chunk));
+        WorldEventBus.get().onBlockChange((pos, oldState, newState) -> anarchyAssistant.onBlockChange(pos));
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> WorldIdentity.clear());
+        
+        // Path lines are drawn from uploaded buffers in the world render pass; particles are
+        // culled against the frame's frustum
+        WorldRenderEvents.AFTER_SETUP.register(context -> VisualBudget.get().updateView(context));
+        WorldRenderEvents.LAST.register(context -> PathOverlay.get().render(context));
+        
+        // Flush background writers before the client exits
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> {
+            escapeBot.shutdown();
+            anarchyAssistant.shutdown();
+            PathOverlay.get().close();
+        });
+        
         // Send welcome message once per world join
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
             if (client.player != null && client.world != null) {
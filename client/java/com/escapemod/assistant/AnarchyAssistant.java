@@ -3,133 +3,312 @@ package com.escapemod.assistant;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.text.Text;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.World;
 import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.PlayerEntity;
 
+import com.escapemod.utils.SystemProfiler;
+import com.escapemod.utils.WorldIdentity;
+import com.escapemod.world.ClientWorldView;
+import com.escapemod.world.WorldView;
+
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Anarchy Assistant - Situation advice on F9 or % assistant
+ * The client thread only captures a snapshot (player state, an inventory tally and, for a new area
+ * scan, copies of the chunks around the player) and returns; the area, inventory and threat analyses then run at the same
+ * time on worker threads, and each advice section is posted to chat as soon as the analyses it
+ * needs are done. The area scan is the slow one, so it is kept and reused for presses at the same
+ * spot until a block inside it changes or it goes stale
+ */
 public class AnarchyAssistant {
+    private static final int AREA_RADIUS = 20;
+    private static final int AREA_HEIGHT = 10;
+    private static final int CHUNK_SPAN = ((AREA_RADIUS * 2) >> 4) + 2; // Chunks per side the scan can touch
+    private static final double REUSE_DISTANCE = 4.0;                   // Blocks from the cached scan's centre
+    private static final long AREA_TTL_MS = 60000;
+    private static final SystemProfiler.Section AREA_PROFILE = SystemProfiler.get().section("assistant.area");
+    
     private MinecraftClient client;
+    private final ClientWorldView worldView;
+    private final ExecutorService workers;
+    
+    // Last area scan, finished or still running; dropped when a block inside it changes
+    private volatile CachedArea cachedArea = null;
+    
+    private record CachedArea(String worldKey, BlockPos center, long startedAt, CompletableFuture<AreaAnalysis> result) {
+        boolean covers(BlockPos pos) {
+            return Math.abs(pos.getX() - center.getX()) <= AREA_RADIUS
+                && Math.abs(pos.getZ() - center.getZ()) <= AREA_RADIUS
+                && Math.abs(pos.getY() - center.getY()) <= AREA_HEIGHT;
+        }
+    }
+    
+    /**
+     * Everything the analyses read, captured on the client thread
+     */
+    private record Snapshot(BlockPos playerPos, String biome,
+                            Map<Item, Integer> items, int nearbyPlayers, long timeOfDay, float health, int foodLevel) {
+        int count(Item item) {
+            return items.getOrDefault(item, 0);
+        }
+    }
+    
+    /**
+     * The chunks an area scan reads, copied on the client thread (see ClientWorldView.snapshotChunk)
+     * and null where nothing is loaded
+     */
+    private record AreaChunks(WorldView[] chunks, int minChunkX, int minChunkZ) {
+        WorldView chunkAt(int x, int z) {
+            int i = (x >> 4) - minChunkX;
+            int j = (z >> 4) - minChunkZ;
+            if (i < 0 || j < 0 || i >= CHUNK_SPAN || j >= CHUNK_SPAN) return null;
+            return chunks[j * CHUNK_SPAN + i];
+        }
+    }
     
     public AnarchyAssistant() {
         this.client = MinecraftClient.getInstance();
+        this.worldView = new ClientWorldView(client);
+        this.workers = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "EscapeMod-Assistant");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     
+    /**
+     * Start an analysis and return at once; advice arrives in chat as it is ready
+     */
     public void analyzeAndAdvise() {
         if (client.player == null || client.world == null) return;
         
-        client.player.sendMessage(Text.literal("§6[Anarchy Assistant] Analyzing area..."), false);
+        Snapshot snapshot = capture();
+        String worldKey = WorldIdentity.worldKey(client);
+        long now = System.currentTimeMillis();
         
-        // Perform comprehensive analysis
-        AreaAnalysis analysis = analyzeArea();
-        InventoryAnalysis inventory = analyzeInventory();
-        ThreatAnalysis threats = analyzeThreat();
+        // Reuse the last area scan (even one still running) when standing where it was taken;
+        // only a new scan copies the chunks around the player
+        CachedArea cached = cachedArea;
+        boolean reused = cached != null && cached.worldKey().equals(worldKey)
+            && now - cached.startedAt() < AREA_TTL_MS
+            && !cached.result().isCompletedExceptionally()
+            && cached.center().getSquaredDistance(snapshot.playerPos()) <= REUSE_DISTANCE * REUSE_DISTANCE;
+        CompletableFuture<AreaAnalysis> area;
+        if (reused) {
+            area = cached.result();
+        } else {
+            AreaChunks chunks = captureArea(snapshot.playerPos());
+            area = CompletableFuture.supplyAsync(() -> analyzeArea(snapshot, chunks), workers);
+            cachedArea = new CachedArea(worldKey, snapshot.playerPos(), now, area);
+        }
+        
+        String status = reused
+            ? String.format("§6[Anarchy Assistant] Analyzing... §7(area scan from %ds ago)", (now - cached.startedAt()) / 1000)
+            : "§6[Anarchy Assistant] Analyzing area...";
+        client.player.sendMessage(Text.literal(status), false);
         
-        // Generate advice based on analysis
-        generateAdvice(analysis, inventory, threats);
+        CompletableFuture<InventoryAnalysis> inventory = CompletableFuture.supplyAsync(() -> analyzeInventory(snapshot), workers);
+        CompletableFuture<ThreatAnalysis> threats = CompletableFuture.supplyAsync(() -> analyzeThreat(snapshot), workers);
+        
+        // Each section is posted once the analyses it needs are done
+        AtomicInteger tips = new AtomicInteger();
+        CompletableFuture<Void> urgent = threats.thenAccept(t -> post(threatAdvice(t), tips));
+        CompletableFuture<Void> equipment = inventory.thenAccept(i -> post(equipmentAdvice(i), tips));
+        CompletableFuture<Void> surroundings = area.thenAccept(a -> post(areaAdvice(a), tips));
+        CompletableFuture<Void> supplies = inventory.thenAcceptBoth(area, (i, a) -> post(supplyAdvice(i, a), tips));
+        CompletableFuture<Void> night = threats.thenAcceptBoth(inventory, (t, i) -> post(nightAdvice(t, i), tips));
+        
+        CompletableFuture.allOf(urgent, equipment, surroundings, supplies, night).whenComplete((done, error) -> {
+            List<String> closing = new ArrayList<>();
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                closing.add("§c[Anarchy Assistant] Analysis failed: " + cause.getMessage());
+            } else {
+                if (tips.get() == 0) {
+                    closing.add("§a[Anarchy Assistant] You're doing well! Keep up the good work!");
+                }
+                closing.add(summary(area.join(), threats.join()));
+            }
+            post(closing, null);
+        });
+    }
+    
+    /**
+     * Called for every block change; drops the cached area scan if the block is inside it
+     */
+    public void onBlockChange(BlockPos pos) {
+        CachedArea cached = cachedArea;
+        if (cached != null && cached.covers(pos)) {
+            cachedArea = null;
+        }
+    }
+    
+    public void shutdown() {
+        workers.shutdownNow();
     }
     
-    private AreaAnalysis analyzeArea() {
-        AreaAnalysis analysis = new AreaAnalysis();
+    /**
+     * Copy what the inventory and threat analyses read; client thread only
+     */
+    private Snapshot capture() {
         ClientPlayerEntity player = client.player;
-        World world = client.world;
         BlockPos playerPos = player.getBlockPos();
         
-        // Check spawn distance
-        BlockPos spawnPos = new BlockPos(0, 0, 0); // Approximate spawn
-        analysis.distanceFromSpawn = Math.sqrt(playerPos.getSquaredDistance(spawnPos));
+        // One pass over the inventory instead of one per item asked about
+        Map<Item, Integer> items = new HashMap<>();
+        PlayerInventory inventory = player.getInventory();
+        for (int i = 0; i < inventory.size(); i++) {
+            ItemStack stack = inventory.getStack(i);
+            if (!stack.isEmpty()) {
+                items.merge(stack.getItem(), stack.getCount(), Integer::sum);
+            }
+        }
         
-        // Scan surrounding area
-        int waterBlocks = 0, lavaBlocks = 0, oreBlocks = 0, structureBlocks = 0;
-        int foodSources = 0, shelterMaterials = 0;
+        int nearbyPlayers = client.world.getEntitiesByClass(
+            PlayerEntity.class, 
+            player.getBoundingBox().expand(50), 
+            p -> p != player
+        ).size();
         
-        for (int x = -20; x <= 20; x++) {
-            for (int z = -20; z <= 20; z++) {
-                for (int y = -10; y <= 10; y++) {
-                    BlockPos checkPos = playerPos.add(x, y, z);
-                    Block block = world.getBlockState(checkPos).getBlock();
+        return new Snapshot(playerPos, client.world.getBiome(playerPos).getIdAsString(),
+            items, nearbyPlayers, client.world.getTimeOfDay(), player.getHealth(), player.getHungerManager().getFoodLevel());
+    }
+    
+    /**
+     * Copy the chunks an area scan around center reads; client thread only. Each copy is the
+     * chunk's section palettes, so the per-block reads happen on the worker
+     */
+    private AreaChunks captureArea(BlockPos center) {
+        int minChunkX = (center.getX() - AREA_RADIUS) >> 4;
+        int minChunkZ = (center.getZ() - AREA_RADIUS) >> 4;
+        WorldView[] chunks = new WorldView[CHUNK_SPAN * CHUNK_SPAN];
+        for (int j = 0; j < CHUNK_SPAN; j++) {
+            for (int i = 0; i < CHUNK_SPAN; i++) {
+                chunks[j * CHUNK_SPAN + i] = worldView.snapshotChunk(minChunkX + i, minChunkZ + j);
+            }
+        }
+        return new AreaChunks(chunks, minChunkX, minChunkZ);
+    }
+    
+    /**
+     * Send lines to chat from any thread; tips, if given, counts them toward "doing well"
+     */
+    private void post(List<String> lines, AtomicInteger tips) {
+        if (lines.isEmpty()) return;
+        if (tips != null) tips.addAndGet(lines.size());
+        client.execute(() -> {
+            if (client.player == null) return;
+            for (String line : lines) {
+                client.player.sendMessage(Text.literal(line), false);
+            }
+        });
+    }
+    
+    private AreaAnalysis analyzeArea(Snapshot snapshot, AreaChunks chunks) {
+        try (var scope = AREA_PROFILE.time()) {
+            AreaAnalysis analysis = new AreaAnalysis();
+            BlockPos playerPos = snapshot.playerPos();
+            
+            // Check spawn distance
+            BlockPos spawnPos = new BlockPos(0, 0, 0); // Approximate spawn
+            analysis.distanceFromSpawn = Math.sqrt(playerPos.getSquaredDistance(spawnPos));
+            
+            // Scan surrounding area
+            int waterBlocks = 0, lavaBlocks = 0, oreBlocks = 0, structureBlocks = 0;
+            int foodSources = 0, shelterMaterials = 0;
+            BlockPos.Mutable checkPos = new BlockPos.Mutable();
+            
+            for (int x = -AREA_RADIUS; x <= AREA_RADIUS; x++) {
+                for (int z = -AREA_RADIUS; z <= AREA_RADIUS; z++) {
+                    WorldView chunk = chunks.chunkAt(playerPos.getX() + x, playerPos.getZ() + z);
+                    if (chunk == null) continue; // Not loaded; nothing to count
                     
-                    // Count resources
-                    if (block.equals(Blocks.WATER)) waterBlocks++;
-                    else if (block.equals(Blocks.LAVA)) lavaBlocks++;
-                    else if (isOreBlock(block)) oreBlocks++;
-                    else if (isStructureBlock(block)) structureBlocks++;
-                    else if (isFoodSource(block)) foodSources++;
-                    else if (isShelterMaterial(block)) shelterMaterials++;
+                    for (int y = -AREA_HEIGHT; y <= AREA_HEIGHT; y++) {
+                        checkPos.set(playerPos.getX() + x, playerPos.getY() + y, playerPos.getZ() + z);
+                        Block block = chunk.getBlockState(checkPos).getBlock();
+                        
+                        // Count resources
+                        if (block.equals(Blocks.WATER)) waterBlocks++;
+                        else if (block.equals(Blocks.LAVA)) lavaBlocks++;
+                        else if (isOreBlock(block)) oreBlocks++;
+                        else if (isStructureBlock(block)) structureBlocks++;
+                        else if (isFoodSource(block)) foodSources++;
+                        else if (isShelterMaterial(block)) shelterMaterials++;
+                    }
                 }
             }
+            
+            analysis.hasWaterNearby = waterBlocks > 5;
+            analysis.hasLavaNearby = lavaBlocks > 0;
+            analysis.oreCount = oreBlocks;
+            analysis.hasStructures = structureBlocks > 10;
+            analysis.foodSources = foodSources;
+            analysis.shelterMaterials = shelterMaterials;
+            
+            // Check biome and terrain
+            analysis.biome = snapshot.biome();
+            analysis.elevation = playerPos.getY();
+            
+            return analysis;
         }
-        
-        analysis.hasWaterNearby = waterBlocks > 5;
-        analysis.hasLavaNearby = lavaBlocks > 0;
-        analysis.oreCount = oreBlocks;
-        analysis.hasStructures = structureBlocks > 10;
-        analysis.foodSources = foodSources;
-        analysis.shelterMaterials = shelterMaterials;
-        
-        // Check biome and terrain
-        analysis.biome = world.getBiome(playerPos).getIdAsString();
-        analysis.elevation = playerPos.getY();
-        
-        return analysis;
     }
     
-    private InventoryAnalysis analyzeInventory() {
+    private InventoryAnalysis analyzeInventory(Snapshot snapshot) {
         InventoryAnalysis analysis = new InventoryAnalysis();
-        PlayerInventory inventory = client.player.getInventory();
         
         // Count essential items
-        analysis.foodCount = countItem(inventory, Items.BREAD) + countItem(inventory, Items.COOKED_BEEF) + 
-                           countItem(inventory, Items.COOKED_PORKCHOP) + countItem(inventory, Items.APPLE);
+        analysis.foodCount = snapshot.count(Items.BREAD) + snapshot.count(Items.COOKED_BEEF) + 
+                           snapshot.count(Items.COOKED_PORKCHOP) + snapshot.count(Items.APPLE);
         
-        analysis.hasPickaxe = hasAnyPickaxe(inventory);
-        analysis.hasSword = hasAnySword(inventory);
-        analysis.hasArmor = hasAnyArmor(inventory);
-        analysis.hasBlocks = countItem(inventory, Items.COBBLESTONE) + countItem(inventory, Items.DIRT) > 32;
+        analysis.hasPickaxe = hasAnyPickaxe(snapshot);
+        analysis.hasSword = hasAnySword(snapshot);
+        analysis.hasArmor = hasAnyArmor(snapshot);
+        analysis.hasBlocks = snapshot.count(Items.COBBLESTONE) + snapshot.count(Items.DIRT) > 32;
         
-        analysis.woodCount = countItem(inventory, Items.OAK_LOG) + countItem(inventory, Items.OAK_PLANKS);
-        analysis.coalCount = countItem(inventory, Items.COAL);
-        analysis.ironCount = countItem(inventory, Items.IRON_INGOT);
-        analysis.diamondCount = countItem(inventory, Items.DIAMOND);
+        analysis.woodCount = snapshot.count(Items.OAK_LOG) + snapshot.count(Items.OAK_PLANKS);
+        analysis.coalCount = snapshot.count(Items.COAL);
+        analysis.ironCount = snapshot.count(Items.IRON_INGOT);
+        analysis.diamondCount = snapshot.count(Items.DIAMOND);
         
         return analysis;
     }
     
-    private ThreatAnalysis analyzeThreat() {
+    private ThreatAnalysis analyzeThreat(Snapshot snapshot) {
         ThreatAnalysis analysis = new ThreatAnalysis();
         
         // Check for nearby players
-        List<PlayerEntity> nearbyPlayers = client.world.getEntitiesByClass(
-            PlayerEntity.class, 
-            client.player.getBoundingBox().expand(50), 
-            p -> p != client.player
-        );
-        
-        analysis.nearbyPlayers = nearbyPlayers.size();
-        analysis.isNearSpawn = client.player.getBlockPos().getSquaredDistance(0, 0, 0) < 10000; // Within 100 blocks of spawn
+        analysis.nearbyPlayers = snapshot.nearbyPlayers();
+        analysis.isNearSpawn = snapshot.playerPos().getSquaredDistance(0, 0, 0) < 10000; // Within 100 blocks of spawn
         
         // Check time of day
-        long timeOfDay = client.world.getTimeOfDay() % 24000;
+        long timeOfDay = snapshot.timeOfDay() % 24000;
         analysis.isNight = timeOfDay > 13000 && timeOfDay < 23000;
         
         // Check health and hunger
-        analysis.lowHealth = client.player.getHealth() < 10;
-        analysis.lowHunger = client.player.getHungerManager().getFoodLevel() < 10;
+        analysis.lowHealth = snapshot.health() < 10;
+        analysis.lowHunger = snapshot.foodLevel() < 10;
         
         return analysis;
     }
     
-    private void generateAdvice(AreaAnalysis area, InventoryAnalysis inventory, ThreatAnalysis threats) {
+    // Immediate survival threats and location warnings
+    private List<String> threatAdvice(ThreatAnalysis threats) {
         List<String> advice = new ArrayList<>();
         
-        // Priority 1: Immediate survival threats
         if (threats.lowHealth) {
             advice.add("§c[URGENT] Your health is low! Find food or shelter immediately!");
         }
@@ -137,7 +316,6 @@ public class AnarchyAssistant {
             advice.add("§c[URGENT] You're starving! Find food sources or hunt animals!");
         }
         
-        // Priority 2: Location-based advice
         if (threats.isNearSpawn) {
             advice.add("§e[WARNING] You're near spawn - high PvP risk! Consider escaping to safer areas.");
             if (threats.nearbyPlayers > 0) {
@@ -145,15 +323,13 @@ public class AnarchyAssistant {
             }
         }
         
-        if (area.distanceFromSpawn < 1000) {
-            advice.add("§6[STRATEGY] You're in the spawn region. Priorities: Get basic tools, food, then escape!");
-        } else if (area.distanceFromSpawn < 10000) {
-            advice.add("§6[STRATEGY] You're in the outer spawn area. Focus on gathering resources and building strength.");
-        } else {
-            advice.add("§a[STRATEGY] You're in the wilderness! Good for base building and resource gathering.");
-        }
+        return advice;
+    }
+    
+    // Equipment and long-term planning
+    private List<String> equipmentAdvice(InventoryAnalysis inventory) {
+        List<String> advice = new ArrayList<>();
         
-        // Priority 3: Resource and equipment advice
         if (!inventory.hasPickaxe) {
             advice.add("§e[EQUIPMENT] No pickaxe detected! Craft one ASAP - you need it for mining.");
         }
@@ -164,11 +340,27 @@ public class AnarchyAssistant {
             advice.add("§e[EQUIPMENT] No armor detected! Even leather armor provides protection.");
         }
         
-        if (inventory.foodCount < 5) {
-            advice.add("§e[SURVIVAL] Low food supplies! " + getFoodAdvice(area));
+        if (inventory.diamondCount > 0) {
+            advice.add("§a[PLANNING] You have diamonds! Prioritize diamond pickaxe, then sword, then armor.");
+        } else if (inventory.ironCount > 10) {
+            advice.add("§a[PLANNING] Good iron supplies! Make full iron gear before venturing further.");
+        }
+        
+        return advice;
+    }
+    
+    // Region strategy, hazards, opportunities and elevation
+    private List<String> areaAdvice(AreaAnalysis area) {
+        List<String> advice = new ArrayList<>();
+        
+        if (area.distanceFromSpawn < 1000) {
+            advice.add("§6[STRATEGY] You're in the spawn region. Priorities: Get basic tools, food, then escape!");
+        } else if (area.distanceFromSpawn < 10000) {
+            advice.add("§6[STRATEGY] You're in the outer spawn area. Focus on gathering resources and building strength.");
+        } else {
+            advice.add("§a[STRATEGY] You're in the wilderness! Good for base building and resource gathering.");
         }
         
-        // Priority 4: Area-specific advice
         if (area.hasLavaNearby) {
             advice.add("§c[HAZARD] Lava detected nearby! Be careful and consider using it for smelting.");
         }
@@ -183,37 +375,32 @@ public class AnarchyAssistant {
             advice.add("§a[OPPORTUNITY] Structures detected! Explore for loot but watch for traps.");
         }
         
-        // Priority 5: Strategic advice
-        if (threats.isNight && !inventory.hasBlocks) {
-            advice.add("§e[STRATEGY] It's night and you have no blocks! Find shelter or dig underground.");
-        }
-        
         if (area.elevation < 20) {
             advice.add("§6[STRATEGY] You're at low elevation - good for mining but watch for caves.");
         } else if (area.elevation > 100) {
             advice.add("§6[STRATEGY] You're at high elevation - good visibility but exposed to players.");
         }
         
-        // Priority 6: Long-term planning
-        if (inventory.diamondCount > 0) {
-            advice.add("§a[PLANNING] You have diamonds! Prioritize diamond pickaxe, then sword, then armor.");
-        } else if (inventory.ironCount > 10) {
-            advice.add("§a[PLANNING] Good iron supplies! Make full iron gear before venturing further.");
+        return advice;
+    }
+    
+    private List<String> supplyAdvice(InventoryAnalysis inventory, AreaAnalysis area) {
+        if (inventory.foodCount < 5) {
+            return List.of("§e[SURVIVAL] Low food supplies! " + getFoodAdvice(area));
         }
-        
-        // Send all advice
-        if (advice.isEmpty()) {
-            client.player.sendMessage(Text.literal("§a[Anarchy Assistant] You're doing well! Keep up the good work!"), false);
-        } else {
-            for (String tip : advice) {
-                client.player.sendMessage(Text.literal(tip), false);
-            }
+        return List.of();
+    }
+    
+    private List<String> nightAdvice(ThreatAnalysis threats, InventoryAnalysis inventory) {
+        if (threats.isNight && !inventory.hasBlocks) {
+            return List.of("§e[STRATEGY] It's night and you have no blocks! Find shelter or dig underground.");
         }
-        
-        // Final summary
-        String summary = String.format("§7[Summary] Distance from spawn: %.0f blocks | Players nearby: %d | Threat level: %s", 
+        return List.of();
+    }
+    
+    private String summary(AreaAnalysis area, ThreatAnalysis threats) {
+        return String.format("§7[Summary] Distance from spawn: %.0f blocks | Players nearby: %d | Threat level: %s", 
             area.distanceFromSpawn, threats.nearbyPlayers, getThreatLevel(threats));
-        client.player.sendMessage(Text.literal(summary), false);
     }
     
     private String getFoodAdvice(AreaAnalysis area) {
@@ -254,37 +441,27 @@ public class AnarchyAssistant {
                block.equals(Blocks.COBBLESTONE) || block.equals(Blocks.DIRT);
     }
     
-    private int countItem(PlayerInventory inventory, net.minecraft.item.Item item) {
-        int count = 0;
-        for (int i = 0; i < inventory.size(); i++) {
-            if (inventory.getStack(i).getItem().equals(item)) {
-                count += inventory.getStack(i).getCount();
-            }
-        }
-        return count;
-    }
-    
-    private boolean hasAnyPickaxe(PlayerInventory inventory) {
-        return countItem(inventory, Items.WOODEN_PICKAXE) > 0 ||
-               countItem(inventory, Items.STONE_PICKAXE) > 0 ||
-               countItem(inventory, Items.IRON_PICKAXE) > 0 ||
-               countItem(inventory, Items.DIAMOND_PICKAXE) > 0;
+    private boolean hasAnyPickaxe(Snapshot snapshot) {
+        return snapshot.count(Items.WOODEN_PICKAXE) > 0 ||
+               snapshot.count(Items.STONE_PICKAXE) > 0 ||
+               snapshot.count(Items.IRON_PICKAXE) > 0 ||
+               snapshot.count(Items.DIAMOND_PICKAXE) > 0;
     }
     
-    private boolean hasAnySword(PlayerInventory inventory) {
-        return countItem(inventory, Items.WOODEN_SWORD) > 0 ||
-               countItem(inventory, Items.STONE_SWORD) > 0 ||
-               countItem(inventory, Items.IRON_SWORD) > 0 ||
-               countItem(inventory, Items.DIAMOND_SWORD) > 0;
+    private boolean hasAnySword(Snapshot snapshot) {
+        return snapshot.count(Items.WOODEN_SWORD) > 0 ||
+               snapshot.count(Items.STONE_SWORD) > 0 ||
+               snapshot.count(Items.IRON_SWORD) > 0 ||
+               snapshot.count(Items.DIAMOND_SWORD) > 0;
     }
     
-    private boolean hasAnyArmor(PlayerInventory inventory) {
-        return countItem(inventory, Items.LEATHER_HELMET) > 0 ||
-               countItem(inventory, Items.LEATHER_CHESTPLATE) > 0 ||
-               countItem(inventory, Items.IRON_HELMET) > 0 ||
-               countItem(inventory, Items.IRON_CHESTPLATE) > 0 ||
-               countItem(inventory, Items.DIAMOND_HELMET) > 0 ||
-               countItem(inventory, Items.DIAMOND_CHESTPLATE) > 0;
+    private boolean hasAnyArmor(Snapshot snapshot) {
+        return snapshot.count(Items.LEATHER_HELMET) > 0 ||
+               snapshot.count(Items.LEATHER_CHESTPLATE) > 0 ||
+               snapshot.count(Items.IRON_HELMET) > 0 ||
+               snapshot.count(Items.IRON_CHESTPLATE) > 0 ||
+               snapshot.count(Items.DIAMOND_HELMET) > 0 ||
+               snapshot.count(Items.DIAMOND_CHESTPLATE) > 0;
     }
     
     // Analysis data classes
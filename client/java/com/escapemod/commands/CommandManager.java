@@ -1,14 +1,40 @@
 package com.escapemod.commands;
 
 import com.escapemod.EscapeBot;
+import com.escapemod.events.WorldEventBus;
 import com.escapemod.assistant.AnarchyAssistant;
+import com.escapemod.rendering.PathOverlay;
+import com.escapemod.rendering.VisualBudget;
+import com.escapemod.utils.BotEvents;
+import com.escapemod.utils.MetricsServer;
+import com.escapemod.utils.SystemProfiler;
+import com.escapemod.world.ClientWorldView;
+import com.escapemod.world.TerrainSnapshot;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
 import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
 
 public class CommandManager {
     private EscapeBot escapeBot;
     private AnarchyAssistant anarchyAssistant;
     
+    // Terrain snapshot being copied a few chunks per tick
+    private TerrainSnapshot.Capture pendingSnapshot = null;
+    private ClientWorld pendingSnapshotWorld = null;
+    private Path pendingSnapshotFile = null;
+    
+    private static final int SNAPSHOT_CHUNKS_PER_TICK = 8;
+    private static final int MAX_SNAPSHOT_RADIUS = 6;
+    
     public CommandManager(EscapeBot escapeBot, AnarchyAssistant anarchyAssistant) {
         this.escapeBot = escapeBot;
         this.anarchyAssistant = anarchyAssistant;
@@ -65,15 +91,24 @@ public class CommandManager {
                             client.player.sendMessage(Text.literal("§a[EscapeMod] Path line " + 
                                 (escapeBot.isShowingPathLine() ? "enabled" : "disabled")), false);
                             break;
+                        case "pathstyle":
+                            handlePathStyle(client, parts.length > 2 ? parts[2].toLowerCase() : "");
+                            break;
+                        case "visuals":
+                            handleVisuals(client, parts.length > 2 ? parts[2] : null);
+                            break;
                         case "fallprotection":
                             escapeBot.setFallDamageProtection(!escapeBot.isFallDamageProtectionEnabled());
                             client.player.sendMessage(Text.literal("§a[EscapeMod] Fall damage protection " + 
                                 (escapeBot.isFallDamageProtectionEnabled() ? "enabled" : "disabled")), false);
                             break;
                         case "clearpath":
+                            int kept = escapeBot.getPathHistorySize();
+                            long recorded = escapeBot.getPathHistoryRecorded();
                             escapeBot.clearPathHistory();
                             escapeBot.getPathfinding().clearPath();
-                            client.player.sendMessage(Text.literal("§a[EscapeMod] Path history cleared"), false);
+                            client.player.sendMessage(Text.literal("§a[EscapeMod] Path history cleared (" + recorded +
+                                " positions kept as " + kept + " trail points)"), false);
                             break;
                         case "progression":
                             showProgressionStatus(client);
@@ -97,11 +132,30 @@ public class CommandManager {
                         case "terrain":
                             showTerrainAnalysis(client);
                             break;
+                        case "snapshot":
+                            saveTerrainSnapshot(client, parts.length > 2 ? parts[2] : null);
+                            break;
+                        case "profile":
+                            handleProfile(client, parts.length > 2 ? parts[2].toLowerCase() : null);
+                            break;
+                        case "record":
+                            handleSessionRecording(client, parts.length > 2 ? parts[2].toLowerCase() : "");
+                            break;
+                        case "jfr":
+                            handleFlightRecording(client, parts.length > 2 ? parts[2].toLowerCase() : "");
+                            break;
+                        case "metrics":
+                            handleMetrics(client, parts.length > 2 ? parts[2].toLowerCase() : "", parts.length > 3 ? parts[3] : null);
+                            break;
                         case "crisis":
                             showCrisisStatus(client);
                             break;
                         case "stash":
-                            showStashInfo(client);
+                            if (parts.length > 2) {
+                                findStashedItem(client, parts[2]);
+                            } else {
+                                showStashInfo(client);
+                            }
                             break;
                         case "nether":
                             showNetherInfo(client);
@@ -148,7 +202,8 @@ public class CommandManager {
         client.player.sendMessage(Text.literal("§7- Particle Trail: " + (escapeBot.isShowingParticleTrail() ? "§aEnabled" : "§cDisabled")), false);
         client.player.sendMessage(Text.literal("§7- Path Line: " + (escapeBot.isShowingPathLine() ? "§aEnabled" : "§cDisabled")), false);
         client.player.sendMessage(Text.literal("§7- Fall Protection: " + (escapeBot.isFallDamageProtectionEnabled() ? "§aEnabled" : "§cDisabled")), false);
-        client.player.sendMessage(Text.literal("§7- Path History: " + escapeBot.getPathHistorySize() + " points"), false);
+        client.player.sendMessage(Text.literal("§7- Path History: " + escapeBot.getPathHistorySize() + " points (from " +
+            escapeBot.getPathHistoryRecorded() + " positions)"), false);
         client.player.sendMessage(Text.literal("§7- Progress Messages: " + (escapeBot.isShowingProgressMessages() ? "§aEnabled" : "§cDisabled")), false);
         client.player.sendMessage(Text.literal("§7- Pathfinding: " + (escapeBot.getPathfinding().isPathfindingEnabled() ? "§aEnabled" : "§cDisabled")), false);
         if (escapeBot.getPathfinding().hasPath()) {
@@ -169,6 +224,18 @@ public class CommandManager {
         
         client.player.sendMessage(Text.literal("§7- Progress: §a" + completedGoals + "§7/§a" + totalGoals + " §7goals completed"), false);
         client.player.sendMessage(Text.literal("§7- Ready for Escape: " + (escapeBot.getProgression().isReadyForEscape() ? "§aYes" : "§cNo")), false);
+        
+        var events = WorldEventBus.get();
+        client.player.sendMessage(Text.literal("§7- World Events: §e" + events.getBlockChanges() + "§7 block changes, §e" +
+            events.getSlotChanges() + "§7 slot changes"), false);
+        
+        var scheduler = escapeBot.getScheduler();
+        client.player.sendMessage(Text.literal("§7- Scheduled Work: §e" + scheduler.getLastTickMicros() + "µs§7 last tick, " +
+            scheduler.getOverBudgetTicks() + " ticks over " + scheduler.getTickBudgetMicros() + "µs"), false);
+        for (var task : scheduler.getTasks()) {
+            client.player.sendMessage(Text.literal(String.format("§7  %s: §e%.0fµs§7 avg, %dµs max, every %d ticks (%d deferred, %d skipped)",
+                task.name, task.getAverageMicros(), task.getMaxMicros(), task.period, task.getDeferrals(), task.getSkips())), false);
+        }
     }
     
     private void showProgressionGoals(MinecraftClient client) {
@@ -248,7 +315,281 @@ public class CommandManager {
                 client.player.sendMessage(Text.literal("§7- Next Waypoint Distance: " + 
                     String.format("%.0f", waypointDistance) + " blocks"), false);
             }
+            
+            var readiness = navigator.getChunkReadiness();
+            client.player.sendMessage(Text.literal("§7- Loaded Ahead: §e" + String.format("%.0f", readiness.getLeadBlocks()) +
+                " blocks §7(changing " + String.format("%+.1f", readiness.getLeadTrend()) + " b/s, speed " +
+                String.format("%.0f", readiness.getSpeedFactor() * 100) + "%)"), false);
+        }
+    }
+    
+    /**
+     * Copy the terrain around the player to escapemod_snapshots/ for the simulator and benchmarks
+     * Chunk palettes are copied a few chunks per tick on the client thread (see tick); flattening
+     * and writing happen off it
+     */
+    private void saveTerrainSnapshot(MinecraftClient client, String radiusArg) {
+        if (pendingSnapshot != null) {
+            client.player.sendMessage(Text.literal("§e[EscapeMod] A terrain snapshot is already being taken"), false);
+            return;
+        }
+        
+        int radius = 4;
+        if (radiusArg != null) {
+            try {
+                radius = Math.max(1, Math.min(MAX_SNAPSHOT_RADIUS, Integer.parseInt(radiusArg)));
+            } catch (NumberFormatException e) {
+                client.player.sendMessage(Text.literal("§c[EscapeMod] Usage: % snapshot [radius in chunks, 1-" +
+                    MAX_SNAPSHOT_RADIUS + "]"), false);
+                return;
+            }
+        }
+        
+        BlockPos origin = client.player.getBlockPos();
+        pendingSnapshot = new TerrainSnapshot.Capture(new ClientWorldView(client), origin, radius);
+        pendingSnapshotWorld = client.world;
+        pendingSnapshotFile = Path.of("escapemod_snapshots", client.world.getRegistryKey().getValue().getPath() +
+            "_" + origin.getX() + "_" + origin.getZ() + ".ets");
+        client.player.sendMessage(Text.literal("§7[EscapeMod] Taking terrain snapshot (" +
+            pendingSnapshot.getChunkCount() + " chunks)..."), false);
+    }
+    
+    /**
+     * Copy the next chunks of a pending terrain snapshot; once all are copied, build and write it off-thread
+     */
+    public void tick(MinecraftClient client) {
+        if (pendingSnapshot == null) return;
+        
+        if (client.world != pendingSnapshotWorld) {
+            pendingSnapshot = null;
+            pendingSnapshotWorld = null;
+            if (client.player != null) {
+                client.player.sendMessage(Text.literal("§c[EscapeMod] Terrain snapshot cancelled: world changed"), false);
+            }
+            return;
         }
+        if (!pendingSnapshot.step(new ClientWorldView(client), SNAPSHOT_CHUNKS_PER_TICK)) return;
+        
+        TerrainSnapshot.Capture capture = pendingSnapshot;
+        Path file = pendingSnapshotFile;
+        pendingSnapshot = null;
+        pendingSnapshotWorld = null;
+        
+        Thread writer = new Thread(() -> {
+            String result;
+            try {
+                TerrainSnapshot snapshot = capture.build();
+                snapshot.write(file);
+                result = "§a[EscapeMod] Terrain snapshot saved: " + file + " (" + snapshot.getPaletteSize() + " block states)";
+            } catch (IOException e) {
+                result = "§c[EscapeMod] Could not save snapshot: " + e.getMessage();
+            }
+            String message = result;
+            client.execute(() -> {
+                if (client.player != null) client.player.sendMessage(Text.literal(message), false);
+            });
+        }, "EscapeMod-SnapshotWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    private void handleProfile(MinecraftClient client, String action) {
+        SystemProfiler profiler = SystemProfiler.get();
+        if ("reset".equals(action)) {
+            profiler.reset();
+            client.player.sendMessage(Text.literal("§a[EscapeMod] Profiler samples cleared"), false);
+            return;
+        }
+        if ("on".equals(action) || "off".equals(action)) {
+            profiler.setEnabled("on".equals(action));
+            client.player.sendMessage(Text.literal("§a[EscapeMod] Profiler " + (profiler.isEnabled() ? "enabled" : "disabled")), false);
+            return;
+        }
+        
+        var stats = profiler.snapshot();
+        if (stats.isEmpty()) {
+            client.player.sendMessage(Text.literal("§e[EscapeMod] No profiler samples yet" +
+                (profiler.isEnabled() ? "" : " (profiler is off, use % profile on)")), false);
+            return;
+        }
+        
+        client.player.sendMessage(Text.literal("§e[EscapeMod] Profile (µs p50/p99/max" +
+            (profiler.isTrackingAllocations() ? ", alloc KB p50/p99/max" : "") + "), slowest p99 first:"), false);
+        for (SystemProfiler.Stats section : stats) {
+            String line = String.format("§7- §f%s §7x%d: %s/%s/%s", section.name(), section.calls(),
+                micros(section.p50Nanos()), micros(section.p99Nanos()), micros(section.maxNanos()));
+            if (profiler.isTrackingAllocations()) {
+                line += String.format(" §8| %s/%s/%s", kilobytes(section.p50Bytes()),
+                    kilobytes(section.p99Bytes()), kilobytes(section.maxBytes()));
+            }
+            client.player.sendMessage(Text.literal(line), false);
+        }
+    }
+    
+    /**
+     * Start, dump or stop a JFR recording that carries the bot's own events next to JVM data
+     * Dumping writes a file, so it happens on its own thread like snapshot saving
+     */
+    private void handleFlightRecording(MinecraftClient client, String action) {
+        switch (action) {
+            case "start":
+                try {
+                    if (BotEvents.startRecording()) {
+                        client.player.sendMessage(Text.literal("§a[EscapeMod] Flight recording started, use % jfr dump to save it"), false);
+                    } else {
+                        client.player.sendMessage(Text.literal("§e[EscapeMod] A flight recording is already running"), false);
+                    }
+                } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+                    client.player.sendMessage(Text.literal("§c[EscapeMod] Could not start flight recording: " + e.getMessage()), false);
+                }
+                break;
+            case "dump":
+                if (!BotEvents.isRecording()) {
+                    client.player.sendMessage(Text.literal("§c[EscapeMod] No flight recording running, use % jfr start"), false);
+                    break;
+                }
+                Thread writer = new Thread(() -> {
+                    String result;
+                    try {
+                        Path file = BotEvents.dumpRecording();
+                        result = file != null ? "§a[EscapeMod] Flight recording saved: " + file
+                            : "§c[EscapeMod] Flight recording was stopped before it could be saved";
+                    } catch (IOException e) {
+                        result = "§c[EscapeMod] Could not save flight recording: " + e.getMessage();
+                    }
+                    String message = result;
+                    client.execute(() -> {
+                        if (client.player != null) client.player.sendMessage(Text.literal(message), false);
+                    });
+                }, "EscapeMod-RecordingWriter");
+                writer.setDaemon(true);
+                writer.start();
+                break;
+            case "stop":
+                client.player.sendMessage(Text.literal(BotEvents.stopRecording() ?
+                    "§e[EscapeMod] Flight recording stopped and discarded" : "§c[EscapeMod] No flight recording running"), false);
+                break;
+            default:
+                client.player.sendMessage(Text.literal("§e[EscapeMod] Usage: % jfr start|dump|stop" +
+                    (BotEvents.isRecording() ? " §7(recording)" : "")), false);
+        }
+    }
+    
+    /**
+     * Start or stop the per-tick session recording that SessionReplay runs offline
+     */
+    private void handleSessionRecording(MinecraftClient client, String action) {
+        var recorder = escapeBot.getRecorder();
+        try {
+            switch (action) {
+                case "start":
+                    if (recorder.isRecording()) {
+                        client.player.sendMessage(Text.literal("§e[EscapeMod] Already recording to " + recorder.getFile()), false);
+                    } else {
+                        client.player.sendMessage(Text.literal("§a[EscapeMod] Recording session to " + recorder.start()), false);
+                    }
+                    break;
+                case "stop":
+                    if (!recorder.isRecording()) {
+                        client.player.sendMessage(Text.literal("§c[EscapeMod] No session recording running"), false);
+                        break;
+                    }
+                    long ticks = recorder.getTicksRecorded();
+                    long dropped = recorder.getDroppedTicks();
+                    Path file = recorder.stop();
+                    client.player.sendMessage(Text.literal("§a[EscapeMod] Session saved: " + file + " (" + ticks + " ticks" +
+                        (dropped > 0 ? ", " + dropped + " dropped" : "") + ")"), false);
+                    break;
+                default:
+                    if (recorder.isRecording()) {
+                        client.player.sendMessage(Text.literal(String.format("§e[EscapeMod] Recording: %d ticks, %d KB, %d dropped, %d KB queued",
+                            recorder.getTicksRecorded(), recorder.getBytesWritten() / 1024, recorder.getDroppedTicks(),
+                            recorder.getQueuedBytes() / 1024)), false);
+                    }
+                    client.player.sendMessage(Text.literal("§e[EscapeMod] Usage: % record start|stop"), false);
+            }
+        } catch (IOException e) {
+            client.player.sendMessage(Text.literal("§c[EscapeMod] Session recording failed: " + e.getMessage()), false);
+        }
+    }
+    
+    /**
+     * Switch path, line and trail drawing between render-pass lines and tick-time particles
+     */
+    private void handlePathStyle(MinecraftClient client, String style) {
+        PathOverlay overlay = PathOverlay.get();
+        switch (style) {
+            case "lines":
+            case "particles":
+                overlay.setParticleMode(style.equals("particles"));
+                client.player.sendMessage(Text.literal("§a[EscapeMod] Paths drawn as " + style), false);
+                break;
+            default:
+                client.player.sendMessage(Text.literal("§e[EscapeMod] Usage: % pathstyle lines|particles §7(now " +
+                    (overlay.isParticleMode() ? "particles" : "lines") + ")"), false);
+        }
+    }
+    
+    /**
+     * Show what the particle budget let through, or set particles allowed per tick
+     */
+    private void handleVisuals(MinecraftClient client, String budgetArg) {
+        VisualBudget budget = VisualBudget.get();
+        if (budgetArg != null) {
+            try {
+                budget.setBudgetPerTick(Integer.parseInt(budgetArg));
+                client.player.sendMessage(Text.literal("§a[EscapeMod] Particle budget set to " + budget.getBudgetPerTick() + " per tick"), false);
+            } catch (NumberFormatException e) {
+                client.player.sendMessage(Text.literal("§c[EscapeMod] Usage: % visuals [particles per tick]"), false);
+            }
+            return;
+        }
+        client.player.sendMessage(Text.literal(String.format("§e[EscapeMod] Particles: budget %d/tick, %d spawned, %d off-screen, %d thinned by distance, %d over budget",
+            budget.getBudgetPerTick(), budget.getSpawned(), budget.getCulled(), budget.getThinned(), budget.getOverBudget())), false);
+    }
+    
+    /**
+     * Start or stop the localhost Prometheus endpoint
+     */
+    private void handleMetrics(MinecraftClient client, String action, String portArg) {
+        MetricsServer server = MetricsServer.get();
+        switch (action) {
+            case "start":
+                int port = MetricsServer.DEFAULT_PORT;
+                if (portArg != null) {
+                    try {
+                        port = Integer.parseInt(portArg);
+                    } catch (NumberFormatException e) {
+                        client.player.sendMessage(Text.literal("§c[EscapeMod] Invalid port: " + portArg), false);
+                        break;
+                    }
+                }
+                try {
+                    if (server.start(port, escapeBot)) {
+                        client.player.sendMessage(Text.literal("§a[EscapeMod] Metrics at http://127.0.0.1:" + server.getPort() + "/metrics"), false);
+                    } else {
+                        client.player.sendMessage(Text.literal("§e[EscapeMod] Metrics already served on port " + server.getPort()), false);
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    client.player.sendMessage(Text.literal("§c[EscapeMod] Could not start metrics on port " + port + ": " + e.getMessage()), false);
+                }
+                break;
+            case "stop":
+                client.player.sendMessage(Text.literal(server.stop() ?
+                    "§e[EscapeMod] Metrics endpoint stopped" : "§c[EscapeMod] Metrics endpoint not running"), false);
+                break;
+            default:
+                client.player.sendMessage(Text.literal("§e[EscapeMod] Usage: % metrics start [port]|stop" +
+                    (server.isRunning() ? " §7(serving on port " + server.getPort() + ")" : "")), false);
+        }
+    }
+    
+    private static String micros(long nanos) {
+        return nanos >= 10_000 ? String.valueOf(nanos / 1000) : String.format("%.1f", nanos / 1000.0);
+    }
+    
+    private static String kilobytes(long bytes) {
+        return bytes >= 10_240 ? String.valueOf(bytes / 1024) : String.format("%.1f", bytes / 1024.0);
     }
     
     private String getDirectionName(Vec3d direction) {
@@ -313,7 +654,9 @@ public class CommandManager {
         }
         
         // Show nearest stash
-        if (client.player != null && !stashes.isEmpty()) {
+        if (client.player != null) {
+            client.player.sendMessage(Text.literal("§7- Stashes Here: §e" + autoStash.getLocalStashCount() + " §7(this server and dimension)"), false);
+            
             var nearest = autoStash.findNearestStash(client.player.getBlockPos());
             if (nearest != null) {
                 double distance = Math.sqrt(nearest.position.getSquaredDistance(client.player.getBlockPos()));
@@ -322,6 +665,26 @@ public class CommandManager {
         }
     }
     
+    private void findStashedItem(MinecraftClient client, String itemName) {
+        Identifier id = Identifier.tryParse(itemName.contains(":") ? itemName : "minecraft:" + itemName);
+        if (id == null || !Registries.ITEM.containsId(id)) {
+            client.player.sendMessage(Text.literal("§c[EscapeMod] Unknown item: " + itemName), false);
+            return;
+        }
+        
+        Item item = Registries.ITEM.get(id);
+        var holders = escapeBot.getAutoStash().findStashesWithItem(item, client.player.getBlockPos());
+        
+        client.player.sendMessage(Text.literal("§e[EscapeMod] Stashes holding " + id.getPath() + ": §f" + holders.size()), false);
+        for (int i = 0; i < holders.size() && i < 5; i++) {
+            var stash = holders.get(i);
+            double distance = Math.sqrt(stash.position.getSquaredDistance(client.player.getBlockPos()));
+            client.player.sendMessage(Text.literal("§7  " + (i + 1) + ". " + stash.countOf(item) + "x at " + 
+                stash.position.getX() + ", " + stash.position.getY() + ", " + stash.position.getZ() + 
+                " §8(" + String.format("%.0f", distance) + " blocks)"), false);
+        }
+    }
+    
     private void showNetherInfo(MinecraftClient client) {
         var netherNav = escapeBot.getNetherNavigator();
         
@@ -330,6 +693,8 @@ public class CommandManager {
         
         var highways = netherNav.getDetectedHighways();
         client.player.sendMessage(Text.literal("§7- Detected Highways: §e" + highways.size()), false);
+        client.player.sendMessage(Text.literal("§7- Highway Probes: §e" + netherNav.getHighwayDetector().getChunksProbed() +
+            " chunks §7(§e" + netherNav.getHighwayDetector().getPendingCount() + "§7 queued)"), false);
         
         if (!highways.isEmpty()) {
             client.player.sendMessage(Text.literal("§7- Available Highways:"), false);
@@ -348,6 +713,12 @@ public class CommandManager {
             if (finalTarget != null) {
                 boolean shouldUseNether = netherNav.shouldUseNether(currentPos, finalTarget);
                 client.player.sendMessage(Text.literal("§7- Recommend Nether: " + (shouldUseNether ? "§aYes" : "§cNo")), false);
+                
+                var route = netherNav.getRoute(currentPos, finalTarget);
+                if (route != null) {
+                    client.player.sendMessage(Text.literal("§7- Best Route: §e" + String.format("%.0f", route.seconds) + 
+                        "s §7(walking: " + String.format("%.0f", route.directSeconds) + "s)"), false);
+                }
             }
         }
     }
@@ -357,7 +728,8 @@ public class CommandManager {
         
         client.player.sendMessage(Text.literal("§e[EscapeMod] Backtrack Recovery:"), false);
         client.player.sendMessage(Text.literal("§7- Recovery Active: " + (recovery.isRecovering() ? "§cYes" : "§aNo")), false);
-        client.player.sendMessage(Text.literal("§7- Path History Size: §e" + recovery.getPathHistorySize()), false);
+        client.player.sendMessage(Text.literal("§7- Path History Size: §e" + recovery.getPathHistorySize() + "§7/" + recovery.getPathHistoryCapacity() + " blocks"), false);
+        client.player.sendMessage(Text.literal("§7- Safe Points: §e" + recovery.getSafePointCount()), false);
         
         var lastSafe = recovery.getLastSafePosition();
         if (lastSafe != null) {
@@ -417,8 +789,14 @@ public class CommandManager {
         client.player.sendMessage(Text.literal("§e% simple §7- Toggle simple navigation (better performance)"), false);
         client.player.sendMessage(Text.literal("§e% debug §7- Show debug information"), false);
         client.player.sendMessage(Text.literal("§e% terrain §7- Show terrain analysis"), false);
+        client.player.sendMessage(Text.literal("§e% snapshot [radius] §7- Save nearby terrain for offline benchmarks"), false);
+        client.player.sendMessage(Text.literal("§e% profile [reset|on|off] §7- Show per-system timings and allocations"), false);
+        client.player.sendMessage(Text.literal("§e% jfr start|dump|stop §7- Flight recording with bot events"), false);
+        client.player.sendMessage(Text.literal("§e% record start|stop §7- Record the session for offline replay"), false);
+        client.player.sendMessage(Text.literal("§e% metrics start [port]|stop §7- Serve Prometheus metrics on localhost"), false);
         client.player.sendMessage(Text.literal("§e% crisis §7- Show crisis mode status"), false);
         client.player.sendMessage(Text.literal("§e% stash §7- Show auto-stash information"), false);
+        client.player.sendMessage(Text.literal("§e% stash <item> §7- Find stashes holding an item"), false);
         client.player.sendMessage(Text.literal("§e% nether §7- Show nether navigation info"), false);
         client.player.sendMessage(Text.literal("§e% recovery §7- Show backtrack recovery status"), false);
         client.player.sendMessage(Text.literal("§e% baritone §7- Toggle Baritone/Simple pathfinding"), false);
@@ -428,6 +806,8 @@ public class CommandManager {
         client.player.sendMessage(Text.literal("§e% verbose §7- Enable progress messages"), false);
         client.player.sendMessage(Text.literal("§e% particles §7- Toggle particle trail"), false);
         client.player.sendMessage(Text.literal("§e% pathline §7- Toggle path line visualization"), false);
+        client.player.sendMessage(Text.literal("§e% pathstyle lines|particles §7- Draw paths as render lines or particles"), false);
+        client.player.sendMessage(Text.literal("§e% visuals [per tick] §7- Show or set the particle budget"), false);
         client.player.sendMessage(Text.literal("§e% fallprotection §7- Toggle fall damage protection"), false);
         client.player.sendMessage(Text.literal("§e% clearpath §7- Clear path history"), false);
         client.player.sendMessage(Text.literal("§e% help §7- Show this help"), false);
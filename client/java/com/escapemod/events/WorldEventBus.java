@@ -0,0 +1,145 @@
+package com.escapemod.events;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * World Event Bus - One place where systems hear about changes instead of rescanning for them
+ * Chunk events come from Fabric, block changes from WorldChunkMixin, and player state
+ * (inventory slots, health and hunger, dimension) from a once-per-tick comparison against
+ * the previous values. Listeners run on the client thread, after the change is applied
+ */
+public class WorldEventBus {
+    private static final WorldEventBus INSTANCE = new WorldEventBus();
+
+    public interface ChunkListener {
+        void onChunk(ClientWorld world, WorldChunk chunk);
+    }
+
+    public interface BlockChangeListener {
+        void onBlockChange(BlockPos pos, BlockState oldState, BlockState newState);
+    }
+
+    public interface SlotChangeListener {
+        void onSlotChange(int slot, ItemStack oldStack, ItemStack newStack);
+    }
+
+    public interface VitalsListener {
+        void onVitalsChange(float health, int foodLevel);
+    }
+
+    public interface DimensionListener {
+        void onDimensionChange(RegistryKey<World> from, RegistryKey<World> to);
+    }
+
+    private final List<ChunkListener> chunkLoadListeners = new CopyOnWriteArrayList<>();
+    private final List<ChunkListener> chunkUnloadListeners = new CopyOnWriteArrayList<>();
+    private final List<BlockChangeListener> blockChangeListeners = new CopyOnWriteArrayList<>();
+    private final List<SlotChangeListener> slotChangeListeners = new CopyOnWriteArrayList<>();
+    private final List<VitalsListener> vitalsListeners = new CopyOnWriteArrayList<>();
+    private final List<DimensionListener> dimensionListeners = new CopyOnWriteArrayList<>();
+
+    // Last seen player state, compared once per tick
+    private final ItemStack[] lastSlots = new ItemStack[PlayerInventory.MAIN_SIZE + PlayerInventory.ARMOR_SLOTS.length + 1];
+    private float lastHealth = -1;
+    private int lastFoodLevel = -1;
+    private RegistryKey<World> lastDimension = null;
+
+    // Counters
+    private long blockChanges = 0;
+    private long slotChanges = 0;
+
+    public static WorldEventBus get() {
+        return INSTANCE;
+    }
+
+    private WorldEventBus() {
+        Arrays.fill(lastSlots, ItemStack.EMPTY);
+    }
+
+    public void onChunkLoad(ChunkListener listener) { chunkLoadListeners.add(listener); }
+    public void onChunkUnload(ChunkListener listener) { chunkUnloadListeners.add(listener); }
+    public void onBlockChange(BlockChangeListener listener) { blockChangeListeners.add(listener); }
+    public void onSlotChange(SlotChangeListener listener) { slotChangeListeners.add(listener); }
+    public void onVitalsChange(VitalsListener listener) { vitalsListeners.add(listener); }
+    public void onDimensionChange(DimensionListener listener) { dimensionListeners.add(listener); }
+
+    public void publishChunkLoad(ClientWorld world, WorldChunk chunk) {
+        for (ChunkListener listener : chunkLoadListeners) {
+            listener.onChunk(world, chunk);
+        }
+    }
+
+    public void publishChunkUnload(ClientWorld world, WorldChunk chunk) {
+        for (ChunkListener listener : chunkUnloadListeners) {
+            listener.onChunk(world, chunk);
+        }
+    }
+
+    public void publishBlockChange(BlockPos pos, BlockState oldState, BlockState newState) {
+        blockChanges++;
+        BlockPos immutable = pos.toImmutable();
+        for (BlockChangeListener listener : blockChangeListeners) {
+            listener.onBlockChange(immutable, oldState, newState);
+        }
+    }
+
+    /**
+     * Compare player state against last tick and publish what changed; 41 slot comparisons and a few fields
+     */
+    public void pollPlayerState(MinecraftClient client) {
+        ClientPlayerEntity player = client.player;
+        if (player == null || client.world == null) {
+            lastDimension = null;
+            return;
+        }
+
+        RegistryKey<World> dimension = client.world.getRegistryKey();
+        if (!dimension.equals(lastDimension)) {
+            RegistryKey<World> from = lastDimension;
+            lastDimension = dimension;
+            for (DimensionListener listener : dimensionListeners) {
+                listener.onDimensionChange(from, dimension);
+            }
+        }
+
+        float health = player.getHealth();
+        int foodLevel = player.getHungerManager().getFoodLevel();
+        if (health != lastHealth || foodLevel != lastFoodLevel) {
+            lastHealth = health;
+            lastFoodLevel = foodLevel;
+            for (VitalsListener listener : vitalsListeners) {
+                listener.onVitalsChange(health, foodLevel);
+            }
+        }
+
+        PlayerInventory inventory = player.getInventory();
+        int size = Math.min(lastSlots.length, inventory.size());
+        for (int slot = 0; slot < size; slot++) {
+            ItemStack current = inventory.getStack(slot);
+            if (ItemStack.areEqual(current, lastSlots[slot])) continue;
+
+            ItemStack previous = lastSlots[slot];
+            lastSlots[slot] = current.copy();
+            slotChanges++;
+            for (SlotChangeListener listener : slotChangeListeners) {
+                listener.onSlotChange(slot, previous, lastSlots[slot]);
+            }
+        }
+    }
+
+    public long getBlockChanges() { return blockChanges; }
+    public long getSlotChanges() { return slotChanges; }
+}
\ No newline at end of file
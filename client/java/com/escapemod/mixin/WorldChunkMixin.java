@@ -0,0 +1,32 @@
+package com.escapemod.mixin;
+
+import com.escapemod.events.WorldEventBus;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Publishes client-side block changes to the WorldEventBus
+ * Every single-block change (server updates, delta updates and the player's own predicted edits)
+ * ends in WorldChunk.setBlockState, which returns the previous state or null if nothing changed
+ */
+@Mixin(WorldChunk.class)
+public abstract class WorldChunkMixin {
+    @Shadow
+    public abstract World getWorld();
+
+    @Inject(method = "setBlockState", at = @At("RETURN"))
+    private void escapemod$publishBlockChange(BlockPos pos, BlockState state, boolean moved,
+                                              CallbackInfoReturnable<BlockState> cir) {
+        BlockState previous = cir.getReturnValue();
+        if (previous != null && getWorld().isClient) {
+            WorldEventBus.get().publishBlockChange(pos, previous, state);
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.escapemod.navigation;
 
 import com.escapemod.integration.BaritoneIntegration;
+import com.escapemod.utils.BotEvents;
 import baritone.api.pathing.calc.IPath;
 import baritone.api.utils.BetterBlockPos;
 
@@ -51,6 +52,7 @@ public class BaritonePathfinder {
         lastPathUpdate = System.currentTimeMillis();
         
         boolean success = baritone.pathTo(target);
+        BotEvents.BaritoneHandoff.emit("path_to", target, success, pathfindingFailures);
         if (!success) {
             pathfindingFailures++;
             if (pathfindingFailures >= MAX_PATHFINDING_FAILURES) {
@@ -74,7 +76,11 @@ public class BaritonePathfinder {
         pathfindingFailures = 0;
         lastPathUpdate = System.currentTimeMillis();
         
-        return baritone.pathInDirection(direction, distance);
+        boolean success = baritone.pathInDirection(direction, distance);
+        BotEvents.BaritoneHandoff.emit("direction", client.player != null ?
+            client.player.getBlockPos().add((int) (direction.x * distance), 0, (int) (direction.z * distance)) : null,
+            success, pathfindingFailures);
+        return success;
     }
     
     /**
@@ -88,7 +94,9 @@ public class BaritonePathfinder {
         pathfindingFailures = 0;
         lastPathUpdate = System.currentTimeMillis();
         
-        return baritone.startEscapeProcess(finalTarget);
+        boolean success = baritone.startEscapeProcess(finalTarget);
+        BotEvents.BaritoneHandoff.emit("escape_process", finalTarget, success, pathfindingFailures);
+        return success;
     }
     
     /**
@@ -167,6 +175,7 @@ public class BaritonePathfinder {
      */
     public void stop() {
         if (baritone.isBaritoneAvailable()) {
+            if (isPathfinding) BotEvents.BaritoneHandoff.emit("stop", currentTarget, true, pathfindingFailures);
             baritone.stop();
         }
         isPathfinding = false;
@@ -212,6 +221,7 @@ public class BaritonePathfinder {
         
         // Path to safe position with high priority
         boolean success = baritone.pathTo(safePosition);
+        BotEvents.BaritoneHandoff.emit("emergency", safePosition, success, pathfindingFailures);
         if (success) {
             if (client.player != null) {
                 client.player.sendMessage(Text.literal("§e[EscapeMod] Baritone emergency navigation to safe position"), false);
@@ -258,7 +268,8 @@ public class BaritonePathfinder {
                     (pathfindingFailures + 1) + "/" + MAX_PATHFINDING_FAILURES + ")"), false);
             }
             
-            baritone.pathTo(currentTarget);
+            boolean restarted = baritone.pathTo(currentTarget);
+            BotEvents.BaritoneHandoff.emit("retry", currentTarget, restarted, pathfindingFailures);
             lastPathUpdate = currentTime;
         }
         
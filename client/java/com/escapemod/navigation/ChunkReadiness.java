@@ -0,0 +1,108 @@
+package com.escapemod.navigation;
+
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Chunk Readiness - How far loaded terrain reaches along the heading, and whether that lead is shrinking
+ * The lead is measured by stepping along the heading until the first unloaded chunk. While the
+ * player moves forward and the lead keeps falling, chunks are arriving slower than the player walks,
+ * so movement is throttled in proportion to what is left of the margin. A steady or growing lead
+ * runs at full speed. The margins scale with the view distance, which bounds how far the lead can reach
+ */
+public class ChunkReadiness {
+    private static final int PROBE_STEP = 8;
+    private static final int MAX_PROBE_DISTANCE = 256;
+    private static final double MIN_LEAD_FRACTION = 0.25;     // Of the view distance; below this the bot waits
+    private static final double COMFORT_LEAD_FRACTION = 0.6;  // At or above this the bot never throttles
+    private static final double TREND_SMOOTHING = 0.2;
+
+    private double minLead = PROBE_STEP;
+    private double comfortLead = PROBE_STEP * 2;
+    private double leadBlocks = MAX_PROBE_DISTANCE;
+    private double leadTrend = 0; // Smoothed change of the lead in blocks per second; negative means it is shrinking
+    private Vec3d lastPlayerPos;
+    private long lastUpdate = 0;
+    private double throttleCredit = 0;
+
+    /**
+     * Re-measure the lead along heading; call a few times per second while travelling
+     * viewDistanceChunks is the client's clamped view distance
+     */
+    public void update(ClientWorld world, Vec3d playerPos, Vec3d heading, int viewDistanceChunks, long now) {
+        if (heading == null || heading.horizontalLengthSquared() < 1e-6) return;
+        setViewDistance(viewDistanceChunks);
+
+        Vec3d flat = new Vec3d(heading.x, 0, heading.z).normalize();
+        double lead = MAX_PROBE_DISTANCE;
+        for (int d = PROBE_STEP; d <= MAX_PROBE_DISTANCE; d += PROBE_STEP) {
+            int x = (int) Math.floor(playerPos.x + flat.x * d);
+            int z = (int) Math.floor(playerPos.z + flat.z * d);
+            if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+                lead = d - PROBE_STEP;
+                break;
+            }
+        }
+
+        if (lastPlayerPos != null && now > lastUpdate) {
+            double seconds = (now - lastUpdate) / 1000.0;
+            double moved = (playerPos.x - lastPlayerPos.x) * flat.x + (playerPos.z - lastPlayerPos.z) * flat.z;
+            // Standing still (or held back) with a steady lead is no sign of slow chunks; let the trend decay
+            double sample = moved > 0.1 || lead != leadBlocks ? (lead - leadBlocks) / seconds : 0;
+            leadTrend += (sample - leadTrend) * TREND_SMOOTHING;
+        }
+
+        leadBlocks = lead;
+        lastPlayerPos = playerPos;
+        lastUpdate = now;
+    }
+
+    private void setViewDistance(int viewDistanceChunks) {
+        double reach = Math.min(MAX_PROBE_DISTANCE, Math.max(1, viewDistanceChunks) * 16.0);
+        minLead = Math.max(PROBE_STEP, reach * MIN_LEAD_FRACTION);
+        comfortLead = Math.max(minLead + PROBE_STEP, reach * COMFORT_LEAD_FRACTION);
+    }
+
+    /**
+     * Fraction of full speed: 0 waits, 1 is unthrottled
+     * Only a lead that is both short and shrinking slows the bot, by how much of the margin is left
+     */
+    public double getSpeedFactor() {
+        if (leadBlocks <= minLead) return 0;
+        if (leadBlocks >= comfortLead || leadTrend >= 0) return 1;
+        return (leadBlocks - minLead) / (comfortLead - minLead);
+    }
+
+    /**
+     * Whether to hold forward on this movement update; spreads the speed factor over consecutive updates
+     */
+    public boolean shouldAdvance() {
+        throttleCredit = Math.min(1.0, throttleCredit + getSpeedFactor());
+        if (throttleCredit >= 1.0 - 1e-9) {
+            throttleCredit -= 1.0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Loaded distance ahead that planning may look into, in blocks
+     */
+    public int getUsableLookahead(int wanted) {
+        return (int) Math.max(0, Math.min(wanted, leadBlocks));
+    }
+
+    /**
+     * Forget the last heading's measurements; until the first update the lead is assumed to be the view distance
+     */
+    public void reset(int viewDistanceChunks) {
+        setViewDistance(viewDistanceChunks);
+        leadBlocks = Math.min(MAX_PROBE_DISTANCE, Math.max(1, viewDistanceChunks) * 16.0);
+        leadTrend = 0;
+        lastPlayerPos = null;
+        throttleCredit = 0;
+    }
+
+    public double getLeadBlocks() { return leadBlocks; }
+    public double getLeadTrend() { return leadTrend; }
+}
\ No newline at end of file
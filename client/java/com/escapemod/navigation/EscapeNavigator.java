@@ -2,15 +2,24 @@ package com.escapemod.navigation;
 
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.world.ClientWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.text.Text;
+import net.minecraft.world.chunk.WorldChunk;
 
 import com.escapemod.pathfinding.SimplePathfinder;
+import com.escapemod.pathfinding.TerrainAnalyzer;
 import com.escapemod.navigation.BaritonePathfinder;
 import com.escapemod.utils.MessageThrottler;
+import com.escapemod.utils.WorldIdentity;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Random;
+import java.util.Set;
 
 /**
  * Intelligent navigation system for escaping to 30k blocks from spawn
@@ -20,12 +29,24 @@ public class EscapeNavigator {
     private static final int TARGET_DISTANCE = 30000; // 30k blocks from 0,0
     private static final int WAYPOINT_DISTANCE = 2000; // Create waypoints every 2k blocks (reduced frequency)
     private static final int RECALCULATION_DISTANCE = 500; // Recalculate path every 500 blocks (reduced frequency)
+    private static final int PLANNING_RADIUS_CHUNKS = 16; // Cost grid search radius around the player
+    private static final double CARDINAL_PENALTY = 0.15; // Diagonals are preferred on anarchy servers
+    private static final int COST_REFRESH_PER_TICK = 4;
+    private static final int MAX_DIRTY_COST_CHUNKS = 1024;
     
     private final MinecraftClient client;
     private final SimplePathfinder simplePathfinder;
     private final BaritonePathfinder baritonePathfinder;
     private boolean useBaritone = true; // Prefer Baritone when available
     private final Random random;
+    private final RegionCostGrid costGrid = new RegionCostGrid();
+    private final TerrainAnalyzer terrainAnalyzer;
+    private final ChunkReadiness chunkReadiness = new ChunkReadiness();
+    private boolean useTerrainAnalysis = true;
+    private boolean simpleSteering = true; // EscapeBot's simple mode steers optimalDirection, not the local heading
+    private String costGridWorld = null;
+    private final Set<Long> dirtyCostChunks = new LinkedHashSet<>();
+    private boolean costGridRebuild = false; // Too many changes to track one by one; re-summarise every loaded chunk
     
     private BlockPos spawnPos;
     private BlockPos finalTarget;
@@ -33,10 +54,14 @@ public class EscapeNavigator {
     private Vec3d optimalDirection;
     private boolean isNavigating;
     private int lastRecalculationDistance;
+    private BlockPos localTarget; // Near-term goal picked from the cost grid
+    private long localTargetChunk = Long.MIN_VALUE;
+    private long escapeGeneration = 0; // Bumped per escape, so late terrain results for an old one are dropped
     
     public EscapeNavigator(MinecraftClient client) {
         this.client = client;
         this.simplePathfinder = new SimplePathfinder(client);
+        this.terrainAnalyzer = new TerrainAnalyzer(client);
         this.baritonePathfinder = new BaritonePathfinder(client);
         
         // Check if Baritone is available
@@ -60,9 +85,27 @@ public class EscapeNavigator {
     public void startEscape(BlockPos playerSpawn) {
         this.spawnPos = playerSpawn;
         this.isNavigating = true;
+        this.escapeGeneration++;
+        chunkReadiness.reset(client.options.getClampedViewDistance());
         
         // Calculate optimal escape direction
-        this.optimalDirection = calculateOptimalDirection(playerSpawn);
+        setEscapeDirection(calculateOptimalDirection(playerSpawn), playerSpawn);
+        
+        if (client.player != null) {
+            MessageThrottler.sendThrottledMessage(client.player, "escape_start",
+                Text.literal("§a[EscapeMod] Starting escape to 30k blocks!"), false, 5000);
+            MessageThrottler.sendThrottledMessage(client.player, "escape_direction",
+                () -> Text.literal("§e[EscapeMod] Target: " + finalTarget.getX() + ", " + finalTarget.getZ()), false, 5000);
+            MessageThrottler.sendThrottledMessage(client.player, "escape_direction2",
+                () -> Text.literal("§e[EscapeMod] Direction: " + String.format("%.2f, %.2f", optimalDirection.x, optimalDirection.z)), false, 5000);
+        }
+    }
+    
+    /**
+     * Aim the escape: final target along direction, and the first waypoint from currentPos
+     */
+    private void setEscapeDirection(Vec3d direction, BlockPos currentPos) {
+        this.optimalDirection = direction;
         
         // Calculate final target position
         this.finalTarget = new BlockPos(
@@ -72,16 +115,7 @@ public class EscapeNavigator {
         );
         
         // Set initial waypoint
-        updateWaypoint(playerSpawn);
-        
-        if (client.player != null) {
-            MessageThrottler.sendThrottledMessage(client.player, "escape_start",
-                Text.literal("§a[EscapeMod] Starting escape to 30k blocks!"), false, 5000);
-            MessageThrottler.sendThrottledMessage(client.player, "escape_direction",
-                Text.literal("§e[EscapeMod] Target: " + finalTarget.getX() + ", " + finalTarget.getZ()), false, 5000);
-            MessageThrottler.sendThrottledMessage(client.player, "escape_direction2",
-                Text.literal("§e[EscapeMod] Direction: " + String.format("%.2f, %.2f", optimalDirection.x, optimalDirection.z)), false, 5000);
-        }
+        updateWaypoint(currentPos);
     }
     
     /**
@@ -109,8 +143,32 @@ public class EscapeNavigator {
             candidateDirections[i] = new Vec3d(Math.cos(angle), 0, Math.sin(angle)).normalize();
         }
         
-        // Use simple direction selection for performance (terrain analysis disabled by default)
-        Vec3d bestDirection = candidateDirections[random.nextInt(4)]; // Pick from first 4 (diagonal directions)
+        // Score candidates against the terrain cost grid; with no terrain seen yet, pick a random diagonal
+        Vec3d bestDirection = candidateDirections[random.nextInt(4)];
+        double bestCost = Double.MAX_VALUE;
+        for (int i = 0; i < candidateDirections.length; i++) {
+            double cost = costGrid.rayCost(spawn, candidateDirections[i], PLANNING_RADIUS_CHUNKS * 16);
+            if (Double.isNaN(cost)) continue;
+            
+            if (i >= 4 && i < 8) cost += CARDINAL_PENALTY;
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestDirection = candidateDirections[i];
+            }
+        }
+        
+        // No grid data yet: set off on the random diagonal and sample loaded terrain directly on the
+        // analyzer's workers; the result replaces it when it arrives, if this escape is still running
+        if (bestCost == Double.MAX_VALUE && useTerrainAnalysis) {
+            long generation = escapeGeneration;
+            terrainAnalyzer.getBestDirectionAsync(spawn, Arrays.copyOf(candidateDirections, 8),
+                chunkReadiness.getUsableLookahead(WAYPOINT_DISTANCE / 2), TerrainAnalyzer.DEFAULT_BUDGET_MS)
+                .thenAccept(analyzed -> client.execute(() -> {
+                    if (!isNavigating || generation != escapeGeneration) return;
+                    setEscapeDirection(applyStrategicAdjustments(analyzed, spawn),
+                        client.player != null ? client.player.getBlockPos() : spawn);
+                }));
+        }
         
         // Add some strategic considerations
         bestDirection = applyStrategicAdjustments(bestDirection, spawn);
@@ -160,6 +218,7 @@ public class EscapeNavigator {
         );
         
         this.currentWaypoint = waypoint;
+        this.localTargetChunk = Long.MIN_VALUE; // Re-plan toward the new waypoint
         
         // Start pathfinding to the new waypoint
         if (useBaritone && baritonePathfinder.isBaritoneAvailable()) {
@@ -169,7 +228,7 @@ public class EscapeNavigator {
         if (client.player != null) {
             String pathfinder = (useBaritone && baritonePathfinder.isBaritoneAvailable()) ? "Baritone" : "Simple";
             MessageThrottler.sendThrottledMessage(client.player, "waypoint_update",
-                Text.literal("§e[EscapeMod] New waypoint: " + waypoint.getX() + ", " + waypoint.getZ() + 
+                () -> Text.literal("§e[EscapeMod] New waypoint: " + waypoint.getX() + ", " + waypoint.getZ() + 
                     " (Distance: " + (int)targetDistance + ") [" + pathfinder + "]"), false, 3000);
         }
     }
@@ -194,6 +253,19 @@ public class EscapeNavigator {
             return;
         }
         
+        // Re-plan the local target whenever the player enters a new chunk
+        if (ChunkPos.toLong(playerPos.getX() >> 4, playerPos.getZ() >> 4) != localTargetChunk) {
+            updateLocalTarget(playerPos);
+        }
+        
+        refreshDirtyCostChunks();
+        
+        // Track how far loaded terrain reaches along the heading actually steered, so movement never
+        // outruns chunk loading
+        Vec3d heading = isUsingBaritone() || simpleSteering ? optimalDirection : getLocalHeading(playerPos);
+        chunkReadiness.update(client.world, client.player.getPos(), heading, client.options.getClampedViewDistance(),
+            System.currentTimeMillis());
+        
         // Check if we need to recalculate path
         if (shouldRecalculatePath(playerPos)) {
             recalculatePath(playerPos);
@@ -206,6 +278,97 @@ public class EscapeNavigator {
         }
     }
     
+    /**
+     * Pick the best reachable cell ahead from the cost grid, heading for the current waypoint
+     * The search reaches no further than loaded terrain does ahead
+     */
+    private void updateLocalTarget(BlockPos playerPos) {
+        localTargetChunk = ChunkPos.toLong(playerPos.getX() >> 4, playerPos.getZ() >> 4);
+        if (currentWaypoint == null) return;
+        
+        Vec3d toWaypoint = new Vec3d(currentWaypoint.getX() - playerPos.getX(), 0, currentWaypoint.getZ() - playerPos.getZ());
+        Vec3d heading = toWaypoint.lengthSquared() > 1 ? toWaypoint.normalize() : optimalDirection;
+        int radiusChunks = Math.max(1, chunkReadiness.getUsableLookahead(PLANNING_RADIUS_CHUNKS * 16) >> 4);
+        localTarget = costGrid.planLocalTarget(playerPos, heading, radiusChunks);
+    }
+    
+    /**
+     * Feed a freshly loaded chunk into the cost grid; worlds with a ceiling have no usable surface heightmap
+     */
+    public void onChunkLoad(ClientWorld world, WorldChunk chunk) {
+        terrainAnalyzer.invalidateChunk(chunk.getPos());
+        if (world.getDimension().hasCeiling()) return;
+        
+        String worldKey = WorldIdentity.worldKey(client);
+        if (!worldKey.equals(costGridWorld)) {
+            costGrid.clear();
+            costGridWorld = worldKey;
+        }
+        costGrid.updateChunk(chunk);
+    }
+    
+    /**
+     * A block changed: drop the chunk's cached terrain score and re-summarise its cost cell soon
+     * Past MAX_DIRTY_COST_CHUNKS the individual chunks are dropped and the whole grid is rebuilt instead
+     */
+    public void onBlockChange(BlockPos pos) {
+        terrainAnalyzer.invalidateChunk(new ChunkPos(pos));
+        if (costGridRebuild) return;
+        
+        dirtyCostChunks.add(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (dirtyCostChunks.size() > MAX_DIRTY_COST_CHUNKS) {
+            dirtyCostChunks.clear();
+            costGridRebuild = true;
+        }
+    }
+    
+    private void refreshDirtyCostChunks() {
+        if (client.world == null || client.world.getDimension().hasCeiling()) {
+            dirtyCostChunks.clear();
+            costGridRebuild = false;
+            return;
+        }
+        
+        if (costGridRebuild) {
+            rebuildCostGrid();
+            return;
+        }
+        
+        Iterator<Long> dirty = dirtyCostChunks.iterator();
+        for (int i = 0; i < COST_REFRESH_PER_TICK && dirty.hasNext(); i++) {
+            long chunk = dirty.next();
+            dirty.remove();
+            int x = ChunkPos.getPackedX(chunk);
+            int z = ChunkPos.getPackedZ(chunk);
+            if (client.world.isChunkLoaded(x, z)) {
+                costGrid.updateChunk(client.world.getChunk(x, z));
+            }
+        }
+    }
+    
+    /**
+     * Re-summarise every loaded chunk within view distance; 32 reads per chunk, a few thousand chunks at most
+     */
+    private void rebuildCostGrid() {
+        costGridRebuild = false;
+        if (client.player == null) return;
+        
+        int centerX = client.player.getBlockX() >> 4;
+        int centerZ = client.player.getBlockZ() >> 4;
+        int radius = client.options.getClampedViewDistance() + 1;
+        for (int x = centerX - radius; x <= centerX + radius; x++) {
+            for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                if (client.world.isChunkLoaded(x, z)) {
+                    costGrid.updateChunk(client.world.getChunk(x, z));
+                }
+            }
+        }
+    }
+    
+    public void onChunkUnload(WorldChunk chunk) {
+        terrainAnalyzer.invalidateChunk(chunk.getPos());
+    }
+    
     /**
      * Check if we need to update navigation
      */
@@ -236,7 +399,7 @@ public class EscapeNavigator {
             MessageThrottler.sendThrottledMessage(client.player, "escape_complete",
                 Text.literal("§a§l[EscapeMod] ESCAPE COMPLETE! You are now 30k+ blocks from spawn!"), false, 10000);
             MessageThrottler.sendThrottledMessage(client.player, "escape_stats",
-                Text.literal("§e[EscapeMod] Final distance: " + (int)getDistanceFromSpawn(client.player.getBlockPos()) + " blocks"), false, 10000);
+                () -> Text.literal("§e[EscapeMod] Final distance: " + (int)getDistanceFromSpawn(client.player.getBlockPos()) + " blocks"), false, 10000);
         }
     }
     
@@ -250,10 +413,20 @@ public class EscapeNavigator {
         if (useBaritone && baritonePathfinder.isBaritoneAvailable()) {
             return baritonePathfinder.getMovementDirection(currentPos, optimalDirection);
         } else {
-            return simplePathfinder.getMovementDirection(currentPos, optimalDirection);
+            return simplePathfinder.getMovementDirection(currentPos, getLocalHeading(currentPos));
         }
     }
     
+    /**
+     * Heading toward the cost grid's local target, or the escape direction once it's reached
+     */
+    public Vec3d getLocalHeading(BlockPos currentPos) {
+        if (localTarget == null) return optimalDirection;
+        
+        Vec3d toTarget = new Vec3d(localTarget.getX() - currentPos.getX(), 0, localTarget.getZ() - currentPos.getZ());
+        return toTarget.lengthSquared() > 64 ? toTarget.normalize() : optimalDirection;
+    }
+    
     /**
      * Check if should jump
      */
@@ -264,7 +437,7 @@ public class EscapeNavigator {
         if (useBaritone && baritonePathfinder.isBaritoneAvailable()) {
             return baritonePathfinder.shouldJump(currentPos, optimalDirection);
         } else {
-            return simplePathfinder.shouldJump(currentPos, optimalDirection);
+            return simplePathfinder.shouldJump(currentPos, getLocalHeading(currentPos));
         }
     }
     
@@ -303,6 +476,8 @@ public class EscapeNavigator {
     public void stopNavigation() {
         isNavigating = false;
         currentWaypoint = null;
+        localTarget = null;
+        localTargetChunk = Long.MIN_VALUE;
         
         // Stop both pathfinders
         if (useBaritone && baritonePathfinder.isBaritoneAvailable()) {
@@ -311,6 +486,25 @@ public class EscapeNavigator {
         simplePathfinder.stop();
     }
     
+    /**
+     * Stop terrain analysis workers
+     */
+    public void shutdown() {
+        terrainAnalyzer.shutdown();
+    }
+    
+    public ChunkReadiness getChunkReadiness() {
+        return chunkReadiness;
+    }
+    
+    public TerrainAnalyzer getTerrainAnalyzer() {
+        return terrainAnalyzer;
+    }
+    
+    public void setUseTerrainAnalysis(boolean useTerrainAnalysis) {
+        this.useTerrainAnalysis = useTerrainAnalysis;
+    }
+    
     /**
      * Get current pathfinder (returns active one)
      */
@@ -359,6 +553,14 @@ public class EscapeNavigator {
         }
     }
     
+    /**
+     * Which heading the movement handler steers: true for EscapeBot's simple navigation
+     * (optimalDirection), false for the local heading of the pathfinding mode
+     */
+    public void setSimpleSteering(boolean simpleSteering) {
+        this.simpleSteering = simpleSteering;
+    }
+    
     /**
      * Check if using Baritone
      */
@@ -380,6 +582,17 @@ public class EscapeNavigator {
         return finalTarget;
     }
     
+    /**
+     * Get the cost grid's current local target, or null
+     */
+    public BlockPos getLocalTarget() {
+        return localTarget;
+    }
+    
+    public RegionCostGrid getCostGrid() {
+        return costGrid;
+    }
+    
     /**
      * Get optimal direction
      */
@@ -0,0 +1,209 @@
+package com.escapemod.navigation;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.registry.tag.FluidTags;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.*;
+
+/**
+ * Region Cost Grid - One traversal cost per chunk, filled in as chunks load
+ * A chunk is summarised from a 4x4 sample of its surface heightmap: water and lava fraction,
+ * height roughness and player-built blocks. 1.0 is flat dry land; higher is worse.
+ * Planning runs over these cells instead of reading blocks, so it costs a few thousand
+ * float lookups rather than a terrain scan
+ */
+public class RegionCostGrid {
+    public static final float FLAT_LAND_COST = 1.0f;
+    private static final int MAX_CELLS = 1 << 16; // ~ a 4000 block square of explored terrain
+    private static final int[] SAMPLE_OFFSETS = {2, 6, 10, 14};
+    private static final int[][] NEIGHBOURS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    // Least recently updated cells are dropped first
+    private final Map<Long, Float> costs = new LinkedHashMap<>(1024, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Float> eldest) {
+            return size() > MAX_CELLS;
+        }
+    };
+
+    /**
+     * Summarise a loaded chunk; reads 16 heightmap columns and 16 surface blocks
+     */
+    public void updateChunk(WorldChunk chunk) {
+        int[] heights = new int[16];
+        int water = 0;
+        int lava = 0;
+        int built = 0;
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int startX = chunk.getPos().getStartX();
+        int startZ = chunk.getPos().getStartZ();
+
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                int x = SAMPLE_OFFSETS[i];
+                int z = SAMPLE_OFFSETS[j];
+                int y = chunk.sampleHeightmap(Heightmap.Type.MOTION_BLOCKING, x, z);
+                heights[i * 4 + j] = y;
+
+                BlockState surface = chunk.getBlockState(pos.set(startX + x, y, startZ + z));
+                if (surface.getFluidState().isIn(FluidTags.WATER)) {
+                    water++;
+                } else if (surface.getFluidState().isIn(FluidTags.LAVA)) {
+                    lava++;
+                } else if (isBuiltBlock(surface)) {
+                    built++;
+                }
+            }
+        }
+
+        costs.remove(chunk.getPos().toLong()); // Re-insert so a reloaded chunk counts as fresh
+        costs.put(chunk.getPos().toLong(), computeCost(heights, water / 16f, lava / 16f, built / 16f));
+    }
+
+    private static float computeCost(int[] heights, float waterFraction, float lavaFraction, float builtFraction) {
+        // Mean height step between neighbouring samples (4 blocks apart)
+        int totalStep = 0;
+        int steps = 0;
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                if (i < 3) { totalStep += Math.abs(heights[i * 4 + j] - heights[(i + 1) * 4 + j]); steps++; }
+                if (j < 3) { totalStep += Math.abs(heights[i * 4 + j] - heights[i * 4 + j + 1]); steps++; }
+            }
+        }
+        float roughness = Math.min(1.0f, totalStep / (float) steps / 6.0f);
+
+        float cost = FLAT_LAND_COST;
+        cost += waterFraction * 2.5f;                     // Swimming is slow and drowns
+        cost += lavaFraction > 0 ? 3.0f + lavaFraction * 6.0f : 0; // Any lava is a serious hazard
+        cost += roughness * 2.0f;
+        cost += builtFraction * 1.5f;                     // Bases, walls and traps
+        return cost;
+    }
+
+    private static boolean isBuiltBlock(BlockState state) {
+        return state.isIn(BlockTags.PLANKS) ||
+               state.isIn(BlockTags.WOOL) ||
+               state.isOf(Blocks.COBBLESTONE) ||
+               state.isOf(Blocks.OBSIDIAN) ||
+               state.isOf(Blocks.STONE_BRICKS) ||
+               state.isOf(Blocks.BRICKS) ||
+               state.isOf(Blocks.GLASS) ||
+               state.isOf(Blocks.TNT);
+    }
+
+    /**
+     * Cost of the chunk containing the block coordinates, or NaN if it hasn't been seen
+     */
+    public float getCost(int blockX, int blockZ) {
+        Float cost = costs.get(ChunkPos.toLong(blockX >> 4, blockZ >> 4));
+        return cost != null ? cost : Float.NaN;
+    }
+
+    /**
+     * Mean cost of the known cells on a ray from start, or NaN if none are known
+     */
+    public double rayCost(BlockPos start, Vec3d direction, int maxDistance) {
+        double total = 0;
+        int known = 0;
+
+        for (int d = 16; d <= maxDistance; d += 16) {
+            float cost = getCost(MathHelper.floor(start.getX() + direction.x * d), MathHelper.floor(start.getZ() + direction.z * d));
+            if (!Float.isNaN(cost)) {
+                total += cost;
+                known++;
+            }
+        }
+
+        return known > 0 ? total / known : Double.NaN;
+    }
+
+    /**
+     * Cheapest way forward through known terrain: Dijkstra over cells within radiusChunks of from,
+     * then the reached cell with the best progress along preferred minus the detour it took
+     * Returns that cell's centre at from's Y, or null if nothing ahead is known
+     */
+    public BlockPos planLocalTarget(BlockPos from, Vec3d preferred, int radiusChunks) {
+        int originX = from.getX() >> 4;
+        int originZ = from.getZ() >> 4;
+        int size = radiusChunks * 2 + 1;
+        double[] routeCost = new double[size * size];
+        Arrays.fill(routeCost, Double.MAX_VALUE);
+
+        int startCell = cellIndex(radiusChunks, radiusChunks, size);
+        routeCost[startCell] = 0;
+        PriorityQueue<double[]> open = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        open.add(new double[] {0, startCell});
+
+        int bestCell = -1;
+        double bestScore = 0;
+
+        while (!open.isEmpty()) {
+            double[] entry = open.poll();
+            int cell = (int) entry[1];
+            if (entry[0] > routeCost[cell]) continue;
+
+            int cx = cell % size;
+            int cz = cell / size;
+            float here = cellCost(originX + cx - radiusChunks, originZ + cz - radiusChunks);
+            if (Float.isNaN(here)) here = FLAT_LAND_COST; // The player's own chunk may not be summarised yet
+
+            // Progress along the preferred heading, less the extra distance the route spent getting here
+            double dx = (cx - radiusChunks) * 16.0;
+            double dz = (cz - radiusChunks) * 16.0;
+            double straight = Math.sqrt(dx * dx + dz * dz);
+            double progress = dx * preferred.x + dz * preferred.z;
+            double lateral = Math.abs(dx * preferred.z - dz * preferred.x);
+            double score = progress - (routeCost[cell] - straight) - lateral * 0.25;
+            if (progress > 0 && score > bestScore) {
+                bestScore = score;
+                bestCell = cell;
+            }
+
+            for (int[] step : NEIGHBOURS) {
+                int nx = cx + step[0];
+                int nz = cz + step[1];
+                if (nx < 0 || nz < 0 || nx >= size || nz >= size) continue;
+
+                float there = cellCost(originX + nx - radiusChunks, originZ + nz - radiusChunks);
+                if (Float.isNaN(there)) continue; // Only plan through terrain we've seen
+
+                double stepLength = (step[0] != 0 && step[1] != 0) ? 16.0 * Math.sqrt(2) : 16.0;
+                double cost = routeCost[cell] + stepLength * (here + there) / 2;
+                int next = cellIndex(nx, nz, size);
+                if (cost < routeCost[next]) {
+                    routeCost[next] = cost;
+                    open.add(new double[] {cost, next});
+                }
+            }
+        }
+
+        if (bestCell < 0) return null;
+        return new BlockPos((originX + bestCell % size - radiusChunks) * 16 + 8, from.getY(),
+            (originZ + bestCell / size - radiusChunks) * 16 + 8);
+    }
+
+    private float cellCost(int chunkX, int chunkZ) {
+        Float cost = costs.get(ChunkPos.toLong(chunkX, chunkZ));
+        return cost != null ? cost : Float.NaN;
+    }
+
+    private static int cellIndex(int x, int z, int size) {
+        return z * size + x;
+    }
+
+    public void clear() {
+        costs.clear();
+    }
+
+    public int size() {
+        return costs.size();
+    }
+}
\ No newline at end of file
@@ -10,6 +10,11 @@ import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 import net.minecraft.world.World;
 
+import com.escapemod.utils.BotEvents;
+import com.escapemod.utils.SystemProfiler;
+import com.escapemod.world.ClientWorldView;
+import com.escapemod.world.WorldView;
+
 import java.util.*;
 
 /**
@@ -21,14 +26,21 @@ public class BaritonePathfinder {
     private static final int CHUNK_SIZE = 16;
     private static final double COST_HEURISTIC_WEIGHT = 1.5;
     private static final int MAX_CALCULATION_TIME_MS = 50; // Max 50ms per calculation
+    private static final SystemProfiler.Section SEARCH_PROFILE = SystemProfiler.get().section("path.astar");
     
-    private final MinecraftClient client;
+    private final WorldView world;
     private List<BlockPos> currentPath;
     private BlockPos targetPos;
     private boolean isCalculating;
+    private int lastSearchedNodes = 0;
+    private String lastOutcome = "exhausted";
     
     public BaritonePathfinder(MinecraftClient client) {
-        this.client = client;
+        this(new ClientWorldView(client));
+    }
+    
+    public BaritonePathfinder(WorldView world) {
+        this.world = world;
         this.currentPath = new ArrayList<>();
         this.isCalculating = false;
     }
@@ -42,16 +54,21 @@ public class BaritonePathfinder {
         isCalculating = true;
         targetPos = target;
         
-        try {
-            List<BlockPos> path = findPath(start, target);
+        BotEvents.PathSearch event = new BotEvents.PathSearch();
+        event.begin();
+        List<BlockPos> path = null;
+        try (var scope = SEARCH_PROFILE.time()) {
+            path = findPath(start, target);
             if (path != null && !path.isEmpty()) {
                 currentPath = path;
                 return true;
             }
         } catch (Exception e) {
+            lastOutcome = "error";
             System.err.println("Pathfinding error: " + e.getMessage());
         } finally {
             isCalculating = false;
+            event.finish("astar", start, target, lastSearchedNodes, lastOutcome, path != null ? path.size() : 0);
         }
         
         return false;
@@ -71,16 +88,21 @@ public class BaritonePathfinder {
         
         int searchedNodes = 0;
         long startTime = System.currentTimeMillis();
+        lastSearchedNodes = 0;
+        lastOutcome = "node_limit";
         
         while (!openSet.isEmpty() && searchedNodes < MAX_SEARCH_NODES) {
             // Check if we've exceeded time limit
             if (System.currentTimeMillis() - startTime > MAX_CALCULATION_TIME_MS) {
+                lastOutcome = "time_limit";
                 break; // Time limit exceeded, return partial path
             }
             PathNode current = openSet.poll();
             searchedNodes++;
+            lastSearchedNodes = searchedNodes;
             
             if (current.pos.equals(goal) || current.pos.getSquaredDistance(goal) < 100) {
+                lastOutcome = "found";
                 return reconstructPath(current);
             }
             
@@ -109,6 +131,7 @@ public class BaritonePathfinder {
             }
         }
         
+        if (openSet.isEmpty()) lastOutcome = "exhausted";
         return null; // No path found
     }
     
@@ -142,7 +165,7 @@ public class BaritonePathfinder {
      * Calculate movement cost between two positions
      */
     private double calculateMoveCost(BlockPos from, BlockPos to) {
-        if (client.world == null) return Double.MAX_VALUE;
+        if (!world.isAvailable()) return Double.MAX_VALUE;
         
         Vec3i diff = to.subtract(from);
         double baseCost = Math.sqrt(diff.getX() * diff.getX() + diff.getZ() * diff.getZ());
@@ -160,8 +183,8 @@ public class BaritonePathfinder {
         }
         
         // Terrain-based cost modifiers
-        Block blockAt = client.world.getBlockState(to).getBlock();
-        Block blockBelow = client.world.getBlockState(to.down()).getBlock();
+        Block blockAt = world.getBlockState(to).getBlock();
+        Block blockBelow = world.getBlockState(to.down()).getBlock();
         
         // Prefer solid ground
         if (blockBelow == Blocks.AIR) {
@@ -185,14 +208,14 @@ public class BaritonePathfinder {
      * Check if movement between two positions is possible
      */
     private boolean canMoveTo(BlockPos from, BlockPos to) {
-        if (client.world == null) return false;
+        if (!world.isAvailable()) return false;
         
         // Check if destination is passable
         BlockPos feetPos = to;
         BlockPos headPos = to.up();
         
-        Block feetBlock = client.world.getBlockState(feetPos).getBlock();
-        Block headBlock = client.world.getBlockState(headPos).getBlock();
+        Block feetBlock = world.getBlockState(feetPos).getBlock();
+        Block headBlock = world.getBlockState(headPos).getBlock();
         
         // Must have air for feet and head
         if (feetBlock != Blocks.AIR && !isPassable(feetBlock)) return false;
@@ -202,12 +225,12 @@ public class BaritonePathfinder {
         Vec3i diff = to.subtract(from);
         if (diff.getY() <= 0) {
             BlockPos groundPos = to.down();
-            Block groundBlock = client.world.getBlockState(groundPos).getBlock();
+            Block groundBlock = world.getBlockState(groundPos).getBlock();
             if (groundBlock == Blocks.AIR) {
                 // Check if fall is safe (not too far)
                 int fallDistance = 0;
                 for (int i = 1; i <= 10; i++) {
-                    Block checkBlock = client.world.getBlockState(to.down(i)).getBlock();
+                    Block checkBlock = world.getBlockState(to.down(i)).getBlock();
                     if (checkBlock != Blocks.AIR) {
                         fallDistance = i - 1;
                         break;
@@ -236,13 +259,13 @@ public class BaritonePathfinder {
      * Check if a position is valid for pathfinding
      */
     private boolean isValidPosition(BlockPos pos) {
-        if (client.world == null) return false;
+        if (!world.isAvailable()) return false;
         
         // Basic bounds checking
-        if (pos.getY() < -64 || pos.getY() > 320) return false;
+        if (pos.getY() < world.getBottomY() || pos.getY() >= world.getTopY()) return false;
         
         // Check if chunk is loaded
-        if (!client.world.isChunkLoaded(pos.getX() >> 4, pos.getZ() >> 4)) {
+        if (!world.isChunkLoaded(pos.getX() >> 4, pos.getZ() >> 4)) {
             return false;
         }
         
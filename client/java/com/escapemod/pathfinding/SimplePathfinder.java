@@ -6,22 +6,29 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 
+import com.escapemod.world.ClientWorldView;
+import com.escapemod.world.WorldView;
+
 /**
  * Ultra-lightweight pathfinding for performance
  * Just basic obstacle avoidance and direction following
  */
 public class SimplePathfinder {
-    private final MinecraftClient client;
+    private final WorldView world;
     
     public SimplePathfinder(MinecraftClient client) {
-        this.client = client;
+        this(new ClientWorldView(client));
+    }
+    
+    public SimplePathfinder(WorldView world) {
+        this.world = world;
     }
     
     /**
      * Get next movement direction (no complex pathfinding)
      */
     public Vec3d getMovementDirection(BlockPos currentPos, Vec3d targetDirection) {
-        if (client.world == null || targetDirection == null) {
+        if (!world.isAvailable() || targetDirection == null) {
             return null;
         }
         
@@ -54,10 +61,13 @@ public class SimplePathfinder {
     private boolean canMoveInDirection(BlockPos pos, Vec3d direction) {
         Vec3d checkPos = Vec3d.ofCenter(pos).add(direction.multiply(2.0));
         BlockPos blockPos = BlockPos.ofFloored(checkPos);
+        if (!isLoaded(blockPos)) {
+            return false; // Unloaded chunks read as air, which is not evidence of a way through
+        }
         
         // Check feet and head level
-        Block feetBlock = client.world.getBlockState(blockPos).getBlock();
-        Block headBlock = client.world.getBlockState(blockPos.up()).getBlock();
+        Block feetBlock = world.getBlockState(blockPos).getBlock();
+        Block headBlock = world.getBlockState(blockPos.up()).getBlock();
         
         // Must have air or passable blocks
         return isPassable(feetBlock) && isPassable(headBlock);
@@ -67,24 +77,27 @@ public class SimplePathfinder {
      * Check if we should jump
      */
     public boolean shouldJump(BlockPos pos, Vec3d direction) {
-        if (client.world == null) return false;
+        if (!world.isAvailable()) return false;
         
         Vec3d checkPos = Vec3d.ofCenter(pos).add(direction.multiply(1.5));
         BlockPos blockPos = BlockPos.ofFloored(checkPos);
+        if (!isLoaded(blockPos)) {
+            return false;
+        }
         
         // Check for obstacle at feet level
-        Block feetBlock = client.world.getBlockState(blockPos).getBlock();
+        Block feetBlock = world.getBlockState(blockPos).getBlock();
         if (!isPassable(feetBlock)) {
             return true;
         }
         
         // Check if we need to jump up
-        Block groundBlock = client.world.getBlockState(blockPos.down()).getBlock();
+        Block groundBlock = world.getBlockState(blockPos.down()).getBlock();
         if (groundBlock == Blocks.AIR) {
             // Check if there's a block to jump onto nearby
             for (int x = -1; x <= 1; x++) {
                 for (int z = -1; z <= 1; z++) {
-                    Block nearbyBlock = client.world.getBlockState(blockPos.add(x, 0, z)).getBlock();
+                    Block nearbyBlock = world.getBlockState(blockPos.add(x, 0, z)).getBlock();
                     if (!isPassable(nearbyBlock)) {
                         return true; // Jump to get onto the block
                     }
@@ -95,6 +108,25 @@ public class SimplePathfinder {
         return false;
     }
     
+    /**
+     * Jump check of simple navigation mode: anything but air or water one block ahead of pos
+     */
+    public boolean isBlockedAhead(Vec3d pos, Vec3d direction) {
+        if (!world.isAvailable()) return false;
+        
+        BlockPos blockPos = BlockPos.ofFloored(pos.add(direction));
+        if (!isLoaded(blockPos)) {
+            return false; // Unloaded reads as air; don't react to it
+        }
+        
+        Block feetBlock = world.getBlockState(blockPos).getBlock();
+        return feetBlock != Blocks.AIR && feetBlock != Blocks.WATER;
+    }
+    
+    private boolean isLoaded(BlockPos pos) {
+        return world.isChunkLoaded(pos.getX() >> 4, pos.getZ() >> 4);
+    }
+    
     /**
      * Rotate direction by degrees
      */
@@ -2,21 +2,66 @@ package com.escapemod.pathfinding;
 
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
-import net.minecraft.world.World;
 import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
-import net.minecraft.world.biome.Biome;
+
+import com.escapemod.utils.SystemProfiler;
+import com.escapemod.world.ClientWorldView;
+import com.escapemod.world.WorldView;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Terrain analysis system for optimal path planning
  * Helps choose the best direction based on terrain features
+ * Each chunk is scored once at its centre and kept in an LRU cache until it reloads, changes or goes stale;
+ * candidate directions are scored in parallel on worker threads against chunk snapshots captured
+ * on the client thread, within a time budget that the client thread doesn't wait out
  */
 public class TerrainAnalyzer {
-    private final MinecraftClient client;
+    public static final long DEFAULT_BUDGET_MS = 50;
+    private static final int CACHE_SIZE = 4096;
+    private static final long CACHE_TTL_MS = 60000; // Safety net for changes no event reported
+    private static final double UNKNOWN_SCORE = 0.3;
+    private static final SystemProfiler.Section DIRECTIONS_PROFILE = SystemProfiler.get().section("terrain.directions");
+    
+    private final WorldView world;
+    private final ExecutorService workers;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    
+    // Chunk score cache, least recently used first
+    private final Map<Long, CachedScore> scoreCache = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedScore> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        });
+    
+    private record CachedScore(double score, long computedAt) {}
+    
+    // A loaded chunk on the sample ray
+    private record ChunkSample(long key, int centerX, int centerZ, WorldView chunk) {}
     
     public TerrainAnalyzer(MinecraftClient client) {
-        this.client = client;
+        this(new ClientWorldView(client));
+    }
+    
+    public TerrainAnalyzer(WorldView world) {
+        this.world = world;
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "EscapeMod-TerrainAnalyzer");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     
     /**
@@ -24,59 +69,109 @@ public class TerrainAnalyzer {
      * Returns a score from 0.0 (impossible) to 1.0 (perfect)
      */
     public double analyzeDirection(BlockPos start, Vec3d direction, int distance) {
-        if (client.world == null) return 0.5;
+        if (!world.isAvailable()) return 0.5;
+        return scoreSamples(captureSamples(start, direction, distance), new AtomicBoolean());
+    }
+    
+    /**
+     * Chunks under each sample point along the ray; null where the chunk isn't loaded
+     * Must run on the client thread
+     */
+    private List<ChunkSample> captureSamples(BlockPos start, Vec3d direction, int distance) {
+        List<ChunkSample> samples = new ArrayList<>();
         
-        double totalScore = 0.0;
-        int samples = 0;
+        // Five samples spread over the distance (100, 300, ... 900 for 1000 blocks), at least a chunk apart
+        int spacing = Math.max(16, distance / 5);
+        for (int d = spacing / 2; d <= distance; d += spacing) {
+            int chunkX = MathHelper.floor(start.getX() + direction.x * d) >> 4;
+            int chunkZ = MathHelper.floor(start.getZ() + direction.z * d) >> 4;
+            WorldView chunk = world.snapshotChunk(chunkX, chunkZ);
+            samples.add(chunk != null ? new ChunkSample(ChunkPos.toLong(chunkX, chunkZ), (chunkX << 4) + 8, (chunkZ << 4) + 8, chunk) : null);
+        }
         
-        // Sample terrain at regular intervals
-        for (int d = 100; d <= distance; d += 200) {
-            BlockPos samplePos = new BlockPos(
-                (int) (start.getX() + direction.x * d),
-                start.getY(),
-                (int) (start.getZ() + direction.z * d)
-            );
+        return samples;
+    }
+    
+    /**
+     * Mean score over the loaded samples only; unloaded terrain is unknown, not bad
+     */
+    private double scoreSamples(List<ChunkSample> samples, AtomicBoolean expired) {
+        double totalScore = 0.0;
+        int loaded = 0;
+        for (ChunkSample sample : samples) {
+            if (expired.get()) break; // Out of budget
+            if (sample == null) continue;
             
-            double sampleScore = analyzeTerrain(samplePos);
-            totalScore += sampleScore;
-            samples++;
+            totalScore += getChunkScore(sample);
+            loaded++;
         }
         
-        return samples > 0 ? totalScore / samples : 0.5;
+        return loaded > 0 ? totalScore / loaded : UNKNOWN_SCORE;
     }
     
     /**
-     * Analyze terrain at a specific location
+     * Cached score of a chunk, computing it at the chunk centre on a miss
      */
-    private double analyzeTerrain(BlockPos pos) {
-        if (!client.world.isChunkLoaded(pos.getX() >> 4, pos.getZ() >> 4)) {
-            return 0.3; // Unknown terrain, slightly negative
+    private double getChunkScore(ChunkSample sample) {
+        long key = sample.key();
+        long now = System.currentTimeMillis();
+        
+        CachedScore cached = scoreCache.get(key);
+        if (cached != null && now - cached.computedAt() < CACHE_TTL_MS) {
+            cacheHits.incrementAndGet();
+            return cached.score();
         }
         
+        cacheMisses.incrementAndGet();
+        double score = analyzeTerrain(sample.chunk(), sample.centerX(), sample.centerZ());
+        scoreCache.put(key, new CachedScore(score, now));
+        return score;
+    }
+    
+    /**
+     * Drop a chunk's cached score; called when the chunk is (re)loaded, unloaded or a block in it changes
+     */
+    public void invalidateChunk(ChunkPos pos) {
+        scoreCache.remove(pos.toLong());
+    }
+    
+    /**
+     * Forget every cached score; benchmarks use it to time cold analysis
+     */
+    public void clearCache() {
+        scoreCache.clear();
+    }
+    
+    /**
+     * Analyze terrain at a specific location inside chunk
+     */
+    private double analyzeTerrain(WorldView chunk, int x, int z) {
         double score = 0.5; // Base score
         
         // Check ground level variation (prefer flatter terrain)
-        int groundLevel = findGroundLevel(pos);
+        int groundLevel = findGroundLevel(chunk, x, z);
         if (groundLevel == -1) {
-            return 0.1; // No ground found (void/ocean)
+            return 0.1; // No ground found (void)
         }
         
+        BlockPos pos = new BlockPos(x, groundLevel, z);
+        
         // Check for water bodies
-        if (isWaterArea(pos, groundLevel)) {
+        if (isWaterArea(chunk, pos, groundLevel)) {
             score -= 0.3; // Avoid large water bodies
         }
         
         // Check for lava
-        if (isLavaArea(pos, groundLevel)) {
+        if (isLavaArea(chunk, pos, groundLevel)) {
             score -= 0.5; // Strongly avoid lava
         }
         
         // Check terrain roughness
-        double roughness = calculateRoughness(pos, groundLevel);
+        double roughness = calculateRoughness(chunk, pos, groundLevel);
         score -= roughness * 0.2; // Prefer smoother terrain
         
         // Check for obstacles
-        if (hasMajorObstacles(pos, groundLevel)) {
+        if (hasMajorObstacles(chunk, pos, groundLevel)) {
             score -= 0.2;
         }
         
@@ -91,30 +186,17 @@ public class TerrainAnalyzer {
     }
     
     /**
-     * Find the ground level at a position
+     * Find the ground level at a position: the top motion-blocking, non-fluid block, one below the floor height
      */
-    private int findGroundLevel(BlockPos pos) {
-        World world = client.world;
-        
-        // Start from a reasonable height and go down
-        for (int y = Math.min(pos.getY() + 50, 250); y >= -60; y--) {
-            BlockPos checkPos = new BlockPos(pos.getX(), y, pos.getZ());
-            Block block = world.getBlockState(checkPos).getBlock();
-            
-            if (block != Blocks.AIR && block != Blocks.WATER && 
-                block != Blocks.LAVA && !isPassableBlock(block)) {
-                return y;
-            }
-        }
-        
-        return -1; // No ground found
+    private int findGroundLevel(WorldView chunk, int x, int z) {
+        int y = chunk.getFloorHeight(x, z) - 1;
+        return y >= chunk.getBottomY() ? y : -1;
     }
     
     /**
      * Check if an area is mostly water
      */
-    private boolean isWaterArea(BlockPos center, int groundLevel) {
-        World world = client.world;
+    private boolean isWaterArea(WorldView chunk, BlockPos center, int groundLevel) {
         int waterBlocks = 0;
         int totalBlocks = 0;
         
@@ -122,7 +204,7 @@ public class TerrainAnalyzer {
         for (int x = -2; x <= 2; x++) {
             for (int z = -2; z <= 2; z++) {
                 BlockPos checkPos = new BlockPos(center.getX() + x, groundLevel + 1, center.getZ() + z);
-                Block block = world.getBlockState(checkPos).getBlock();
+                Block block = chunk.getBlockState(checkPos).getBlock();
                 
                 if (block == Blocks.WATER) {
                     waterBlocks++;
@@ -137,15 +219,13 @@ public class TerrainAnalyzer {
     /**
      * Check if an area has lava
      */
-    private boolean isLavaArea(BlockPos center, int groundLevel) {
-        World world = client.world;
-        
+    private boolean isLavaArea(WorldView chunk, BlockPos center, int groundLevel) {
         // Check a 3x3 area around the position
         for (int x = -1; x <= 1; x++) {
             for (int z = -1; z <= 1; z++) {
                 for (int y = -2; y <= 2; y++) {
                     BlockPos checkPos = new BlockPos(center.getX() + x, groundLevel + y, center.getZ() + z);
-                    Block block = world.getBlockState(checkPos).getBlock();
+                    Block block = chunk.getBlockState(checkPos).getBlock();
                     
                     if (block == Blocks.LAVA) {
                         return true;
@@ -160,8 +240,7 @@ public class TerrainAnalyzer {
     /**
      * Calculate terrain roughness (height variation)
      */
-    private double calculateRoughness(BlockPos center, int baseLevel) {
-        World world = client.world;
+    private double calculateRoughness(WorldView chunk, BlockPos center, int baseLevel) {
         int totalVariation = 0;
         int samples = 0;
         
@@ -170,7 +249,7 @@ public class TerrainAnalyzer {
             for (int z = -1; z <= 1; z++) {
                 if (x == 0 && z == 0) continue; // Skip center
                 
-                int groundLevel = findGroundLevel(new BlockPos(center.getX() + x, center.getY(), center.getZ() + z));
+                int groundLevel = findGroundLevel(chunk, center.getX() + x, center.getZ() + z);
                 if (groundLevel != -1) {
                     totalVariation += Math.abs(groundLevel - baseLevel);
                     samples++;
@@ -187,20 +266,18 @@ public class TerrainAnalyzer {
     /**
      * Check for major obstacles like mountains or structures
      */
-    private boolean hasMajorObstacles(BlockPos center, int groundLevel) {
-        World world = client.world;
-        
+    private boolean hasMajorObstacles(WorldView chunk, BlockPos center, int groundLevel) {
         // Check for very tall structures
         for (int y = groundLevel + 1; y <= groundLevel + 20; y++) {
             BlockPos checkPos = new BlockPos(center.getX(), y, center.getZ());
-            Block block = world.getBlockState(checkPos).getBlock();
+            Block block = chunk.getBlockState(checkPos).getBlock();
             
             if (block != Blocks.AIR && !isPassableBlock(block)) {
                 // Check if it's a large obstacle
                 int solidBlocks = 0;
                 for (int x = -1; x <= 1; x++) {
                     for (int z = -1; z <= 1; z++) {
-                        Block surroundingBlock = world.getBlockState(checkPos.add(x, 0, z)).getBlock();
+                        Block surroundingBlock = chunk.getBlockState(checkPos.add(x, 0, z)).getBlock();
                         if (surroundingBlock != Blocks.AIR && !isPassableBlock(surroundingBlock)) {
                             solidBlocks++;
                         }
@@ -235,17 +312,68 @@ public class TerrainAnalyzer {
      * Get the best direction from multiple options
      */
     public Vec3d getBestDirection(BlockPos start, Vec3d[] directions, int distance) {
+        return getBestDirection(start, directions, distance, DEFAULT_BUDGET_MS);
+    }
+    
+    /**
+     * Blocking form for offline tools such as EscapeSimulator; the client uses getBestDirectionAsync
+     */
+    public Vec3d getBestDirection(BlockPos start, Vec3d[] directions, int distance, long budgetMs) {
+        return getBestDirectionAsync(start, directions, distance, budgetMs).join();
+    }
+    
+    /**
+     * Score directions in parallel and complete with the best one finished within budgetMs
+     * Only the chunk snapshots are taken on the calling thread, which must be the client thread;
+     * the caller never waits for the scoring. Directions still running when the budget runs out
+     * stop at their next chunk and are ignored; the chunks they did score stay cached for next time
+     */
+    public CompletableFuture<Vec3d> getBestDirectionAsync(BlockPos start, Vec3d[] directions, int distance, long budgetMs) {
+        if (!world.isAvailable()) return CompletableFuture.completedFuture(directions[0]);
+        
+        List<CompletableFuture<Double>> scores = new ArrayList<>();
+        AtomicBoolean expired = new AtomicBoolean();
+        try (var scope = DIRECTIONS_PROFILE.time()) {
+            for (Vec3d direction : directions) {
+                List<ChunkSample> samples = captureSamples(start, direction, distance);
+                scores.add(CompletableFuture.supplyAsync(() -> scoreSamples(samples, expired), workers));
+            }
+        }
+        
+        return CompletableFuture.allOf(scores.toArray(new CompletableFuture[0]))
+            .completeOnTimeout(null, budgetMs, TimeUnit.MILLISECONDS)
+            .handle((done, error) -> {
+                Vec3d best = pickBest(directions, scores);
+                expired.set(true);
+                return best;
+            });
+    }
+    
+    /**
+     * Best of the directions whose scoring has finished; unfinished and failed ones count as unscored
+     */
+    private static Vec3d pickBest(Vec3d[] directions, List<CompletableFuture<Double>> scores) {
         Vec3d bestDirection = directions[0];
         double bestScore = 0.0;
-        
-        for (Vec3d direction : directions) {
-            double score = analyzeDirection(start, direction, distance);
-            if (score > bestScore) {
-                bestScore = score;
-                bestDirection = direction;
+        for (int i = 0; i < directions.length; i++) {
+            CompletableFuture<Double> score = scores.get(i);
+            if (!score.isDone() || score.isCompletedExceptionally()) continue;
+            
+            double value = score.join();
+            if (value > bestScore) {
+                bestScore = value;
+                bestDirection = directions[i];
             }
         }
         
         return bestDirection;
     }
+    
+    public int getCacheSize() { return scoreCache.size(); }
+    public long getCacheHits() { return cacheHits.get(); }
+    public long getCacheMisses() { return cacheMisses.get(); }
+    
+    public void shutdown() {
+        workers.shutdownNow();
+    }
 }
\ No newline at end of file
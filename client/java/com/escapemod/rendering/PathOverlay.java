@@ -0,0 +1,254 @@
+package com.escapemod.rendering;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderContext;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.VertexBuffer;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BuiltBuffer;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.util.math.Vec3d;
+import org.joml.Matrix4f;
+
+import com.escapemod.utils.SystemProfiler;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Path Overlay - Path visualisation drawn as lines in the world render pass
+ * Each layer's geometry is built on the client thread when its source changes and uploaded once
+ * into a static vertex buffer; every frame after that is one draw call per layer, with nothing
+ * going through the particle engine. Vertices are stored relative to the layer's origin so float
+ * precision holds at 30k blocks out. A layer anchored to the player is redrawn at the player's
+ * interpolated position each frame, so a heading line only needs rebuilding when the heading changes
+ *
+ * Tick and render both run on the client thread, so layers need no locking
+ */
+public class PathOverlay {
+    private static final PathOverlay INSTANCE = new PathOverlay();
+    private static final SystemProfiler.Section UPLOAD_PROFILE = SystemProfiler.get().section("render.overlay_upload");
+    private static final float LINE_WIDTH = 2.0f;
+
+    /**
+     * One source of path geometry; each replaces its own lines without touching the others
+     */
+    public enum Layer {
+        PATH,      // PathfindingSystem's A* path
+        ROUTE,     // PathRenderer's block path or direct line
+        HEADING,   // EscapeBot's line along the target direction, anchored to the player
+        TRAIL      // Where the player has been
+    }
+
+    private final Map<Layer, LayerState> layers = new EnumMap<>(Layer.class);
+    private boolean particleMode = false;
+
+    private static final class LayerState {
+        Lines pending = null;       // Built but not yet uploaded
+        VertexBuffer buffer = null;
+        Vec3d origin = Vec3d.ZERO;
+        boolean followPlayer = false;
+        int vertices = 0;
+    }
+
+    public static PathOverlay get() {
+        return INSTANCE;
+    }
+
+    private PathOverlay() {
+        for (Layer layer : Layer.values()) {
+            layers.put(layer, new LayerState());
+        }
+    }
+
+    /**
+     * Draw paths with the old tick-time particles instead of lines; clears every layer
+     */
+    public void setParticleMode(boolean particleMode) {
+        this.particleMode = particleMode;
+        clearAll();
+    }
+
+    public boolean isParticleMode() { return particleMode; }
+
+    /**
+     * Replace a layer's geometry; uploaded on the next frame
+     */
+    public void set(Layer layer, Lines lines) {
+        LayerState state = layers.get(layer);
+        state.pending = lines;
+        state.origin = lines.origin;
+        state.followPlayer = lines.followPlayer;
+    }
+
+    public void clear(Layer layer) {
+        LayerState state = layers.get(layer);
+        if (state.vertices == 0 && state.pending == null) return;
+        state.pending = Lines.EMPTY;
+    }
+
+    public void clearAll() {
+        for (Layer layer : Layer.values()) {
+            clear(layer);
+        }
+    }
+
+    /**
+     * Called from WorldRenderEvents.LAST: upload changed layers, then draw every non-empty one
+     */
+    public void render(WorldRenderContext context) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.player == null) return;
+
+        boolean anyVisible = false;
+        for (LayerState state : layers.values()) {
+            if (state.pending != null) {
+                try (var scope = UPLOAD_PROFILE.time()) {
+                    upload(state);
+                }
+            }
+            anyVisible |= state.vertices > 0;
+        }
+        if (!anyVisible) return;
+
+        Vec3d camera = context.camera().getPos();
+        Vec3d playerPos = client.player.getLerpedPos(context.tickCounter().getTickDelta(true));
+        Matrix4f projection = context.projectionMatrix();
+
+        RenderSystem.enableBlend();
+        RenderSystem.defaultBlendFunc();
+        RenderSystem.disableCull();
+        RenderSystem.disableDepthTest(); // Like Baritone, the path stays visible through terrain
+        RenderSystem.lineWidth(LINE_WIDTH);
+
+        for (LayerState state : layers.values()) {
+            if (state.vertices == 0) continue;
+            Vec3d origin = state.followPlayer ? playerPos.add(state.origin) : state.origin;
+            Matrix4f view = new Matrix4f(context.positionMatrix()).translate(
+                (float) (origin.x - camera.x), (float) (origin.y - camera.y), (float) (origin.z - camera.z));
+
+            state.buffer.bind();
+            state.buffer.draw(view, projection, GameRenderer.getPositionColorProgram());
+        }
+        VertexBuffer.unbind();
+
+        RenderSystem.lineWidth(1.0f);
+        RenderSystem.enableDepthTest();
+        RenderSystem.enableCull();
+        RenderSystem.disableBlend();
+    }
+
+    private void upload(LayerState state) {
+        Lines lines = state.pending;
+        state.pending = null;
+        state.vertices = 0;
+        if (lines.vertices == 0) return;
+
+        BufferBuilder builder = Tessellator.getInstance().begin(VertexFormat.DrawMode.DEBUG_LINES, VertexFormats.POSITION_COLOR);
+        for (int i = 0; i < lines.vertices; i++) {
+            builder.vertex(lines.coords[i * 3], lines.coords[i * 3 + 1], lines.coords[i * 3 + 2]).color(lines.colors[i]);
+        }
+        BuiltBuffer built = builder.endNullable();
+        if (built == null) return;
+
+        if (state.buffer == null) {
+            state.buffer = new VertexBuffer(VertexBuffer.Usage.STATIC);
+        }
+        state.buffer.bind();
+        state.buffer.upload(built);
+        VertexBuffer.unbind();
+        state.vertices = lines.vertices;
+    }
+
+    /**
+     * Free the GPU buffers; layers are rebuilt from scratch if drawn again
+     */
+    public void close() {
+        for (LayerState state : layers.values()) {
+            if (state.buffer != null) {
+                state.buffer.close();
+                state.buffer = null;
+            }
+            state.pending = null;
+            state.vertices = 0;
+        }
+    }
+
+    /**
+     * Line segments in world space, stored as floats relative to an origin; colours are ARGB
+     */
+    public static final class Lines {
+        static final Lines EMPTY = new Lines(Vec3d.ZERO, false);
+
+        private final Vec3d origin;
+        private final boolean followPlayer;
+        private float[] coords = new float[48];
+        private int[] colors = new int[16];
+        private int vertices = 0;
+
+        private Lines(Vec3d origin, boolean followPlayer) {
+            this.origin = origin;
+            this.followPlayer = followPlayer;
+        }
+
+        /**
+         * Lines at fixed world positions; origin should be near them, e.g. the path's first point
+         */
+        public static Lines at(Vec3d origin) {
+            return new Lines(origin, false);
+        }
+
+        /**
+         * Lines given as offsets from the player, redrawn where the player is each frame
+         */
+        public static Lines followingPlayer(Vec3d offset) {
+            return new Lines(offset, true);
+        }
+
+        /**
+         * A segment; for player-following lines, from and to are offsets from the player
+         */
+        public Lines line(Vec3d from, Vec3d to, int color) {
+            return line(from.x, from.y, from.z, to.x, to.y, to.z, color);
+        }
+
+        public Lines line(double fromX, double fromY, double fromZ, double toX, double toY, double toZ, int color) {
+            Vec3d base = followPlayer ? Vec3d.ZERO : origin;
+            vertex(fromX - base.x, fromY - base.y, fromZ - base.z, color);
+            vertex(toX - base.x, toY - base.y, toZ - base.z, color);
+            return this;
+        }
+
+        /**
+         * A horizontal polygon around center, standing in for a particle ring
+         */
+        public Lines ring(Vec3d center, double radius, int sides, int color) {
+            Vec3d previous = center.add(radius, 0, 0);
+            for (int i = 1; i <= sides; i++) {
+                double angle = 2 * Math.PI * i / sides;
+                Vec3d next = center.add(Math.cos(angle) * radius, 0, Math.sin(angle) * radius);
+                line(previous, next, color);
+                previous = next;
+            }
+            return this;
+        }
+
+        private void vertex(double x, double y, double z, int color) {
+            if (vertices == colors.length) {
+                colors = Arrays.copyOf(colors, vertices * 2);
+                coords = Arrays.copyOf(coords, vertices * 6);
+            }
+            coords[vertices * 3] = (float) x;
+            coords[vertices * 3 + 1] = (float) y;
+            coords[vertices * 3 + 2] = (float) z;
+            colors[vertices] = color;
+            vertices++;
+        }
+
+        public int getVertexCount() { return vertices; }
+    }
+}
\ No newline at end of file
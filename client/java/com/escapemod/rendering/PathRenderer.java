@@ -7,20 +7,35 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.particle.ParticleTypes;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Baritone-style path rendering system
- * Renders clear, visible path lines using particles
+ * Paths and direct lines go to the PathOverlay as lines, rebuilt only when they change; in particle
+ * mode they are drawn with particles as before. The arrow and progress ring are always particles
  */
 public class PathRenderer {
     private static final double PARTICLE_SPACING = 0.5; // Distance between particles
     private static final int RENDER_DISTANCE = 200; // Max render distance
     private static final int PARTICLE_LIFETIME = 60; // Ticks particles stay visible
+    private static final double DIRECT_LINE_MOVE = 4.0; // Start movement before a direct line is rebuilt
+    
+    // Overlay colours (ARGB)
+    private static final int ROUTE_COLOR = 0xFF33DDFF;
+    private static final int ROUTE_FAR_COLOR = 0xFF8866FF;
+    private static final int MARKER_COLOR = 0xFFFFFFFF;
+    private static final int START_COLOR = 0xFF55FF55;
+    private static final int END_COLOR = 0xFFFF5533;
     
     private final MinecraftClient client;
     private int tickCounter = 0;
     
+    // Last geometry sent to the overlay
+    private List<BlockPos> publishedPath = null;
+    private Vec3d publishedLineStart = null;
+    private Vec3d publishedLineEnd = null;
+    
     public PathRenderer(MinecraftClient client) {
         this.client = client;
     }
@@ -31,6 +46,14 @@ public class PathRenderer {
     public void renderPath(List<BlockPos> path, ClientPlayerEntity player) {
         if (path == null || path.isEmpty() || client.world == null) return;
         
+        if (!PathOverlay.get().isParticleMode()) {
+            if (!path.equals(publishedPath)) {
+                publishPathLines(path);
+            }
+            return;
+        }
+        publishedPath = null;
+        
         tickCounter++;
         
         // Only update particles every 20 ticks for performance (once per second)
@@ -55,6 +78,27 @@ public class PathRenderer {
         renderWaypoints(path, playerPos);
     }
     
+    /**
+     * The whole path as lines, with rings where the particle mode draws waypoint markers
+     */
+    private void publishPathLines(List<BlockPos> path) {
+        publishedPath = new ArrayList<>(path);
+        publishedLineStart = null;
+        publishedLineEnd = null;
+        
+        Vec3d first = Vec3d.ofCenter(path.get(0));
+        PathOverlay.Lines lines = PathOverlay.Lines.at(first);
+        for (int i = 0; i < path.size() - 1; i++) {
+            lines.line(Vec3d.ofCenter(path.get(i)).add(0, 0.5, 0), Vec3d.ofCenter(path.get(i + 1)).add(0, 0.5, 0), ROUTE_COLOR);
+        }
+        for (int i = 1; i < path.size() - 1; i += 5) {
+            lines.ring(Vec3d.ofCenter(path.get(i)).add(0, 1, 0), 0.7, 12, MARKER_COLOR);
+        }
+        lines.ring(first.add(0, 0.5, 0), 0.3, 8, START_COLOR);
+        lines.ring(Vec3d.ofCenter(path.get(path.size() - 1)).add(0, 0.5, 0), 0.3, 8, END_COLOR);
+        PathOverlay.get().set(PathOverlay.Layer.ROUTE, lines);
+    }
+    
     /**
      * Render a single path segment between two points
      */
@@ -119,6 +163,15 @@ public class PathRenderer {
     public void renderDirectLine(Vec3d start, Vec3d end, ClientPlayerEntity player) {
         if (client.world == null) return;
         
+        if (!PathOverlay.get().isParticleMode()) {
+            if (publishedLineEnd == null || !publishedLineEnd.equals(end) ||
+                publishedLineStart.squaredDistanceTo(start) > DIRECT_LINE_MOVE * DIRECT_LINE_MOVE) {
+                publishDirectLine(start, end);
+            }
+            return;
+        }
+        publishedLineEnd = null;
+        
         tickCounter++;
         if (tickCounter % 40 != 0) return; // Much less frequent updates for direct line
         
@@ -170,6 +223,29 @@ public class PathRenderer {
         }
     }
     
+    /**
+     * The direct line as two colour bands with a marker every 50 blocks, capped at RENDER_DISTANCE
+     */
+    private void publishDirectLine(Vec3d start, Vec3d end) {
+        publishedPath = null;
+        publishedLineStart = start;
+        publishedLineEnd = end;
+        
+        double distance = start.distanceTo(end);
+        Vec3d cappedEnd = distance > RENDER_DISTANCE ? start.add(end.subtract(start).normalize().multiply(RENDER_DISTANCE)) : end;
+        distance = Math.min(distance, RENDER_DISTANCE);
+        
+        PathOverlay.Lines lines = PathOverlay.Lines.at(start);
+        Vec3d near = start.lerp(cappedEnd, 0.3);
+        lines.line(start, near, ROUTE_COLOR);
+        lines.line(near, cappedEnd, ROUTE_FAR_COLOR);
+        for (int dist = 50; dist < distance; dist += 50) {
+            lines.ring(start.lerp(cappedEnd, dist / distance).add(0, 0.5, 0), 0.5, 4, END_COLOR);
+        }
+        lines.ring(start, 0.3, 8, START_COLOR);
+        PathOverlay.get().set(PathOverlay.Layer.ROUTE, lines);
+    }
+    
     /**
      * Render navigation arrow showing current direction
      */
@@ -238,13 +314,11 @@ public class PathRenderer {
     }
     
     /**
-     * Spawn particle with error handling
+     * Spawn particle with error handling, within the shared visual budget
      */
     private void spawnParticle(net.minecraft.particle.ParticleEffect particle, Vec3d pos, double velX, double velY, double velZ) {
         try {
-            if (client.world != null) {
-                client.world.addParticle(particle, pos.x, pos.y, pos.z, velX, velY, velZ);
-            }
+            VisualBudget.get().spawn(client, particle, pos.x, pos.y, pos.z, velX, velY, velZ, RENDER_DISTANCE);
         } catch (Exception e) {
             // Silently handle particle spawn errors
         }
@@ -255,5 +329,9 @@ public class PathRenderer {
      */
     public void clearRendering() {
         tickCounter = 0;
+        publishedPath = null;
+        publishedLineStart = null;
+        publishedLineEnd = null;
+        PathOverlay.get().clear(PathOverlay.Layer.ROUTE);
     }
 }
\ No newline at end of file
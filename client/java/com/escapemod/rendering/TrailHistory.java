@@ -0,0 +1,225 @@
+package com.escapemod.rendering;
+
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Trail History - The particle trail kept as a simplified polyline in a fixed primitive ring
+ * A position comes in every tick but only the corners are kept. Raw points collect in a short
+ * window behind the last kept vertex; once the straight line from that vertex to the newest point
+ * strays more than TOLERANCE from any of them (or the window fills), Douglas-Peucker over the
+ * window picks which of them become vertices. Walking straight costs nothing, and the ring drops
+ * its oldest vertex when full, so memory stays the same however long the session runs
+ *
+ * Teleports and portals leave a break (a NaN vertex) instead of a line across the gap
+ */
+public class TrailHistory {
+    public static final int DEFAULT_CAPACITY = 1 << 12; // Vertices; 96 KB
+    private static final int WINDOW = 64;
+    private static final double TOLERANCE = 0.35;       // Blocks a dropped point may be off the kept line
+    private static final double MIN_STEP = 0.05;        // Closer than this to the last point counts as standing still
+    private static final double MAX_STEP = 16.0;        // Further than this in one step is a teleport
+
+    private final double[] vertices; // x, y, z per vertex
+    private final int mask;
+    private long first = 0; // Sequence number of the oldest vertex
+    private long next = 0;  // Sequence number the next vertex gets
+
+    // Raw points since the last kept vertex; slot 0 is that vertex
+    private final double[] window = new double[WINDOW * 3];
+    private final boolean[] keep = new boolean[WINDOW];
+    private int windowSize = 0;
+
+    private long recorded = 0;
+
+    public TrailHistory(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity));
+        this.vertices = new double[size * 3];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Append the player's position for this tick
+     * Returns whether the trail's points (see size) changed; false while standing still
+     */
+    public boolean record(Vec3d pos) {
+        return record(pos.x, pos.y, pos.z);
+    }
+
+    public boolean record(double x, double y, double z) {
+        if (windowSize == 0) {
+            startWindow(x, y, z);
+            recorded++;
+            return true;
+        }
+
+        int last = (windowSize - 1) * 3;
+        double stepSq = squaredDistance(window[last], window[last + 1], window[last + 2], x, y, z);
+        if (stepSq < MIN_STEP * MIN_STEP) return false;
+        recorded++;
+
+        if (stepSq > MAX_STEP * MAX_STEP) {
+            simplifyWindow();
+            if (windowSize > 1) {
+                int end = (windowSize - 1) * 3;
+                commit(window[end], window[end + 1], window[end + 2]);
+            }
+            commit(Double.NaN, Double.NaN, Double.NaN);
+            startWindow(x, y, z);
+            return true;
+        }
+
+        int slot = windowSize * 3;
+        window[slot] = x;
+        window[slot + 1] = y;
+        window[slot + 2] = z;
+        windowSize++;
+
+        if (windowSize == WINDOW || maxDeviation(0, windowSize - 1) > TOLERANCE) {
+            simplifyWindow();
+        }
+        return true;
+    }
+
+    private void startWindow(double x, double y, double z) {
+        commit(x, y, z);
+        window[0] = x;
+        window[1] = y;
+        window[2] = z;
+        windowSize = 1;
+    }
+
+    /**
+     * Keep the window's Douglas-Peucker vertices; the newest kept one (or the first, if the run
+     * was straight) becomes the window's anchor, followed by the raw points after it
+     */
+    private void simplifyWindow() {
+        int end = windowSize - 1;
+        if (end < 2) return;
+
+        for (int i = 0; i <= end; i++) {
+            keep[i] = false;
+        }
+        douglasPeucker(0, end);
+
+        int anchor = 0;
+        for (int i = 1; i < end; i++) {
+            if (keep[i]) {
+                commit(window[i * 3], window[i * 3 + 1], window[i * 3 + 2]);
+                anchor = i;
+            }
+        }
+
+        // Slide the window down so the anchor sits in slot 0; a straight run keeps only its endpoints
+        int from = anchor == 0 ? end : anchor + 1;
+        int size = 1;
+        System.arraycopy(window, anchor * 3, window, 0, 3);
+        for (int i = from; i <= end; i++) {
+            System.arraycopy(window, i * 3, window, size * 3, 3);
+            size++;
+        }
+        windowSize = size;
+    }
+
+    /**
+     * Mark the points between start and end that can't be dropped; depth is bounded by WINDOW
+     */
+    private void douglasPeucker(int start, int end) {
+        if (end - start < 2) return;
+
+        int farthest = -1;
+        double farthestDistance = TOLERANCE;
+        for (int i = start + 1; i < end; i++) {
+            double distance = distanceToSegment(i, start, end);
+            if (distance > farthestDistance) {
+                farthestDistance = distance;
+                farthest = i;
+            }
+        }
+        if (farthest < 0) return;
+
+        keep[farthest] = true;
+        douglasPeucker(start, farthest);
+        douglasPeucker(farthest, end);
+    }
+
+    private double maxDeviation(int start, int end) {
+        double max = 0;
+        for (int i = start + 1; i < end; i++) {
+            max = Math.max(max, distanceToSegment(i, start, end));
+        }
+        return max;
+    }
+
+    /**
+     * Distance from window point p to the segment between window points a and b
+     */
+    private double distanceToSegment(int p, int a, int b) {
+        double ax = window[a * 3], ay = window[a * 3 + 1], az = window[a * 3 + 2];
+        double dx = window[b * 3] - ax, dy = window[b * 3 + 1] - ay, dz = window[b * 3 + 2] - az;
+        double px = window[p * 3] - ax, py = window[p * 3 + 1] - ay, pz = window[p * 3 + 2] - az;
+
+        double lengthSq = dx * dx + dy * dy + dz * dz;
+        double t = lengthSq > 0 ? Math.max(0, Math.min(1, (px * dx + py * dy + pz * dz) / lengthSq)) : 0;
+        return Math.sqrt(squaredDistance(px, py, pz, t * dx, t * dy, t * dz));
+    }
+
+    private static double squaredDistance(double x1, double y1, double z1, double x2, double y2, double z2) {
+        double dx = x1 - x2, dy = y1 - y2, dz = z1 - z2;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private void commit(double x, double y, double z) {
+        if (next - first == mask + 1) {
+            first++;
+        }
+        int slot = (int) (next & mask) * 3;
+        vertices[slot] = x;
+        vertices[slot + 1] = y;
+        vertices[slot + 2] = z;
+        next++;
+    }
+
+    public void clear() {
+        first = next;
+        windowSize = 0;
+        recorded = 0;
+    }
+
+    /**
+     * Points of the trail from oldest to newest: the kept vertices, then the player's latest position
+     */
+    public int size() {
+        int tail = windowSize > 1 ? 1 : 0;
+        return (int) (next - first) + tail;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Raw positions recorded since the last clear, standing still excluded
+     */
+    public long getRecorded() {
+        return recorded;
+    }
+
+    public double getX(int i) { return coordinate(i, 0); }
+    public double getY(int i) { return coordinate(i, 1); }
+    public double getZ(int i) { return coordinate(i, 2); }
+
+    /**
+     * Whether point i is a break left by a teleport rather than a position
+     */
+    public boolean isBreak(int i) {
+        return Double.isNaN(getX(i));
+    }
+
+    private double coordinate(int i, int axis) {
+        long stored = next - first;
+        if (i < stored) {
+            return vertices[(int) ((first + i) & mask) * 3 + axis];
+        }
+        return window[(windowSize - 1) * 3 + axis];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.escapemod.rendering;
+
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderContext;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.Frustum;
+import net.minecraft.particle.ParticleEffect;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Visual Budget - One particle allowance per tick shared by every bot visual
+ * PathRenderer, PathfindingSystem and EscapeBot spawn through spawn(), which drops a particle if it
+ * is outside the last frame's view frustum, beyond the caller's render distance, thinned out by
+ * distance (every particle up close, one in N further out), or over what is left of this tick's
+ * budget. The budget shrinks when the frame rate drops or the particle engine is already busy,
+ * so turning visuals on can't drag FPS down. Particles spawn at tick time, so the budget refills
+ * per tick rather than per frame
+ */
+public class VisualBudget {
+    private static final VisualBudget INSTANCE = new VisualBudget();
+    public static final double DEFAULT_DISTANCE = 128.0;     // For callers without their own render distance
+    private static final int DEFAULT_BUDGET = 96;            // Particles per tick at full frame rate
+    private static final int TARGET_FPS = 60;                // Below this the budget scales down
+    private static final double FULL_DETAIL_DISTANCE = 24.0; // Closer than this nothing is thinned
+    private static final int BUSY_PARTICLES = 4000;          // Live particles above which the bot spawns nothing
+    private static final double CULL_RADIUS = 0.5;
+
+    private int budgetPerTick = DEFAULT_BUDGET;
+    private int remaining = DEFAULT_BUDGET;
+    private int lodCounter = 0;
+    private Frustum frustum = null;
+    private Vec3d cameraPos = null;
+
+    // Totals since start, for % visuals and the metrics endpoint
+    private long spawned = 0;
+    private long culled = 0;
+    private long thinned = 0;
+    private long overBudget = 0;
+
+    public static VisualBudget get() {
+        return INSTANCE;
+    }
+
+    private VisualBudget() {}
+
+    /**
+     * Called from WorldRenderEvents.AFTER_SETUP with the frame's frustum and camera
+     */
+    public void updateView(WorldRenderContext context) {
+        this.frustum = context.frustum();
+        this.cameraPos = context.camera().getPos();
+    }
+
+    /**
+     * Refill the allowance; called once at the start of the bot's tick
+     */
+    public void beginTick(MinecraftClient client) {
+        double fpsScale = Math.min(1.0, Math.max(0.25, client.getCurrentFps() / (double) TARGET_FPS));
+        int allowance = (int) (budgetPerTick * fpsScale);
+        if (liveParticles(client) > BUSY_PARTICLES) {
+            allowance = 0;
+        }
+        remaining = allowance;
+    }
+
+    private static int liveParticles(MinecraftClient client) {
+        try {
+            return Integer.parseInt(client.particleManager.getDebugString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Whether a particle at pos may be spawned this tick; takes one unit of budget if so
+     */
+    public boolean allow(Vec3d pos, double maxDistance) {
+        if (remaining <= 0) {
+            overBudget++;
+            return false;
+        }
+        if (cameraPos != null) {
+            double distanceSq = cameraPos.squaredDistanceTo(pos);
+            if (distanceSq > maxDistance * maxDistance) {
+                thinned++;
+                return false;
+            }
+            if (distanceSq > FULL_DETAIL_DISTANCE * FULL_DETAIL_DISTANCE) {
+                int stride = (int) Math.ceil(Math.sqrt(distanceSq) / FULL_DETAIL_DISTANCE);
+                if (lodCounter++ % stride != 0) {
+                    thinned++;
+                    return false;
+                }
+            }
+        }
+        if (frustum != null && !frustum.isVisible(new Box(
+                pos.x - CULL_RADIUS, pos.y - CULL_RADIUS, pos.z - CULL_RADIUS,
+                pos.x + CULL_RADIUS, pos.y + CULL_RADIUS, pos.z + CULL_RADIUS))) {
+            culled++;
+            return false;
+        }
+        remaining--;
+        spawned++;
+        return true;
+    }
+
+    /**
+     * Spawn a particle if the budget allows it
+     */
+    public void spawn(MinecraftClient client, ParticleEffect particle, double x, double y, double z,
+                      double velX, double velY, double velZ, double maxDistance) {
+        if (client.world == null || !allow(new Vec3d(x, y, z), maxDistance)) return;
+        client.world.addParticle(particle, x, y, z, velX, velY, velZ);
+    }
+
+    public void setBudgetPerTick(int budgetPerTick) {
+        this.budgetPerTick = Math.max(0, budgetPerTick);
+    }
+
+    public int getBudgetPerTick() { return budgetPerTick; }
+    public int getRemaining() { return remaining; }
+    public long getSpawned() { return spawned; }
+    public long getCulled() { return culled; }
+    public long getThinned() { return thinned; }
+    public long getOverBudget() { return overBudget; }
+}
\ No newline at end of file
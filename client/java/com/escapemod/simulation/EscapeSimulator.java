@@ -0,0 +1,236 @@
+package com.escapemod.simulation;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+import com.escapemod.pathfinding.SimplePathfinder;
+import com.escapemod.pathfinding.TerrainAnalyzer;
+import com.escapemod.world.SyntheticWorldView;
+import com.escapemod.world.WorldView;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Locale;
+
+/**
+ * Escape Simulator - Runs the bot's movement decisions against a WorldView as fast as the CPU allows
+ * The heading is picked once at the start with TerrainAnalyzer, as EscapeNavigator does when its
+ * cost grid has no data yet. Every NAVIGATION_PERIOD ticks the simulated bot then makes the calls
+ * EscapeBot's movement handler makes in the chosen mode and holds the result until the next run,
+ * as the keys stay held in game. Not modelled: the cost grid's local targets, Baritone, pauses for
+ * chunk loading and everything outside movement (crises, stashing, mining). Movement is a
+ * block-grid approximation of player physics, good for comparing builds against each other rather
+ * than predicting real travel times.
+ * Run main with the Minecraft client jar on the classpath; it prints one CSV row per terrain and mode
+ */
+public class EscapeSimulator {
+    private static final double WALK_PER_TICK = 4.317 / 20;
+    private static final double SWIM_FACTOR = 0.4;
+    private static final int NAVIGATION_PERIOD = 5;  // Same cadence as the bot's navigation task
+    private static final int LOOKAHEAD = 1000;
+    private static final int STUCK_LIMIT = 200;      // Consecutive ticks without moving before giving up
+    private static final double[] HEADING_OFFSETS = {0, 22.5, -22.5, 45, -45};
+
+    private final WorldView world;
+    private final SimplePathfinder pathfinder;
+    private final TerrainAnalyzer terrainAnalyzer;
+
+    /**
+     * The bot's movement modes, toggled in game with % simple
+     */
+    public enum Mode {
+        SIMPLE,      // handleSimpleNavigation: face the heading, jump at a block one ahead
+        PATHFINDING  // handleNewNavigation without Baritone: SimplePathfinder steers and decides jumps
+    }
+
+    /**
+     * Outcome of one run; blocks are horizontal distance walked, progress is distance gained along the goal
+     */
+    public record Result(String name, Mode mode, long ticks, double blocksTravelled, double progress,
+                         long stuckTicks, long cpuNanos, long wallNanos) {
+
+        public double blocksPerCpuSecond() {
+            return cpuNanos > 0 ? blocksTravelled / (cpuNanos / 1e9) : 0;
+        }
+
+        /**
+         * Simulated game time over wall time
+         */
+        public double speedup() {
+            return wallNanos > 0 ? ticks * 50e6 / wallNanos : 0;
+        }
+
+        public static String csvHeader() {
+            return "terrain,mode,ticks,blocks,progress,stuck_ticks,cpu_ms,wall_ms,blocks_per_cpu_s,speedup";
+        }
+
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.1f,%d,%.1f,%.1f,%.1f,%.1f",
+                name, mode.name().toLowerCase(Locale.ROOT), ticks, blocksTravelled, progress, stuckTicks,
+                cpuNanos / 1e6, wallNanos / 1e6, blocksPerCpuSecond(), speedup());
+        }
+    }
+
+    public EscapeSimulator(WorldView world) {
+        this.world = world;
+        this.pathfinder = new SimplePathfinder(world);
+        this.terrainAnalyzer = new TerrainAnalyzer(world);
+    }
+
+    /**
+     * Walk from start towards goalDirection for up to maxTicks, stopping early at the edge of the
+     * loaded area or after STUCK_LIMIT ticks in a row without moving
+     */
+    public Result run(String name, Mode mode, BlockPos start, Vec3d goalDirection, int maxTicks) {
+        Vec3d goal = new Vec3d(goalDirection.x, 0, goalDirection.z).normalize();
+        Vec3d[] candidates = new Vec3d[HEADING_OFFSETS.length];
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = rotate(goal, HEADING_OFFSETS[i]);
+        }
+
+        long cpuStart = processCpuNanos();
+        long wallStart = System.nanoTime();
+
+        // Picked once per escape, like the navigator's fallback when it has no cost grid data
+        Vec3d heading = terrainAnalyzer.getBestDirection(start, candidates, LOOKAHEAD);
+
+        Vec3d pos = Vec3d.ofBottomCenter(start);
+        Vec3d direction = heading;
+        boolean jump = false;
+        double travelled = 0;
+        long stuckTicks = 0;
+        int consecutiveStuck = 0;
+        long tick;
+
+        for (tick = 0; tick < maxTicks && consecutiveStuck < STUCK_LIMIT; tick++) {
+            BlockPos feet = BlockPos.ofFloored(pos);
+            if (!world.isChunkLoaded(feet.getX() >> 4, feet.getZ() >> 4)) break;
+
+            // The navigation task's cadence; direction and jump stay held in between
+            if (tick % NAVIGATION_PERIOD == 0) {
+                if (mode == Mode.SIMPLE) {
+                    direction = heading;
+                    jump = pathfinder.isBlockedAhead(pos, heading);
+                } else {
+                    direction = pathfinder.getMovementDirection(feet, heading);
+                    jump = pathfinder.shouldJump(feet, heading);
+                }
+                if (isFluid(feet)) {
+                    jump = true; // Both handlers hold jump in water and lava
+                }
+            }
+
+            Vec3d next = direction != null ? step(pos, direction, jump) : null;
+            if (next == null) {
+                stuckTicks++;
+                consecutiveStuck++;
+                continue;
+            }
+
+            travelled += Math.sqrt(next.subtract(pos).horizontalLengthSquared());
+            pos = next;
+            consecutiveStuck = 0;
+        }
+
+        long cpuNanos = processCpuNanos() - cpuStart;
+        long wallNanos = System.nanoTime() - wallStart;
+        double progress = pos.subtract(Vec3d.ofBottomCenter(start)).dotProduct(goal);
+        return new Result(name, mode, tick, travelled, progress, stuckTicks, cpuNanos, wallNanos);
+    }
+
+    /**
+     * One tick of walking: blocked by solid blocks at feet or head, up one block when jumping,
+     * then down onto whatever is below; fluids hold the walker at their surface and slow it
+     */
+    private Vec3d step(Vec3d pos, Vec3d direction, boolean jump) {
+        BlockPos feet = BlockPos.ofFloored(pos);
+        double speed = WALK_PER_TICK * (isFluid(feet) || isFluid(feet.down()) ? SWIM_FACTOR : 1);
+        Vec3d next = pos.add(direction.x * speed, 0, direction.z * speed);
+        BlockPos target = BlockPos.ofFloored(next);
+
+        if (!target.equals(feet)) {
+            if (!isPassable(target) || !isPassable(target.up())) {
+                if (!jump || !isPassable(target.up()) || !isPassable(target.up(2)) || !isPassable(feet.up(2))) {
+                    return null;
+                }
+                target = target.up();
+            }
+        }
+
+        int y = target.getY();
+        BlockPos.Mutable below = new BlockPos.Mutable(target.getX(), y - 1, target.getZ());
+        while (y > world.getBottomY() && isPassable(below) && !isFluid(below)) {
+            y--;
+            below.setY(y - 1);
+        }
+
+        return new Vec3d(next.x, y, next.z);
+    }
+
+    private boolean isPassable(BlockPos pos) {
+        return !world.getBlockState(pos).blocksMovement();
+    }
+
+    private boolean isFluid(BlockPos pos) {
+        return !world.getBlockState(pos).getFluidState().isEmpty();
+    }
+
+    private static Vec3d rotate(Vec3d direction, double degrees) {
+        double radians = Math.toRadians(degrees);
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        return new Vec3d(direction.x * cos - direction.z * sin, 0, direction.x * sin + direction.z * cos).normalize();
+    }
+
+    /**
+     * CPU time of the whole process, so terrain analysis on worker threads is counted too
+     */
+    static long processCpuNanos() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean processOs) {
+            return processOs.getProcessCpuTime();
+        }
+        return ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime();
+    }
+
+    public void shutdown() {
+        terrainAnalyzer.shutdown();
+    }
+
+    /**
+     * Usage: EscapeSimulator [ticks] [seed] [radiusChunks]
+     * Walks east across each synthetic terrain after a short warm-up run
+     */
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 12000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        int radiusChunks = args.length > 2 ? Integer.parseInt(args[2]) : 96;
+
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        Vec3d east = new Vec3d(1, 0, 0);
+        SyntheticWorldView warmupWorld = SyntheticWorldView.generate(SyntheticWorldView.Terrain.PLAINS, seed + 1, 16);
+        EscapeSimulator warmup = new EscapeSimulator(warmupWorld);
+        for (Mode mode : Mode.values()) {
+            warmup.run("warmup", mode, warmupWorld.getSpawn(), east, 2000);
+        }
+        warmup.shutdown();
+
+        System.out.println(Result.csvHeader());
+        for (SyntheticWorldView.Terrain terrain : SyntheticWorldView.Terrain.values()) {
+            SyntheticWorldView world = SyntheticWorldView.generate(terrain, seed, radiusChunks);
+            EscapeSimulator simulator = new EscapeSimulator(world);
+            try {
+                for (Mode mode : Mode.values()) {
+                    Result result = simulator.run(terrain.name().toLowerCase(Locale.ROOT), mode, world.getSpawn(), east, ticks);
+                    System.out.println(result.toCsv());
+                }
+            } finally {
+                simulator.shutdown();
+            }
+        }
+    }
+}
\ No newline at end of file
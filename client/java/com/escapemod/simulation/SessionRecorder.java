@@ -0,0 +1,455 @@
+package com.escapemod.simulation;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.option.GameOptions;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Vec3d;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Session Recorder - Writes what the bot saw and did each tick to a compact binary stream
+ * Per tick: player state, the key presses and heading the bot chose, the voxel window around the
+ * player (sent once, then only the slab uncovered by moving and blocks that changed inside it), a
+ * snapshot of nearby entities every few ticks and any decision that changed. SessionReplay feeds
+ * the file back through the decision logic offline.
+ *
+ * Records are encoded on the client thread into a small byte array and handed to a writer thread.
+ * The queue is bounded by bytes; when the disk can't keep up, ticks are dropped and marked with a
+ * GAP record, and the next tick resends the whole voxel window so the replayed world stays correct
+ *
+ * File layout (gzip): "EFR1", UTF game version, u8 window radius, u8 window depth, u8 window height,
+ *   then tagged records; every tick's TICK record comes after the voxel, block, entity and decision
+ *   records gathered during that tick. DIMENSION carries the world's bottom and top Y and comes
+ *   first. Block states are raw ids, so like TerrainSnapshot the file only replays on the game
+ *   version that wrote it
+ */
+public class SessionRecorder {
+    static final byte[] MAGIC = {'E', 'F', 'R', '1'};
+
+    // Record tags
+    static final int TAG_TICK = 1;
+    static final int TAG_VOXELS = 2;
+    static final int TAG_BLOCK = 3;
+    static final int TAG_ENTITIES = 4;
+    static final int TAG_DECISION = 5;
+    static final int TAG_GAP = 6;
+    static final int TAG_DIMENSION = 7;
+
+    // Key bits in TICK records
+    static final int KEY_FORWARD = 1;
+    static final int KEY_BACK = 1 << 1;
+    static final int KEY_LEFT = 1 << 2;
+    static final int KEY_RIGHT = 1 << 3;
+    static final int KEY_JUMP = 1 << 4;
+    static final int KEY_SNEAK = 1 << 5;
+    static final int KEY_SPRINT = 1 << 6;
+    static final int KEY_ATTACK = 1 << 7;
+    static final int KEY_USE = 1 << 8;
+
+    // Flag bits in TICK records
+    static final int FLAG_ON_GROUND = 1;
+    static final int FLAG_IN_WATER = 1 << 1;
+    static final int FLAG_IN_LAVA = 1 << 2;
+    static final int FLAG_ESCAPING = 1 << 3;
+    static final int FLAG_STEERED = 1 << 4; // The movement handler set jump this tick, by the recorded heading
+
+    static final int WINDOW_RADIUS = 8;   // Blocks either side of the player horizontally
+    static final int WINDOW_DEPTH = 4;    // Blocks below the feet
+    static final int WINDOW_HEIGHT = 6;   // Blocks from the feet up
+    private static final int KEYFRAME_INTERVAL = 600; // Resend the whole window every 30 seconds
+    private static final int ENTITY_INTERVAL = 10;
+    private static final double ENTITY_RADIUS = 16.0;
+    private static final int MAX_ENTITIES = 32;
+
+    private static final long MAX_QUEUED_BYTES = 8L * 1024 * 1024;
+    private static final int MAX_QUEUED_TICKS = 4096;
+    private static final byte[] END_OF_STREAM = new byte[0];
+    private static final Path RECORDING_DIR = Path.of("escapemod_recordings");
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // Current tick's records, reused between ticks
+    private final ByteArrayOutputStream tickBuffer = new ByteArrayOutputStream(8192);
+    private final DataOutputStream tickOut = new DataOutputStream(tickBuffer);
+
+    private final Map<String, Integer> decisionIds = new HashMap<>();
+    private final Map<String, String> lastDecisions = new HashMap<>();
+    private int committedDecisions = 0; // Labels below this id have reached the queue
+
+    private BlockingQueue<byte[]> queue;
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private Thread writer;
+    private volatile IOException writeError;
+    private Path file;
+
+    private boolean recording = false;
+    private long tick = 0;
+    private long droppedTicks = 0;
+    private long pendingGap = 0;
+    private long bytesWritten = 0;
+    private BlockPos windowCenter = null;
+    private String dimension = null;
+    private int ticksSinceKeyframe = 0;
+
+    /**
+     * Open a new recording in escapemod_recordings/ and start the writer thread
+     */
+    public synchronized Path start() throws IOException {
+        if (recording) return file;
+
+        Files.createDirectories(RECORDING_DIR);
+        file = RECORDING_DIR.resolve("session-" + LocalDateTime.now().format(FILE_TIME) + ".efr");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            new GZIPOutputStream(Files.newOutputStream(file)), 1 << 16));
+        out.write(MAGIC);
+        out.writeUTF(SharedConstants.getGameVersion().getName());
+        out.writeByte(WINDOW_RADIUS);
+        out.writeByte(WINDOW_DEPTH);
+        out.writeByte(WINDOW_HEIGHT);
+
+        queue = new ArrayBlockingQueue<>(MAX_QUEUED_TICKS);
+        queuedBytes.set(0);
+        writeError = null;
+        BlockingQueue<byte[]> pending = queue;
+        writer = new Thread(() -> drain(pending, out), "EscapeMod-SessionWriter");
+        writer.setDaemon(true);
+        writer.start();
+
+        tick = 0;
+        droppedTicks = 0;
+        pendingGap = 0;
+        bytesWritten = 0;
+        windowCenter = null;
+        dimension = null;
+        decisionIds.clear();
+        lastDecisions.clear();
+        committedDecisions = 0;
+        tickBuffer.reset();
+        recording = true;
+        return file;
+    }
+
+    /**
+     * Flush what's queued and close the file; blocks until the writer thread is done
+     */
+    public synchronized Path stop() throws IOException {
+        if (!recording) return null;
+        recording = false;
+
+        try {
+            queue.put(END_OF_STREAM);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        queue = null;
+        if (writeError != null) throw writeError;
+        return file;
+    }
+
+    private void drain(BlockingQueue<byte[]> pending, DataOutputStream out) {
+        try {
+            while (true) {
+                byte[] chunk = pending.take();
+                if (chunk == END_OF_STREAM) break;
+                queuedBytes.addAndGet(-chunk.length);
+                if (writeError != null) continue; // Keep draining so stop() never waits on a full queue
+                try {
+                    out.write(chunk);
+                } catch (IOException e) {
+                    writeError = e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (writeError == null) writeError = e;
+            }
+        }
+    }
+
+    /**
+     * A block changed in the world; kept if it lies inside the window already sent
+     */
+    public void onBlockChange(BlockPos pos, BlockState newState) {
+        if (!recording || windowCenter == null || !inWindow(windowCenter, pos)) return;
+        try {
+            tickOut.writeByte(TAG_BLOCK);
+            tickOut.writeInt(pos.getX());
+            tickOut.writeInt(pos.getY());
+            tickOut.writeInt(pos.getZ());
+            writeVarInt(tickOut, Block.getRawIdFromState(newState));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A decision the bot made this tick, e.g. decision("crisis", "HIDE_AND_WAIT"); only changes are written
+     */
+    public void decision(String category, String value) {
+        if (!recording || value.equals(lastDecisions.get(category))) return;
+        lastDecisions.put(category, value);
+
+        String label = category + ":" + value;
+        try {
+            tickOut.writeByte(TAG_DECISION);
+            Integer id = decisionIds.get(label);
+            if (id == null) {
+                id = decisionIds.size();
+                decisionIds.put(label, id);
+                writeVarInt(tickOut, id);
+                tickOut.writeUTF(label);
+            } else {
+                writeVarInt(tickOut, id);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Close the current tick: world window, entities, then player state and inputs
+     * heading is the direction the navigator was steering toward, null if none; steered means the
+     * movement handler ran this tick and heading is the one it decided the jump key by
+     */
+    public void recordTick(MinecraftClient client, boolean escaping, Vec3d heading, boolean steered) {
+        if (!recording) return;
+        ClientPlayerEntity player = client.player;
+        ClientWorld world = client.world;
+        if (player == null || world == null) return;
+
+        try {
+            String currentDimension = world.getRegistryKey().getValue().toString();
+            if (!currentDimension.equals(dimension)) {
+                dimension = currentDimension;
+                windowCenter = null;
+                tickOut.writeByte(TAG_DIMENSION);
+                tickOut.writeUTF(currentDimension);
+                tickOut.writeInt(world.getBottomY());
+                tickOut.writeInt(world.getTopY());
+            }
+
+            writeWindow(world, player.getBlockPos());
+            if (tick % ENTITY_INTERVAL == 0) {
+                writeEntities(world, player);
+            }
+            writePlayer(client.options, player, escaping, heading, steered);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] chunk = tickBuffer.toByteArray();
+        tickBuffer.reset();
+        tick++;
+
+        if (writeError != null || queuedBytes.get() + chunk.length > MAX_QUEUED_BYTES || !queue.offer(chunk)) {
+            // Dropped; the next tick says how many were lost and resends the window, dimension and
+            // decisions, and labels first sent in this tick are sent again when next used
+            droppedTicks++;
+            pendingGap++;
+            windowCenter = null;
+            dimension = null;
+            lastDecisions.clear();
+            decisionIds.values().removeIf(id -> id >= committedDecisions);
+            return;
+        }
+        committedDecisions = decisionIds.size();
+        queuedBytes.addAndGet(chunk.length);
+        bytesWritten += chunk.length;
+    }
+
+    private void writePlayer(GameOptions options, ClientPlayerEntity player, boolean escaping, Vec3d heading,
+                             boolean steered) throws IOException {
+        int keys = 0;
+        if (options.forwardKey.isPressed()) keys |= KEY_FORWARD;
+        if (options.backKey.isPressed()) keys |= KEY_BACK;
+        if (options.leftKey.isPressed()) keys |= KEY_LEFT;
+        if (options.rightKey.isPressed()) keys |= KEY_RIGHT;
+        if (options.jumpKey.isPressed()) keys |= KEY_JUMP;
+        if (options.sneakKey.isPressed()) keys |= KEY_SNEAK;
+        if (options.sprintKey.isPressed()) keys |= KEY_SPRINT;
+        if (options.attackKey.isPressed()) keys |= KEY_ATTACK;
+        if (options.useKey.isPressed()) keys |= KEY_USE;
+
+        int flags = 0;
+        if (player.isOnGround()) flags |= FLAG_ON_GROUND;
+        if (player.isTouchingWater()) flags |= FLAG_IN_WATER;
+        if (player.isInLava()) flags |= FLAG_IN_LAVA;
+        if (escaping) flags |= FLAG_ESCAPING;
+        if (steered) flags |= FLAG_STEERED;
+
+        if (pendingGap > 0) {
+            tickOut.writeByte(TAG_GAP);
+            writeVarLong(tickOut, pendingGap);
+            pendingGap = 0;
+        }
+
+        tickOut.writeByte(TAG_TICK);
+        writeVarLong(tickOut, tick);
+        tickOut.writeDouble(player.getX());
+        tickOut.writeDouble(player.getY());
+        tickOut.writeDouble(player.getZ());
+        tickOut.writeFloat(player.getYaw());
+        tickOut.writeFloat(player.getPitch());
+        tickOut.writeFloat(player.getHealth());
+        tickOut.writeByte(player.getHungerManager().getFoodLevel());
+        tickOut.writeByte(flags);
+        tickOut.writeShort(keys);
+        tickOut.writeFloat(heading != null ? (float) heading.x : Float.NaN);
+        tickOut.writeFloat(heading != null ? (float) heading.z : Float.NaN);
+    }
+
+    /**
+     * Send the window around feet: all of it on a keyframe or a jump, otherwise only the slabs the
+     * move uncovered. Two equal boxes differ by at most one slab per axis
+     */
+    private void writeWindow(ClientWorld world, BlockPos feet) throws IOException {
+        BlockPos previous = windowCenter;
+        ticksSinceKeyframe++;
+        if (previous != null && previous.equals(feet) && ticksSinceKeyframe < KEYFRAME_INTERVAL) return;
+
+        int minX = feet.getX() - WINDOW_RADIUS, maxX = feet.getX() + WINDOW_RADIUS;
+        int minY = feet.getY() - WINDOW_DEPTH, maxY = feet.getY() + WINDOW_HEIGHT - 1;
+        int minZ = feet.getZ() - WINDOW_RADIUS, maxZ = feet.getZ() + WINDOW_RADIUS;
+        windowCenter = feet;
+
+        if (previous == null || ticksSinceKeyframe >= KEYFRAME_INTERVAL ||
+            Math.abs(feet.getX() - previous.getX()) > 2 * WINDOW_RADIUS ||
+            Math.abs(feet.getZ() - previous.getZ()) > 2 * WINDOW_RADIUS ||
+            Math.abs(feet.getY() - previous.getY()) >= WINDOW_DEPTH + WINDOW_HEIGHT) {
+            ticksSinceKeyframe = 0;
+            writeBox(world, minX, minY, minZ, maxX, maxY, maxZ);
+            return;
+        }
+
+        int oldMinX = previous.getX() - WINDOW_RADIUS, oldMaxX = previous.getX() + WINDOW_RADIUS;
+        int oldMinY = previous.getY() - WINDOW_DEPTH, oldMaxY = previous.getY() + WINDOW_HEIGHT - 1;
+        int oldMinZ = previous.getZ() - WINDOW_RADIUS, oldMaxZ = previous.getZ() + WINDOW_RADIUS;
+
+        // New columns along X, then new layers along Y within the shared X range, then the rest along Z
+        int dx = feet.getX() - previous.getX();
+        int dy = feet.getY() - previous.getY();
+        int dz = feet.getZ() - previous.getZ();
+        int sharedMinX = Math.max(minX, oldMinX), sharedMaxX = Math.min(maxX, oldMaxX);
+        int sharedMinY = Math.max(minY, oldMinY), sharedMaxY = Math.min(maxY, oldMaxY);
+        if (dx > 0) writeBox(world, oldMaxX + 1, minY, minZ, maxX, maxY, maxZ);
+        if (dx < 0) writeBox(world, minX, minY, minZ, oldMinX - 1, maxY, maxZ);
+        if (dy > 0) writeBox(world, sharedMinX, oldMaxY + 1, minZ, sharedMaxX, maxY, maxZ);
+        if (dy < 0) writeBox(world, sharedMinX, minY, minZ, sharedMaxX, oldMinY - 1, maxZ);
+        if (dz > 0) writeBox(world, sharedMinX, sharedMinY, oldMaxZ + 1, sharedMaxX, sharedMaxY, maxZ);
+        if (dz < 0) writeBox(world, sharedMinX, sharedMinY, minZ, sharedMaxX, sharedMaxY, oldMinZ - 1);
+    }
+
+    /**
+     * Inclusive box of raw state ids, x fastest, then z, then y; unloaded chunks go out as air
+     */
+    private void writeBox(ClientWorld world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) throws IOException {
+        tickOut.writeByte(TAG_VOXELS);
+        tickOut.writeInt(minX);
+        tickOut.writeInt(minY);
+        tickOut.writeInt(minZ);
+        tickOut.writeByte(maxX - minX + 1);
+        tickOut.writeByte(maxY - minY + 1);
+        tickOut.writeByte(maxZ - minZ + 1);
+
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    writeVarInt(tickOut, Block.getRawIdFromState(world.getBlockState(pos.set(x, y, z))));
+                }
+            }
+        }
+    }
+
+    private void writeEntities(ClientWorld world, ClientPlayerEntity player) throws IOException {
+        Box area = player.getBoundingBox().expand(ENTITY_RADIUS);
+        var nearby = world.getOtherEntities(player, area);
+        int count = Math.min(nearby.size(), MAX_ENTITIES);
+
+        tickOut.writeByte(TAG_ENTITIES);
+        tickOut.writeByte(count);
+        for (int i = 0; i < count; i++) {
+            Entity entity = nearby.get(i);
+            writeVarInt(tickOut, Registries.ENTITY_TYPE.getRawId(entity.getType()));
+            tickOut.writeFloat((float) (entity.getX() - player.getX()));
+            tickOut.writeFloat((float) (entity.getY() - player.getY()));
+            tickOut.writeFloat((float) (entity.getZ() - player.getZ()));
+            tickOut.writeFloat(entity instanceof LivingEntity living ? living.getHealth() : 0);
+        }
+    }
+
+    private static boolean inWindow(BlockPos center, BlockPos pos) {
+        return Math.abs(pos.getX() - center.getX()) <= WINDOW_RADIUS &&
+               Math.abs(pos.getZ() - center.getZ()) <= WINDOW_RADIUS &&
+               pos.getY() >= center.getY() - WINDOW_DEPTH &&
+               pos.getY() < center.getY() + WINDOW_HEIGHT;
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("VarInt too long");
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("VarLong too long");
+    }
+
+    public boolean isRecording() { return recording; }
+    public long getTicksRecorded() { return tick; }
+    public long getDroppedTicks() { return droppedTicks; }
+    public long getBytesWritten() { return bytesWritten; }
+    public long getQueuedBytes() { return queuedBytes.get(); }
+    public Path getFile() { return file; }
+}
\ No newline at end of file
@@ -0,0 +1,275 @@
+package com.escapemod.simulation;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.Block;
+import net.minecraft.entity.EntityType;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+import com.escapemod.pathfinding.SimplePathfinder;
+import com.escapemod.world.ReplayWorldView;
+import com.escapemod.world.WorldView;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Session Replay - Feeds a SessionRecorder file back through the bot's decision logic offline
+ * The world is rebuilt tick by tick from the recorded voxel windows. At each tick where the bot's
+ * movement handler ran (FLAG_STEERED), the handler of the recorded mode is re-run and timed at the
+ * recorded position and heading: in simple mode SimplePathfinder.isBlockedAhead, as
+ * EscapeBot.shouldJumpSimple calls it; in pathfinding mode SimplePathfinder's steering and jump
+ * check, as EscapeNavigator calls them. The slowest ticks come out with their position and the last
+ * decision in force, so a stall seen in game can be found, run again under a profiler with a tick
+ * range, and re-checked after a fix. Jumps the replayed logic wants but the recording didn't press
+ * (or the reverse) are counted, so a fix that changes behaviour shows up too. Recordings made before
+ * the flag existed have no steered ticks and replay nothing.
+ * Run main with the Minecraft client jar on the classpath
+ */
+public class SessionReplay {
+    private static final int EVICT_INTERVAL = 100;
+    private static final int EVICT_RADIUS_CHUNKS = 8;
+
+    private final ReplayWorldView world = new ReplayWorldView();
+    private final SimplePathfinder pathfinder = new SimplePathfinder(world);
+
+    /**
+     * One slow replayed tick; decision is the last decision recorded before it
+     */
+    public record Stall(long tick, long nanos, BlockPos pos, String decision) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "tick %d: %.2f ms at %d, %d, %d (%s)",
+                tick, nanos / 1e6, pos.getX(), pos.getY(), pos.getZ(), decision);
+        }
+    }
+
+    private record RecordedEntity(int type, float dx, float dy, float dz) {}
+
+    public record Result(String name, long ticks, long replayedTicks, long droppedTicks, long decisions,
+                         long jumpMismatches, long cpuNanos, long wallNanos, boolean truncated, List<Stall> slowest) {
+
+        public static String csvHeader() {
+            return "recording,ticks,replayed,dropped,decisions,jump_mismatches,cpu_ms,wall_ms,us_per_tick,truncated";
+        }
+
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%.1f,%.1f,%.1f,%b",
+                name, ticks, replayedTicks, droppedTicks, decisions, jumpMismatches,
+                cpuNanos / 1e6, wallNanos / 1e6, replayedTicks > 0 ? wallNanos / 1e3 / replayedTicks : 0, truncated);
+        }
+    }
+
+    /**
+     * Replay the whole file, timing the decision logic only for ticks in [fromTick, toTick]
+     * The world is still rebuilt from the start, so the ticks in range see what the bot saw
+     */
+    public Result run(Path file, long fromTick, long toTick, int keepSlowest) throws IOException {
+        PriorityQueue<Stall> slowest = new PriorityQueue<>(Comparator.comparingLong(Stall::nanos));
+        List<String> labels = new ArrayList<>();
+        List<RecordedEntity> entities = new ArrayList<>();
+        String decision = "none";
+        String mode = null; // Last "mode:" decision: simple, pathfinding or mining
+        long ticks = 0, replayed = 0, dropped = 0, decisions = 0, jumpMismatches = 0;
+        boolean truncated = false;
+
+        long cpuStart = EscapeSimulator.processCpuNanos();
+        long wallStart = System.nanoTime();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file)), 1 << 16))) {
+            readHeader(in, file);
+
+            while (true) {
+                int tag = in.read();
+                if (tag < 0) break;
+
+                switch (tag) {
+                    case SessionRecorder.TAG_DIMENSION -> {
+                        in.readUTF();
+                        world.reset(in.readInt(), in.readInt());
+                    }
+                    case SessionRecorder.TAG_VOXELS -> readBox(in);
+                    case SessionRecorder.TAG_BLOCK -> world.setBlockState(in.readInt(), in.readInt(), in.readInt(),
+                        Block.getStateFromRawId(SessionRecorder.readVarInt(in)));
+                    case SessionRecorder.TAG_ENTITIES -> readEntities(in, entities);
+                    case SessionRecorder.TAG_DECISION -> {
+                        int id = SessionRecorder.readVarInt(in);
+                        if (id == labels.size()) labels.add(in.readUTF());
+                        decision = labels.get(id);
+                        if (decision.startsWith("mode:")) mode = decision.substring(5);
+                        decisions++;
+                    }
+                    case SessionRecorder.TAG_GAP -> dropped += SessionRecorder.readVarLong(in);
+                    case SessionRecorder.TAG_TICK -> {
+                        long tick = SessionRecorder.readVarLong(in);
+                        Vec3d pos = new Vec3d(in.readDouble(), in.readDouble(), in.readDouble());
+                        in.readFloat(); // Yaw
+                        in.readFloat(); // Pitch
+                        in.readFloat(); // Health
+                        in.readUnsignedByte(); // Food
+                        int flags = in.readUnsignedByte();
+                        int keys = in.readUnsignedShort();
+                        float headingX = in.readFloat();
+                        float headingZ = in.readFloat();
+                        ticks++;
+
+                        if (!entities.isEmpty()) {
+                            setPlayers(pos, entities);
+                            entities.clear();
+                        }
+                        BlockPos feet = BlockPos.ofFloored(pos);
+                        if (tick % EVICT_INTERVAL == 0) {
+                            world.evictBeyond(feet.getX() >> 4, feet.getZ() >> 4, EVICT_RADIUS_CHUNKS);
+                        }
+                        if (tick < fromTick || tick > toTick || Float.isNaN(headingX) ||
+                            (flags & SessionRecorder.FLAG_STEERED) == 0 || !isMovementMode(mode)) {
+                            continue;
+                        }
+
+                        long start = System.nanoTime();
+                        boolean jump = decide(mode, pos, feet, new Vec3d(headingX, 0, headingZ));
+                        long elapsed = System.nanoTime() - start;
+                        replayed++;
+
+                        // The bot holds jump in fluids whatever the pathfinder says
+                        boolean inFluid = (flags & (SessionRecorder.FLAG_IN_WATER | SessionRecorder.FLAG_IN_LAVA)) != 0;
+                        if (!inFluid && jump != ((keys & SessionRecorder.KEY_JUMP) != 0)) {
+                            jumpMismatches++;
+                        }
+
+                        if (slowest.size() < keepSlowest) {
+                            slowest.add(new Stall(tick, elapsed, feet, decision));
+                        } else if (keepSlowest > 0 && elapsed > slowest.peek().nanos()) {
+                            slowest.poll();
+                            slowest.add(new Stall(tick, elapsed, feet, decision));
+                        }
+                    }
+                    default -> throw new IOException("Unknown record " + tag + " after tick " + ticks + " in " + file);
+                }
+            }
+        } catch (EOFException e) {
+            truncated = true; // The client stopped without closing the file; everything before is usable
+        }
+
+        long cpuNanos = EscapeSimulator.processCpuNanos() - cpuStart;
+        long wallNanos = System.nanoTime() - wallStart;
+        List<Stall> stalls = new ArrayList<>(slowest);
+        stalls.sort(Comparator.comparingLong(Stall::nanos).reversed());
+        return new Result(file.getFileName().toString(), ticks, replayed, dropped, decisions, jumpMismatches,
+            cpuNanos, wallNanos, truncated, stalls);
+    }
+
+    private static boolean isMovementMode(String mode) {
+        return "simple".equals(mode) || "pathfinding".equals(mode);
+    }
+
+    /**
+     * The calls the recorded mode's movement handler makes for one tick; returns whether it would jump
+     */
+    private boolean decide(String mode, Vec3d pos, BlockPos feet, Vec3d heading) {
+        if ("simple".equals(mode)) {
+            return pathfinder.isBlockedAhead(pos, heading);
+        }
+
+        pathfinder.getMovementDirection(feet, heading); // Steering; the jump check uses the heading itself
+        return pathfinder.shouldJump(feet, heading);
+    }
+
+    private static void readHeader(DataInputStream in, Path file) throws IOException {
+        byte[] magic = new byte[SessionRecorder.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, SessionRecorder.MAGIC)) {
+            throw new IOException("Not a session recording: " + file);
+        }
+        String version = in.readUTF();
+        if (!version.equals(SharedConstants.getGameVersion().getName())) {
+            throw new IOException("Recording was made with " + version + ", block ids don't match this version");
+        }
+        in.readUnsignedByte(); // Window radius, depth and height; boxes carry their own bounds
+        in.readUnsignedByte();
+        in.readUnsignedByte();
+    }
+
+    private void readBox(DataInputStream in) throws IOException {
+        int minX = in.readInt();
+        int minY = in.readInt();
+        int minZ = in.readInt();
+        int sizeX = in.readUnsignedByte();
+        int sizeY = in.readUnsignedByte();
+        int sizeZ = in.readUnsignedByte();
+
+        for (int y = minY; y < minY + sizeY; y++) {
+            for (int z = minZ; z < minZ + sizeZ; z++) {
+                for (int x = minX; x < minX + sizeX; x++) {
+                    world.setBlockState(x, y, z, Block.getStateFromRawId(SessionRecorder.readVarInt(in)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Entity type raw id and offset from the player; positions are resolved at the tick record
+     */
+    private static void readEntities(DataInputStream in, List<RecordedEntity> entities) throws IOException {
+        entities.clear();
+        int count = in.readUnsignedByte();
+        for (int i = 0; i < count; i++) {
+            int type = SessionRecorder.readVarInt(in);
+            float dx = in.readFloat();
+            float dy = in.readFloat();
+            float dz = in.readFloat();
+            in.readFloat(); // Health
+            entities.add(new RecordedEntity(type, dx, dy, dz));
+        }
+    }
+
+    private void setPlayers(Vec3d pos, List<RecordedEntity> entities) {
+        int playerType = Registries.ENTITY_TYPE.getRawId(EntityType.PLAYER);
+        List<WorldView.PlayerView> players = new ArrayList<>();
+        for (RecordedEntity entity : entities) {
+            if (entity.type() == playerType) {
+                players.add(new WorldView.PlayerView("player", pos.add(entity.dx(), entity.dy(), entity.dz())));
+            }
+        }
+        world.setPlayers(players);
+    }
+
+    /**
+     * Usage: SessionReplay <recording.efr> [slowest ticks to list] [from tick] [to tick]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SessionReplay <recording.efr> [slowest ticks to list] [from tick] [to tick]");
+            System.exit(1);
+        }
+        Path file = Path.of(args[0]);
+        int keepSlowest = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long fromTick = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        long toTick = args.length > 3 ? Long.parseLong(args[3]) : Long.MAX_VALUE;
+
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        Result result = new SessionReplay().run(file, fromTick, toTick, keepSlowest);
+        System.out.println(Result.csvHeader());
+        System.out.println(result.toCsv());
+        if (!result.slowest().isEmpty()) {
+            System.out.println();
+            System.out.println("Slowest ticks:");
+            for (Stall stall : result.slowest()) {
+                System.out.println("  " + stall);
+            }
+        }
+    }
+}
\ No newline at end of file
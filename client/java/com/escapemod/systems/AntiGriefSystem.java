@@ -5,19 +5,27 @@ import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
-import net.minecraft.world.World;
 import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
-import net.minecraft.entity.player.PlayerEntity;
+
+import com.escapemod.utils.BotEvents;
+import com.escapemod.utils.SystemProfiler;
+import com.escapemod.world.ClientWorldView;
+import com.escapemod.world.WorldView;
+import com.escapemod.world.WorldView.PlayerView;
 
 import java.util.*;
 
 public class AntiGriefSystem {
+    private static final SystemProfiler.Section SCAN_PROFILE = SystemProfiler.get().section("scan.anti_grief");
+    
     private MinecraftClient client;
+    private final WorldView world;
     private Set<BlockPos> suspiciousBlocks = new HashSet<>();
     private Set<BlockPos> knownTraps = new HashSet<>();
     private Map<String, Long> playerLastSeen = new HashMap<>();
-    private int scanCooldown = 0;
+    private boolean scanRequested = false;
+    private BlockPos lastScanCenter = null; // Area already scanned; block changes inside it arrive as events
     private long lastWarningMessage = 0;
     
     // Dangerous block patterns
@@ -32,16 +40,22 @@ public class AntiGriefSystem {
     };
     
     public AntiGriefSystem() {
+        this(new ClientWorldView(MinecraftClient.getInstance()));
+    }
+    
+    public AntiGriefSystem(WorldView world) {
         this.client = MinecraftClient.getInstance();
+        this.world = world;
     }
     
     public void tick() {
         if (client.player == null || client.world == null) return;
         
-        scanCooldown--;
-        if (scanCooldown <= 0) {
+        // Periodic scans are scheduled by the caller; paranoid mode asks for a full one right away
+        if (scanRequested) {
+            scanRequested = false;
+            lastScanCenter = null;
             scanForThreats();
-            scanCooldown = 40; // Scan every 2 seconds
         }
         
         // Check for immediate dangers
@@ -51,45 +65,110 @@ public class AntiGriefSystem {
         monitorPlayers();
     }
     
-    private void scanForThreats() {
-        ClientPlayerEntity player = client.player;
-        World world = client.world;
-        BlockPos playerPos = player.getBlockPos();
+    public void scanForThreats() {
+        if (client.player == null || client.world == null) return;
         
-        // Scan area around player
+        scanArea(client.player.getBlockPos());
+    }
+    
+    /**
+     * Scan the area around center; the part covered by the previous scan is kept up to date by block change events
+     */
+    public void scanArea(BlockPos center) {
+        BotEvents.WorldScan event = new BotEvents.WorldScan();
+        event.begin();
+        try (var scope = SCAN_PROFILE.time()) {
+            scanUncovered(center, event);
+        }
+    }
+    
+    private void scanUncovered(BlockPos center, BotEvents.WorldScan event) {
+        int inspected = 0;
+        int found = 0;
         for (int x = -15; x <= 15; x++) {
             for (int z = -15; z <= 15; z++) {
                 for (int y = -5; y <= 5; y++) {
-                    BlockPos checkPos = playerPos.add(x, y, z);
-                    Block block = world.getBlockState(checkPos).getBlock();
-                    
-                    // Check for trap blocks
-                    if (isTrapBlock(block)) {
-                        if (!knownTraps.contains(checkPos)) {
-                            knownTraps.add(checkPos);
-                            alertTrap(checkPos, block);
-                        }
-                    }
+                    BlockPos checkPos = center.add(x, y, z);
+                    if (lastScanCenter != null && isInScanArea(lastScanCenter, checkPos)) continue;
                     
-                    // Check for suspicious patterns
-                    if (isSuspiciousPattern(world, checkPos)) {
-                        if (!suspiciousBlocks.contains(checkPos)) {
-                            suspiciousBlocks.add(checkPos);
-                            alertSuspiciousStructure(checkPos);
-                        }
-                    }
+                    found += inspectBlock(checkPos);
+                    inspected++;
                 }
             }
         }
+        lastScanCenter = center;
         
         // Clean up old entries
-        cleanupOldEntries(playerPos);
+        cleanupOldEntries(center);
+        event.finish("anti_grief", center, inspected, found);
+    }
+    
+    /**
+     * Returns how many new traps or suspicious structures were found at this position
+     */
+    private int inspectBlock(BlockPos checkPos) {
+        Block block = world.getBlockState(checkPos).getBlock();
+        int found = 0;
+        
+        // Check for trap blocks
+        if (isTrapBlock(block)) {
+            if (!knownTraps.contains(checkPos)) {
+                knownTraps.add(checkPos);
+                alertTrap(checkPos, block);
+                found++;
+            }
+        }
+        
+        // Check for suspicious patterns
+        if (isSuspiciousPattern(checkPos)) {
+            if (!suspiciousBlocks.contains(checkPos)) {
+                suspiciousBlocks.add(checkPos);
+                alertSuspiciousStructure(checkPos);
+                found++;
+            }
+        }
+        return found;
+    }
+    
+    private static boolean isInScanArea(BlockPos center, BlockPos pos) {
+        return Math.abs(pos.getX() - center.getX()) <= 15 &&
+               Math.abs(pos.getZ() - center.getZ()) <= 15 &&
+               Math.abs(pos.getY() - center.getY()) <= 5;
+    }
+    
+    /**
+     * Re-check a changed block inside the scanned area, plus the blocks whose pattern checks read it
+     */
+    public void onBlockChange(BlockPos pos) {
+        if (lastScanCenter == null || client.player == null || client.world == null) return;
+        
+        // Pressure plates look up to 5 blocks down; hidden lava looks 1 block up
+        for (int dy = -1; dy <= 5; dy++) {
+            BlockPos affected = pos.up(dy);
+            if (isInScanArea(lastScanCenter, affected)) {
+                inspectBlock(affected);
+            }
+        }
+    }
+    
+    /**
+     * A chunk arriving inside the scanned area was read as air before; rescan everything next time
+     */
+    public void onChunkLoad(int chunkX, int chunkZ) {
+        if (lastScanCenter == null) return;
+        
+        if (Math.abs((chunkX << 4) + 8 - lastScanCenter.getX()) <= 15 + 8 &&
+            Math.abs((chunkZ << 4) + 8 - lastScanCenter.getZ()) <= 15 + 8) {
+            lastScanCenter = null;
+        }
+    }
+    
+    public void onDimensionChange() {
+        lastScanCenter = null;
     }
     
     private void checkImmediateDangers() {
-        ClientPlayerEntity player = client.player;
-        World world = client.world;
-        BlockPos playerPos = player.getBlockPos();
+        BlockPos playerPos = client.player.getBlockPos();
         
         // Check blocks directly around player
         BlockPos[] checkPositions = {
@@ -121,16 +200,12 @@ public class AntiGriefSystem {
     
     private void monitorPlayers() {
         ClientPlayerEntity player = client.player;
-        List<PlayerEntity> nearbyPlayers = client.world.getEntitiesByClass(
-            PlayerEntity.class,
-            player.getBoundingBox().expand(50),
-            p -> p != player
-        );
+        List<PlayerView> nearbyPlayers = world.getPlayersNear(player.getPos(), 50);
         
         long currentTime = System.currentTimeMillis();
         
-        for (PlayerEntity nearbyPlayer : nearbyPlayers) {
-            String playerName = nearbyPlayer.getName().getString();
+        for (PlayerView nearbyPlayer : nearbyPlayers) {
+            String playerName = nearbyPlayer.name();
             Long lastSeen = playerLastSeen.get(playerName);
             
             if (lastSeen == null) {
@@ -141,7 +216,7 @@ public class AntiGriefSystem {
             playerLastSeen.put(playerName, currentTime);
             
             // Check if player is too close
-            double distance = player.getPos().distanceTo(nearbyPlayer.getPos());
+            double distance = player.getPos().distanceTo(nearbyPlayer.pos());
             if (distance < 10) {
                 alertPlayerTooClose(nearbyPlayer, distance);
             }
@@ -161,7 +236,7 @@ public class AntiGriefSystem {
         return false;
     }
     
-    private boolean isSuspiciousPattern(World world, BlockPos pos) {
+    private boolean isSuspiciousPattern(BlockPos pos) {
         Block block = world.getBlockState(pos).getBlock();
         
         // Check for suspicious blocks
@@ -195,7 +270,8 @@ public class AntiGriefSystem {
     }
     
     private void alertTrap(BlockPos pos, Block block) {
-        ClientPlayerEntity player = client.player;
+        ClientPlayerEntity player = getPlayer();
+        if (player == null) return; // Headless scan
         double distance = Math.sqrt(player.getBlockPos().getSquaredDistance(pos));
         
         // Only show trap alerts every 15 seconds
@@ -211,7 +287,8 @@ public class AntiGriefSystem {
     }
     
     private void alertSuspiciousStructure(BlockPos pos) {
-        ClientPlayerEntity player = client.player;
+        ClientPlayerEntity player = getPlayer();
+        if (player == null) return;
         double distance = Math.sqrt(player.getBlockPos().getSquaredDistance(pos));
         
         // Only show suspicious structure alerts every 20 seconds
@@ -222,20 +299,20 @@ public class AntiGriefSystem {
         }
     }
     
-    private void alertPlayerDetected(PlayerEntity detectedPlayer) {
+    private void alertPlayerDetected(PlayerView detectedPlayer) {
         ClientPlayerEntity player = client.player;
-        double distance = player.getPos().distanceTo(detectedPlayer.getPos());
+        double distance = player.getPos().distanceTo(detectedPlayer.pos());
         
         player.sendMessage(Text.literal("§e[AntiGrief] Player detected: " + 
-            detectedPlayer.getName().getString() + " (Distance: " + String.format("%.1f", distance) + ")"), false);
+            detectedPlayer.name() + " (Distance: " + String.format("%.1f", distance) + ")"), false);
     }
     
-    private void alertPlayerTooClose(PlayerEntity nearbyPlayer, double distance) {
+    private void alertPlayerTooClose(PlayerView nearbyPlayer, double distance) {
         ClientPlayerEntity player = client.player;
         
         if (System.currentTimeMillis() % 5000 < 100) { // Alert every 5 seconds
             player.sendMessage(Text.literal("§c[AntiGrief] WARNING: " + 
-                nearbyPlayer.getName().getString() + " is very close! (" + 
+                nearbyPlayer.name() + " is very close! (" + 
                 String.format("%.1f", distance) + " blocks)"), true);
         }
     }
@@ -260,7 +337,6 @@ public class AntiGriefSystem {
     }
     
     private Vec3d findSafeDirection(Vec3d playerPos) {
-        World world = client.world;
         BlockPos playerBlockPos = BlockPos.ofFloored(playerPos);
         
         // Check 8 directions around player
@@ -301,6 +377,10 @@ public class AntiGriefSystem {
         suspiciousBlocks.removeIf(pos -> pos.getSquaredDistance(playerPos) > 2500);
     }
     
+    private ClientPlayerEntity getPlayer() {
+        return client != null ? client.player : null;
+    }
+    
     public void reportTrap(BlockPos pos, String trapType) {
         knownTraps.add(pos);
         ClientPlayerEntity player = client.player;
@@ -333,6 +413,6 @@ public class AntiGriefSystem {
         if (player != null) {
             player.sendMessage(Text.literal("§c[AntiGrief] Paranoid mode enabled - maximum threat detection!"), false);
         }
-        scanCooldown = 10; // Scan every 0.5 seconds in paranoid mode
+        scanRequested = true; // Scan on the next tick
     }
 }
\ No newline at end of file
@@ -4,56 +4,56 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.screen.CraftingScreenHandler;
 import net.minecraft.screen.ScreenHandler;
 import net.minecraft.text.Text;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class AutoCraftingSystem {
     private MinecraftClient client;
-    private int craftingCooldown = 0;
     private long lastCraftMessage = 0;
     
-    // Crafting recipes priority order
-    private static final Item[][] PRIORITY_CRAFTS = {
+    private final CraftingPlanner planner = new CraftingPlanner();
+    private CraftingPlanner.CraftingPlan currentPlan = null;
+    private boolean inventoryChanged = true;
+    private boolean nothingNeeded = false; // Last check found nothing to craft from the inventory as it was
+    
+    // Crafting goals in priority order; recipes and intermediate steps live in CraftingPlanner
+    private static final Item[] PRIORITY_CRAFTS = {
         // Tools (highest priority)
-        {Items.WOODEN_PICKAXE, Items.OAK_PLANKS, Items.STICK},
-        {Items.STONE_PICKAXE, Items.COBBLESTONE, Items.STICK},
-        {Items.IRON_PICKAXE, Items.IRON_INGOT, Items.STICK},
-        {Items.DIAMOND_PICKAXE, Items.DIAMOND, Items.STICK},
+        Items.WOODEN_PICKAXE,
+        Items.STONE_PICKAXE,
+        Items.IRON_PICKAXE,
+        Items.DIAMOND_PICKAXE,
         
-        {Items.WOODEN_SWORD, Items.OAK_PLANKS, Items.STICK},
-        {Items.STONE_SWORD, Items.COBBLESTONE, Items.STICK},
-        {Items.IRON_SWORD, Items.IRON_INGOT, Items.STICK},
-        {Items.DIAMOND_SWORD, Items.DIAMOND, Items.STICK},
+        Items.WOODEN_SWORD,
+        Items.STONE_SWORD,
+        Items.IRON_SWORD,
+        Items.DIAMOND_SWORD,
         
         // Basic items
-        {Items.STICK, Items.OAK_PLANKS},
-        {Items.OAK_PLANKS, Items.OAK_LOG},
-        {Items.CRAFTING_TABLE, Items.OAK_PLANKS},
-        {Items.FURNACE, Items.COBBLESTONE},
+        Items.CRAFTING_TABLE,
+        Items.FURNACE,
         
         // Food
-        {Items.BREAD, Items.WHEAT},
+        Items.BREAD,
         
         // Armor
-        {Items.LEATHER_HELMET, Items.LEATHER},
-        {Items.LEATHER_CHESTPLATE, Items.LEATHER},
-        {Items.LEATHER_LEGGINGS, Items.LEATHER},
-        {Items.LEATHER_BOOTS, Items.LEATHER},
-        
-        {Items.IRON_HELMET, Items.IRON_INGOT},
-        {Items.IRON_CHESTPLATE, Items.IRON_INGOT},
-        {Items.IRON_LEGGINGS, Items.IRON_INGOT},
-        {Items.IRON_BOOTS, Items.IRON_INGOT},
-        
-        {Items.DIAMOND_HELMET, Items.DIAMOND},
-        {Items.DIAMOND_CHESTPLATE, Items.DIAMOND},
-        {Items.DIAMOND_LEGGINGS, Items.DIAMOND},
-        {Items.DIAMOND_BOOTS, Items.DIAMOND}
+        Items.LEATHER_HELMET,
+        Items.LEATHER_CHESTPLATE,
+        Items.LEATHER_LEGGINGS,
+        Items.LEATHER_BOOTS,
+        
+        Items.IRON_HELMET,
+        Items.IRON_CHESTPLATE,
+        Items.IRON_LEGGINGS,
+        Items.IRON_BOOTS,
+        
+        Items.DIAMOND_HELMET,
+        Items.DIAMOND_CHESTPLATE,
+        Items.DIAMOND_LEGGINGS,
+        Items.DIAMOND_BOOTS
     };
     
     public AutoCraftingSystem() {
@@ -61,113 +61,67 @@ public class AutoCraftingSystem {
     }
     
     public void tick() {
-        if (client.player == null || craftingCooldown > 0) {
-            craftingCooldown--;
+        // Called once a second by the scheduler, so at most one crafting attempt per second
+        if (client.player == null) {
             return;
         }
         
+        // The plan only depends on the inventory; don't re-plan an unchanged one that needed nothing
+        if (nothingNeeded && !inventoryChanged) {
+            return;
+        }
+        inventoryChanged = false;
+        
         // Check if we need to craft anything
         Item neededItem = getNextNeededItem();
+        nothingNeeded = neededItem == null;
         if (neededItem != null) {
             attemptCraft(neededItem);
-            craftingCooldown = 20; // Wait 1 second between crafting attempts
         }
     }
     
+    public void onInventoryChanged() {
+        inventoryChanged = true;
+    }
+    
     private Item getNextNeededItem() {
         ClientPlayerEntity player = client.player;
-        PlayerInventory inventory = player.getInventory();
+        int[] counts = snapshotCounts(player.getInventory());
         
         // Check priority items in order
-        for (Item[] recipe : PRIORITY_CRAFTS) {
-            Item result = recipe[0];
-            
+        for (Item result : PRIORITY_CRAFTS) {
             // Skip if we already have this item (except for consumables)
-            if (hasItem(inventory, result) && !isConsumable(result)) {
+            if (counts[CraftingPlanner.getNodeIndex(result)] > 0 && !isConsumable(result)) {
                 continue;
             }
             
-            // Check if we have materials
-            if (hasMaterials(inventory, recipe)) {
-                return result;
+            // Plan the whole chain (e.g. logs -> planks -> sticks -> pickaxe) from what we hold
+            CraftingPlanner.CraftingPlan plan = planner.plan(result, counts);
+            if (plan != null) {
+                currentPlan = plan;
+                return plan.firstStep().output;
             }
         }
         
+        currentPlan = null;
         return null;
     }
     
-    private boolean hasMaterials(PlayerInventory inventory, Item[] recipe) {
-        // Simple material check - this would need to be expanded for complex recipes
-        if (recipe.length < 2) return false;
-        
-        Item material = recipe[1];
-        int needed = getRequiredAmount(recipe[0], material);
-        
-        return countItem(inventory, material) >= needed;
-    }
-    
-    private int getRequiredAmount(Item result, Item material) {
-        // Define material requirements for each item
-        Map<Item, Map<Item, Integer>> requirements = new HashMap<>();
-        
-        // Pickaxes
-        Map<Item, Integer> pickaxeReq = new HashMap<>();
-        pickaxeReq.put(Items.OAK_PLANKS, 3);
-        pickaxeReq.put(Items.COBBLESTONE, 3);
-        pickaxeReq.put(Items.IRON_INGOT, 3);
-        pickaxeReq.put(Items.DIAMOND, 3);
-        pickaxeReq.put(Items.STICK, 2);
-        requirements.put(Items.WOODEN_PICKAXE, pickaxeReq);
-        requirements.put(Items.STONE_PICKAXE, pickaxeReq);
-        requirements.put(Items.IRON_PICKAXE, pickaxeReq);
-        requirements.put(Items.DIAMOND_PICKAXE, pickaxeReq);
-        
-        // Swords
-        Map<Item, Integer> swordReq = new HashMap<>();
-        swordReq.put(Items.OAK_PLANKS, 2);
-        swordReq.put(Items.COBBLESTONE, 2);
-        swordReq.put(Items.IRON_INGOT, 2);
-        swordReq.put(Items.DIAMOND, 2);
-        swordReq.put(Items.STICK, 1);
-        requirements.put(Items.WOODEN_SWORD, swordReq);
-        requirements.put(Items.STONE_SWORD, swordReq);
-        requirements.put(Items.IRON_SWORD, swordReq);
-        requirements.put(Items.DIAMOND_SWORD, swordReq);
-        
-        // Basic items
-        Map<Item, Integer> basicReq = new HashMap<>();
-        basicReq.put(Items.OAK_PLANKS, 2);
-        basicReq.put(Items.OAK_LOG, 1);
-        basicReq.put(Items.COBBLESTONE, 8);
-        basicReq.put(Items.WHEAT, 3);
-        requirements.put(Items.STICK, basicReq);
-        requirements.put(Items.OAK_PLANKS, basicReq);
-        requirements.put(Items.CRAFTING_TABLE, basicReq);
-        requirements.put(Items.FURNACE, basicReq);
-        requirements.put(Items.BREAD, basicReq);
-        
-        // Armor requirements
-        Map<Item, Integer> armorReq = new HashMap<>();
-        armorReq.put(Items.LEATHER, 5); // helmet
-        armorReq.put(Items.IRON_INGOT, 5);
-        armorReq.put(Items.DIAMOND, 5);
-        requirements.put(Items.LEATHER_HELMET, armorReq);
-        requirements.put(Items.IRON_HELMET, armorReq);
-        requirements.put(Items.DIAMOND_HELMET, armorReq);
-        
-        armorReq = new HashMap<>();
-        armorReq.put(Items.LEATHER, 8); // chestplate
-        armorReq.put(Items.IRON_INGOT, 8);
-        armorReq.put(Items.DIAMOND, 8);
-        requirements.put(Items.LEATHER_CHESTPLATE, armorReq);
-        requirements.put(Items.IRON_CHESTPLATE, armorReq);
-        requirements.put(Items.DIAMOND_CHESTPLATE, armorReq);
-        
-        if (requirements.containsKey(result) && requirements.get(result).containsKey(material)) {
-            return requirements.get(result).get(material);
+    /**
+     * Count every recipe-relevant item in a single inventory pass
+     */
+    private int[] snapshotCounts(PlayerInventory inventory) {
+        int[] counts = new int[CraftingPlanner.getNodeCount()];
+        for (int i = 0; i < inventory.size(); i++) {
+            ItemStack stack = inventory.getStack(i);
+            if (stack.isEmpty()) continue;
+            
+            int node = CraftingPlanner.getNodeIndex(stack.getItem());
+            if (node >= 0) {
+                counts[node] += stack.getCount();
+            }
         }
-        
-        return 1; // Default
+        return counts;
     }
     
     private void attemptCraft(Item item) {
@@ -181,7 +135,9 @@ public class AutoCraftingSystem {
         
         // Only show crafting messages every 10 seconds
         if (System.currentTimeMillis() - lastCraftMessage > 10000) {
-            player.sendMessage(Text.literal("§7[AutoCraft] Attempting to craft " + item.getName().getString()), true);
+            String goal = currentPlan != null && currentPlan.target != item ?
+                " (step 1/" + currentPlan.steps.size() + " towards " + currentPlan.target.getName().getString() + ")" : "";
+            player.sendMessage(Text.literal("§7[AutoCraft] Attempting to craft " + item.getName().getString() + goal), true);
             lastCraftMessage = System.currentTimeMillis();
         }
         
@@ -189,23 +145,17 @@ public class AutoCraftingSystem {
         // This would need proper implementation with screen handling
     }
     
-    private boolean hasItem(PlayerInventory inventory, Item item) {
-        return countItem(inventory, item) > 0;
+    private boolean isConsumable(Item item) {
+        return item.equals(Items.BREAD) || item.equals(Items.COOKED_BEEF) || 
+               item.equals(Items.COOKED_PORKCHOP) || item.equals(Items.APPLE);
     }
     
-    private int countItem(PlayerInventory inventory, Item item) {
-        int count = 0;
-        for (int i = 0; i < inventory.size(); i++) {
-            if (inventory.getStack(i).getItem().equals(item)) {
-                count += inventory.getStack(i).getCount();
-            }
-        }
-        return count;
+    public CraftingPlanner.CraftingPlan getCurrentPlan() {
+        return currentPlan;
     }
     
-    private boolean isConsumable(Item item) {
-        return item.equals(Items.BREAD) || item.equals(Items.COOKED_BEEF) || 
-               item.equals(Items.COOKED_PORKCHOP) || item.equals(Items.APPLE);
+    public CraftingPlanner getPlanner() {
+        return planner;
     }
     
     public void craftEssentials() {
@@ -1,5 +1,7 @@
 package com.escapemod.systems;
 
+import com.escapemod.utils.BotEvents;
+import com.escapemod.utils.WorldIdentity;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
@@ -11,10 +13,8 @@ import net.minecraft.text.Text;
 import net.minecraft.block.Blocks;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -24,8 +24,15 @@ import java.util.*;
 public class AutoStashSystem {
     private final MinecraftClient client;
     private final List<StashLocation> stashHistory = new ArrayList<>();
-    private final Set<Item> valuableItems = new HashSet<>();
     private final Random random = new Random();
+    private final StashJournal journal = new StashJournal(
+        new File("escapemod_stashes.journal"), new File("escapemod_stashes.txt"));
+    private static final Path DATABASE_DIR = Path.of("escapemod_stashes");
+    private static final double MIN_STASH_SPACING = 20.0;
+    
+    // Spatial index for the current server and dimension, reopened when either changes
+    private StashDatabase database;
+    private String databaseKey;
     
     private boolean autoStashEnabled = true;
     private int inventoryFullThreshold = 32; // Trigger when 32+ slots full
@@ -34,53 +41,9 @@ public class AutoStashSystem {
     
     public AutoStashSystem(MinecraftClient client) {
         this.client = client;
-        initializeValuableItems();
-    }
-    
-    /**
-     * Initialize list of valuable items to prioritize
-     */
-    private void initializeValuableItems() {
-        // Diamonds and rare materials
-        valuableItems.add(Items.DIAMOND);
-        valuableItems.add(Items.EMERALD);
-        valuableItems.add(Items.NETHERITE_INGOT);
-        valuableItems.add(Items.NETHERITE_SCRAP);
-        valuableItems.add(Items.ANCIENT_DEBRIS);
-        
-        // Valuable tools and armor
-        valuableItems.add(Items.DIAMOND_PICKAXE);
-        valuableItems.add(Items.DIAMOND_SWORD);
-        valuableItems.add(Items.DIAMOND_AXE);
-        valuableItems.add(Items.NETHERITE_PICKAXE);
-        valuableItems.add(Items.NETHERITE_SWORD);
-        valuableItems.add(Items.NETHERITE_AXE);
-        
-        // Enchanted books and rare items
-        valuableItems.add(Items.ENCHANTED_BOOK);
-        valuableItems.add(Items.ENDER_PEARL);
-        valuableItems.add(Items.BLAZE_ROD);
-        valuableItems.add(Items.GHAST_TEAR);
-        valuableItems.add(Items.NETHER_STAR);
-        
-        // Shulker boxes and storage
-        valuableItems.add(Items.SHULKER_BOX);
-        valuableItems.add(Items.WHITE_SHULKER_BOX);
-        valuableItems.add(Items.ORANGE_SHULKER_BOX);
-        valuableItems.add(Items.MAGENTA_SHULKER_BOX);
-        valuableItems.add(Items.LIGHT_BLUE_SHULKER_BOX);
-        valuableItems.add(Items.YELLOW_SHULKER_BOX);
-        valuableItems.add(Items.LIME_SHULKER_BOX);
-        valuableItems.add(Items.PINK_SHULKER_BOX);
-        valuableItems.add(Items.GRAY_SHULKER_BOX);
-        valuableItems.add(Items.LIGHT_GRAY_SHULKER_BOX);
-        valuableItems.add(Items.CYAN_SHULKER_BOX);
-        valuableItems.add(Items.PURPLE_SHULKER_BOX);
-        valuableItems.add(Items.BLUE_SHULKER_BOX);
-        valuableItems.add(Items.BROWN_SHULKER_BOX);
-        valuableItems.add(Items.GREEN_SHULKER_BOX);
-        valuableItems.add(Items.RED_SHULKER_BOX);
-        valuableItems.add(Items.BLACK_SHULKER_BOX);
+        
+        // Rebuild history from previous sessions
+        stashHistory.addAll(journal.readAll());
     }
     
     /**
@@ -117,10 +80,13 @@ public class AutoStashSystem {
         
         ClientPlayerEntity player = client.player;
         BlockPos playerPos = player.getBlockPos();
+        BotEvents.StashOperation event = new BotEvents.StashOperation();
+        event.begin();
         
         // Find safe stash location
         BlockPos stashPos = findSafeStashLocation(playerPos);
         if (stashPos == null) {
+            event.finish("create", StashResult.NO_SAFE_LOCATION.name(), null, 0, playerPos);
             return StashResult.NO_SAFE_LOCATION;
         }
         
@@ -128,15 +94,17 @@ public class AutoStashSystem {
         StashType stashType = determineStashType();
         
         // Create the stash
-        boolean success = createStash(stashPos, stashType);
-        if (!success) {
+        StashLocation stash = createStash(stashPos, stashType);
+        if (stash == null) {
+            event.finish("create", StashResult.FAILED.name(), stashType.name(), 0, stashPos);
             return StashResult.FAILED;
         }
         
         // Log the stash
-        logStash(stashPos, stashType);
+        logStash(stash);
         
         lastStashTime = System.currentTimeMillis();
+        event.finish("create", StashResult.SUCCESS.name(), stashType.name(), stash.contents.size(), stashPos);
         
         return StashResult.SUCCESS;
     }
@@ -209,13 +177,8 @@ public class AutoStashSystem {
         }
         
         // Check if too close to existing stashes
-        for (StashLocation existing : stashHistory) {
-            if (existing.position.getSquaredDistance(pos) < 400) { // 20 blocks
-                return false;
-            }
-        }
-        
-        return true;
+        StashDatabase db = getDatabase();
+        return db == null || !db.hasStashWithin(pos, MIN_STASH_SPACING);
     }
     
     /**
@@ -251,14 +214,14 @@ public class AutoStashSystem {
     /**
      * Create the actual stash
      */
-    private boolean createStash(BlockPos pos, StashType type) {
-        if (client.player == null) return false;
+    private StashLocation createStash(BlockPos pos, StashType type) {
+        if (client.player == null) return null;
         
         // This would require actual block placement and inventory management
         // For now, just simulate the stash creation
         
         List<ItemStack> itemsToStash = selectItemsToStash();
-        if (itemsToStash.isEmpty()) return false;
+        if (itemsToStash.isEmpty()) return null;
         
         // Create stash record
         StashLocation stash = new StashLocation(pos, type, System.currentTimeMillis(), itemsToStash);
@@ -273,56 +236,38 @@ public class AutoStashSystem {
         String code = generateStashCode(stash);
         client.player.sendMessage(Text.literal("§7[EscapeMod] Stash code: §e" + code), false);
         
-        return true;
+        return stash;
     }
     
     /**
-     * Select items to stash (prioritize valuable items)
+     * Select items to stash (prioritize valuable items) in a single inventory pass
      */
     private List<ItemStack> selectItemsToStash() {
         if (client.player == null) return new ArrayList<>();
         
         PlayerInventory inventory = client.player.getInventory();
         List<ItemStack> toStash = new ArrayList<>();
+        List<ItemStack> filler = new ArrayList<>();
         
-        // First pass: valuable items
-        for (int i = 0; i < inventory.size(); i++) {
+        for (int i = 0; i < inventory.size() && toStash.size() < 27; i++) { // Chest size limit
             ItemStack stack = inventory.getStack(i);
-            if (!stack.isEmpty() && valuableItems.contains(stack.getItem())) {
+            if (stack.isEmpty() || ItemValuationTable.isEssential(stack.getItem())) continue;
+            
+            if (ItemValuationTable.getStashClass(stack.getItem()) == ItemValuationTable.StashClass.VALUABLE) {
                 toStash.add(stack.copy());
-                if (toStash.size() >= 27) break; // Chest size limit
+            } else if (filler.size() < 27) {
+                filler.add(stack.copy());
             }
         }
         
-        // Second pass: fill remaining space with other items
-        if (toStash.size() < 27) {
-            for (int i = 0; i < inventory.size(); i++) {
-                ItemStack stack = inventory.getStack(i);
-                if (!stack.isEmpty() && !valuableItems.contains(stack.getItem()) && 
-                    !isEssentialItem(stack.getItem())) {
-                    toStash.add(stack.copy());
-                    if (toStash.size() >= 27) break;
-                }
-            }
+        // Fill remaining space with other items
+        for (int i = 0; i < filler.size() && toStash.size() < 27; i++) {
+            toStash.add(filler.get(i));
         }
         
         return toStash;
     }
     
-    /**
-     * Check if item is essential (shouldn't be stashed)
-     */
-    private boolean isEssentialItem(Item item) {
-        return item == Items.FOOD || // Keep some food
-               item == Items.BREAD ||
-               item == Items.COOKED_BEEF ||
-               item == Items.GOLDEN_APPLE ||
-               item == Items.ENCHANTED_GOLDEN_APPLE ||
-               item == Items.WOODEN_PICKAXE || // Keep basic tools
-               item == Items.STONE_PICKAXE ||
-               item == Items.IRON_PICKAXE;
-    }
-    
     /**
      * Check if item is a shulker box
      */
@@ -361,25 +306,62 @@ public class AutoStashSystem {
     }
     
     /**
-     * Log stash to file
+     * Log stash to the journal (written off-thread)
      */
-    private void logStash(BlockPos pos, StashType type) {
-        try {
-            File stashFile = new File("escapemod_stashes.txt");
-            FileWriter writer = new FileWriter(stashFile, true);
-            
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            String line = String.format("[%s] %s at %d, %d, %d%n", 
-                timestamp, type.toString(), pos.getX(), pos.getY(), pos.getZ());
-            
-            writer.write(line);
-            writer.close();
-            
-        } catch (IOException e) {
-            if (client.player != null) {
-                client.player.sendMessage(Text.literal("§c[EscapeMod] Failed to log stash location"), false);
+    private void logStash(StashLocation stash) {
+        boolean logged = journal.append(stash);
+        
+        StashDatabase db = getDatabase();
+        if (db != null) {
+            try {
+                db.add(stash);
+            } catch (IOException e) {
+                logged = false;
+            }
+        }
+        
+        if (!logged && client.player != null) {
+            client.player.sendMessage(Text.literal("§c[EscapeMod] Failed to log stash location"), false);
+        }
+    }
+    
+    /**
+     * Stash database for the server and dimension the player is in, or null outside a world
+     */
+    private StashDatabase getDatabase() {
+        if (client.world == null) return null;
+        
+        String key = WorldIdentity.worldKey(client);
+        if (!key.equals(databaseKey)) {
+            closeDatabase();
+            databaseKey = key;
+            try {
+                database = new StashDatabase(DATABASE_DIR.resolve(key + ".db"));
+            } catch (IOException e) {
+                database = null;
+                if (client.player != null) {
+                    client.player.sendMessage(Text.literal("§c[EscapeMod] Failed to open stash database"), false);
+                }
             }
         }
+        
+        return database;
+    }
+    
+    private void closeDatabase() {
+        if (database != null) {
+            database.close();
+            database = null;
+        }
+        databaseKey = null;
+    }
+    
+    /**
+     * Flush pending journal writes; call when the client is stopping
+     */
+    public void shutdown() {
+        journal.shutdown();
+        closeDatabase();
     }
     
     /**
@@ -390,21 +372,39 @@ public class AutoStashSystem {
     }
     
     /**
-     * Find nearest stash to position
+     * Find nearest stash to position in the current server and dimension
      */
-    public StashLocation findNearestStash(BlockPos pos) {
-        StashLocation nearest = null;
-        double nearestDistance = Double.MAX_VALUE;
-        
-        for (StashLocation stash : stashHistory) {
-            double distance = stash.position.getSquaredDistance(pos);
-            if (distance < nearestDistance) {
-                nearestDistance = distance;
-                nearest = stash;
-            }
-        }
-        
-        return nearest;
+    public StashDatabase.StashRecord findNearestStash(BlockPos pos) {
+        StashDatabase db = getDatabase();
+        return db != null ? db.findNearest(pos) : null;
+    }
+    
+    /**
+     * Stashes within radius blocks of position in the current server and dimension
+     */
+    public List<StashDatabase.StashRecord> findStashesWithin(BlockPos pos, double radius) {
+        StashDatabase db = getDatabase();
+        return db != null ? db.findWithinRadius(pos, radius) : new ArrayList<>();
+    }
+    
+    /**
+     * Stashes holding the given item, closest first
+     */
+    public List<StashDatabase.StashRecord> findStashesWithItem(Item item, BlockPos from) {
+        BotEvents.StashOperation event = new BotEvents.StashOperation();
+        event.begin();
+        StashDatabase db = getDatabase();
+        List<StashDatabase.StashRecord> found = db != null ? db.findStashesWithItem(item, from) : new ArrayList<>();
+        event.finish("find_item", found.isEmpty() ? "NOT_FOUND" : "FOUND", null, found.size(), from);
+        return found;
+    }
+    
+    /**
+     * Number of stashes known for the current server and dimension
+     */
+    public int getLocalStashCount() {
+        StashDatabase db = getDatabase();
+        return db != null ? db.size() : 0;
     }
     
     // Configuration methods
@@ -9,6 +9,8 @@ import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 import net.minecraft.text.Text;
 
+import com.escapemod.utils.BotEvents;
+
 import java.util.*;
 
 /**
@@ -17,18 +19,27 @@ import java.util.*;
  */
 public class BacktrackRecovery {
     private final MinecraftClient client;
-    private final Deque<PathPoint> pathHistory = new ArrayDeque<>();
+    private final PositionHistory pathHistory = new PositionHistory(PositionHistory.DEFAULT_CAPACITY);
+    private final BreadcrumbGraph safeGraph = new BreadcrumbGraph(BreadcrumbGraph.DEFAULT_CAPACITY);
     private final Set<BlockPos> stuckPositions = new HashSet<>();
     
     private boolean isRecovering = false;
     private BlockPos lastSafePosition = null;
+    private BlockPos lastCheckedPosition = null;
     private long lastMovementTime = 0;
+    private boolean trailReversible = false; // Steps since the last safe point can be walked back
+    private long lastSafeSequence = -1;
+    private BlockPos recoveryTarget = null;
+    private List<BlockPos> recoveryRoute = new ArrayList<>();
+    private int routeIndex = 0;
+    private RecoveryAction lastAction = RecoveryAction.NONE;
+    private BlockPos lastActionTarget = null;
     private int stuckCounter = 0;
     private int suffocationCounter = 0;
     
-    private static final int MAX_HISTORY_SIZE = 1000;
     private static final int STUCK_THRESHOLD = 100; // 5 seconds at 20 TPS
     private static final int SUFFOCATION_THRESHOLD = 60; // 3 seconds
+    private static final double MIN_BACKTRACK_DISTANCE = 6.0; // Blocks of route between the trap and the safe point
     
     public BacktrackRecovery(MinecraftClient client) {
         this.client = client;
@@ -36,21 +47,39 @@ public class BacktrackRecovery {
     
     /**
      * Record current position in path history
+     * Only block changes are stored; safety is probed once per new block and kept as a bit
      */
     public void recordPosition(BlockPos pos, long timestamp) {
-        pathHistory.addLast(new PathPoint(pos, timestamp, isSafePosition(pos)));
-        
-        // Limit history size
-        while (pathHistory.size() > MAX_HISTORY_SIZE) {
-            pathHistory.removeFirst();
+        if (!pathHistory.isEmpty() && pathHistory.getLatest() == pos.asLong()) {
+            return;
         }
         
-        // Update last safe position
-        if (isSafePosition(pos)) {
+        boolean stepReversible = !pathHistory.isEmpty() && isReversibleStep(pathHistory.getLatest(), pos);
+        boolean safe = isSafePosition(pos);
+        pathHistory.record(pos, safe);
+        lastMovementTime = timestamp;
+        
+        // Update last safe position and the graph of safe points
+        if (safe) {
             lastSafePosition = pos;
+            safeGraph.addSafePoint(pos, trailReversible && stepReversible);
+            lastSafeSequence = pathHistory.getLatestSequence();
+            trailReversible = true;
+        } else {
+            trailReversible &= stepReversible;
         }
     }
     
+    /**
+     * A step can be walked in reverse if it was short and didn't drop more than one block
+     */
+    private boolean isReversibleStep(long from, BlockPos to) {
+        int dx = Math.abs(to.getX() - BlockPos.unpackLongX(from));
+        int dz = Math.abs(to.getZ() - BlockPos.unpackLongZ(from));
+        int dy = to.getY() - BlockPos.unpackLongY(from);
+        return dx <= 2 && dz <= 2 && dy >= -1 && dy <= 3;
+    }
+    
     /**
      * Check if player is stuck and needs recovery
      */
@@ -72,7 +101,6 @@ public class BacktrackRecovery {
         
         // Check if stuck in same position
         if (hasMovedRecently(currentPos)) {
-            lastMovementTime = System.currentTimeMillis();
             stuckCounter = 0;
         } else {
             stuckCounter++;
@@ -101,9 +129,19 @@ public class BacktrackRecovery {
     public RecoveryAction executeRecovery() {
         if (client.player == null) return RecoveryAction.NONE;
         
-        ClientPlayerEntity player = client.player;
-        BlockPos currentPos = player.getBlockPos();
+        BlockPos currentPos = client.player.getBlockPos();
+        RecoveryAction action = chooseRecovery(currentPos);
         
+        // One event per decision rather than one per tick spent carrying it out
+        if (action != lastAction || !Objects.equals(recoveryTarget, lastActionTarget)) {
+            BotEvents.RecoveryAction.emit(action.name(), currentPos, recoveryTarget, recoveryRoute.size());
+            lastAction = action;
+            lastActionTarget = recoveryTarget;
+        }
+        return action;
+    }
+    
+    private RecoveryAction chooseRecovery(BlockPos currentPos) {
         isRecovering = true;
         
         // Priority 1: Escape suffocation immediately
@@ -114,6 +152,11 @@ public class BacktrackRecovery {
         // Priority 2: Find recent safe position to backtrack to
         BlockPos safePos = findRecentSafePosition();
         if (safePos != null && !safePos.equals(currentPos)) {
+            if (!safePos.equals(recoveryTarget)) {
+                recoveryTarget = safePos;
+                recoveryRoute = getRecoveryPath(safePos);
+                routeIndex = 0;
+            }
             return RecoveryAction.BACKTRACK_TO_SAFE;
         }
         
@@ -178,13 +221,12 @@ public class BacktrackRecovery {
     }
     
     /**
-     * Check if player has moved recently
+     * Check if player has moved since the last check
      */
     private boolean hasMovedRecently(BlockPos currentPos) {
-        if (pathHistory.isEmpty()) return true;
-        
-        PathPoint lastPoint = pathHistory.peekLast();
-        return !lastPoint.position.equals(currentPos);
+        boolean moved = !currentPos.equals(lastCheckedPosition);
+        lastCheckedPosition = currentPos;
+        return moved;
     }
     
     /**
@@ -210,23 +252,14 @@ public class BacktrackRecovery {
     }
     
     /**
-     * Find most recent safe position to backtrack to
+     * Find the nearest safe position far enough back along the trail to leave the trap
      */
     private BlockPos findRecentSafePosition() {
-        // Look through recent history for safe positions
-        Iterator<PathPoint> it = pathHistory.descendingIterator();
-        
-        while (it.hasNext()) {
-            PathPoint point = it.next();
-            if (point.isSafe && !stuckPositions.contains(point.position)) {
-                // Verify position is still safe
-                if (isSafePosition(point.position)) {
-                    return point.position;
-                }
-            }
-        }
+        // Walks up the safe-point graph; only the candidates it lands on are re-verified
+        int node = safeGraph.findSafeBack(MIN_BACKTRACK_DISTANCE,
+            pos -> !stuckPositions.contains(pos) && isSafePosition(pos));
         
-        return lastSafePosition;
+        return node != BreadcrumbGraph.NONE ? safeGraph.getPosition(node) : lastSafePosition;
     }
     
     /**
@@ -357,6 +390,7 @@ public class BacktrackRecovery {
     
     /**
      * Get recovery path to safe position
+     * Retraces breadcrumbs to the last safe point, then follows the safe-point graph to the target
      */
     public List<BlockPos> getRecoveryPath(BlockPos target) {
         List<BlockPos> path = new ArrayList<>();
@@ -365,7 +399,24 @@ public class BacktrackRecovery {
         
         BlockPos current = client.player.getBlockPos();
         
-        // Simple pathfinding back to target
+        int targetNode = safeGraph.getNodeAt(target);
+        int latestNode = safeGraph.getLatest();
+        if (trailReversible && targetNode != BreadcrumbGraph.NONE && latestNode != BreadcrumbGraph.NONE) {
+            List<BlockPos> route = safeGraph.route(latestNode, targetNode);
+            if (route != null) {
+                PositionHistory.Cursor cursor = pathHistory.newestFirst();
+                while (cursor.next() && cursor.sequence() > lastSafeSequence) {
+                    BlockPos step = BlockPos.fromLong(cursor.position());
+                    if (!step.equals(current)) {
+                        path.add(step);
+                    }
+                }
+                path.addAll(route);
+                return path;
+            }
+        }
+        
+        // No known route - simple pathfinding back to target
         while (!current.equals(target) && path.size() < 100) {
             Vec3d direction = Vec3d.ofCenter(target).subtract(Vec3d.ofCenter(current)).normalize();
             
@@ -386,11 +437,26 @@ public class BacktrackRecovery {
         return path;
     }
     
+    /**
+     * Next point on the recovery route, skipping waypoints already reached
+     */
+    public BlockPos getNextRecoveryWaypoint(BlockPos current) {
+        while (routeIndex < recoveryRoute.size() && recoveryRoute.get(routeIndex).getSquaredDistance(current) < 2) {
+            routeIndex++;
+        }
+        return routeIndex < recoveryRoute.size() ? recoveryRoute.get(routeIndex) : recoveryTarget;
+    }
+    
     /**
      * Reset recovery state
      */
     public void resetRecovery() {
         isRecovering = false;
+        lastAction = RecoveryAction.NONE;
+        lastActionTarget = null;
+        recoveryTarget = null;
+        recoveryRoute = new ArrayList<>();
+        routeIndex = 0;
         stuckCounter = 0;
         suffocationCounter = 0;
     }
@@ -405,22 +471,10 @@ public class BacktrackRecovery {
     // Getters
     public boolean isRecovering() { return isRecovering; }
     public BlockPos getLastSafePosition() { return lastSafePosition; }
+    public BlockPos getRecoveryTarget() { return recoveryTarget; }
+    public int getSafePointCount() { return safeGraph.size(); }
     public int getPathHistorySize() { return pathHistory.size(); }
-    
-    /**
-     * Path point data class
-     */
-    private static class PathPoint {
-        final BlockPos position;
-        final long timestamp;
-        final boolean isSafe;
-        
-        PathPoint(BlockPos position, long timestamp, boolean isSafe) {
-            this.position = position;
-            this.timestamp = timestamp;
-            this.isSafe = isSafe;
-        }
-    }
+    public int getPathHistoryCapacity() { return pathHistory.capacity(); }
     
     /**
      * Recovery action types
@@ -0,0 +1,276 @@
+package com.escapemod.systems;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Breadcrumb Graph - Safe breadcrumbs joined into a shortest-route-back tree
+ * Each safe point links to the previous one when the trail between them can be walked in reverse,
+ * and to any earlier point in an adjacent block (a shortcut across loops), keeping whichever gives
+ * the shorter route back. Skew-binary jump pointers make "first point at least N blocks back"
+ * a logarithmic walk up the tree
+ */
+public class BreadcrumbGraph {
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+    public static final int NONE = -1;
+
+    private final long[] positions;
+    private final int[] parents;
+    private final int[] jumps;
+    private final int[] depths;
+    private final float[] routeLengths; // Route length from the root of the node's tree
+    private final int[] newerAtSame; // Newest later node at the same position while this one holds the slot
+    private final int mask;
+    private int first = 0; // Oldest live node
+    private int next = 0;  // Id the next node gets
+
+    // Node with the shortest route back for each breadcrumb position: a long -> int open-addressing
+    // table with linear probing. Every entry maps a live node, so it is never more than half full
+    private final long[] slotKeys;
+    private final int[] slotNodes; // NONE marks an empty slot
+    private final int slotMask;
+
+    public BreadcrumbGraph(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity));
+        this.positions = new long[size];
+        this.parents = new int[size];
+        this.jumps = new int[size];
+        this.depths = new int[size];
+        this.routeLengths = new float[size];
+        this.newerAtSame = new int[size];
+        this.mask = size - 1;
+        this.slotKeys = new long[size * 2];
+        this.slotNodes = new int[size * 2];
+        this.slotMask = size * 2 - 1;
+        Arrays.fill(slotNodes, NONE);
+    }
+
+    /**
+     * Add a safe breadcrumb; linkedToPrevious says the trail since the last safe point can be walked back
+     * Returns the new node id
+     */
+    public int addSafePoint(BlockPos pos, boolean linkedToPrevious) {
+        if (next - first == positions.length) {
+            evictOldest();
+        }
+
+        int node = next;
+        int parent = NONE;
+        float routeLength = 0;
+
+        if (linkedToPrevious && isLive(node - 1)) {
+            parent = node - 1;
+            routeLength = routeLengths[index(parent)] + (float) distance(pos, positions[index(parent)]);
+        }
+
+        // Shortcut edges: an earlier point in an adjacent block is reachable in one step
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    int other = slotNodes[findSlot(BlockPos.asLong(pos.getX() + dx, pos.getY() + dy, pos.getZ() + dz))];
+                    if (other == NONE || !isLive(other)) continue;
+
+                    float viaOther = routeLengths[index(other)] + (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+                    if (parent == NONE || viaOther < routeLength) {
+                        parent = other;
+                        routeLength = viaOther;
+                    }
+                }
+            }
+        }
+
+        int i = index(node);
+        positions[i] = pos.asLong();
+        parents[i] = parent;
+        routeLengths[i] = routeLength;
+        newerAtSame[i] = NONE;
+
+        if (parent == NONE) {
+            depths[i] = 0;
+            jumps[i] = node;
+        } else {
+            // Myers' skew-binary jump pointer: jump two equal-length hops at once when possible
+            int p = index(parent);
+            int parentJump = jumps[p];
+            int pj = index(parentJump);
+            depths[i] = depths[p] + 1;
+            boolean equalHops = isLive(parentJump) && isLive(jumps[pj])
+                && depths[p] - depths[pj] == depths[pj] - depths[index(jumps[pj])];
+            jumps[i] = equalHops ? jumps[pj] : parent;
+        }
+
+        int slot = findSlot(positions[i]);
+        int existing = slotNodes[slot];
+        if (existing == NONE || !isLive(existing) || routeLength < routeLengths[index(existing)]) {
+            slotKeys[slot] = positions[i];
+            slotNodes[slot] = node;
+        } else {
+            // Outlives the slot holder, so it takes the slot over when the holder is evicted
+            newerAtSame[index(existing)] = node;
+        }
+
+        next++;
+        return node;
+    }
+
+    private void evictOldest() {
+        int slot = findSlot(positions[index(first)]);
+        if (slotNodes[slot] == first) {
+            int successor = newerAtSame[index(first)];
+            if (successor != NONE && isLive(successor)) {
+                slotNodes[slot] = successor;
+            } else {
+                removeSlot(slot);
+            }
+        }
+        first++;
+    }
+
+    /**
+     * Slot holding key, or the empty slot where it would go
+     */
+    private int findSlot(long key) {
+        int slot = homeSlot(key);
+        while (slotNodes[slot] != NONE && slotKeys[slot] != key) {
+            slot = (slot + 1) & slotMask;
+        }
+        return slot;
+    }
+
+    private int homeSlot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & slotMask;
+    }
+
+    /**
+     * Empty a slot, shifting later entries of the probe run back so none is cut off from its home slot
+     */
+    private void removeSlot(int slot) {
+        int hole = slot;
+        for (int i = (slot + 1) & slotMask; slotNodes[i] != NONE; i = (i + 1) & slotMask) {
+            int home = homeSlot(slotKeys[i]);
+            if (((i - home) & slotMask) >= ((i - hole) & slotMask)) {
+                slotKeys[hole] = slotKeys[i];
+                slotNodes[hole] = slotNodes[i];
+                hole = i;
+            }
+        }
+        slotNodes[hole] = NONE;
+    }
+
+    /**
+     * Most recent safe point, or NONE
+     */
+    public int getLatest() {
+        return next > first ? next - 1 : NONE;
+    }
+
+    /**
+     * Node recorded at exactly this position, or NONE
+     */
+    public int getNodeAt(BlockPos pos) {
+        int node = slotNodes[findSlot(pos.asLong())];
+        return node != NONE && isLive(node) ? node : NONE;
+    }
+
+    public BlockPos getPosition(int node) {
+        return BlockPos.fromLong(positions[index(node)]);
+    }
+
+    /**
+     * Closest ancestor of from whose route back is at least minRoute blocks long,
+     * or the root of from's tree if the trail doesn't reach that far
+     */
+    public int findAncestorAtLeast(int from, double minRoute) {
+        if (!isLive(from)) return NONE;
+
+        float limit = (float) (routeLengths[index(from)] - minRoute);
+        int node = from;
+
+        while (routeLengths[index(node)] > limit) {
+            int parent = parentOf(node);
+            if (parent == NONE) return node;
+
+            int jump = jumps[index(node)];
+            node = jump != node && isLive(jump) && routeLengths[index(jump)] > limit ? jump : parent;
+        }
+
+        return node;
+    }
+
+    /**
+     * First acceptable safe point at least minRoute blocks back along the graph from the latest one
+     */
+    public int findSafeBack(double minRoute, Predicate<BlockPos> acceptable) {
+        int node = findAncestorAtLeast(getLatest(), minRoute);
+
+        while (node != NONE && !acceptable.test(getPosition(node))) {
+            node = parentOf(node);
+        }
+
+        return node;
+    }
+
+    /**
+     * Walkable route between two nodes through their common ancestor, or null if they aren't connected
+     * Both endpoints are included
+     */
+    public List<BlockPos> route(int from, int to) {
+        if (!isLive(from) || !isLive(to)) return null;
+
+        List<BlockPos> up = new ArrayList<>();
+        List<BlockPos> down = new ArrayList<>();
+        int a = from;
+        int b = to;
+
+        while (a != b) {
+            if (a == NONE || b == NONE) return null;
+
+            if (depths[index(a)] >= depths[index(b)]) {
+                up.add(getPosition(a));
+                a = parentOf(a);
+            } else {
+                down.add(getPosition(b));
+                b = parentOf(b);
+            }
+        }
+
+        if (a == NONE) return null;
+
+        up.add(getPosition(a));
+        Collections.reverse(down);
+        up.addAll(down);
+        return up;
+    }
+
+    private int parentOf(int node) {
+        int parent = parents[index(node)];
+        return parent != NONE && isLive(parent) ? parent : NONE;
+    }
+
+    private boolean isLive(int node) {
+        return node >= first && node < next;
+    }
+
+    private int index(int node) {
+        return node & mask;
+    }
+
+    private static double distance(BlockPos pos, long packed) {
+        double dx = pos.getX() - BlockPos.unpackLongX(packed);
+        double dy = pos.getY() - BlockPos.unpackLongY(packed);
+        double dz = pos.getZ() - BlockPos.unpackLongZ(packed);
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    public void clear() {
+        first = next;
+        Arrays.fill(slotNodes, NONE);
+    }
+
+    public int size() {
+        return next - first;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,341 @@
+package com.escapemod.systems;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+
+import com.escapemod.utils.SystemProfiler;
+
+import java.util.*;
+
+/**
+ * Crafting Planner - Recipe dependency graph compiled once at class load
+ * Plans the cheapest multi-step crafting sequence (logs -> planks -> sticks -> pickaxe)
+ * from a snapshot of inventory counts, memoised by inventory fingerprint
+ */
+public class CraftingPlanner {
+    private static final int PLAN_CACHE_SIZE = 64;
+    private static final int MAX_DEPTH = 8; // Deepest chain is well below this
+    private static final SystemProfiler.Section PLAN_PROFILE = SystemProfiler.get().section("inventory.craft_plan");
+
+    // Compiled graph: every item that appears in a recipe gets a dense node index
+    private static final Map<Item, Integer> NODE_INDEX = new IdentityHashMap<>();
+    private static final List<Item> NODES = new ArrayList<>();
+    private static final List<List<Recipe>> RECIPES_BY_OUTPUT = new ArrayList<>();
+    private static final int TABLE_NODE;
+
+    static {
+        Item[][] woods = {
+            {Items.OAK_LOG, Items.OAK_PLANKS},
+            {Items.SPRUCE_LOG, Items.SPRUCE_PLANKS},
+            {Items.BIRCH_LOG, Items.BIRCH_PLANKS},
+            {Items.JUNGLE_LOG, Items.JUNGLE_PLANKS},
+            {Items.ACACIA_LOG, Items.ACACIA_PLANKS},
+            {Items.DARK_OAK_LOG, Items.DARK_OAK_PLANKS}
+        };
+        Item[] stones = {Items.COBBLESTONE, Items.COBBLED_DEEPSLATE, Items.BLACKSTONE};
+
+        // Wood chain
+        for (Item[] wood : woods) {
+            Item log = wood[0];
+            Item planks = wood[1];
+            addRecipe(planks, 4, false, log, 1);
+            addRecipe(Items.STICK, 4, false, planks, 2);
+            addRecipe(Items.CRAFTING_TABLE, 1, false, planks, 4);
+            addRecipe(Items.CHEST, 1, true, planks, 8);
+            addRecipe(Items.WOODEN_PICKAXE, 1, true, planks, 3, Items.STICK, 2);
+            addRecipe(Items.WOODEN_SWORD, 1, true, planks, 2, Items.STICK, 1);
+            addRecipe(Items.WOODEN_AXE, 1, true, planks, 3, Items.STICK, 2);
+        }
+
+        // Stone tier
+        for (Item stone : stones) {
+            addRecipe(Items.STONE_PICKAXE, 1, true, stone, 3, Items.STICK, 2);
+            addRecipe(Items.STONE_SWORD, 1, true, stone, 2, Items.STICK, 1);
+            addRecipe(Items.STONE_AXE, 1, true, stone, 3, Items.STICK, 2);
+            addRecipe(Items.FURNACE, 1, true, stone, 8);
+        }
+
+        // Iron and diamond tiers
+        addMaterialTier(Items.IRON_INGOT, Items.IRON_PICKAXE, Items.IRON_SWORD,
+            Items.IRON_HELMET, Items.IRON_CHESTPLATE, Items.IRON_LEGGINGS, Items.IRON_BOOTS);
+        addMaterialTier(Items.DIAMOND, Items.DIAMOND_PICKAXE, Items.DIAMOND_SWORD,
+            Items.DIAMOND_HELMET, Items.DIAMOND_CHESTPLATE, Items.DIAMOND_LEGGINGS, Items.DIAMOND_BOOTS);
+        addRecipe(Items.IRON_INGOT, 9, false, Items.IRON_BLOCK, 1);
+        addRecipe(Items.DIAMOND, 9, false, Items.DIAMOND_BLOCK, 1);
+
+        // Leather armor
+        addRecipe(Items.LEATHER_HELMET, 1, true, Items.LEATHER, 5);
+        addRecipe(Items.LEATHER_CHESTPLATE, 1, true, Items.LEATHER, 8);
+        addRecipe(Items.LEATHER_LEGGINGS, 1, true, Items.LEATHER, 7);
+        addRecipe(Items.LEATHER_BOOTS, 1, true, Items.LEATHER, 4);
+
+        // Food and utility
+        addRecipe(Items.BREAD, 1, true, Items.WHEAT, 3);
+        addRecipe(Items.WHEAT, 9, false, Items.HAY_BLOCK, 1);
+        addRecipe(Items.TORCH, 4, false, Items.COAL, 1, Items.STICK, 1);
+        addRecipe(Items.TORCH, 4, false, Items.CHARCOAL, 1, Items.STICK, 1);
+
+        TABLE_NODE = nodeOf(Items.CRAFTING_TABLE);
+        verifyAcyclic();
+    }
+
+    private final Map<Long, CacheEntry> planCache = new LinkedHashMap<>(PLAN_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CacheEntry> eldest) {
+            return size() > PLAN_CACHE_SIZE;
+        }
+    };
+    private int cacheHits = 0;
+    private int cacheMisses = 0;
+
+    /**
+     * Register the four armor pieces and two tools made from a single material
+     */
+    private static void addMaterialTier(Item material, Item pickaxe, Item sword,
+                                        Item helmet, Item chestplate, Item leggings, Item boots) {
+        addRecipe(pickaxe, 1, true, material, 3, Items.STICK, 2);
+        addRecipe(sword, 1, true, material, 2, Items.STICK, 1);
+        addRecipe(helmet, 1, true, material, 5);
+        addRecipe(chestplate, 1, true, material, 8);
+        addRecipe(leggings, 1, true, material, 7);
+        addRecipe(boots, 1, true, material, 4);
+    }
+
+    /**
+     * Register a recipe; inputs are given as alternating item, count pairs
+     */
+    private static void addRecipe(Item output, int outputCount, boolean needsTable, Object... inputs) {
+        int[] inputNodes = new int[inputs.length / 2];
+        int[] inputCounts = new int[inputs.length / 2];
+        for (int i = 0; i < inputNodes.length; i++) {
+            inputNodes[i] = nodeOf((Item) inputs[i * 2]);
+            inputCounts[i] = (Integer) inputs[i * 2 + 1];
+        }
+
+        int outputNode = nodeOf(output);
+        RECIPES_BY_OUTPUT.get(outputNode).add(new Recipe(outputNode, outputCount, needsTable, inputNodes, inputCounts));
+    }
+
+    private static int nodeOf(Item item) {
+        Integer index = NODE_INDEX.get(item);
+        if (index == null) {
+            index = NODES.size();
+            NODE_INDEX.put(item, index);
+            NODES.add(item);
+            RECIPES_BY_OUTPUT.add(new ArrayList<>());
+        }
+        return index;
+    }
+
+    /**
+     * Fail fast at class load if a recipe edit introduced a cycle
+     */
+    private static void verifyAcyclic() {
+        int[] state = new int[NODES.size()]; // 0 = unvisited, 1 = visiting, 2 = done
+        for (int node = 0; node < state.length; node++) {
+            visit(node, state);
+        }
+    }
+
+    private static void visit(int node, int[] state) {
+        if (state[node] == 2) return;
+        if (state[node] == 1) {
+            throw new IllegalStateException("Crafting recipe cycle through " + NODES.get(node));
+        }
+
+        state[node] = 1;
+        for (Recipe recipe : RECIPES_BY_OUTPUT.get(node)) {
+            for (int input : recipe.inputNodes) {
+                visit(input, state);
+            }
+            if (recipe.needsTable) {
+                visit(TABLE_NODE, state);
+            }
+        }
+        state[node] = 2;
+    }
+
+    /**
+     * Number of nodes in the compiled graph (size of a counts snapshot)
+     */
+    public static int getNodeCount() {
+        return NODES.size();
+    }
+
+    /**
+     * Dense node index for an item, or -1 if the item takes no part in any recipe
+     */
+    public static int getNodeIndex(Item item) {
+        Integer index = NODE_INDEX.get(item);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Plan the cheapest crafting sequence producing one more of the target item
+     * Returns null if the target cannot be crafted from the given counts
+     */
+    public CraftingPlan plan(Item target, int[] counts) {
+        try (var scope = PLAN_PROFILE.time()) {
+            return planCached(target, counts);
+        }
+    }
+
+    private CraftingPlan planCached(Item target, int[] counts) {
+        int targetNode = getNodeIndex(target);
+        if (targetNode < 0) return null;
+
+        long key = fingerprint(counts) * 31 + targetNode;
+        CacheEntry cached = planCache.get(key);
+        if (cached != null && cached.targetNode == targetNode && Arrays.equals(cached.counts, counts)) {
+            cacheHits++;
+            return cached.plan;
+        }
+        cacheMisses++;
+
+        int[] working = counts.clone();
+        List<CraftStep> steps = new ArrayList<>();
+        int cost = expand(targetNode, counts[targetNode] + 1, working, steps, 0);
+
+        CraftingPlan plan = cost < 0 || steps.isEmpty() ? null : new CraftingPlan(target, steps, cost);
+        planCache.put(key, new CacheEntry(targetNode, counts.clone(), plan));
+        return plan;
+    }
+
+    /**
+     * Consume "needed" units of a node from counts, appending any crafts required
+     * Returns the number of craft operations used, or -1 if impossible
+     */
+    private int expand(int node, int needed, int[] counts, List<CraftStep> steps, int depth) {
+        if (counts[node] >= needed) {
+            counts[node] -= needed;
+            return 0;
+        }
+        if (depth >= MAX_DEPTH) return -1;
+
+        int missing = needed - counts[node];
+        int bestCost = -1;
+        int[] bestCounts = null;
+        List<CraftStep> bestSteps = null;
+
+        for (Recipe recipe : RECIPES_BY_OUTPUT.get(node)) {
+            int[] trial = counts.clone();
+            trial[node] = 0; // Everything we already hold goes towards the request
+            List<CraftStep> trialSteps = new ArrayList<>();
+
+            int crafts = (missing + recipe.outputCount - 1) / recipe.outputCount;
+            int cost = crafts;
+
+            if (recipe.needsTable && trial[TABLE_NODE] == 0) {
+                int tableCost = expand(TABLE_NODE, 1, trial, trialSteps, depth + 1);
+                if (tableCost < 0) continue;
+                trial[TABLE_NODE]++; // The table is placed and reused, not consumed
+                cost += tableCost;
+            }
+
+            boolean possible = true;
+            for (int i = 0; i < recipe.inputNodes.length && possible; i++) {
+                int inputCost = expand(recipe.inputNodes[i], recipe.inputCounts[i] * crafts, trial, trialSteps, depth + 1);
+                if (inputCost < 0) {
+                    possible = false;
+                } else {
+                    cost += inputCost;
+                }
+            }
+            if (!possible) continue;
+
+            trialSteps.add(new CraftStep(NODES.get(node), crafts));
+            trial[node] += crafts * recipe.outputCount - missing; // Leftovers stay available
+
+            if (bestCost < 0 || cost < bestCost) {
+                bestCost = cost;
+                bestCounts = trial;
+                bestSteps = trialSteps;
+            }
+        }
+
+        if (bestCost < 0) return -1;
+
+        System.arraycopy(bestCounts, 0, counts, 0, counts.length);
+        steps.addAll(bestSteps);
+        return bestCost;
+    }
+
+    private static long fingerprint(int[] counts) {
+        long hash = 0xcbf29ce484222325L;
+        for (int count : counts) {
+            hash ^= count;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    public void clearCache() {
+        planCache.clear();
+    }
+
+    public int getCacheHits() { return cacheHits; }
+    public int getCacheMisses() { return cacheMisses; }
+
+    /**
+     * Compiled recipe edge: output node <- input nodes
+     */
+    private static class Recipe {
+        final int outputNode;
+        final int outputCount;
+        final boolean needsTable;
+        final int[] inputNodes;
+        final int[] inputCounts;
+
+        Recipe(int outputNode, int outputCount, boolean needsTable, int[] inputNodes, int[] inputCounts) {
+            this.outputNode = outputNode;
+            this.outputCount = outputCount;
+            this.needsTable = needsTable;
+            this.inputNodes = inputNodes;
+            this.inputCounts = inputCounts;
+        }
+    }
+
+    private static class CacheEntry {
+        final int targetNode;
+        final int[] counts;
+        final CraftingPlan plan;
+
+        CacheEntry(int targetNode, int[] counts, CraftingPlan plan) {
+            this.targetNode = targetNode;
+            this.counts = counts;
+            this.plan = plan;
+        }
+    }
+
+    /**
+     * Single crafting operation repeated "times" times
+     */
+    public static class CraftStep {
+        public final Item output;
+        public final int times;
+
+        public CraftStep(Item output, int times) {
+            this.output = output;
+            this.times = times;
+        }
+    }
+
+    /**
+     * Ordered crafting sequence; every step's inputs are produced by earlier steps or held already
+     */
+    public static class CraftingPlan {
+        public final Item target;
+        public final List<CraftStep> steps;
+        public final int cost;
+
+        public CraftingPlan(Item target, List<CraftStep> steps, int cost) {
+            this.target = target;
+            this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+            this.cost = cost;
+        }
+
+        public CraftStep firstStep() {
+            return steps.get(0);
+        }
+    }
+}
\ No newline at end of file
@@ -13,6 +13,8 @@ import net.minecraft.block.Blocks;
 import net.minecraft.entity.passive.AnimalEntity;
 import net.minecraft.entity.Entity;
 
+import com.escapemod.utils.BotEvents;
+
 import java.util.*;
 
 /**
@@ -26,6 +28,7 @@ public class CrisisMode {
     private long crisisStartTime = 0;
     private BlockPos safeHideout = null;
     private int recoveryAttempts = 0;
+    private boolean playerStateChanged = true; // Health, hunger or inventory changed since the last check
     
     // Crisis thresholds
     private static final float CRITICAL_HEALTH = 5.0f;
@@ -43,6 +46,10 @@ public class CrisisMode {
     public boolean shouldActivateCrisis() {
         if (client.player == null) return false;
         
+        // Every condition below depends only on health, hunger and inventory
+        if (!playerStateChanged) return false;
+        playerStateChanged = false;
+        
         ClientPlayerEntity player = client.player;
         
         // Check health crisis
@@ -78,6 +85,10 @@ public class CrisisMode {
         return false;
     }
     
+    public void onPlayerStateChanged() {
+        playerStateChanged = true;
+    }
+    
     /**
      * Activate crisis mode
      */
@@ -89,6 +100,8 @@ public class CrisisMode {
         recoveryAttempts = 0;
         
         if (client.player != null) {
+            BotEvents.CrisisActivation.emit(currentCrisis.name(), client.player.getHealth(),
+                client.player.getHungerManager().getFoodLevel(), client.player.getBlockPos());
             client.player.sendMessage(Text.literal("§c§l[EscapeMod] CRISIS MODE ACTIVATED!"), false);
             client.player.sendMessage(Text.literal("§e[EscapeMod] Crisis Type: " + currentCrisis.getDescription()), false);
             client.player.sendMessage(Text.literal("§e[EscapeMod] Switching to survival mode..."), false);
@@ -553,6 +566,7 @@ public class CrisisMode {
         crisisModeActive = false;
         safeHideout = null;
         recoveryAttempts = 0;
+        playerStateChanged = true; // Re-check right away in case the cause is still there
         
         if (client.player != null) {
             client.player.sendMessage(Text.literal("§a[EscapeMod] Crisis resolved! Resuming normal operation."), false);
@@ -1,90 +1,48 @@
 package com.escapemod.systems;
 
+import com.escapemod.utils.MessageThrottler;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.screen.ingame.InventoryScreen;
 import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
+import net.minecraft.registry.Registries;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.SlotActionType;
 import net.minecraft.text.Text;
 
 import java.util.*;
 
 public class InventoryManager {
     private MinecraftClient client;
-    private int managementCooldown = 0;
+    private boolean replanRequested = false;
     private int lastMessageTime = 0;
     
-    // Item priority levels (higher = more important)
-    private static final Map<Item, Integer> ITEM_PRIORITIES = new HashMap<>();
-    static {
-        // Essential tools (highest priority)
-        ITEM_PRIORITIES.put(Items.DIAMOND_PICKAXE, 100);
-        ITEM_PRIORITIES.put(Items.DIAMOND_SWORD, 100);
-        ITEM_PRIORITIES.put(Items.IRON_PICKAXE, 90);
-        ITEM_PRIORITIES.put(Items.IRON_SWORD, 90);
-        ITEM_PRIORITIES.put(Items.STONE_PICKAXE, 80);
-        ITEM_PRIORITIES.put(Items.STONE_SWORD, 80);
-        ITEM_PRIORITIES.put(Items.WOODEN_PICKAXE, 70);
-        ITEM_PRIORITIES.put(Items.WOODEN_SWORD, 70);
-        
-        // Armor
-        ITEM_PRIORITIES.put(Items.DIAMOND_HELMET, 95);
-        ITEM_PRIORITIES.put(Items.DIAMOND_CHESTPLATE, 95);
-        ITEM_PRIORITIES.put(Items.DIAMOND_LEGGINGS, 95);
-        ITEM_PRIORITIES.put(Items.DIAMOND_BOOTS, 95);
-        ITEM_PRIORITIES.put(Items.IRON_HELMET, 85);
-        ITEM_PRIORITIES.put(Items.IRON_CHESTPLATE, 85);
-        ITEM_PRIORITIES.put(Items.IRON_LEGGINGS, 85);
-        ITEM_PRIORITIES.put(Items.IRON_BOOTS, 85);
-        
-        // Food
-        ITEM_PRIORITIES.put(Items.GOLDEN_APPLE, 95);
-        ITEM_PRIORITIES.put(Items.COOKED_BEEF, 75);
-        ITEM_PRIORITIES.put(Items.COOKED_PORKCHOP, 75);
-        ITEM_PRIORITIES.put(Items.BREAD, 70);
-        ITEM_PRIORITIES.put(Items.APPLE, 65);
-        
-        // Resources
-        ITEM_PRIORITIES.put(Items.DIAMOND, 90);
-        ITEM_PRIORITIES.put(Items.IRON_INGOT, 80);
-        ITEM_PRIORITIES.put(Items.GOLD_INGOT, 75);
-        ITEM_PRIORITIES.put(Items.COAL, 60);
-        ITEM_PRIORITIES.put(Items.STICK, 50);
-        ITEM_PRIORITIES.put(Items.OAK_PLANKS, 45);
-        ITEM_PRIORITIES.put(Items.COBBLESTONE, 40);
-        
-        // Utility
-        ITEM_PRIORITIES.put(Items.CRAFTING_TABLE, 85);
-        ITEM_PRIORITIES.put(Items.FURNACE, 80);
-        ITEM_PRIORITIES.put(Items.CHEST, 75);
-        ITEM_PRIORITIES.put(Items.WHITE_BED, 70);
-        ITEM_PRIORITIES.put(Items.TORCH, 65);
-        
-        // Building blocks
-        ITEM_PRIORITIES.put(Items.STONE, 35);
-        ITEM_PRIORITIES.put(Items.DIRT, 20);
-        ITEM_PRIORITIES.put(Items.SAND, 25);
-        
-        // Junk items (low priority)
-        ITEM_PRIORITIES.put(Items.ROTTEN_FLESH, 10);
-        ITEM_PRIORITIES.put(Items.SPIDER_EYE, 15);
-        ITEM_PRIORITIES.put(Items.BONE, 20);
-    }
+    // Click batching and desync detection
+    private static final int DESYNC_CHECK_DELAY = 10; // Ticks to wait for server confirmation
+    private PendingBatch pendingBatch = null;
+    private int clicksSent = 0;
+    private int desyncCount = 0;
+    
+    // Item values, essential flags and drop thresholds live in ItemValuationTable
     
     public InventoryManager() {
         this.client = MinecraftClient.getInstance();
     }
     
     public void tick() {
-        if (client.player == null || managementCooldown > 0) {
-            managementCooldown--;
-            return;
+        // Check the last click batch once the server has had time to answer
+        if (pendingBatch != null && --pendingBatch.ticksUntilVerify <= 0) {
+            verifyPendingBatch();
         }
         
-        // Run inventory management every 5 seconds
-        manageInventory();
-        managementCooldown = 100;
+        // Regular management is scheduled by the caller (every 5 seconds); a desync re-plans at once
+        if (replanRequested && client.player != null) {
+            replanRequested = false;
+            manageInventory();
+        }
     }
     
     public void manageInventory() {
@@ -93,138 +51,96 @@ public class InventoryManager {
         
         PlayerInventory inventory = player.getInventory();
         
-        // Sort inventory by priority
-        sortInventory(inventory);
+        if (!canClick(player)) return;
         
-        // Drop low-priority items if inventory is full
+        // Drop low-priority items if inventory is full; the throws update the local
+        // inventory as they are sent, so the layout below plans from the server's state
         if (isInventoryFull(inventory)) {
-            dropLowPriorityItems(inventory);
+            dropLowPriorityItems(player, inventory);
         }
         
-        // Stack similar items
-        stackItems(inventory);
-        
-        // Organize hotbar
-        organizeHotbar(inventory);
+        // Stack, sort and organize hotbar in one batch of clicks
+        applyLayout(player, inventory);
     }
     
-    private void sortInventory(PlayerInventory inventory) {
-        List<ItemStack> items = new ArrayList<>();
-        
-        // Collect all items (excluding hotbar and armor)
-        for (int i = 9; i < 36; i++) {
-            ItemStack stack = inventory.getStack(i);
-            if (!stack.isEmpty()) {
-                items.add(stack.copy());
-                inventory.setStack(i, ItemStack.EMPTY);
-            }
+    /**
+     * Plan the target layout (merged stacks, preferred hotbar, priority-sorted main inventory)
+     * and send the minimum set of clicks for it in a single tick
+     */
+    private void applyLayout(ClientPlayerEntity player, PlayerInventory inventory) {
+        ScreenHandler handler = player.playerScreenHandler;
+        ItemStack[] snapshot = new ItemStack[InventorySortPlanner.INVENTORY_SIZE];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = inventory.getStack(i).copy();
         }
         
-        // Sort by priority
-        items.sort((a, b) -> {
-            int priorityA = ITEM_PRIORITIES.getOrDefault(a.getItem(), 30);
-            int priorityB = ITEM_PRIORITIES.getOrDefault(b.getItem(), 30);
-            return Integer.compare(priorityB, priorityA); // Higher priority first
-        });
+        InventorySortPlanner.SortPlan plan = InventorySortPlanner.plan(snapshot,
+            ItemValuationTable::getValue, getHotbarLayout(inventory));
+        if (plan.isEmpty()) return;
         
-        // Place back in inventory
-        int slot = 9;
-        for (ItemStack stack : items) {
-            if (slot < 36) {
-                inventory.setStack(slot, stack);
-                slot++;
-            }
+        for (int slot : plan.clicks) {
+            client.interactionManager.clickSlot(handler.syncId, toHandlerSlot(slot), 0, SlotActionType.PICKUP, player);
         }
+        clicksSent += plan.clicks.size();
+        
+        pendingBatch = new PendingBatch(plan, DESYNC_CHECK_DELAY);
     }
     
-    private void dropLowPriorityItems(PlayerInventory inventory) {
+    /**
+     * Compare the layout a batch should have produced with what the server left us with
+     */
+    private void verifyPendingBatch() {
         ClientPlayerEntity player = client.player;
-        List<Integer> itemsToRemove = new ArrayList<>();
+        PendingBatch batch = pendingBatch;
+        pendingBatch = null;
+        if (player == null) return;
         
-        // Find lowest priority items
-        for (int i = 9; i < 36; i++) {
-            ItemStack stack = inventory.getStack(i);
-            if (!stack.isEmpty()) {
-                int priority = ITEM_PRIORITIES.getOrDefault(stack.getItem(), 30);
-                if (priority < 25) { // Drop very low priority items
-                    itemsToRemove.add(i);
-                }
+        PlayerInventory inventory = player.getInventory();
+        boolean desynced = !player.playerScreenHandler.getCursorStack().isEmpty();
+        
+        // Only slots the batch touched; pickups elsewhere in the meantime are expected
+        for (int slot : batch.plan.clicks) {
+            ItemStack actual = inventory.getStack(slot);
+            ItemStack expected = batch.plan.expected[slot];
+            if (actual.isEmpty() != expected.isEmpty() ||
+                (!actual.isEmpty() && actual.getItem() != expected.getItem())) {
+                desynced = true;
+                break;
             }
         }
         
-        // Drop items (with message throttling)
-        for (int slot : itemsToRemove) {
-            ItemStack stack = inventory.getStack(slot);
-            if (!stack.isEmpty()) {
-                // Only show drop messages every 10 seconds
-                if (System.currentTimeMillis() - lastMessageTime > 10000) {
-                    player.sendMessage(Text.literal("§7[InvManager] Dropping " + 
-                        stack.getCount() + "x " + stack.getName().getString()), true);
-                    lastMessageTime = (int) System.currentTimeMillis();
-                }
-                
-                // In a real implementation, you'd call player.dropItem()
-                inventory.setStack(slot, ItemStack.EMPTY);
-            }
+        if (desynced) {
+            desyncCount++;
+            replanRequested = true; // Re-plan from the real state on the next tick
+            MessageThrottler.sendThrottledMessage(player, "inventory_desync",
+                Text.literal("§c[InvManager] Inventory desync detected, re-planning layout"), true, 10000);
         }
     }
     
-    private void stackItems(PlayerInventory inventory) {
-        Map<Item, List<Integer>> itemSlots = new HashMap<>();
-        
-        // Find all items and their slots
-        for (int i = 0; i < inventory.size(); i++) {
-            ItemStack stack = inventory.getStack(i);
-            if (!stack.isEmpty() && stack.isStackable()) {
-                itemSlots.computeIfAbsent(stack.getItem(), k -> new ArrayList<>()).add(i);
-            }
-        }
-        
-        // Stack items together
-        for (Map.Entry<Item, List<Integer>> entry : itemSlots.entrySet()) {
-            List<Integer> slots = entry.getValue();
-            if (slots.size() > 1) {
-                stackItemsInSlots(inventory, slots);
-            }
-        }
+    /**
+     * Clicks go through the player's own screen handler: never with another screen open,
+     * while the user holds something, or before the last batch was verified
+     */
+    private boolean canClick(ClientPlayerEntity player) {
+        if (client.interactionManager == null || pendingBatch != null) return false;
+        if (client.currentScreen != null && !(client.currentScreen instanceof InventoryScreen)) return false;
+        return player.playerScreenHandler.getCursorStack().isEmpty();
     }
     
-    private void stackItemsInSlots(PlayerInventory inventory, List<Integer> slots) {
-        int totalCount = 0;
-        Item item = null;
-        
-        // Count total items
-        for (int slot : slots) {
-            ItemStack stack = inventory.getStack(slot);
-            if (!stack.isEmpty()) {
-                totalCount += stack.getCount();
-                item = stack.getItem();
-                inventory.setStack(slot, ItemStack.EMPTY);
-            }
-        }
-        
-        if (item == null) return;
-        
-        // Create new stacks
-        int maxStackSize = item.getMaxCount();
-        int slotsUsed = 0;
-        
-        for (int slot : slots) {
-            if (totalCount <= 0) break;
-            
-            int stackSize = Math.min(totalCount, maxStackSize);
-            inventory.setStack(slot, new ItemStack(item, stackSize));
-            totalCount -= stackSize;
-            slotsUsed++;
-        }
+    /**
+     * Throw a whole stack out of an inventory slot (0-35) with a real click so the server drops it too
+     */
+    private void throwStack(ClientPlayerEntity player, int slot) {
+        client.interactionManager.clickSlot(player.playerScreenHandler.syncId, toHandlerSlot(slot), 1,
+            SlotActionType.THROW, player);
+        clicksSent++;
     }
     
-    private void organizeHotbar(PlayerInventory inventory) {
+    private Item[] getHotbarLayout(PlayerInventory inventory) {
         // Preferred hotbar layout:
         // 0: Sword, 1: Pickaxe, 2: Food, 3: Blocks, 4: Torch
         // 5-8: Other useful items
-        
-        Item[] preferredLayout = {
+        return new Item[] {
             getBestSword(inventory),
             getBestPickaxe(inventory),
             getBestFood(inventory),
@@ -235,11 +151,48 @@ public class InventoryManager {
             Items.CHEST,
             null // Last slot flexible
         };
+    }
+    
+    /**
+     * PlayerInventory index -> PlayerScreenHandler slot id (hotbar lives at 36-44 in the handler)
+     */
+    private static int toHandlerSlot(int inventorySlot) {
+        return inventorySlot < InventorySortPlanner.HOTBAR_SIZE ? 36 + inventorySlot : inventorySlot;
+    }
+    
+    private void dropLowPriorityItems(ClientPlayerEntity player, PlayerInventory inventory) {
+        List<Integer> itemsToRemove = new ArrayList<>();
+        int[] kept = new int[ItemValuationTable.size()];
         
-        for (int i = 0; i < Math.min(preferredLayout.length, 9); i++) {
-            Item preferredItem = preferredLayout[i];
-            if (preferredItem != null) {
-                moveItemToHotbarSlot(inventory, preferredItem, i);
+        // Keep each item up to its drop threshold (0 for junk), drop the rest
+        for (int i = 9; i < 36; i++) {
+            ItemStack stack = inventory.getStack(i);
+            if (!stack.isEmpty()) {
+                Item item = stack.getItem();
+                int threshold = ItemValuationTable.getDropThreshold(item);
+                if (threshold == ItemValuationTable.KEEP_ALL) continue;
+                
+                int id = Registries.ITEM.getRawId(item);
+                if (kept[id] >= threshold) {
+                    itemsToRemove.add(i);
+                } else {
+                    kept[id] += stack.getCount();
+                }
+            }
+        }
+        
+        // Drop items (with message throttling)
+        for (int slot : itemsToRemove) {
+            ItemStack stack = inventory.getStack(slot);
+            if (!stack.isEmpty()) {
+                // Only show drop messages every 10 seconds
+                if (System.currentTimeMillis() - lastMessageTime > 10000) {
+                    player.sendMessage(Text.literal("§7[InvManager] Dropping " + 
+                        stack.getCount() + "x " + stack.getName().getString()), true);
+                    lastMessageTime = (int) System.currentTimeMillis();
+                }
+                
+                throwStack(player, slot);
             }
         }
     }
@@ -276,20 +229,6 @@ public class InventoryManager {
         return null;
     }
     
-    private void moveItemToHotbarSlot(PlayerInventory inventory, Item item, int targetSlot) {
-        // Find the item in inventory
-        for (int i = 0; i < inventory.size(); i++) {
-            ItemStack stack = inventory.getStack(i);
-            if (!stack.isEmpty() && stack.getItem().equals(item)) {
-                // Swap with hotbar slot
-                ItemStack hotbarStack = inventory.getStack(targetSlot);
-                inventory.setStack(targetSlot, stack);
-                inventory.setStack(i, hotbarStack);
-                break;
-            }
-        }
-    }
-    
     private boolean isInventoryFull(PlayerInventory inventory) {
         for (int i = 0; i < inventory.size(); i++) {
             if (inventory.getStack(i).isEmpty()) {
@@ -315,19 +254,19 @@ public class InventoryManager {
     
     public void emergencyCleanup() {
         ClientPlayerEntity player = client.player;
-        if (player == null) return;
+        if (player == null || !canClick(player)) return;
         
         player.sendMessage(Text.literal("§c[InvManager] Emergency cleanup - dropping junk items!"), false);
         
         PlayerInventory inventory = player.getInventory();
         
-        // Drop all very low priority items
-        for (int i = 0; i < inventory.size(); i++) {
+        // Drop all very low priority items from the main inventory and hotbar
+        for (int i = 0; i < InventorySortPlanner.INVENTORY_SIZE; i++) {
             ItemStack stack = inventory.getStack(i);
             if (!stack.isEmpty()) {
-                int priority = ITEM_PRIORITIES.getOrDefault(stack.getItem(), 30);
-                if (priority < 20) {
-                    inventory.setStack(i, ItemStack.EMPTY);
+                int priority = ItemValuationTable.getValue(stack.getItem());
+                if (priority < 20 && !ItemValuationTable.isEssential(stack.getItem())) {
+                    throwStack(player, i);
                 }
             }
         }
@@ -345,10 +284,31 @@ public class InventoryManager {
             ItemStack stack = inventory.getStack(i);
             if (!stack.isEmpty()) {
                 usedSlots++;
-                totalValue += ITEM_PRIORITIES.getOrDefault(stack.getItem(), 30) * stack.getCount();
+                totalValue += ItemValuationTable.getValue(stack.getItem()) * stack.getCount();
             }
         }
         
         player.sendMessage(Text.literal("§e[InvManager] Slots used: " + usedSlots + "/36 | Total value: " + totalValue), false);
     }
+    
+    public int getClicksSent() {
+        return clicksSent;
+    }
+    
+    public int getDesyncCount() {
+        return desyncCount;
+    }
+    
+    /**
+     * Click batch awaiting server confirmation
+     */
+    private static class PendingBatch {
+        final InventorySortPlanner.SortPlan plan;
+        int ticksUntilVerify;
+        
+        PendingBatch(InventorySortPlanner.SortPlan plan, int ticksUntilVerify) {
+            this.plan = plan;
+            this.ticksUntilVerify = ticksUntilVerify;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,343 @@
+package com.escapemod.systems;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import com.escapemod.utils.SystemProfiler;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Inventory Sort Planner - Turns a desired inventory layout into the fewest slot clicks
+ * Merges partial stacks first, then moves stacks along permutation cycles so that
+ * every stack is picked up and put down exactly once
+ */
+public class InventorySortPlanner {
+    public static final int HOTBAR_SIZE = 9;
+    public static final int INVENTORY_SIZE = 36; // Hotbar + main inventory, armor and offhand excluded
+    private static final SystemProfiler.Section PLAN_PROFILE = SystemProfiler.get().section("inventory.sort");
+
+    /**
+     * Plan merge and move clicks for the given slots (PlayerInventory numbering)
+     * hotbarLayout holds the preferred item per hotbar slot, null where any item may stay
+     */
+    public static SortPlan plan(ItemStack[] slots, ToIntFunction<Item> priority, Item[] hotbarLayout) {
+        try (var scope = PLAN_PROFILE.time()) {
+            return planClicks(slots, priority, hotbarLayout);
+        }
+    }
+
+    private static SortPlan planClicks(ItemStack[] slots, ToIntFunction<Item> priority, Item[] hotbarLayout) {
+        ItemStack[] working = new ItemStack[INVENTORY_SIZE];
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            working[i] = slots[i].copy();
+        }
+
+        List<Integer> clicks = new ArrayList<>();
+        int merges = planMerges(working, clicks);
+        int mergeClicks = clicks.size();
+
+        int[] dest = assignTargets(working, priority, hotbarLayout);
+        int moves = planCycles(dest, working, clicks);
+
+        ItemStack[] intended = new ItemStack[INVENTORY_SIZE];
+        for (int s = 0; s < INVENTORY_SIZE; s++) {
+            intended[dest[s]] = working[s];
+        }
+
+        // Replay the clicks with vanilla pickup rules; only trust the plan if it lands where we meant
+        ItemStack[] expected = simulate(slots, clicks);
+        if (expected == null || !sameLayout(expected, intended)) {
+            clicks = new ArrayList<>(clicks.subList(0, mergeClicks));
+            expected = simulate(slots, clicks);
+            moves = 0;
+            if (expected == null) {
+                return new SortPlan(Collections.emptyList(), copyOf(slots), 0, 0);
+            }
+        }
+
+        return new SortPlan(clicks, expected, merges, moves);
+    }
+
+    /**
+     * Merge later partial stacks into earlier ones of the same item
+     */
+    private static int planMerges(ItemStack[] working, List<Integer> clicks) {
+        int merges = 0;
+
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            ItemStack target = working[i];
+            if (target.isEmpty() || !target.isStackable()) continue;
+
+            for (int j = i + 1; j < INVENTORY_SIZE && target.getCount() < target.getMaxCount(); j++) {
+                ItemStack source = working[j];
+                if (source.isEmpty() || !ItemStack.areItemsAndComponentsEqual(target, source)) continue;
+
+                int moved = Math.min(source.getCount(), target.getMaxCount() - target.getCount());
+                clicks.add(j);
+                clicks.add(i);
+                target.increment(moved);
+                source.decrement(moved);
+
+                if (source.isEmpty()) {
+                    working[j] = ItemStack.EMPTY;
+                } else {
+                    clicks.add(j); // Put the remainder back
+                }
+                merges++;
+            }
+        }
+
+        return merges;
+    }
+
+    /**
+     * Decide where every slot's stack should end up; returns a full permutation of slot indices
+     * Stacks that already sit in a slot of the right kind never move
+     */
+    private static int[] assignTargets(ItemStack[] working, ToIntFunction<Item> priority, Item[] hotbarLayout) {
+        int[] dest = new int[INVENTORY_SIZE];
+        boolean[] taken = new boolean[INVENTORY_SIZE];
+        Arrays.fill(dest, -1);
+
+        // Preferred hotbar items
+        for (int h = 0; h < HOTBAR_SIZE && h < hotbarLayout.length; h++) {
+            Item preferred = hotbarLayout[h];
+            if (preferred == null) continue;
+
+            int source = findHotbarSource(working, dest, hotbarLayout, preferred, h);
+            if (source >= 0) {
+                dest[source] = h;
+                taken[h] = true;
+            }
+        }
+
+        // Other hotbar stacks stay where they are
+        for (int h = 0; h < HOTBAR_SIZE; h++) {
+            if (!taken[h] && dest[h] < 0 && !working[h].isEmpty()) {
+                dest[h] = h;
+                taken[h] = true;
+            }
+        }
+
+        // Everything else is sorted into the main inventory by priority
+        List<Integer> pool = new ArrayList<>();
+        for (int s = 0; s < INVENTORY_SIZE; s++) {
+            if (dest[s] < 0 && !working[s].isEmpty()) {
+                pool.add(s);
+            }
+        }
+        pool.sort((a, b) -> Integer.compare(priority.applyAsInt(working[b].getItem()),
+                                            priority.applyAsInt(working[a].getItem())));
+
+        // Stacks displaced from the hotbar can overflow a full main inventory; they take the vacated hotbar slots
+        int mainSlots = INVENTORY_SIZE - HOTBAR_SIZE;
+        for (int h = 0; h < HOTBAR_SIZE && pool.size() > mainSlots; h++) {
+            if (!taken[h]) {
+                dest[pool.remove(pool.size() - 1)] = h;
+                taken[h] = true;
+            }
+        }
+
+        Item[] kind = new Item[INVENTORY_SIZE];
+        for (int k = 0; k < pool.size(); k++) {
+            kind[HOTBAR_SIZE + k] = working[pool.get(k)].getItem();
+        }
+
+        // Fixed points first, then fill remaining slots of the matching kind in order
+        for (int s : pool) {
+            if (s >= HOTBAR_SIZE && kind[s] == working[s].getItem() && !taken[s]) {
+                dest[s] = s;
+                taken[s] = true;
+            }
+        }
+        for (int s : pool) {
+            if (dest[s] >= 0) continue;
+            for (int t = HOTBAR_SIZE; t < INVENTORY_SIZE; t++) {
+                if (!taken[t] && kind[t] == working[s].getItem()) {
+                    dest[s] = t;
+                    taken[t] = true;
+                    break;
+                }
+            }
+        }
+
+        // Empty slots fill whatever targets remain, staying put where possible
+        for (int s = 0; s < INVENTORY_SIZE; s++) {
+            if (dest[s] < 0 && !taken[s]) {
+                dest[s] = s;
+                taken[s] = true;
+            }
+        }
+        int free = 0;
+        for (int s = 0; s < INVENTORY_SIZE; s++) {
+            if (dest[s] >= 0) continue;
+            while (taken[free]) free++;
+            dest[s] = free;
+            taken[free] = true;
+        }
+
+        return dest;
+    }
+
+    private static int findHotbarSource(ItemStack[] working, int[] dest, Item[] hotbarLayout, Item preferred, int hotbarSlot) {
+        if (dest[hotbarSlot] < 0 && working[hotbarSlot].getItem() == preferred && !working[hotbarSlot].isEmpty()) {
+            return hotbarSlot;
+        }
+
+        for (int s = HOTBAR_SIZE; s < INVENTORY_SIZE; s++) {
+            if (dest[s] < 0 && !working[s].isEmpty() && working[s].getItem() == preferred) {
+                return s;
+            }
+        }
+
+        // Take it from another hotbar slot only if that slot isn't already holding its own preferred item
+        for (int h = 0; h < HOTBAR_SIZE; h++) {
+            boolean satisfied = h < hotbarLayout.length && hotbarLayout[h] == working[h].getItem();
+            if (h != hotbarSlot && dest[h] < 0 && !satisfied && !working[h].isEmpty() && working[h].getItem() == preferred) {
+                return h;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Emit pickup clicks for every permutation cycle
+     * A cycle of k stacks costs k + 1 clicks; a chain ending in an empty slot costs one click per stack
+     */
+    private static int planCycles(int[] dest, ItemStack[] working, List<Integer> clicks) {
+        boolean[] visited = new boolean[INVENTORY_SIZE];
+        int moves = 0;
+
+        for (int start = 0; start < INVENTORY_SIZE; start++) {
+            if (visited[start]) continue;
+            if (dest[start] == start) {
+                visited[start] = true;
+                continue;
+            }
+
+            List<Integer> cycle = new ArrayList<>();
+            int s = start;
+            do {
+                cycle.add(s);
+                visited[s] = true;
+                s = dest[s];
+            } while (s != start);
+
+            moves += emitCycle(cycle, working, clicks);
+        }
+
+        return moves;
+    }
+
+    private static int emitCycle(List<Integer> cycle, ItemStack[] working, List<Integer> clicks) {
+        int k = cycle.size();
+        int moved = 0;
+        boolean hasEmpty = false;
+        for (int slot : cycle) {
+            if (working[slot].isEmpty()) {
+                hasEmpty = true;
+            } else {
+                moved++;
+            }
+        }
+
+        if (!hasEmpty) {
+            for (int slot : cycle) {
+                clicks.add(slot);
+            }
+            clicks.add(cycle.get(0)); // Put the last stack into the first slot
+            return moved;
+        }
+
+        // Each empty slot terminates a chain that starts right after the previous one
+        for (int i = 0; i < k; i++) {
+            if (!working[cycle.get(i)].isEmpty()) continue;
+
+            int j = (i + 1) % k;
+            if (working[cycle.get(j)].isEmpty()) continue;
+
+            do {
+                clicks.add(cycle.get(j));
+                j = (j + 1) % k;
+            } while (!working[cycle.get(j)].isEmpty());
+            clicks.add(cycle.get(j));
+        }
+
+        return moved;
+    }
+
+    /**
+     * Replay left-click pickups on a copy of the slots; null if the cursor isn't empty at the end
+     */
+    public static ItemStack[] simulate(ItemStack[] slots, List<Integer> clicks) {
+        ItemStack[] state = copyOf(slots);
+        ItemStack cursor = ItemStack.EMPTY;
+
+        for (int slot : clicks) {
+            ItemStack inSlot = state[slot];
+            if (cursor.isEmpty()) {
+                cursor = inSlot;
+                state[slot] = ItemStack.EMPTY;
+            } else if (inSlot.isEmpty()) {
+                state[slot] = cursor;
+                cursor = ItemStack.EMPTY;
+            } else if (ItemStack.areItemsAndComponentsEqual(inSlot, cursor)) {
+                int moved = Math.min(cursor.getCount(), inSlot.getMaxCount() - inSlot.getCount());
+                inSlot.increment(moved);
+                cursor.decrement(moved);
+                if (cursor.isEmpty()) cursor = ItemStack.EMPTY;
+            } else {
+                state[slot] = cursor;
+                cursor = inSlot;
+            }
+        }
+
+        return cursor.isEmpty() ? state : null;
+    }
+
+    /**
+     * Compare item, components and count slot by slot
+     */
+    public static boolean sameLayout(ItemStack[] a, ItemStack[] b) {
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            if (a[i].isEmpty() != b[i].isEmpty()) return false;
+            if (a[i].isEmpty()) continue;
+            if (a[i].getCount() != b[i].getCount() || !ItemStack.areItemsAndComponentsEqual(a[i], b[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ItemStack[] copyOf(ItemStack[] slots) {
+        ItemStack[] copy = new ItemStack[INVENTORY_SIZE];
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            copy[i] = slots[i].copy();
+        }
+        return copy;
+    }
+
+    /**
+     * Ordered slot clicks plus the layout they should produce
+     */
+    public static class SortPlan {
+        public final List<Integer> clicks; // PlayerInventory slot indices, left-click pickup each
+        public final ItemStack[] expected;
+        public final int merges;
+        public final int moves;
+
+        public SortPlan(List<Integer> clicks, ItemStack[] expected, int merges, int moves) {
+            this.clicks = clicks;
+            this.expected = expected;
+            this.merges = merges;
+            this.moves = moves;
+        }
+
+        public boolean isEmpty() {
+            return clicks.isEmpty();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,281 @@
+package com.escapemod.systems;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Item Valuation Table - One dense table of item values shared by inventory sorting,
+ * dropping and stashing, indexed by raw item id
+ * Defaults are built in; escapemod_items.txt can override any entry
+ */
+public class ItemValuationTable {
+    public static final int DEFAULT_VALUE = 30;
+    public static final int KEEP_ALL = Integer.MAX_VALUE;
+    private static final int JUNK_VALUE = 25; // Below this, items are dropped when the inventory is full
+    private static final String CONFIG_FILE = "escapemod_items.txt";
+
+    private static int[] values;
+    private static boolean[] essential;
+    private static StashClass[] stashClasses;
+    private static int[] dropThresholds;
+
+    static {
+        reload();
+    }
+
+    /**
+     * Rebuild the table from defaults and the config file
+     * Returns the number of config lines applied, or -1 if the file could not be read
+     */
+    public static synchronized int reload() {
+        int size = Registries.ITEM.size();
+        values = new int[size];
+        essential = new boolean[size];
+        stashClasses = new StashClass[size];
+        dropThresholds = new int[size];
+
+        Arrays.fill(values, DEFAULT_VALUE);
+        Arrays.fill(stashClasses, StashClass.NORMAL);
+        Arrays.fill(dropThresholds, KEEP_ALL);
+
+        loadDefaults();
+        return loadConfig(new File(CONFIG_FILE));
+    }
+
+    private static void loadDefaults() {
+        // Essential tools (highest priority)
+        set(Items.DIAMOND_PICKAXE, 100);
+        set(Items.DIAMOND_SWORD, 100);
+        set(Items.IRON_PICKAXE, 90);
+        set(Items.IRON_SWORD, 90);
+        set(Items.STONE_PICKAXE, 80);
+        set(Items.STONE_SWORD, 80);
+        set(Items.WOODEN_PICKAXE, 70);
+        set(Items.WOODEN_SWORD, 70);
+
+        // Armor
+        set(Items.DIAMOND_HELMET, 95);
+        set(Items.DIAMOND_CHESTPLATE, 95);
+        set(Items.DIAMOND_LEGGINGS, 95);
+        set(Items.DIAMOND_BOOTS, 95);
+        set(Items.IRON_HELMET, 85);
+        set(Items.IRON_CHESTPLATE, 85);
+        set(Items.IRON_LEGGINGS, 85);
+        set(Items.IRON_BOOTS, 85);
+
+        // Food
+        set(Items.ENCHANTED_GOLDEN_APPLE, 100);
+        set(Items.GOLDEN_APPLE, 95);
+        set(Items.COOKED_BEEF, 75);
+        set(Items.COOKED_PORKCHOP, 75);
+        set(Items.BREAD, 70);
+        set(Items.APPLE, 65);
+
+        // Resources
+        set(Items.DIAMOND, 90);
+        set(Items.IRON_INGOT, 80);
+        set(Items.GOLD_INGOT, 75);
+        set(Items.COAL, 60);
+        set(Items.STICK, 50);
+        set(Items.OAK_PLANKS, 45);
+        set(Items.COBBLESTONE, 40);
+
+        // Utility
+        set(Items.CRAFTING_TABLE, 85);
+        set(Items.FURNACE, 80);
+        set(Items.CHEST, 75);
+        set(Items.WHITE_BED, 70);
+        set(Items.TORCH, 65);
+
+        // Building blocks
+        set(Items.STONE, 35);
+        set(Items.DIRT, 20);
+        set(Items.SAND, 25);
+
+        // Junk items (low priority)
+        set(Items.ROTTEN_FLESH, 10);
+        set(Items.SPIDER_EYE, 15);
+        set(Items.BONE, 20);
+
+        // Valuables - stashed before anything else
+        setValuable(Items.EMERALD, 85);
+        setValuable(Items.DIAMOND, 90);
+        setValuable(Items.NETHERITE_INGOT, 100);
+        setValuable(Items.NETHERITE_SCRAP, 95);
+        setValuable(Items.ANCIENT_DEBRIS, 95);
+        setValuable(Items.DIAMOND_PICKAXE, 100);
+        setValuable(Items.DIAMOND_SWORD, 100);
+        setValuable(Items.DIAMOND_AXE, 90);
+        setValuable(Items.NETHERITE_PICKAXE, 100);
+        setValuable(Items.NETHERITE_SWORD, 100);
+        setValuable(Items.NETHERITE_AXE, 100);
+        setValuable(Items.ENCHANTED_BOOK, 85);
+        setValuable(Items.ENDER_PEARL, 85);
+        setValuable(Items.BLAZE_ROD, 80);
+        setValuable(Items.GHAST_TEAR, 80);
+        setValuable(Items.NETHER_STAR, 100);
+
+        Item[] shulkerBoxes = {
+            Items.SHULKER_BOX, Items.WHITE_SHULKER_BOX, Items.ORANGE_SHULKER_BOX, Items.MAGENTA_SHULKER_BOX,
+            Items.LIGHT_BLUE_SHULKER_BOX, Items.YELLOW_SHULKER_BOX, Items.LIME_SHULKER_BOX, Items.PINK_SHULKER_BOX,
+            Items.GRAY_SHULKER_BOX, Items.LIGHT_GRAY_SHULKER_BOX, Items.CYAN_SHULKER_BOX, Items.PURPLE_SHULKER_BOX,
+            Items.BLUE_SHULKER_BOX, Items.BROWN_SHULKER_BOX, Items.GREEN_SHULKER_BOX, Items.RED_SHULKER_BOX,
+            Items.BLACK_SHULKER_BOX
+        };
+        for (Item shulkerBox : shulkerBoxes) {
+            setValuable(shulkerBox, 95);
+        }
+
+        // Essentials - never stashed or dropped (keep some food and basic tools)
+        setEssential(Items.BREAD);
+        setEssential(Items.COOKED_BEEF);
+        setEssential(Items.GOLDEN_APPLE);
+        setEssential(Items.ENCHANTED_GOLDEN_APPLE);
+        setEssential(Items.WOODEN_PICKAXE);
+        setEssential(Items.STONE_PICKAXE);
+        setEssential(Items.IRON_PICKAXE);
+    }
+
+    private static void set(Item item, int value) {
+        int id = Registries.ITEM.getRawId(item);
+        values[id] = value;
+        dropThresholds[id] = value < JUNK_VALUE ? 0 : KEEP_ALL;
+    }
+
+    private static void setValuable(Item item, int value) {
+        set(item, value);
+        stashClasses[Registries.ITEM.getRawId(item)] = StashClass.VALUABLE;
+    }
+
+    private static void setEssential(Item item) {
+        int id = Registries.ITEM.getRawId(item);
+        essential[id] = true;
+        dropThresholds[id] = KEEP_ALL;
+    }
+
+    /**
+     * Config format, one item per line:
+     *   minecraft:dirt value=20 keep=64
+     *   minecraft:totem_of_undying value=100 essential=true stash=valuable
+     * Unknown items and malformed lines are skipped
+     */
+    private static int loadConfig(File file) {
+        if (!file.exists()) return 0;
+
+        int applied = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                if (applyConfigLine(line.split("\\s+"))) {
+                    applied++;
+                }
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+
+        return applied;
+    }
+
+    private static boolean applyConfigLine(String[] parts) {
+        Identifier id = Identifier.tryParse(parts[0]);
+        if (id == null || !Registries.ITEM.containsId(id)) return false;
+
+        int rawId = Registries.ITEM.getRawId(Registries.ITEM.get(id));
+        int value = values[rawId];
+        boolean isEssential = essential[rawId];
+        StashClass stashClass = stashClasses[rawId];
+        Integer keep = null;
+
+        try {
+            for (int i = 1; i < parts.length; i++) {
+                String[] keyValue = parts[i].split("=", 2);
+                if (keyValue.length != 2) return false;
+
+                switch (keyValue[0]) {
+                    case "value":
+                        value = Integer.parseInt(keyValue[1]);
+                        break;
+                    case "essential":
+                        isEssential = Boolean.parseBoolean(keyValue[1]);
+                        break;
+                    case "stash":
+                        stashClass = StashClass.valueOf(keyValue[1].toUpperCase());
+                        break;
+                    case "keep":
+                        keep = keyValue[1].equals("all") ? KEEP_ALL : Integer.parseInt(keyValue[1]);
+                        break;
+                    default:
+                        return false;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return false; // Bad number or stash class
+        }
+
+        values[rawId] = value;
+        essential[rawId] = isEssential;
+        stashClasses[rawId] = stashClass;
+        if (isEssential) {
+            dropThresholds[rawId] = KEEP_ALL;
+        } else if (keep != null) {
+            dropThresholds[rawId] = keep;
+        } else {
+            dropThresholds[rawId] = value < JUNK_VALUE ? 0 : KEEP_ALL;
+        }
+        return true;
+    }
+
+    private static int index(Item item) {
+        int id = Registries.ITEM.getRawId(item);
+        return id >= 0 && id < values.length ? id : 0;
+    }
+
+    /**
+     * Ranking value (higher = more important)
+     */
+    public static int getValue(Item item) {
+        return values[index(item)];
+    }
+
+    /**
+     * Essential items are never stashed or dropped
+     */
+    public static boolean isEssential(Item item) {
+        return essential[index(item)];
+    }
+
+    public static StashClass getStashClass(Item item) {
+        return stashClasses[index(item)];
+    }
+
+    /**
+     * How many of this item to keep when clearing space; KEEP_ALL means never drop
+     */
+    public static int getDropThreshold(Item item) {
+        return dropThresholds[index(item)];
+    }
+
+    public static int size() {
+        return values.length;
+    }
+
+    /**
+     * Order in which items go into a stash
+     */
+    public enum StashClass {
+        VALUABLE,
+        NORMAL
+    }
+}
\ No newline at end of file
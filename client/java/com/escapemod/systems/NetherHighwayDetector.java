@@ -0,0 +1,189 @@
+package com.escapemod.systems;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+import com.escapemod.utils.BotEvents;
+import com.escapemod.utils.SystemProfiler;
+import com.escapemod.world.WorldView;
+
+/**
+ * Nether Highway Detector - Finds highways a few probes at a time as chunks load
+ * Each chunk is probed along two perpendicular lines through its centre at a couple of walk levels.
+ * A narrow clear band crossing a probe line is a candidate; a run-length walk along the axis and
+ * both diagonals confirms it. Wide clear bands are open caverns and are skipped
+ */
+public class NetherHighwayDetector {
+    private static final int[] COMMON_WALK_LEVELS = {120}; // Walk level of most established nether highways
+    private static final int MIN_RUN = 64;             // Clear blocks needed to call it a highway
+    private static final int MAX_RUN_CHECK = 256;      // Per direction, per candidate
+    private static final int MAX_GAP = 2;              // Tolerated obstructed steps (dropped items, a stray block)
+    private static final int MAX_HIGHWAY_WIDTH = 7;
+    private static final int MAX_PENDING = 512;
+    public static final int CHUNKS_PER_TICK = 4;
+    private static final SystemProfiler.Section PROBE_PROFILE = SystemProfiler.get().section("scan.highways");
+
+    private static final int[][] AXIS_CROSSING_X = {{1, 0}, {1, 1}, {1, -1}}; // Directions that cross a line of constant x
+    private static final int[][] AXIS_CROSSING_Z = {{0, 1}, {1, 1}, {-1, 1}}; // Directions that cross a line of constant z
+
+    private final ArrayDeque<ChunkPos> pending = new ArrayDeque<>();
+    private long chunksProbed = 0;
+    private long blocksRead = 0;
+
+    /**
+     * Queue a freshly loaded nether chunk; the oldest entries are dropped if the queue is full
+     */
+    public void onChunkLoad(ChunkPos pos) {
+        if (pending.size() >= MAX_PENDING) {
+            pending.removeFirst();
+        }
+        pending.addLast(pos);
+    }
+
+    public void clear() {
+        pending.clear();
+    }
+
+    /**
+     * Probe up to maxChunks queued chunks; returns confirmed highway segments
+     * isKnown(pos, direction) lets the caller skip candidates on highways it already has
+     */
+    public List<NetherHighwayNavigator.NetherHighway> processPending(WorldView world, int playerWalkLevel, int maxChunks,
+                                                                     BiPredicate<BlockPos, int[]> isKnown) {
+        if (pending.isEmpty()) return new ArrayList<>();
+        BotEvents.WorldScan event = new BotEvents.WorldScan();
+        event.begin();
+        BlockPos first = pending.peekFirst().getCenterAtY(playerWalkLevel);
+        long readBefore = blocksRead;
+        List<NetherHighwayNavigator.NetherHighway> found;
+        try (var scope = PROBE_PROFILE.time()) {
+            found = probePending(world, playerWalkLevel, maxChunks, isKnown);
+        }
+        event.finish("nether_highways", first, blocksRead - readBefore, found.size());
+        return found;
+    }
+
+    private List<NetherHighwayNavigator.NetherHighway> probePending(WorldView world, int playerWalkLevel, int maxChunks,
+                                                                   BiPredicate<BlockPos, int[]> isKnown) {
+        List<NetherHighwayNavigator.NetherHighway> found = new ArrayList<>();
+
+        for (int i = 0; i < maxChunks && !pending.isEmpty(); i++) {
+            ChunkPos chunk = pending.removeFirst();
+            if (!world.isChunkLoaded(chunk.x, chunk.z)) continue;
+
+            chunksProbed++;
+            probeChunk(world, chunk, playerWalkLevel, isKnown, found);
+            for (int level : COMMON_WALK_LEVELS) {
+                if (level != playerWalkLevel) {
+                    probeChunk(world, chunk, level, isKnown, found);
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private void probeChunk(WorldView world, ChunkPos chunk, int level, BiPredicate<BlockPos, int[]> isKnown,
+                            List<NetherHighwayNavigator.NetherHighway> found) {
+        int centerX = chunk.getStartX() + 8;
+        int centerZ = chunk.getStartZ() + 8;
+
+        probeLine(world, centerX, chunk.getStartZ(), 0, 1, level, AXIS_CROSSING_X, isKnown, found);
+        probeLine(world, chunk.getStartX(), centerZ, 1, 0, level, AXIS_CROSSING_Z, isKnown, found);
+    }
+
+    /**
+     * Walk 16 columns along a probe line and test the middle of every narrow clear band
+     */
+    private void probeLine(WorldView world, int x0, int z0, int stepX, int stepZ, int level, int[][] directions,
+                           BiPredicate<BlockPos, int[]> isKnown, List<NetherHighwayNavigator.NetherHighway> found) {
+        BlockPos.Mutable probe = new BlockPos.Mutable();
+        int bandStart = -1;
+
+        for (int i = 0; i <= 16; i++) {
+            boolean clear = i < 16 && isClear(world, probe.set(x0 + stepX * i, level, z0 + stepZ * i));
+
+            if (clear && bandStart < 0) {
+                bandStart = i;
+            } else if (!clear && bandStart >= 0) {
+                int width = i - bandStart;
+                if (width <= MAX_HIGHWAY_WIDTH) {
+                    int middle = bandStart + width / 2;
+                    BlockPos candidate = new BlockPos(x0 + stepX * middle, level, z0 + stepZ * middle);
+                    confirm(world, candidate, directions, isKnown, found);
+                }
+                bandStart = -1;
+            }
+        }
+    }
+
+    private void confirm(WorldView world, BlockPos candidate, int[][] directions, BiPredicate<BlockPos, int[]> isKnown,
+                         List<NetherHighwayNavigator.NetherHighway> found) {
+        for (int[] direction : directions) {
+            if (isKnown.test(candidate, direction)) return;
+
+            int forward = runLength(world, candidate, direction[0], direction[1]);
+            int backward = runLength(world, candidate, -direction[0], -direction[1]);
+            if (forward + backward < MIN_RUN) continue;
+
+            BlockPos start = candidate.add(-direction[0] * backward, 0, -direction[1] * backward);
+            BlockPos end = candidate.add(direction[0] * forward, 0, direction[1] * forward);
+            found.add(NetherHighwayNavigator.NetherHighway.between(start, end));
+            return; // A band belongs to one highway
+        }
+    }
+
+    /**
+     * Clear steps from start along (dx, dz), tolerating short gaps; stops at unloaded chunks
+     * Returns the distance in steps to the last clear position
+     */
+    private int runLength(WorldView world, BlockPos start, int dx, int dz) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int lastClear = 0;
+        int gap = 0;
+
+        for (int step = 1; step <= MAX_RUN_CHECK; step++) {
+            pos.set(start.getX() + dx * step, start.getY(), start.getZ() + dz * step);
+            if (!world.isChunkLoaded(pos.getX() >> 4, pos.getZ() >> 4)) break;
+
+            if (isClear(world, pos)) {
+                lastClear = step;
+                gap = 0;
+            } else if (++gap > MAX_GAP) {
+                break;
+            }
+        }
+
+        return lastClear;
+    }
+
+    /**
+     * Walkable: solid floor below and three blocks of air from the walk level up
+     */
+    private boolean isClear(WorldView world, BlockPos.Mutable pos) {
+        int y = pos.getY();
+        for (int dy = 0; dy < 3; dy++) {
+            blocksRead++;
+            if (!world.getBlockState(pos.setY(y + dy)).isAir()) {
+                pos.setY(y);
+                return false;
+            }
+        }
+
+        blocksRead++;
+        BlockState floor = world.getBlockState(pos.setY(y - 1));
+        pos.setY(y);
+        return !floor.isAir() && floor.getBlock() != Blocks.LAVA;
+    }
+
+    public int getPendingCount() { return pending.size(); }
+    public long getChunksProbed() { return chunksProbed; }
+    public long getBlocksRead() { return blocksRead; }
+}
\ No newline at end of file
@@ -1,52 +1,127 @@
 package com.escapemod.systems;
 
+import com.escapemod.utils.MessageThrottler;
+import com.escapemod.utils.WorldIdentity;
+import com.escapemod.world.ClientWorldView;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.world.ClientWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.text.Text;
+import net.minecraft.item.Items;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
 import net.minecraft.world.dimension.DimensionTypes;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
  * Nether Highway Navigator - Detects and uses existing nether highways
  * Builds portals when needed and avoids trapped portals
+ * Portals and highways live in a persistent NetherNetwork per server; travel decisions
+ * come from routing over it rather than a fixed distance rule
  */
 public class NetherHighwayNavigator {
     private final MinecraftClient client;
-    private final Map<String, BlockPos> knownPortals = new HashMap<>();
-    private final Set<BlockPos> trappedPortals = new HashSet<>();
-    private final List<NetherHighway> detectedHighways = new ArrayList<>();
+    private final ClientWorldView worldView;
+    private final NetherNetwork network = new NetherNetwork();
+    private String networkServer = null;
+    private int savedVersion = 0;
+    private long lastSaveTime = 0;
     
-    private BlockPos currentPortalPos = null;
+    private final NetherHighwayDetector highwayDetector = new NetherHighwayDetector();
     private boolean isInNether = false;
-    private long lastPortalCheck = 0;
+    
+    // Last portal block the player stood in, for linking portals on dimension change
+    private NetherNetwork.Dimension lastDimension = null;
+    private BlockPos lastPortalContact = null;
+    private NetherNetwork.Dimension lastPortalDimension = null;
+    private long lastPortalContactTime = 0;
+    
+    // Origins of loaded chunk sections whose palette holds portal blocks, scanned a few per tick
+    private final ArrayDeque<BlockPos> pendingPortalSections = new ArrayDeque<>();
+    private NetherNetwork.Dimension pendingPortalDimension = null;
+    
+    // Route cache; routing is cheap but shouldUseNether runs every tick
+    private NetherNetwork.Route cachedRoute = null;
+    private BlockPos cachedRouteTarget = null;
+    private long cachedRouteCell = 0;
+    private int cachedRouteVersion = -1;
+    private long cachedRouteTime = 0;
+    
+    private static final long ROUTE_CACHE_TIME = 5000;
+    private static final long SAVE_INTERVAL = 30000;
+    private static final long PORTAL_LINK_WINDOW = 15000; // Dimension change must follow portal contact within this
+    private static final int PORTAL_SECTIONS_PER_TICK = 2;
+    private static final int MAX_PENDING_PORTAL_SECTIONS = 256;
+    private static final double KNOWN_PORTAL_RADIUS = 500;
     
     public NetherHighwayNavigator(MinecraftClient client) {
         this.client = client;
+        this.worldView = new ClientWorldView(client);
     }
     
     /**
      * Check if we should use nether travel for current escape
+     * True when the fastest route over the portal/highway network goes through the nether
      */
     public boolean shouldUseNether(BlockPos currentPos, BlockPos targetPos) {
-        double overworldDistance = currentPos.getSquaredDistance(targetPos);
-        double netherEquivalent = overworldDistance / 64; // 8x faster in nether
+        if (isInNether) return false;
         
-        // Use nether if distance > 5000 blocks
-        return overworldDistance > 25_000_000; // 5000^2
+        NetherNetwork.Route route = getRoute(currentPos, targetPos);
+        return route != null && route.usesNether();
+    }
+    
+    /**
+     * Fastest overworld route to the target, cached per 16-block cell and network version
+     */
+    public NetherNetwork.Route getRoute(BlockPos currentPos, BlockPos targetPos) {
+        if (client.world == null) return null;
+        ensureNetworkLoaded();
+        
+        long cell = BlockPos.asLong(currentPos.getX() >> 4, 0, currentPos.getZ() >> 4);
+        long now = System.currentTimeMillis();
+        if (cachedRoute != null && cell == cachedRouteCell && targetPos.equals(cachedRouteTarget)
+            && cachedRouteVersion == network.getVersion() && now - cachedRouteTime < ROUTE_CACHE_TIME) {
+            return cachedRoute;
+        }
+        
+        cachedRoute = network.findRoute(currentPos, targetPos, canBuildPortal());
+        cachedRouteTarget = targetPos;
+        cachedRouteCell = cell;
+        cachedRouteVersion = network.getVersion();
+        cachedRouteTime = now;
+        return cachedRoute;
+    }
+    
+    private boolean canBuildPortal() {
+        return client.player != null
+            && client.player.getInventory().count(Items.OBSIDIAN) >= 10
+            && client.player.getInventory().count(Items.FLINT_AND_STEEL) > 0;
     }
     
     /**
      * Find or create a portal for nether travel
      */
     public BlockPos findOrCreatePortal(BlockPos nearPos) {
+        // Portal chosen by the route planner
+        if (cachedRoute != null && cachedRoute.getEntryPortal() != null) {
+            NetherNetwork.Portal planned = network.findNearestPortal(NetherNetwork.Dimension.OVERWORLD, cachedRoute.getEntryPortal(), 4);
+            if (planned != null) {
+                return planned.pos;
+            }
+        }
+        
         // Check for existing safe portals nearby
-        BlockPos existingPortal = findNearestSafePortal(nearPos, 500);
+        BlockPos existingPortal = findNearestSafePortal(nearPos);
         if (existingPortal != null) {
             return existingPortal;
         }
@@ -62,68 +137,75 @@ public class NetherHighwayNavigator {
     
     /**
      * Find nearest safe portal (not trapped)
+     * Portals are discovered as their chunks load (see onChunkLoad), so this only queries the network
      */
-    private BlockPos findNearestSafePortal(BlockPos pos, int radius) {
+    private BlockPos findNearestSafePortal(BlockPos pos) {
         if (client.world == null) return null;
+        ensureNetworkLoaded();
         
-        BlockPos nearest = null;
-        double nearestDistance = Double.MAX_VALUE;
+        NetherNetwork.Dimension dimension = currentDimension();
+        if (dimension == null) return null;
         
-        // Search for nether portals in area
-        for (int x = -radius; x <= radius; x += 16) {
-            for (int z = -radius; z <= radius; z += 16) {
-                for (int y = -10; y <= 100; y += 5) {
-                    BlockPos checkPos = pos.add(x, y, z);
+        NetherNetwork.Portal nearest = network.findNearestPortal(dimension, pos, KNOWN_PORTAL_RADIUS);
+        return nearest != null ? nearest.pos : null;
+    }
+    
+    /**
+     * Scan a few queued sections for portal blocks on a checkerboard with a 3-block vertical stride
+     * A portal is at least 2 wide and 3 tall, so none can be stepped over; one that crosses into a
+     * neighbouring section has portal blocks in that section's palette too, so it is queued as well
+     */
+    private void processPortalSections() {
+        NetherNetwork.Dimension dimension = currentDimension();
+        if (dimension == null || dimension != pendingPortalDimension) return;
+        
+        BlockPos.Mutable checkPos = new BlockPos.Mutable();
+        for (int i = 0; i < PORTAL_SECTIONS_PER_TICK && !pendingPortalSections.isEmpty(); i++) {
+            BlockPos origin = pendingPortalSections.removeFirst();
+            if (!client.world.isChunkLoaded(origin.getX() >> 4, origin.getZ() >> 4)) continue;
+            
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) {
+                    if (((origin.getX() + x + origin.getZ() + z) & 1) != 0) continue;
                     
-                    if (isNetherPortal(checkPos) && !isTrappedPortal(checkPos)) {
-                        double distance = pos.getSquaredDistance(checkPos);
-                        if (distance < nearestDistance) {
-                            nearestDistance = distance;
-                            nearest = checkPos;
+                    for (int y = 0; y < 16; y += 3) {
+                        checkPos.set(origin.getX() + x, origin.getY() + y, origin.getZ() + z);
+                        if (client.world.getBlockState(checkPos).getBlock() != Blocks.NETHER_PORTAL) continue;
+                        
+                        BlockPos portalPos = checkPos.toImmutable();
+                        if (network.getPortalAt(dimension, portalPos) != null) continue;
+                        
+                        if (isTrappedPortal(portalPos)) {
+                            network.markTrapped(dimension, portalPos);
+                        } else {
+                            network.addPortal(dimension, portalPos);
                         }
                     }
                 }
             }
         }
-        
-        return nearest;
     }
     
-    /**
-     * Check if position has a nether portal
-     */
-    private boolean isNetherPortal(BlockPos pos) {
-        if (client.world == null) return false;
+    private void queuePortalSection(ClientWorld world, BlockPos origin) {
+        NetherNetwork.Dimension dimension = dimensionOf(world);
+        if (dimension == null) return;
         
-        // Check for obsidian frame pattern
-        Block block = client.world.getBlockState(pos).getBlock();
-        if (block == Blocks.NETHER_PORTAL) {
-            return true;
+        if (dimension != pendingPortalDimension) {
+            pendingPortalSections.clear();
+            pendingPortalDimension = dimension;
         }
+        if (pendingPortalSections.contains(origin)) return;
         
-        // Check for obsidian frame
-        if (block == Blocks.OBSIDIAN) {
-            // Simple check for portal frame
-            int obsidianCount = 0;
-            for (int dx = -2; dx <= 2; dx++) {
-                for (int dy = -3; dy <= 3; dy++) {
-                    Block frameBlock = client.world.getBlockState(pos.add(dx, dy, 0)).getBlock();
-                    if (frameBlock == Blocks.OBSIDIAN) {
-                        obsidianCount++;
-                    }
-                }
-            }
-            return obsidianCount >= 10; // Minimum for portal frame
+        if (pendingPortalSections.size() >= MAX_PENDING_PORTAL_SECTIONS) {
+            pendingPortalSections.removeFirst();
         }
-        
-        return false;
+        pendingPortalSections.addLast(origin);
     }
     
     /**
      * Check if portal is trapped (has suspicious blocks nearby)
      */
     private boolean isTrappedPortal(BlockPos pos) {
-        if (trappedPortals.contains(pos)) return true;
         if (client.world == null) return false;
         
         // Check for common trap blocks around portal
@@ -147,12 +229,7 @@ public class NetherHighwayNavigator {
         }
         
         // If too many trap blocks, mark as trapped
-        if (trapBlockCount > 3) {
-            trappedPortals.add(pos);
-            return true;
-        }
-        
-        return false;
+        return trapBlockCount > 3;
     }
     
     /**
@@ -214,7 +291,7 @@ public class NetherHighwayNavigator {
     private BlockPos buildPortal(BlockPos pos) {
         // This would require inventory management and block placement
         // For now, just mark the location and return it
-        knownPortals.put("escape_portal_" + System.currentTimeMillis(), pos);
+        network.addPortal(NetherNetwork.Dimension.OVERWORLD, pos);
         
         if (client.player != null) {
             client.player.sendMessage(Text.literal("§e[EscapeMod] Portal location marked: " + 
@@ -225,84 +302,10 @@ public class NetherHighwayNavigator {
         return pos;
     }
     
-    /**
-     * Detect nether highways in the area
-     */
-    public void scanForHighways() {
-        if (client.world == null || client.player == null) return;
-        if (!client.world.getDimensionEntry().matchesKey(DimensionTypes.THE_NETHER)) return;
-        
-        BlockPos playerPos = client.player.getBlockPos();
-        
-        // Look for long stretches of cleared paths
-        for (int direction = 0; direction < 4; direction++) {
-            Vec3d dir = getCardinalDirection(direction);
-            NetherHighway highway = scanDirection(playerPos, dir, 500);
-            if (highway != null && !detectedHighways.contains(highway)) {
-                detectedHighways.add(highway);
-                
-                client.player.sendMessage(Text.literal("§a[EscapeMod] Nether highway detected: " + 
-                    highway.direction + " - Length: " + highway.length + " blocks"), false);
-            }
-        }
-    }
-    
-    /**
-     * Scan in a direction for highway patterns
-     */
-    private NetherHighway scanDirection(BlockPos start, Vec3d direction, int maxDistance) {
-        if (client.world == null) return null;
-        
-        int clearBlocks = 0;
-        int totalBlocks = 0;
-        
-        for (int distance = 1; distance <= maxDistance; distance++) {
-            BlockPos checkPos = start.add(
-                (int)(direction.x * distance),
-                0,
-                (int)(direction.z * distance)
-            );
-            
-            // Check if path is clear (typical highway pattern)
-            boolean isClear = true;
-            for (int y = 0; y <= 3; y++) {
-                Block block = client.world.getBlockState(checkPos.add(0, y, 0)).getBlock();
-                if (block != Blocks.AIR) {
-                    isClear = false;
-                    break;
-                }
-            }
-            
-            if (isClear) clearBlocks++;
-            totalBlocks++;
-        }
-        
-        // If more than 70% clear, consider it a highway
-        double clearPercentage = (double) clearBlocks / totalBlocks;
-        if (clearPercentage > 0.7 && clearBlocks > 100) {
-            return new NetherHighway(start, direction, clearBlocks, getDirectionName(direction));
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Get cardinal direction vector
-     */
-    private Vec3d getCardinalDirection(int index) {
-        switch (index) {
-            case 0: return new Vec3d(1, 0, 0);  // East
-            case 1: return new Vec3d(-1, 0, 0); // West
-            case 2: return new Vec3d(0, 0, 1);  // North
-            case 3: return new Vec3d(0, 0, -1); // South
-            default: return new Vec3d(1, 0, 0);
-        }
-    }
-    
     /**
      * Get direction name
      */
-    private String getDirectionName(Vec3d direction) {
+    private static String getDirectionName(Vec3d direction) {
         if (direction.x > 0) return "East";
         if (direction.x < 0) return "West";
         if (direction.z > 0) return "North";
@@ -317,7 +320,7 @@ public class NetherHighwayNavigator {
         NetherHighway best = null;
         double bestAlignment = -1;
         
-        for (NetherHighway highway : detectedHighways) {
+        for (NetherHighway highway : network.getHighways()) {
             double alignment = highway.direction.dotProduct(targetDirection);
             if (alignment > bestAlignment) {
                 bestAlignment = alignment;
@@ -344,6 +347,37 @@ public class NetherHighwayNavigator {
             this.directionName = directionName;
         }
         
+        /**
+         * Highway running straight from start to end
+         */
+        public static NetherHighway between(BlockPos start, BlockPos end) {
+            Vec3d delta = new Vec3d(end.getX() - start.getX(), 0, end.getZ() - start.getZ());
+            Vec3d direction = delta.lengthSquared() > 0 ? delta.normalize() : new Vec3d(1, 0, 0);
+            return new NetherHighway(start, direction, (int) Math.round(delta.length()), getDirectionName(direction));
+        }
+        
+        public BlockPos getEnd() {
+            return pointAt(length);
+        }
+        
+        /**
+         * Distance of pos's projection along the highway, measured from start
+         */
+        public double alongAxis(BlockPos pos) {
+            return (pos.getX() - start.getX()) * direction.x + (pos.getZ() - start.getZ()) * direction.z;
+        }
+        
+        public BlockPos pointAt(double along) {
+            return BlockPos.ofFloored(start.getX() + direction.x * along, start.getY(), start.getZ() + direction.z * along);
+        }
+        
+        /**
+         * Point on the highway closest to pos (horizontally)
+         */
+        public BlockPos closestPoint(BlockPos pos) {
+            return pointAt(Math.max(0, Math.min(length, alongAxis(pos))));
+        }
+        
         @Override
         public boolean equals(Object obj) {
             if (!(obj instanceof NetherHighway)) return false;
@@ -358,19 +392,158 @@ public class NetherHighwayNavigator {
     }
     
     // Getters
-    public List<NetherHighway> getDetectedHighways() { return new ArrayList<>(detectedHighways); }
-    public Map<String, BlockPos> getKnownPortals() { return new HashMap<>(knownPortals); }
+    public List<NetherHighway> getDetectedHighways() { return network.getHighways(); }
+    public List<NetherNetwork.Portal> getKnownPortals() { return network.getPortals(); }
+    public NetherHighwayDetector getHighwayDetector() { return highwayDetector; }
+    public NetherNetwork getNetwork() { return network; }
     public boolean isInNether() { return isInNether; }
     
     public void tick() {
         if (client.world != null) {
+            ensureNetworkLoaded();
             isInNether = client.world.getDimensionEntry().matchesKey(DimensionTypes.THE_NETHER);
+            trackPortalTransit();
+            processPortalSections();
             
-            // Scan for highways periodically when in nether
-            if (isInNether && System.currentTimeMillis() - lastPortalCheck > 10000) {
-                scanForHighways();
-                lastPortalCheck = System.currentTimeMillis();
+            // Probe a few freshly loaded chunks for highways
+            if (isInNether && client.player != null) {
+                processHighwayProbes();
+            }
+            
+            if (network.getVersion() != savedVersion && System.currentTimeMillis() - lastSaveTime > SAVE_INTERVAL) {
+                saveNetwork();
+            }
+        }
+    }
+    
+    /**
+     * Queue a loaded chunk for highway probing (nether only) and its portal sections for portal discovery
+     * Sections are picked by their palette, so a chunk without portals costs one palette lookup per section
+     */
+    public void onChunkLoad(ClientWorld world, WorldChunk chunk) {
+        if (world.getDimensionEntry().matchesKey(DimensionTypes.THE_NETHER)) {
+            highwayDetector.onChunkLoad(chunk.getPos());
+        }
+        
+        ChunkSection[] sections = chunk.getSectionArray();
+        for (int i = 0; i < sections.length; i++) {
+            if (!sections[i].isEmpty() && sections[i].hasAny(state -> state.isOf(Blocks.NETHER_PORTAL))) {
+                queuePortalSection(world, new BlockPos(chunk.getPos().getStartX(),
+                    ChunkSectionPos.getBlockCoord(chunk.sectionIndexToCoord(i)), chunk.getPos().getStartZ()));
+            }
+        }
+    }
+    
+    /**
+     * Queue the section of a portal lit after its chunk loaded
+     */
+    public void onBlockChange(BlockPos pos, BlockState newState) {
+        if (client.world == null || !newState.isOf(Blocks.NETHER_PORTAL)) return;
+        
+        NetherNetwork.Dimension dimension = dimensionOf(client.world);
+        if (dimension != null && network.getPortalAt(dimension, pos) == null) {
+            queuePortalSection(client.world, new BlockPos(pos.getX() & ~15, pos.getY() & ~15, pos.getZ() & ~15));
+        }
+    }
+    
+    private void processHighwayProbes() {
+        List<NetherHighway> found = highwayDetector.processPending(worldView, client.player.getBlockY(),
+            NetherHighwayDetector.CHUNKS_PER_TICK, network::isOnKnownHighway);
+        
+        for (NetherHighway highway : found) {
+            if (network.mergeHighway(highway)) {
+                client.player.sendMessage(Text.literal("§a[EscapeMod] Nether highway detected: " + 
+                    highway.directionName + " - Length: " + highway.length + " blocks"), false);
+            }
+        }
+    }
+    
+    /**
+     * Link the portal the player stood in to where they appear after changing dimension
+     */
+    private void trackPortalTransit() {
+        NetherNetwork.Dimension dimension = currentDimension();
+        if (client.player == null || dimension == null) return;
+        
+        BlockPos playerPos = client.player.getBlockPos();
+        if (lastDimension != null && dimension != lastDimension && lastPortalContact != null
+            && lastPortalDimension == lastDimension
+            && System.currentTimeMillis() - lastPortalContactTime < PORTAL_LINK_WINDOW) {
+            NetherNetwork.Portal from = network.addPortal(lastPortalDimension, lastPortalContact);
+            NetherNetwork.Portal to = network.addPortal(dimension, playerPos);
+            network.link(from, to);
+            lastPortalContact = null;
+        }
+        lastDimension = dimension;
+        
+        if (client.world.getBlockState(playerPos).getBlock() == Blocks.NETHER_PORTAL) {
+            lastPortalContact = playerPos;
+            lastPortalDimension = dimension;
+            lastPortalContactTime = System.currentTimeMillis();
+        }
+    }
+    
+    private NetherNetwork.Dimension currentDimension() {
+        return client.world != null ? dimensionOf(client.world) : null;
+    }
+    
+    private static NetherNetwork.Dimension dimensionOf(ClientWorld world) {
+        if (world.getDimensionEntry().matchesKey(DimensionTypes.THE_NETHER)) return NetherNetwork.Dimension.NETHER;
+        if (world.getDimensionEntry().matchesKey(DimensionTypes.OVERWORLD)) return NetherNetwork.Dimension.OVERWORLD;
+        return null;
+    }
+    
+    /**
+     * Load the network for the current server, saving the previous one first
+     */
+    private void ensureNetworkLoaded() {
+        String server = WorldIdentity.serverName(client);
+        if (server.equals(networkServer)) return;
+        
+        if (networkServer != null) {
+            saveNetwork();
+        }
+        networkServer = server;
+        highwayDetector.clear();
+        lastDimension = null;
+        cachedRoute = null;
+        
+        try {
+            network.load(getNetworkFile());
+        } catch (IOException e) {
+            if (client.player != null) {
+                MessageThrottler.sendThrottledMessage(client.player, "nether_network_io",
+                    Text.literal("§c[EscapeMod] Failed to load nether network"), false);
+            }
+        }
+        savedVersion = network.getVersion();
+    }
+    
+    private void saveNetwork() {
+        if (networkServer == null) return;
+        
+        lastSaveTime = System.currentTimeMillis();
+        savedVersion = network.getVersion();
+        try {
+            network.save(getNetworkFile());
+        } catch (IOException e) {
+            if (client.player != null) {
+                MessageThrottler.sendThrottledMessage(client.player, "nether_network_io",
+                    Text.literal("§c[EscapeMod] Failed to save nether network"), false);
             }
         }
     }
+    
+    private Path getNetworkFile() {
+        return Path.of("escapemod_nether", networkServer + ".txt");
+    }
+    
+    /**
+     * Persist unsaved portal and highway changes; call when the client is stopping
+     */
+    public void shutdown() {
+        if (network.getVersion() != savedVersion) {
+            saveNetwork();
+        }
+    }
 }
\ No newline at end of file
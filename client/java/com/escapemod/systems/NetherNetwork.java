@@ -0,0 +1,611 @@
+package com.escapemod.systems;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Nether Network - Persistent graph of portals and nether highway segments for one server
+ * Portals are linked across dimensions (8:1 scaling), highways are fast nether edges, and a
+ * Dijkstra router compares "walk there" with every route through the nether in travel seconds
+ *
+ * File format, one entry per line:
+ *   portal <id> <overworld|nether> x y z <trapped>
+ *   link <id> <id>
+ *   highway x1 y1 z1 x2 y2 z2
+ */
+public class NetherNetwork {
+    public static final int NETHER_SCALE = 8;
+
+    // Travel speeds in blocks per second
+    private static final double OVERWORLD_SPEED = 4.0;
+    private static final double NETHER_SPEED = 2.5;     // Off-highway nether terrain is slow and dangerous
+    private static final double HIGHWAY_SPEED = 7.0;
+    private static final double PORTAL_TRANSIT_COST = 6.0; // Seconds to stand in a portal and load in
+    private static final double GUESSED_PORTAL_COST = 20.0; // Unknown exit: vanilla may place it anywhere nearby
+    private static final double BUILD_PORTAL_COST = 60.0;
+    private static final double PORTAL_MERGE_DISTANCE = 4.0;
+    private static final double HIGHWAY_ACCESS_DISTANCE = 256.0; // Only join highways this close to a route point
+    private static final double HIGHWAY_LANE_WIDTH = 3.0;   // Sideways offset still counted as the same highway
+    private static final double HIGHWAY_MERGE_GAP = 32.0;   // Collinear pieces this close are joined
+
+    private final List<Portal> portals = new ArrayList<>();
+    private final List<NetherHighwayNavigator.NetherHighway> highways = new ArrayList<>();
+    private int nextPortalId = 0;
+    private int version = 0;
+
+    // Shortest-path tree towards the last target, reused until the network, target or build option changes
+    private TargetTree targetTree = null;
+
+    public static BlockPos toNether(BlockPos overworld) {
+        return new BlockPos(Math.floorDiv(overworld.getX(), NETHER_SCALE), clampNetherY(overworld.getY()),
+                            Math.floorDiv(overworld.getZ(), NETHER_SCALE));
+    }
+
+    public static BlockPos toOverworld(BlockPos nether) {
+        return new BlockPos(nether.getX() * NETHER_SCALE, nether.getY(), nether.getZ() * NETHER_SCALE);
+    }
+
+    private static int clampNetherY(int y) {
+        return Math.max(32, Math.min(120, y));
+    }
+
+    /**
+     * Add a portal, or return the known one at (nearly) the same spot
+     */
+    public Portal addPortal(Dimension dimension, BlockPos pos) {
+        Portal existing = findPortal(dimension, pos, PORTAL_MERGE_DISTANCE);
+        if (existing != null) return existing;
+
+        Portal portal = new Portal(nextPortalId++, dimension, pos);
+        portals.add(portal);
+        version++;
+        return portal;
+    }
+
+    /**
+     * Record that walking through one portal leads to the other
+     */
+    public void link(Portal a, Portal b) {
+        if (a.dimension == b.dimension || a.linked == b) return;
+
+        if (a.linked != null) a.linked.linked = null;
+        if (b.linked != null) b.linked.linked = null;
+        a.linked = b;
+        b.linked = a;
+        version++;
+    }
+
+    public void markTrapped(Dimension dimension, BlockPos pos) {
+        Portal portal = addPortal(dimension, pos);
+        if (!portal.trapped) {
+            portal.trapped = true;
+            version++;
+        }
+    }
+
+    /**
+     * Add a highway segment unless an equivalent one is already known
+     */
+    public boolean addHighway(NetherHighwayNavigator.NetherHighway highway) {
+        if (highways.contains(highway)) return false;
+
+        highways.add(highway);
+        version++;
+        return true;
+    }
+
+    /**
+     * Merge a detected piece into a collinear known highway, extending it if needed
+     * Returns true if it was a new highway rather than part of a known one
+     */
+    public boolean mergeHighway(NetherHighwayNavigator.NetherHighway piece) {
+        BlockPos pieceEnd = piece.getEnd();
+
+        for (int i = 0; i < highways.size(); i++) {
+            NetherHighwayNavigator.NetherHighway known = highways.get(i);
+            if (!isSameLane(known, piece.start) || !isSameLane(known, pieceEnd)
+                || Math.abs(known.direction.dotProduct(piece.direction)) < 0.98) {
+                continue;
+            }
+
+            double a = known.alongAxis(piece.start);
+            double b = known.alongAxis(pieceEnd);
+            double low = Math.min(a, b);
+            double high = Math.max(a, b);
+            if (low > known.length + HIGHWAY_MERGE_GAP || high < -HIGHWAY_MERGE_GAP) continue;
+
+            if (low < 0 || high > known.length) {
+                highways.set(i, NetherHighwayNavigator.NetherHighway.between(
+                    known.pointAt(Math.min(0, low)), known.pointAt(Math.max(known.length, high))));
+                version++;
+            }
+            return false;
+        }
+
+        highways.add(piece);
+        version++;
+        return true;
+    }
+
+    /**
+     * True if pos lies on a known highway running along (dx, dz)
+     */
+    public boolean isOnKnownHighway(BlockPos pos, int[] direction) {
+        double length = Math.sqrt(direction[0] * direction[0] + direction[1] * direction[1]);
+
+        for (NetherHighwayNavigator.NetherHighway highway : highways) {
+            double alignment = (highway.direction.x * direction[0] + highway.direction.z * direction[1]) / length;
+            if (Math.abs(alignment) >= 0.98 && isSameLane(highway, pos)
+                && horizontalDistanceSq(highway.closestPoint(pos), pos) <= HIGHWAY_LANE_WIDTH * HIGHWAY_LANE_WIDTH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSameLane(NetherHighwayNavigator.NetherHighway highway, BlockPos pos) {
+        if (Math.abs(highway.start.getY() - pos.getY()) > 1) return false;
+
+        // Perpendicular distance from the highway's infinite line
+        double dx = pos.getX() - highway.start.getX();
+        double dz = pos.getZ() - highway.start.getZ();
+        return Math.abs(dx * highway.direction.z - dz * highway.direction.x) <= HIGHWAY_LANE_WIDTH;
+    }
+
+    /**
+     * Nearest untrapped known portal within radius (horizontal distance)
+     */
+    public Portal findNearestPortal(Dimension dimension, BlockPos pos, double radius) {
+        Portal nearest = null;
+        double nearestDistance = radius * radius;
+
+        for (Portal portal : portals) {
+            if (portal.dimension != dimension || portal.trapped) continue;
+
+            double distance = horizontalDistanceSq(portal.pos, pos);
+            if (distance <= nearestDistance) {
+                nearestDistance = distance;
+                nearest = portal;
+            }
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Known portal (trapped or not) at this spot, or null
+     */
+    public Portal getPortalAt(Dimension dimension, BlockPos pos) {
+        return findPortal(dimension, pos, PORTAL_MERGE_DISTANCE);
+    }
+
+    private Portal findPortal(Dimension dimension, BlockPos pos, double radius) {
+        for (Portal portal : portals) {
+            if (portal.dimension == dimension && horizontalDistanceSq(portal.pos, pos) <= radius * radius
+                && Math.abs(portal.pos.getY() - pos.getY()) <= radius) {
+                return portal;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fastest route between two overworld positions, walking directly or through the nether
+     * canBuildPortals adds the option of building an entry portal here and an exit portal near the target
+     */
+    public Route findRoute(BlockPos from, BlockPos target, boolean canBuildPortals) {
+        TargetTree tree = targetTree;
+        if (tree == null || tree.version != version || tree.canBuildPortals != canBuildPortals || !tree.target.equals(target)) {
+            tree = buildTargetTree(target, canBuildPortals);
+            targetTree = tree;
+        }
+        return routeFrom(tree, from);
+    }
+
+    /**
+     * Everything in the graph that does not depend on the start, solved once outwards from the target
+     */
+    private TargetTree buildTargetTree(BlockPos target, boolean canBuildPortals) {
+        List<RouteNode> nodes = new ArrayList<>();
+        nodes.add(new RouteNode(Dimension.OVERWORLD, target, RouteNode.Kind.TARGET));
+
+        // Known portals; an unlinked portal leads to a guessed exit at the scaled position
+        Map<Portal, Integer> portalNodes = new LinkedHashMap<>();
+        for (Portal portal : portals) {
+            if (portal.trapped) continue;
+            portalNodes.put(portal, nodes.size());
+            nodes.add(new RouteNode(portal.dimension, portal.pos, RouteNode.Kind.PORTAL));
+        }
+        for (Map.Entry<Portal, Integer> entry : portalNodes.entrySet()) {
+            Portal portal = entry.getKey();
+            RouteNode node = nodes.get(entry.getValue());
+            Integer partner = portal.linked != null ? portalNodes.get(portal.linked) : null;
+
+            if (partner != null) {
+                node.partner = partner;
+                node.transitCost = PORTAL_TRANSIT_COST;
+            } else if (portal.linked == null) {
+                BlockPos exit = portal.dimension == Dimension.OVERWORLD ? toNether(portal.pos) : toOverworld(portal.pos);
+                RouteNode guessed = new RouteNode(portal.dimension.other(), exit, RouteNode.Kind.PORTAL);
+                guessed.partner = entry.getValue();
+                guessed.transitCost = PORTAL_TRANSIT_COST + GUESSED_PORTAL_COST;
+                node.partner = nodes.size();
+                node.transitCost = guessed.transitCost;
+                nodes.add(guessed);
+            }
+        }
+
+        if (canBuildPortals) {
+            connect(nodes, new RouteNode(Dimension.NETHER, toNether(target), RouteNode.Kind.PORTAL),
+                    new RouteNode(Dimension.OVERWORLD, target, RouteNode.Kind.PORTAL),
+                    BUILD_PORTAL_COST + PORTAL_TRANSIT_COST);
+        }
+
+        addHighwayNodes(nodes, target);
+        TargetTree tree = new TargetTree(version, target, canBuildPortals, nodes);
+        dijkstra(tree);
+        return tree;
+    }
+
+    private static void connect(List<RouteNode> nodes, RouteNode a, RouteNode b, double cost) {
+        a.partner = nodes.size() + 1;
+        b.partner = nodes.size();
+        a.transitCost = cost;
+        b.transitCost = cost;
+        nodes.add(a);
+        nodes.add(b);
+    }
+
+    /**
+     * Highway endpoints plus the closest highway point to every nether node and to the scaled target
+     */
+    private void addHighwayNodes(List<RouteNode> nodes, BlockPos target) {
+        List<BlockPos> netherPoints = new ArrayList<>();
+        netherPoints.add(toNether(target));
+        for (RouteNode node : nodes) {
+            if (node.dimension == Dimension.NETHER) {
+                netherPoints.add(node.pos);
+            }
+        }
+
+        for (int h = 0; h < highways.size(); h++) {
+            NetherHighwayNavigator.NetherHighway highway = highways.get(h);
+            nodes.add(new RouteNode(Dimension.NETHER, highway.start, RouteNode.Kind.HIGHWAY, h));
+            nodes.add(new RouteNode(Dimension.NETHER, highway.getEnd(), RouteNode.Kind.HIGHWAY, h));
+
+            for (BlockPos point : netherPoints) {
+                BlockPos access = highway.closestPoint(point);
+                if (horizontalDistanceSq(access, point) <= HIGHWAY_ACCESS_DISTANCE * HIGHWAY_ACCESS_DISTANCE) {
+                    nodes.add(new RouteNode(Dimension.NETHER, access, RouteNode.Kind.HIGHWAY, h));
+                }
+            }
+        }
+    }
+
+    /**
+     * Dense Dijkstra from the target (node 0): every pair of nodes in one dimension is joined by an
+     * off-road edge, nodes on the same highway by a highway edge, and portal pairs by their transit cost.
+     * The graph is complete, so a heap would not help. Edges are symmetric, so the tree gives every
+     * node's cost to the target and its next step towards it
+     */
+    private static void dijkstra(TargetTree tree) {
+        List<RouteNode> nodes = tree.nodes;
+        int n = nodes.size();
+        double[] cost = tree.cost;
+        int[] next = tree.next;
+        boolean[] done = new boolean[n];
+        Arrays.fill(cost, Double.MAX_VALUE);
+        Arrays.fill(next, -1);
+        cost[0] = 0;
+
+        for (int iteration = 0; iteration < n; iteration++) {
+            int current = -1;
+            for (int i = 0; i < n; i++) {
+                if (!done[i] && (current < 0 || cost[i] < cost[current])) {
+                    current = i;
+                }
+            }
+            if (current < 0 || cost[current] == Double.MAX_VALUE) break;
+            done[current] = true;
+
+            RouteNode a = nodes.get(current);
+            for (int j = 0; j < n; j++) {
+                if (done[j]) continue;
+
+                double edge = edgeCost(a, nodes.get(j), j);
+                if (edge < Double.MAX_VALUE && cost[current] + edge < cost[j]) {
+                    cost[j] = cost[current] + edge;
+                    next[j] = current;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Join the start to the solved tree: walk to any overworld node, or build a portal here and
+     * continue from its nether side, off-road or along a highway it can reach
+     */
+    private Route routeFrom(TargetTree tree, BlockPos from) {
+        List<RouteNode> nodes = tree.nodes;
+        double best = Double.MAX_VALUE;
+        int bestNode = -1;
+        List<RouteNode> entry = List.of();
+
+        // Node 0 is the target itself, which covers walking there directly
+        for (int i = 0; i < nodes.size(); i++) {
+            RouteNode node = nodes.get(i);
+            if (node.dimension != Dimension.OVERWORLD || tree.cost[i] == Double.MAX_VALUE) continue;
+
+            double seconds = Math.sqrt(horizontalDistanceSq(from, node.pos)) / OVERWORLD_SPEED + tree.cost[i];
+            if (seconds < best) {
+                best = seconds;
+                bestNode = i;
+            }
+        }
+
+        if (tree.canBuildPortals) {
+            BlockPos exit = toNether(from);
+            List<RouteNode> built = List.of(new RouteNode(Dimension.OVERWORLD, from, RouteNode.Kind.PORTAL),
+                                            new RouteNode(Dimension.NETHER, exit, RouteNode.Kind.PORTAL));
+            double builtSeconds = BUILD_PORTAL_COST + PORTAL_TRANSIT_COST;
+
+            for (int i = 0; i < nodes.size(); i++) {
+                RouteNode node = nodes.get(i);
+                if (node.dimension != Dimension.NETHER || tree.cost[i] == Double.MAX_VALUE) continue;
+
+                double seconds = builtSeconds + Math.sqrt(horizontalDistanceSq(exit, node.pos)) / NETHER_SPEED + tree.cost[i];
+                if (seconds < best) {
+                    best = seconds;
+                    bestNode = i;
+                    entry = built;
+                }
+            }
+
+            for (int h = 0; h < highways.size(); h++) {
+                BlockPos access = highways.get(h).closestPoint(exit);
+                double accessDistanceSq = horizontalDistanceSq(access, exit);
+                if (accessDistanceSq > HIGHWAY_ACCESS_DISTANCE * HIGHWAY_ACCESS_DISTANCE) continue;
+
+                double accessSeconds = builtSeconds + Math.sqrt(accessDistanceSq) / NETHER_SPEED;
+                for (int i = 0; i < nodes.size(); i++) {
+                    RouteNode node = nodes.get(i);
+                    if (node.highway != h || tree.cost[i] == Double.MAX_VALUE) continue;
+
+                    double seconds = accessSeconds + Math.sqrt(horizontalDistanceSq(access, node.pos)) / HIGHWAY_SPEED + tree.cost[i];
+                    if (seconds < best) {
+                        best = seconds;
+                        bestNode = i;
+                        entry = List.of(built.get(0), built.get(1), new RouteNode(Dimension.NETHER, access, RouteNode.Kind.HIGHWAY, h));
+                    }
+                }
+            }
+        }
+
+        List<RouteNode> steps = new ArrayList<>();
+        steps.add(new RouteNode(Dimension.OVERWORLD, from, RouteNode.Kind.START));
+        steps.addAll(entry);
+        for (int i = bestNode; i >= 0; i = tree.next[i]) {
+            steps.add(nodes.get(i));
+        }
+
+        double directSeconds = Math.sqrt(horizontalDistanceSq(from, tree.target)) / OVERWORLD_SPEED;
+        return new Route(steps, best, directSeconds);
+    }
+
+    private static double edgeCost(RouteNode a, RouteNode b, int bIndex) {
+        if (a.partner == bIndex) {
+            return a.transitCost;
+        }
+        if (a.dimension != b.dimension) {
+            return Double.MAX_VALUE;
+        }
+
+        double distance = Math.sqrt(horizontalDistanceSq(a.pos, b.pos));
+        if (a.dimension == Dimension.OVERWORLD) {
+            return distance / OVERWORLD_SPEED;
+        }
+        if (a.highway >= 0 && a.highway == b.highway) {
+            return distance / HIGHWAY_SPEED;
+        }
+        return distance / NETHER_SPEED;
+    }
+
+    static double horizontalDistanceSq(BlockPos a, BlockPos b) {
+        double dx = a.getX() - b.getX();
+        double dz = a.getZ() - b.getZ();
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Load the network from disk; a missing file leaves it empty
+     */
+    public void load(Path file) throws IOException {
+        portals.clear();
+        highways.clear();
+        nextPortalId = 0;
+        version++;
+        if (!Files.exists(file)) return;
+
+        Map<Integer, Portal> byId = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+");
+                try {
+                    switch (parts[0]) {
+                        case "portal": {
+                            Portal portal = new Portal(Integer.parseInt(parts[1]), Dimension.valueOf(parts[2].toUpperCase()),
+                                new BlockPos(Integer.parseInt(parts[3]), Integer.parseInt(parts[4]), Integer.parseInt(parts[5])));
+                            portal.trapped = Boolean.parseBoolean(parts[6]);
+                            portals.add(portal);
+                            byId.put(portal.id, portal);
+                            nextPortalId = Math.max(nextPortalId, portal.id + 1);
+                            break;
+                        }
+                        case "link": {
+                            Portal a = byId.get(Integer.parseInt(parts[1]));
+                            Portal b = byId.get(Integer.parseInt(parts[2]));
+                            if (a != null && b != null) link(a, b);
+                            break;
+                        }
+                        case "highway": {
+                            BlockPos start = new BlockPos(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+                            BlockPos end = new BlockPos(Integer.parseInt(parts[4]), Integer.parseInt(parts[5]), Integer.parseInt(parts[6]));
+                            addHighway(NetherHighwayNavigator.NetherHighway.between(start, end));
+                            break;
+                        }
+                        default:
+                            break; // Unknown or blank line
+                    }
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    // Skip malformed lines
+                }
+            }
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Portal portal : portals) {
+                writer.write(String.format("portal %d %s %d %d %d %b%n", portal.id, portal.dimension.name().toLowerCase(),
+                    portal.pos.getX(), portal.pos.getY(), portal.pos.getZ(), portal.trapped));
+            }
+            for (Portal portal : portals) {
+                if (portal.linked != null && portal.id < portal.linked.id) {
+                    writer.write(String.format("link %d %d%n", portal.id, portal.linked.id));
+                }
+            }
+            for (NetherHighwayNavigator.NetherHighway highway : highways) {
+                BlockPos end = highway.getEnd();
+                writer.write(String.format("highway %d %d %d %d %d %d%n", highway.start.getX(), highway.start.getY(),
+                    highway.start.getZ(), end.getX(), end.getY(), end.getZ()));
+            }
+        }
+    }
+
+    public List<Portal> getPortals() { return new ArrayList<>(portals); }
+    public List<NetherHighwayNavigator.NetherHighway> getHighways() { return new ArrayList<>(highways); }
+
+    /**
+     * Increases on every change; lets callers cache routes
+     */
+    public int getVersion() { return version; }
+
+    public enum Dimension {
+        OVERWORLD,
+        NETHER;
+
+        public Dimension other() {
+            return this == OVERWORLD ? NETHER : OVERWORLD;
+        }
+    }
+
+    /**
+     * A known portal in one dimension, optionally linked to its counterpart
+     */
+    public static class Portal {
+        public final int id;
+        public final Dimension dimension;
+        public final BlockPos pos;
+        private Portal linked;
+        private boolean trapped;
+
+        Portal(int id, Dimension dimension, BlockPos pos) {
+            this.id = id;
+            this.dimension = dimension;
+            this.pos = pos;
+        }
+
+        public Portal getLinked() { return linked; }
+        public boolean isTrapped() { return trapped; }
+    }
+
+    /**
+     * Router graph node; only the start and a portal built there are created per query
+     */
+    public static class RouteNode {
+        public enum Kind { START, TARGET, PORTAL, HIGHWAY }
+
+        public final Dimension dimension;
+        public final BlockPos pos;
+        public final Kind kind;
+        final int highway;
+        int partner = -1; // Node across the portal
+        double transitCost;
+
+        RouteNode(Dimension dimension, BlockPos pos, Kind kind) {
+            this(dimension, pos, kind, -1);
+        }
+
+        RouteNode(Dimension dimension, BlockPos pos, Kind kind, int highway) {
+            this.dimension = dimension;
+            this.pos = pos;
+            this.kind = kind;
+            this.highway = highway;
+        }
+    }
+
+    /**
+     * Route graph solved towards one target: cost[i] is node i's travel time to the target
+     * and next[i] its next step, -1 at the target itself
+     */
+    private static final class TargetTree {
+        final int version;
+        final BlockPos target;
+        final boolean canBuildPortals;
+        final List<RouteNode> nodes;
+        final double[] cost;
+        final int[] next;
+
+        TargetTree(int version, BlockPos target, boolean canBuildPortals, List<RouteNode> nodes) {
+            this.version = version;
+            this.target = target;
+            this.canBuildPortals = canBuildPortals;
+            this.nodes = nodes;
+            this.cost = new double[nodes.size()];
+            this.next = new int[nodes.size()];
+        }
+    }
+
+    /**
+     * Cheapest route found, with the plain walking time for comparison
+     */
+    public static class Route {
+        public final List<RouteNode> steps;
+        public final double seconds;
+        public final double directSeconds;
+
+        Route(List<RouteNode> steps, double seconds, double directSeconds) {
+            this.steps = steps;
+            this.seconds = seconds;
+            this.directSeconds = directSeconds;
+        }
+
+        public boolean usesNether() {
+            for (RouteNode step : steps) {
+                if (step.dimension == Dimension.NETHER) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Overworld portal the route enters the nether through, or null for a direct route
+         */
+        public BlockPos getEntryPortal() {
+            for (int i = 0; i + 1 < steps.size(); i++) {
+                if (steps.get(i).dimension == Dimension.OVERWORLD && steps.get(i + 1).dimension == Dimension.NETHER) {
+                    return steps.get(i).pos;
+                }
+            }
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -3,28 +3,54 @@ package com.escapemod.systems;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
-import net.minecraft.world.World;
 import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 import net.minecraft.client.particle.ParticleManager;
 import net.minecraft.particle.ParticleTypes;
 
+import com.escapemod.rendering.PathOverlay;
+import com.escapemod.rendering.VisualBudget;
+import com.escapemod.utils.BotEvents;
+import com.escapemod.utils.SystemProfiler;
+import com.escapemod.world.ClientWorldView;
+import com.escapemod.world.WorldView;
+
 import java.util.*;
 
 public class PathfindingSystem {
+    private static final SystemProfiler.Section FIND_PATH_PROFILE = SystemProfiler.get().section("path.find");
+    
+    // Overlay colours (ARGB), matching the particles used in particle mode
+    private static final int PATH_COLOR = 0xFF33DDFF;
+    private static final int WAYPOINT_COLOR = 0xFFFFFFFF;
+    private static final int START_COLOR = 0xFF55FF55;
+    private static final int END_COLOR = 0xFFFF5533;
+    
     private MinecraftClient client;
+    private final WorldView worldView;
     private List<Vec3d> currentPath;
     private BlockPos targetPos;
     private boolean pathfindingEnabled = true;
     private int maxPathLength = 256;
     private int maxSearchNodes = 1000;
+    private int lastSearchedNodes = 0;
     
-    // Visual path display
+    // Visual path display; visualVersion changes whenever visualPath does, so lines are only rebuilt then
     private List<Vec3d> visualPath;
+    private int visualVersion = 0;
+    private int publishedVersion = -1;
     private int particleTimer = 0;
     
     public PathfindingSystem() {
+        this(new ClientWorldView(MinecraftClient.getInstance()));
+    }
+    
+    /**
+     * Search over any world view; without a client only findPath and the path accessors are usable
+     */
+    public PathfindingSystem(WorldView worldView) {
         this.client = MinecraftClient.getInstance();
+        this.worldView = worldView;
         this.currentPath = new ArrayList<>();
         this.visualPath = new ArrayList<>();
     }
@@ -47,6 +73,8 @@ public class PathfindingSystem {
     
     public void tick() {
         if (!pathfindingEnabled || client.player == null || client.world == null) {
+            PathOverlay.get().clear(PathOverlay.Layer.PATH);
+            publishedVersion = -1;
             return;
         }
         
@@ -55,12 +83,27 @@ public class PathfindingSystem {
     }
     
     public List<Vec3d> findPath(BlockPos start, BlockPos target) {
-        if (start == null || target == null) {
+        BotEvents.PathSearch event = new BotEvents.PathSearch();
+        event.begin();
+        lastSearchedNodes = 0;
+        List<Vec3d> path;
+        try (var scope = FIND_PATH_PROFILE.time()) {
+            path = searchPath(start, target);
+        }
+        if (start != null && target != null) {
+            String outcome = !path.isEmpty() ? "found" : lastSearchedNodes >= maxSearchNodes ? "node_limit" : "exhausted";
+            event.finish("pathfinding_system", start, target, lastSearchedNodes, outcome, path.size());
+        }
+        return path;
+    }
+    
+    private List<Vec3d> searchPath(BlockPos start, BlockPos target) {
+        if (start == null || target == null || !worldView.isAvailable()) {
             return new ArrayList<>();
         }
         
         this.targetPos = target;
-        World world = client.world;
+        WorldView world = worldView;
         
         // A* pathfinding algorithm
         PriorityQueue<PathNode> openSet = new PriorityQueue<>(Comparator.comparingDouble(n -> n.fCost));
@@ -76,12 +119,14 @@ public class PathfindingSystem {
         while (!openSet.isEmpty() && searchedNodes < maxSearchNodes) {
             PathNode current = openSet.poll();
             searchedNodes++;
+            lastSearchedNodes = searchedNodes;
             
             if (current.pos.equals(target)) {
                 // Path found! Reconstruct it
                 List<Vec3d> path = reconstructPath(current);
                 this.currentPath = path;
                 this.visualPath = new ArrayList<>(path);
+                visualVersion++;
                 return path;
             }
             
@@ -111,6 +156,7 @@ public class PathfindingSystem {
         // No path found
         this.currentPath = new ArrayList<>();
         this.visualPath = new ArrayList<>();
+        visualVersion++;
         return new ArrayList<>();
     }
     
@@ -132,7 +178,7 @@ public class PathfindingSystem {
         return neighbors;
     }
     
-    private boolean isWalkable(World world, BlockPos pos) {
+    private boolean isWalkable(WorldView world, BlockPos pos) {
         // Check if the position is safe to walk on
         Block blockAt = world.getBlockState(pos).getBlock();
         Block blockAbove = world.getBlockState(pos.up()).getBlock();
@@ -260,6 +306,14 @@ public class PathfindingSystem {
     }
     
     private void updatePathVisualization() {
+        if (!PathOverlay.get().isParticleMode()) {
+            if (publishedVersion != visualVersion) {
+                publishPathLines();
+                publishedVersion = visualVersion;
+            }
+            return;
+        }
+        publishedVersion = -1;
         if (visualPath.isEmpty() || client.world == null) {
             return;
         }
@@ -271,6 +325,28 @@ public class PathfindingSystem {
         }
     }
     
+    /**
+     * The same line, endpoints and waypoint rings the particles show, as one overlay layer
+     */
+    private void publishPathLines() {
+        if (visualPath.size() < 2) {
+            PathOverlay.get().clear(PathOverlay.Layer.PATH);
+            return;
+        }
+        
+        Vec3d lift = new Vec3d(0, 0.5, 0);
+        PathOverlay.Lines lines = PathOverlay.Lines.at(visualPath.get(0));
+        for (int i = 0; i < visualPath.size() - 1; i++) {
+            lines.line(visualPath.get(i).add(lift), visualPath.get(i + 1).add(lift), PATH_COLOR);
+        }
+        for (int i = 1; i < visualPath.size() - 1; i++) {
+            lines.ring(visualPath.get(i).add(0, 0.7, 0), 0.5, 8, WAYPOINT_COLOR);
+        }
+        lines.ring(visualPath.get(0).add(0, 0.8, 0), 0.3, 8, START_COLOR);
+        lines.ring(visualPath.get(visualPath.size() - 1).add(0, 0.8, 0), 0.3, 8, END_COLOR);
+        PathOverlay.get().set(PathOverlay.Layer.PATH, lines);
+    }
+    
     private void displayPathParticles() {
         if (visualPath.size() < 2) return;
         
@@ -290,21 +366,21 @@ public class PathfindingSystem {
                 // Different particle types for different sections
                 if (i == 0 && j == 0) {
                     // Start point - bright green
-                    client.world.addParticle(ParticleTypes.HAPPY_VILLAGER,
-                        linePoint.x, linePoint.y + 0.8, linePoint.z, 0, 0.1, 0);
+                    VisualBudget.get().spawn(client, ParticleTypes.HAPPY_VILLAGER,
+                        linePoint.x, linePoint.y + 0.8, linePoint.z, 0, 0.1, 0, VisualBudget.DEFAULT_DISTANCE);
                 } else if (i == visualPath.size() - 2 && j == particleCount) {
                     // End point - bright red
-                    client.world.addParticle(ParticleTypes.FLAME,
-                        linePoint.x, linePoint.y + 0.8, linePoint.z, 0, 0.1, 0);
+                    VisualBudget.get().spawn(client, ParticleTypes.FLAME,
+                        linePoint.x, linePoint.y + 0.8, linePoint.z, 0, 0.1, 0, VisualBudget.DEFAULT_DISTANCE);
                 } else {
                     // Path line - cyan/blue particles for visibility
-                    client.world.addParticle(ParticleTypes.SOUL_FIRE_FLAME,
-                        linePoint.x, linePoint.y + 0.5, linePoint.z, 0, 0, 0);
+                    VisualBudget.get().spawn(client, ParticleTypes.SOUL_FIRE_FLAME,
+                        linePoint.x, linePoint.y + 0.5, linePoint.z, 0, 0, 0, VisualBudget.DEFAULT_DISTANCE);
                     
                     // Add secondary particles for better visibility
                     if (j % 2 == 0) {
-                        client.world.addParticle(ParticleTypes.ELECTRIC_SPARK,
-                            linePoint.x, linePoint.y + 0.3, linePoint.z, 0, 0, 0);
+                        VisualBudget.get().spawn(client, ParticleTypes.ELECTRIC_SPARK,
+                            linePoint.x, linePoint.y + 0.3, linePoint.z, 0, 0, 0, VisualBudget.DEFAULT_DISTANCE);
                     }
                 }
             }
@@ -320,8 +396,8 @@ public class PathfindingSystem {
                 double offsetX = Math.cos(radians) * 0.5;
                 double offsetZ = Math.sin(radians) * 0.5;
                 
-                client.world.addParticle(ParticleTypes.END_ROD,
-                    waypoint.x + offsetX, waypoint.y + 0.7, waypoint.z + offsetZ, 0, 0, 0);
+                VisualBudget.get().spawn(client, ParticleTypes.END_ROD,
+                    waypoint.x + offsetX, waypoint.y + 0.7, waypoint.z + offsetZ, 0, 0, 0, VisualBudget.DEFAULT_DISTANCE);
             }
         }
     }
@@ -356,6 +432,7 @@ public class PathfindingSystem {
     public void clearPath() {
         currentPath.clear();
         visualPath.clear();
+        visualVersion++;
     }
     
     public double getPathLength() {
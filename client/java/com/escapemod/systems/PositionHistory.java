@@ -0,0 +1,210 @@
+package com.escapemod.systems;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Position History - Breadcrumb trail stored as one int per block step
+ * Each entry holds the delta from the previous breadcrumb plus a safety bit; steps too large
+ * for a delta (teleports, respawns, portals) go to a small side ring of absolute jumps
+ * Positions are handled as BlockPos.asLong values so recording never allocates
+ */
+public class PositionHistory {
+    public static final int DEFAULT_CAPACITY = 1 << 15; // ~2 hours of walking in 128 KB
+    private static final int JUMP_CAPACITY = 256;
+
+    // Entry layout: dx (10 bits), dy (9 bits), dz (10 bits), safe bit, jump bit
+    private static final int DX_SHIFT = 0, DX_BITS = 10;
+    private static final int DY_SHIFT = 10, DY_BITS = 9;
+    private static final int DZ_SHIFT = 19, DZ_BITS = 10;
+    private static final int SAFE_BIT = 1 << 29;
+    private static final int JUMP_BIT = 1 << 30;
+
+    private final int[] entries;
+    private final int mask;
+    private long first = 0; // Sequence number of the oldest entry
+    private long next = 0;  // Sequence number the next entry gets
+
+    private long latestPos;
+
+    // Origin of each jump entry, in trail order
+    private final long[] jumpFrom = new long[JUMP_CAPACITY];
+    private long jumpFirst = 0;
+    private long jumpNext = 0;
+
+    public PositionHistory(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity));
+        this.entries = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Append a breadcrumb; callers skip positions equal to getLatest()
+     */
+    public void record(BlockPos pos, boolean safe) {
+        long packed = pos.asLong();
+        int dx = pos.getX() - BlockPos.unpackLongX(latestPos);
+        int dy = pos.getY() - BlockPos.unpackLongY(latestPos);
+        int dz = pos.getZ() - BlockPos.unpackLongZ(latestPos);
+        boolean isJump = !fits(dx, DX_BITS) || !fits(dy, DY_BITS) || !fits(dz, DZ_BITS);
+
+        if (size() == entries.length) {
+            evictOldest();
+        }
+        if (isJump) {
+            // Make room in the jump ring by dropping the trail up to the oldest jump
+            while (jumpNext - jumpFirst >= JUMP_CAPACITY) {
+                evictOldest();
+            }
+        }
+
+        if (isEmpty()) {
+            entries[index(next++)] = safe ? SAFE_BIT : 0;
+            latestPos = packed;
+            return;
+        }
+
+        int entry;
+        if (isJump) {
+            jumpFrom[jumpIndex(jumpNext++)] = latestPos;
+            entry = JUMP_BIT;
+        } else {
+            entry = ((dx & mask(DX_BITS)) << DX_SHIFT) | ((dy & mask(DY_BITS)) << DY_SHIFT) | ((dz & mask(DZ_BITS)) << DZ_SHIFT);
+        }
+
+        entries[index(next++)] = entry | (safe ? SAFE_BIT : 0);
+        latestPos = packed;
+    }
+
+    /**
+     * Drop the oldest breadcrumb; the next one becomes the start of the trail,
+     * so its delta (or jump record) is no longer needed
+     */
+    private void evictOldest() {
+        if (size() <= 1) {
+            clear();
+            return;
+        }
+
+        if ((entries[index(first + 1)] & JUMP_BIT) != 0) {
+            jumpFirst++;
+        }
+        first++;
+    }
+
+    private static long stepBack(long packed, int entry) {
+        return BlockPos.asLong(
+            BlockPos.unpackLongX(packed) - decode(entry, DX_SHIFT, DX_BITS),
+            BlockPos.unpackLongY(packed) - decode(entry, DY_SHIFT, DY_BITS),
+            BlockPos.unpackLongZ(packed) - decode(entry, DZ_SHIFT, DZ_BITS));
+    }
+
+    private static int decode(int entry, int shift, int bits) {
+        return (entry << (32 - shift - bits)) >> (32 - bits);
+    }
+
+    private static boolean fits(int value, int bits) {
+        int limit = 1 << (bits - 1);
+        return value >= -limit && value < limit;
+    }
+
+    private static int mask(int bits) {
+        return (1 << bits) - 1;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    private static int jumpIndex(long sequence) {
+        return (int) (sequence % JUMP_CAPACITY);
+    }
+
+    public void clear() {
+        first = next;
+        jumpFirst = jumpNext;
+    }
+
+    public boolean isEmpty() {
+        return next == first;
+    }
+
+    public int size() {
+        return (int) (next - first);
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * Newest breadcrumb as BlockPos.asLong; undefined when empty
+     */
+    public long getLatest() {
+        return latestPos;
+    }
+
+    /**
+     * Sequence number of the newest breadcrumb; increases by one per recorded step
+     */
+    public long getLatestSequence() {
+        return next - 1;
+    }
+
+    /**
+     * Walk the trail from newest to oldest
+     */
+    public Cursor newestFirst() {
+        return new Cursor();
+    }
+
+    /**
+     * Backward cursor over the trail; decodes one delta per step
+     */
+    public class Cursor {
+        private long sequence = next;
+        private long position;
+        private long jump = jumpNext;
+
+        /**
+         * Advance to the next older breadcrumb; false when the trail is exhausted
+         */
+        public boolean next() {
+            if (sequence == next) {
+                if (isEmpty()) return false;
+                sequence = next - 1;
+                position = latestPos;
+                return true;
+            }
+            if (sequence <= first) return false;
+
+            int entry = entries[index(sequence)];
+            if ((entry & JUMP_BIT) != 0) {
+                jump--;
+                position = jumpFrom[jumpIndex(jump)];
+            } else {
+                position = stepBack(position, entry);
+            }
+            sequence--;
+            return true;
+        }
+
+        public long position() {
+            return position;
+        }
+
+        public long sequence() {
+            return sequence;
+        }
+
+        public boolean isSafe() {
+            return (entries[index(sequence)] & SAFE_BIT) != 0;
+        }
+
+        /**
+         * Clear the cached safety bit once a breadcrumb is found to be unsafe after all
+         */
+        public void markUnsafe() {
+            entries[index(sequence)] &= ~SAFE_BIT;
+        }
+    }
+}
\ No newline at end of file
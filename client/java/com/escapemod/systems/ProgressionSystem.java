@@ -21,6 +21,7 @@ public class ProgressionSystem {
     private List<ProgressionGoal> goals;
     private int currentGoalIndex = 0;
     private boolean enabled = true;
+    private boolean inventoryChanged = true;
     
     public enum GoalType {
         GATHER_WOOD,
@@ -76,10 +77,18 @@ public class ProgressionSystem {
             return;
         }
         
-        updateGoalStatus();
+        // Goal completion only depends on the inventory
+        if (inventoryChanged) {
+            inventoryChanged = false;
+            updateGoalStatus();
+        }
         displayCurrentGoals();
     }
     
+    public void onInventoryChanged() {
+        inventoryChanged = true;
+    }
+    
     private void updateGoalStatus() {
         ClientPlayerEntity player = client.player;
         PlayerInventory inventory = player.getInventory();
@@ -159,14 +168,14 @@ public class ProgressionSystem {
         ProgressionGoal currentGoal = getCurrentGoal();
         if (currentGoal != null) {
             MessageThrottler.sendThrottledMessage(player, "current_goal", 
-                Text.literal("§e[Progression] Current Goal: " + currentGoal.description), 
+                () -> Text.literal("§e[Progression] Current Goal: " + currentGoal.description), 
                 true, 10000); // Show every 10 seconds
         }
         
         // Show progress summary every 30 seconds
-        int completedGoals = (int) goals.stream().filter(g -> g.completed).count();
         MessageThrottler.sendThrottledMessage(player, "progression_summary", 
-            Text.literal("§a[Progression] Progress: " + completedGoals + "/" + (goals.size() - 1) + " goals completed"), 
+            () -> Text.literal("§a[Progression] Progress: " + goals.stream().filter(g -> g.completed).count() + 
+                "/" + (goals.size() - 1) + " goals completed"), 
             true, 30000);
     }
     
@@ -0,0 +1,365 @@
+package com.escapemod.systems;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Stash Database - Spatially indexed stash store for one server and dimension
+ * Stashes live in a uniform grid (nearest / within-radius queries touch only nearby cells)
+ * plus an item index for "which stash holds X". Records are fixed-size and persisted
+ * through a memory-mapped file, so adding a stash is a memory write, not disk I/O
+ *
+ * File layout: 32-byte header (magic, version, record count, item registry hash),
+ * then RECORD_SIZE-byte records: i32 x, i32 y, i32 z, u8 type, u8 kinds, u16 pad,
+ * i64 timestamp, i32 reserved, then MAX_KINDS x (u16 raw item id, u16 count)
+ */
+public class StashDatabase {
+    private static final int MAGIC = 0x45534442; // "ESDB"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int MAX_KINDS = 28;
+    private static final int RECORD_SIZE = 28 + MAX_KINDS * 4;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int CELL_SHIFT = 7; // 128-block grid cells
+
+    private static final int REGISTRY_HASH = computeRegistryHash();
+
+    private final Path file;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    private final List<StashRecord> records = new ArrayList<>();
+    private final Map<Long, List<StashRecord>> grid = new HashMap<>();
+    private final Map<Integer, List<StashRecord>> itemIndex = new HashMap<>();
+    private int minCellX = Integer.MAX_VALUE, maxCellX = Integer.MIN_VALUE;
+    private int minCellZ = Integer.MAX_VALUE, maxCellZ = Integer.MIN_VALUE;
+
+    public StashDatabase(Path file) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        load();
+    }
+
+    /**
+     * Map the file and rebuild the in-memory indexes from its records
+     */
+    private void load() throws IOException {
+        long size = channel.size();
+        int storedCount = 0;
+        boolean contentsValid = true;
+
+        if (size >= HEADER_SIZE) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) == MAGIC && header.getInt(4) == VERSION) {
+                storedCount = header.getInt(8);
+                // Raw item ids shift when the item registry changes (game or mod update)
+                contentsValid = header.getInt(12) == REGISTRY_HASH;
+            }
+        }
+
+        int fileRecords = (int) Math.max(0, (size - HEADER_SIZE) / RECORD_SIZE);
+        storedCount = Math.min(storedCount, fileRecords);
+        remap(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, storedCount)) * 2));
+
+        for (int i = 0; i < storedCount; i++) {
+            index(readRecord(i, contentsValid));
+        }
+
+        if (!contentsValid) {
+            // Positions survive, contents summaries don't; rewrite everything under the current registry
+            for (int i = 0; i < records.size(); i++) {
+                writeRecord(i, records.get(i));
+            }
+        }
+        writeHeader();
+    }
+
+    private void remap(int newCapacity) throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        capacity = newCapacity;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, records.size());
+        buffer.putInt(12, REGISTRY_HASH);
+    }
+
+    private StashRecord readRecord(int slot, boolean contentsValid) {
+        int base = HEADER_SIZE + slot * RECORD_SIZE;
+        BlockPos pos = new BlockPos(buffer.getInt(base), buffer.getInt(base + 4), buffer.getInt(base + 8));
+        int typeOrdinal = buffer.get(base + 12) & 0xFF;
+        int kinds = contentsValid ? Math.min(buffer.get(base + 13) & 0xFF, MAX_KINDS) : 0;
+        long timestamp = buffer.getLong(base + 16);
+
+        int[] itemIds = new int[kinds];
+        int[] counts = new int[kinds];
+        for (int k = 0; k < kinds; k++) {
+            itemIds[k] = buffer.getShort(base + 28 + k * 4) & 0xFFFF;
+            counts[k] = buffer.getShort(base + 30 + k * 4) & 0xFFFF;
+        }
+
+        AutoStashSystem.StashType[] types = AutoStashSystem.StashType.values();
+        AutoStashSystem.StashType type = typeOrdinal < types.length ? types[typeOrdinal] : AutoStashSystem.StashType.CHEST;
+        return new StashRecord(pos, type, timestamp, itemIds, counts);
+    }
+
+    private void writeRecord(int slot, StashRecord record) {
+        int base = HEADER_SIZE + slot * RECORD_SIZE;
+        buffer.putInt(base, record.position.getX());
+        buffer.putInt(base + 4, record.position.getY());
+        buffer.putInt(base + 8, record.position.getZ());
+        buffer.put(base + 12, (byte) record.type.ordinal());
+        buffer.put(base + 13, (byte) record.itemIds.length);
+        buffer.putShort(base + 14, (short) 0);
+        buffer.putLong(base + 16, record.timestamp);
+        buffer.putInt(base + 24, 0);
+
+        for (int k = 0; k < MAX_KINDS; k++) {
+            boolean used = k < record.itemIds.length;
+            buffer.putShort(base + 28 + k * 4, (short) (used ? record.itemIds[k] : 0));
+            buffer.putShort(base + 30 + k * 4, (short) (used ? Math.min(record.counts[k], 0xFFFF) : 0));
+        }
+    }
+
+    /**
+     * Add a stash; its contents are summarised as item id -> total count
+     */
+    public synchronized StashRecord add(AutoStashSystem.StashLocation stash) throws IOException {
+        StashRecord record = new StashRecord(stash.position, stash.type, stash.timestamp, summarise(stash.contents));
+
+        if (records.size() >= capacity) {
+            remap(capacity * 2);
+        }
+        writeRecord(records.size(), record);
+        index(record);
+        writeHeader();
+
+        return record;
+    }
+
+    private static int[][] summarise(List<ItemStack> contents) {
+        // Sum per raw id, sorted by id; the largest stacks win if a stash somehow exceeds MAX_KINDS
+        TreeMap<Integer, Integer> totals = new TreeMap<>();
+        for (ItemStack stack : contents) {
+            if (!stack.isEmpty()) {
+                totals.merge(Registries.ITEM.getRawId(stack.getItem()), stack.getCount(), Integer::sum);
+            }
+        }
+
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(totals.entrySet());
+        if (entries.size() > MAX_KINDS) {
+            entries.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+            entries = entries.subList(0, MAX_KINDS);
+            entries.sort(Map.Entry.comparingByKey());
+        }
+
+        int[][] summary = new int[2][entries.size()];
+        for (int k = 0; k < entries.size(); k++) {
+            summary[0][k] = entries.get(k).getKey();
+            summary[1][k] = entries.get(k).getValue();
+        }
+        return summary;
+    }
+
+    private void index(StashRecord record) {
+        records.add(record);
+
+        int cellX = record.position.getX() >> CELL_SHIFT;
+        int cellZ = record.position.getZ() >> CELL_SHIFT;
+        grid.computeIfAbsent(cellKey(cellX, cellZ), k -> new ArrayList<>()).add(record);
+        minCellX = Math.min(minCellX, cellX);
+        maxCellX = Math.max(maxCellX, cellX);
+        minCellZ = Math.min(minCellZ, cellZ);
+        maxCellZ = Math.max(maxCellZ, cellZ);
+
+        for (int itemId : record.itemIds) {
+            itemIndex.computeIfAbsent(itemId, k -> new ArrayList<>()).add(record);
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Nearest stash, searching grid ring borders outward until no closer stash can exist
+     * Once the rings have cost more cell lookups than there are stashes (few stashes, far away),
+     * the remaining search is a plain scan of every record instead
+     */
+    public synchronized StashRecord findNearest(BlockPos pos) {
+        if (records.isEmpty()) return null;
+
+        int cellX = pos.getX() >> CELL_SHIFT;
+        int cellZ = pos.getZ() >> CELL_SHIFT;
+        int maxRing = Math.max(Math.max(Math.abs(cellX - minCellX), Math.abs(cellX - maxCellX)),
+                               Math.max(Math.abs(cellZ - minCellZ), Math.abs(cellZ - maxCellZ)));
+
+        StashRecord nearest = null;
+        long lookups = 0;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            lookups += ring == 0 ? 1 : 8L * ring;
+            if (lookups > records.size()) {
+                return closest(records, pos, nearest);
+            }
+
+            if (ring == 0) {
+                nearest = closest(grid.get(cellKey(cellX, cellZ)), pos, nearest);
+            } else {
+                for (int d = -ring; d <= ring; d++) {
+                    nearest = closest(grid.get(cellKey(cellX + d, cellZ - ring)), pos, nearest);
+                    nearest = closest(grid.get(cellKey(cellX + d, cellZ + ring)), pos, nearest);
+                }
+                for (int d = -ring + 1; d < ring; d++) {
+                    nearest = closest(grid.get(cellKey(cellX - ring, cellZ + d)), pos, nearest);
+                    nearest = closest(grid.get(cellKey(cellX + ring, cellZ + d)), pos, nearest);
+                }
+            }
+
+            // Anything in the next ring is at least ring * cell size away horizontally
+            double ringDistance = (double) ring << CELL_SHIFT;
+            if (nearest != null && nearest.position.getSquaredDistance(pos) <= ringDistance * ringDistance) break;
+        }
+
+        return nearest;
+    }
+
+    private static StashRecord closest(List<StashRecord> candidates, BlockPos pos, StashRecord nearest) {
+        if (candidates == null) return nearest;
+
+        double nearestDistance = nearest != null ? nearest.position.getSquaredDistance(pos) : Double.MAX_VALUE;
+        for (StashRecord record : candidates) {
+            double distance = record.position.getSquaredDistance(pos);
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = record;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * All stashes within radius blocks of pos
+     */
+    public synchronized List<StashRecord> findWithinRadius(BlockPos pos, double radius) {
+        List<StashRecord> result = new ArrayList<>();
+        double radiusSq = radius * radius;
+        int r = (int) Math.ceil(radius);
+
+        int minX = (pos.getX() - r) >> CELL_SHIFT, maxX = (pos.getX() + r) >> CELL_SHIFT;
+        int minZ = (pos.getZ() - r) >> CELL_SHIFT, maxZ = (pos.getZ() + r) >> CELL_SHIFT;
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                List<StashRecord> cell = grid.get(cellKey(cx, cz));
+                if (cell == null) continue;
+
+                for (StashRecord record : cell) {
+                    if (record.position.getSquaredDistance(pos) < radiusSq) {
+                        result.add(record);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public boolean hasStashWithin(BlockPos pos, double radius) {
+        return !findWithinRadius(pos, radius).isEmpty();
+    }
+
+    /**
+     * Stashes holding the given item, closest first
+     */
+    public synchronized List<StashRecord> findStashesWithItem(Item item, BlockPos from) {
+        List<StashRecord> holders = itemIndex.get(Registries.ITEM.getRawId(item));
+        if (holders == null) return new ArrayList<>();
+
+        List<StashRecord> result = new ArrayList<>(holders);
+        result.sort(Comparator.comparingDouble(record -> record.position.getSquaredDistance(from)));
+        return result;
+    }
+
+    public synchronized int size() {
+        return records.size();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Flush mapped pages and release the file
+     */
+    public synchronized void close() {
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+            channel.close();
+        } catch (IOException e) {
+            // Pages are already in the OS cache; nothing else to do on the way out
+        }
+    }
+
+    private static int computeRegistryHash() {
+        int hash = 1;
+        for (int i = 0; i < Registries.ITEM.size(); i++) {
+            hash = 31 * hash + Registries.ITEM.getId(Registries.ITEM.get(i)).hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * One stash with its compressed contents summary
+     */
+    public static class StashRecord {
+        public final BlockPos position;
+        public final AutoStashSystem.StashType type;
+        public final long timestamp;
+        private final int[] itemIds; // Raw item ids, ascending
+        private final int[] counts;
+
+        StashRecord(BlockPos position, AutoStashSystem.StashType type, long timestamp, int[][] summary) {
+            this(position, type, timestamp, summary[0], summary[1]);
+        }
+
+        StashRecord(BlockPos position, AutoStashSystem.StashType type, long timestamp, int[] itemIds, int[] counts) {
+            this.position = position;
+            this.type = type;
+            this.timestamp = timestamp;
+            this.itemIds = itemIds;
+            this.counts = counts;
+        }
+
+        public int countOf(Item item) {
+            int index = Arrays.binarySearch(itemIds, Registries.ITEM.getRawId(item));
+            return index >= 0 ? counts[index] : 0;
+        }
+
+        public int getKindCount() {
+            return itemIds.length;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,282 @@
+package com.escapemod.systems;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Stash Journal - Append-only binary log of created stashes
+ * The client thread only enqueues; a background writer batches records and fsyncs once per batch
+ *
+ * File layout: "ESJ1" header, then records of
+ *   [u16 payload length][payload][u32 crc32 of payload]
+ * payload: i64 timestamp, i32 x, i32 y, i32 z, u8 stash type, u8 stack count,
+ *          then per stack: UTF item id, u8 count
+ * A torn record at the tail (crash mid-write) is dropped and truncated on the next open
+ */
+public class StashJournal {
+    private static final byte[] MAGIC = {'E', 'S', 'J', '1'};
+    private static final int QUEUE_CAPACITY = 256;
+    private static final DateTimeFormatter TEXT_LOG_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final File journalFile;
+    private final File textLogFile;
+    private final BlockingQueue<AutoStashSystem.StashLocation> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private volatile boolean running = false;
+    private volatile int writeFailures = 0;
+    private Thread writerThread;
+
+    // Sentinel that tells the writer to flush and exit
+    private static final AutoStashSystem.StashLocation SHUTDOWN =
+        new AutoStashSystem.StashLocation(BlockPos.ORIGIN, AutoStashSystem.StashType.CHEST, 0, List.of());
+
+    public StashJournal(File journalFile, File textLogFile) {
+        this.journalFile = journalFile;
+        this.textLogFile = textLogFile;
+    }
+
+    /**
+     * Read every intact record; called once at startup before the writer starts
+     */
+    public List<AutoStashSystem.StashLocation> readAll() {
+        List<AutoStashSystem.StashLocation> stashes = new ArrayList<>();
+        if (!journalFile.exists()) return stashes;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) return stashes;
+
+            while (true) {
+                int length = in.readUnsignedShort();
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                int crc = in.readInt();
+
+                CRC32 check = new CRC32();
+                check.update(payload);
+                if ((int) check.getValue() != crc) break; // Torn or corrupt tail
+
+                AutoStashSystem.StashLocation stash = decode(payload);
+                if (stash != null) {
+                    stashes.add(stash);
+                }
+            }
+        } catch (EOFException e) {
+            // Normal end of journal (or a partial record at the tail)
+        } catch (IOException e) {
+            writeFailures++;
+        }
+
+        return stashes;
+    }
+
+    /**
+     * Start the background writer; idempotent
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+
+        writerThread = new Thread(this::writerLoop, "EscapeMod-StashJournal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queue a stash for writing; never blocks the calling thread
+     */
+    public boolean append(AutoStashSystem.StashLocation stash) {
+        if (!running) start();
+        return queue.offer(stash);
+    }
+
+    /**
+     * Flush queued records and stop the writer
+     */
+    public synchronized void shutdown() {
+        if (!running) return;
+        running = false;
+
+        queue.offer(SHUTDOWN);
+        try {
+            writerThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writerLoop() {
+        try (FileChannel channel = openForAppend()) {
+            List<AutoStashSystem.StashLocation> batch = new ArrayList<>();
+
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+
+                boolean stop = batch.remove(SHUTDOWN);
+                if (!batch.isEmpty()) {
+                    writeBatch(channel, batch);
+                }
+                batch.clear();
+
+                if (stop) break;
+            }
+        } catch (IOException e) {
+            writeFailures++;
+            running = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Open the journal for appending, writing the header for a new file
+     * and cutting off any torn record left by a crash
+     */
+    private FileChannel openForAppend() throws IOException {
+        Path path = journalFile.toPath();
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (channel.size() < MAGIC.length) {
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(MAGIC), 0);
+            channel.force(true);
+        } else {
+            channel.truncate(findValidEnd(channel));
+        }
+
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private long findValidEnd(FileChannel channel) throws IOException {
+        long position = MAGIC.length;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(2);
+
+        while (position + 2 <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getShort() & 0xFFFF;
+
+            long end = position + 2 + length + 4;
+            if (end > size) break;
+
+            ByteBuffer record = ByteBuffer.allocate(length + 4);
+            channel.read(record, position + 2);
+            record.flip();
+            byte[] payload = new byte[length];
+            record.get(payload);
+
+            CRC32 check = new CRC32();
+            check.update(payload);
+            if ((int) check.getValue() != record.getInt()) break;
+
+            position = end;
+        }
+
+        return position;
+    }
+
+    private void writeBatch(FileChannel channel, List<AutoStashSystem.StashLocation> batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        StringBuilder text = new StringBuilder();
+
+        for (AutoStashSystem.StashLocation stash : batch) {
+            byte[] payload = encode(stash);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+
+            out.writeShort(payload.length);
+            out.write(payload);
+            out.writeInt((int) crc.getValue());
+
+            String timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(stash.timestamp), ZoneId.systemDefault())
+                .format(TEXT_LOG_FORMAT);
+            text.append(String.format("[%s] %s at %d, %d, %d%n", timestamp, stash.type,
+                stash.position.getX(), stash.position.getY(), stash.position.getZ()));
+        }
+
+        channel.write(ByteBuffer.wrap(bytes.toByteArray()));
+        channel.force(false); // One fsync per batch
+
+        // Human-readable log kept for players who look up coordinates by hand
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(textLogFile, true), StandardCharsets.UTF_8)) {
+            writer.write(text.toString());
+        } catch (IOException e) {
+            writeFailures++;
+        }
+    }
+
+    private static byte[] encode(AutoStashSystem.StashLocation stash) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeLong(stash.timestamp);
+        out.writeInt(stash.position.getX());
+        out.writeInt(stash.position.getY());
+        out.writeInt(stash.position.getZ());
+        out.writeByte(stash.type.ordinal());
+
+        int stacks = Math.min(stash.contents.size(), 255);
+        out.writeByte(stacks);
+        for (int i = 0; i < stacks; i++) {
+            ItemStack stack = stash.contents.get(i);
+            out.writeUTF(Registries.ITEM.getId(stack.getItem()).toString());
+            out.writeByte(Math.min(stack.getCount(), 255));
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static AutoStashSystem.StashLocation decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+
+        long timestamp = in.readLong();
+        BlockPos position = new BlockPos(in.readInt(), in.readInt(), in.readInt());
+        int typeOrdinal = in.readUnsignedByte();
+        AutoStashSystem.StashType[] types = AutoStashSystem.StashType.values();
+        if (typeOrdinal >= types.length) return null;
+
+        int stacks = in.readUnsignedByte();
+        List<ItemStack> contents = new ArrayList<>(stacks);
+        for (int i = 0; i < stacks; i++) {
+            Identifier id = Identifier.tryParse(in.readUTF());
+            int count = in.readUnsignedByte();
+            if (id != null && Registries.ITEM.containsId(id)) {
+                contents.add(new ItemStack(Registries.ITEM.get(id), count));
+            }
+        }
+
+        return new AutoStashSystem.StashLocation(position, types[typeOrdinal], timestamp, contents);
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public int getWriteFailures() {
+        return writeFailures;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,281 @@
+package com.escapemod.utils;
+
+import net.minecraft.util.math.BlockPos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Bot Events - Java Flight Recorder events for bot decisions and expensive operations
+ * Events land in the same recording as GC, CPU and allocation samples, so a file captured on a
+ * real client lines bot work up against everything else the JVM was doing. Fields are only filled
+ * in when the event is enabled, so outside a recording an event costs an allocation the JIT removes
+ *
+ * Recordings are started and dumped with % jfr; any JFR recording (jcmd, -XX:StartFlightRecording)
+ * picks the events up as well. Each event also bumps its BotMetrics counter before the enabled
+ * check, so the metrics endpoint counts decisions whether or not anything is recording
+ */
+public final class BotEvents {
+    private static final Path RECORDING_DIR = Path.of("escapemod_recordings");
+    private static final Duration MAX_AGE = Duration.ofMinutes(30);
+    private static final long MAX_SIZE = 256L * 1024 * 1024;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static Recording recording = null;
+
+    private BotEvents() {}
+
+    /**
+     * Start a continuous recording with the JDK "profile" settings; false if one is already running
+     */
+    public static synchronized boolean startRecording() throws IOException, ParseException {
+        if (recording != null) return false;
+
+        Recording started = new Recording(Configuration.getConfiguration("profile"));
+        started.setName("EscapeMod");
+        started.setToDisk(true);
+        started.setMaxAge(MAX_AGE);
+        started.setMaxSize(MAX_SIZE);
+        started.start();
+        recording = started;
+        return true;
+    }
+
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Write everything recorded so far to escapemod_recordings/; the recording keeps running
+     * Returns null if no recording was started. Does file I/O, so call it off the client thread
+     */
+    public static Path dumpRecording() throws IOException {
+        Recording current;
+        synchronized (BotEvents.class) {
+            current = recording;
+        }
+        if (current == null) return null;
+
+        Files.createDirectories(RECORDING_DIR);
+        Path file = RECORDING_DIR.resolve("escapemod-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+        current.dump(file);
+        return file;
+    }
+
+    /**
+     * Stop and discard the recording; dump first to keep it
+     */
+    public static synchronized boolean stopRecording() {
+        if (recording == null) return false;
+        recording.close();
+        recording = null;
+        return true;
+    }
+
+    /**
+     * One A* search from start to goal
+     * Usage: event.begin(); ...search...; event.finish(searcher, start, goal, nodes, outcome, pathLength);
+     */
+    @Name("escapemod.PathSearch")
+    @Label("Path Search")
+    @Category({"EscapeMod", "Pathfinding"})
+    @StackTrace(false)
+    public static final class PathSearch extends Event {
+        @Label("Searcher") public String searcher;
+        @Label("Start X") public int startX;
+        @Label("Start Y") public int startY;
+        @Label("Start Z") public int startZ;
+        @Label("Goal X") public int goalX;
+        @Label("Goal Y") public int goalY;
+        @Label("Goal Z") public int goalZ;
+        @Label("Nodes Expanded") public int nodesExpanded;
+        @Label("Outcome") @Description("found, exhausted, node_limit, time_limit or error") public String outcome;
+        @Label("Path Length") @Description("Waypoints in the returned path") public int pathLength;
+
+        public void finish(String searcher, BlockPos start, BlockPos goal, int nodesExpanded, String outcome, int pathLength) {
+            BotMetrics.PATH_SEARCHES.inc(searcher, outcome);
+            BotMetrics.PATH_NODES.inc(nodesExpanded, searcher);
+            end();
+            if (!shouldCommit()) return;
+
+            this.searcher = searcher;
+            this.startX = start.getX();
+            this.startY = start.getY();
+            this.startZ = start.getZ();
+            this.goalX = goal.getX();
+            this.goalY = goal.getY();
+            this.goalZ = goal.getZ();
+            this.nodesExpanded = nodesExpanded;
+            this.outcome = outcome;
+            this.pathLength = pathLength;
+            commit();
+        }
+    }
+
+    /**
+     * One pass of a world scanner over loaded blocks
+     */
+    @Name("escapemod.WorldScan")
+    @Label("World Scan")
+    @Category({"EscapeMod", "Scanning"})
+    @StackTrace(false)
+    public static final class WorldScan extends Event {
+        @Label("Scanner") public String scanner;
+        @Label("Center X") public int centerX;
+        @Label("Center Z") public int centerZ;
+        @Label("Blocks Read") public long blocksRead;
+        @Label("Found") @Description("Threats or highways reported by this pass") public int found;
+
+        public void finish(String scanner, BlockPos center, long blocksRead, int found) {
+            BotMetrics.SCANS.inc(scanner);
+            BotMetrics.SCAN_BLOCKS.inc(blocksRead, scanner);
+            end();
+            if (!shouldCommit()) return;
+
+            this.scanner = scanner;
+            this.centerX = center.getX();
+            this.centerZ = center.getZ();
+            this.blocksRead = blocksRead;
+            this.found = found;
+            commit();
+        }
+    }
+
+    @Name("escapemod.CrisisActivation")
+    @Label("Crisis Activation")
+    @Category({"EscapeMod", "Decisions"})
+    @StackTrace(false)
+    public static final class CrisisActivation extends Event {
+        @Label("Crisis Type") public String crisisType;
+        @Label("Health") public float health;
+        @Label("Hunger") public int hunger;
+        @Label("X") public int x;
+        @Label("Y") public int y;
+        @Label("Z") public int z;
+
+        public static void emit(String crisisType, float health, int hunger, BlockPos pos) {
+            BotMetrics.CRISIS_ACTIVATIONS.inc(crisisType);
+            CrisisActivation event = new CrisisActivation();
+            if (!event.isEnabled()) return;
+
+            event.crisisType = crisisType;
+            event.health = health;
+            event.hunger = hunger;
+            event.x = pos.getX();
+            event.y = pos.getY();
+            event.z = pos.getZ();
+            event.commit();
+        }
+    }
+
+    /**
+     * A backtrack recovery decision; emitted when the chosen action or its target changes
+     */
+    @Name("escapemod.RecoveryAction")
+    @Label("Recovery Action")
+    @Category({"EscapeMod", "Decisions"})
+    @StackTrace(false)
+    public static final class RecoveryAction extends Event {
+        @Label("Action") public String action;
+        @Label("X") public int x;
+        @Label("Y") public int y;
+        @Label("Z") public int z;
+        @Label("Target X") public int targetX;
+        @Label("Target Y") public int targetY;
+        @Label("Target Z") public int targetZ;
+        @Label("Route Length") public int routeLength;
+
+        public static void emit(String action, BlockPos pos, BlockPos target, int routeLength) {
+            BotMetrics.RECOVERY_ACTIONS.inc(action);
+            RecoveryAction event = new RecoveryAction();
+            if (!event.isEnabled()) return;
+
+            event.action = action;
+            event.x = pos.getX();
+            event.y = pos.getY();
+            event.z = pos.getZ();
+            if (target != null) {
+                event.targetX = target.getX();
+                event.targetY = target.getY();
+                event.targetZ = target.getZ();
+            }
+            event.routeLength = routeLength;
+            event.commit();
+        }
+    }
+
+    @Name("escapemod.StashOperation")
+    @Label("Stash Operation")
+    @Category({"EscapeMod", "Decisions"})
+    @StackTrace(false)
+    public static final class StashOperation extends Event {
+        @Label("Operation") public String operation;
+        @Label("Result") public String result;
+        @Label("Stash Type") public String stashType;
+        @Label("Stacks") public int stacks;
+        @Label("X") public int x;
+        @Label("Y") public int y;
+        @Label("Z") public int z;
+
+        public void finish(String operation, String result, String stashType, int stacks, BlockPos pos) {
+            BotMetrics.STASH_OPERATIONS.inc(operation, result);
+            end();
+            if (!shouldCommit()) return;
+
+            this.operation = operation;
+            this.result = result;
+            this.stashType = stashType;
+            this.stacks = stacks;
+            if (pos != null) {
+                this.x = pos.getX();
+                this.y = pos.getY();
+                this.z = pos.getZ();
+            }
+            commit();
+        }
+    }
+
+    /**
+     * Control passing to or from Baritone
+     */
+    @Name("escapemod.BaritoneHandoff")
+    @Label("Baritone Handoff")
+    @Category({"EscapeMod", "Pathfinding"})
+    @StackTrace(false)
+    public static final class BaritoneHandoff extends Event {
+        @Label("Request") @Description("path_to, direction, escape_process, emergency, retry or stop") public String request;
+        @Label("Goal X") public int goalX;
+        @Label("Goal Z") public int goalZ;
+        @Label("Accepted") public boolean accepted;
+        @Label("Failures") @Description("Consecutive failed requests before this one") public int failures;
+
+        public static void emit(String request, BlockPos goal, boolean accepted, int failures) {
+            BotMetrics.BARITONE_HANDOFFS.inc(request, String.valueOf(accepted));
+            BaritoneHandoff event = new BaritoneHandoff();
+            if (!event.isEnabled()) return;
+
+            event.request = request;
+            if (goal != null) {
+                event.goalX = goal.getX();
+                event.goalZ = goal.getZ();
+            }
+            event.accepted = accepted;
+            event.failures = failures;
+            event.commit();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+package com.escapemod.utils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bot Metrics - Counters kept for the whole session, for MetricsServer to export
+ * Counting is an adder increment on the calling thread, so the client thread never waits for a
+ * scrape. Most counters are bumped from BotEvents, so a decision shows up here whether or not a
+ * flight recording is running. Gauges that are already tracked elsewhere (profiler sections,
+ * scheduler stats, cache hits) are read at scrape time instead of being copied here
+ */
+public final class BotMetrics {
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+
+    public static final Counter PATH_SEARCHES = counter("escapemod_path_searches_total",
+        "A* searches by searcher and outcome", "searcher", "outcome");
+    public static final Counter PATH_NODES = counter("escapemod_path_nodes_expanded_total",
+        "Nodes expanded by A* searches", "searcher");
+    public static final Counter SCANS = counter("escapemod_scans_total",
+        "World scan passes", "scanner");
+    public static final Counter SCAN_BLOCKS = counter("escapemod_scan_blocks_read_total",
+        "Blocks read by world scans", "scanner");
+    public static final Counter CRISIS_ACTIVATIONS = counter("escapemod_crisis_activations_total",
+        "Crisis mode activations", "type");
+    public static final Counter RECOVERY_ACTIONS = counter("escapemod_recovery_actions_total",
+        "Backtrack recovery decisions; counted when the action or its target changes", "action");
+    public static final Counter STASH_OPERATIONS = counter("escapemod_stash_operations_total",
+        "Stash creations and lookups", "operation", "result");
+    public static final Counter BARITONE_HANDOFFS = counter("escapemod_baritone_handoffs_total",
+        "Requests passed to Baritone", "request", "accepted");
+
+    /**
+     * Client tick time, bot work only; buckets in seconds, 100µs to one 50ms tick
+     */
+    public static final Histogram TICK_SECONDS = new Histogram("escapemod_tick_seconds",
+        "Time spent in the bot's tick",
+        100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000, 25_000_000, 50_000_000);
+
+    // Horizontal distance covered while escaping, per second over the last minute
+    private static final int TRAVEL_WINDOW_SECONDS = 60;
+    private static final DoubleAdder travelled = new DoubleAdder();
+    private static final double[] travelBuckets = new double[TRAVEL_WINDOW_SECONDS];
+    private static long travelSecond = 0;
+
+    private BotMetrics() {}
+
+    private static Counter counter(String name, String help, String... labels) {
+        Counter counter = new Counter(name, help, labels);
+        COUNTERS.put(name, counter);
+        return counter;
+    }
+
+    public static Collection<Counter> counters() {
+        return COUNTERS.values();
+    }
+
+    /**
+     * Add blocks moved this tick; called from the client thread while escaping
+     */
+    public static void addTravel(double blocks) {
+        travelled.add(blocks);
+        long second = System.currentTimeMillis() / 1000;
+        synchronized (travelBuckets) {
+            advanceTravelWindow(second);
+            travelBuckets[(int) (second % TRAVEL_WINDOW_SECONDS)] += blocks;
+        }
+    }
+
+    public static double getBlocksTravelled() {
+        return travelled.sum();
+    }
+
+    /**
+     * Blocks covered in the last minute; zero once the bot has been still for a minute
+     */
+    public static double getBlocksPerMinute() {
+        long second = System.currentTimeMillis() / 1000;
+        synchronized (travelBuckets) {
+            advanceTravelWindow(second);
+            double sum = 0;
+            for (double bucket : travelBuckets) {
+                sum += bucket;
+            }
+            return sum;
+        }
+    }
+
+    private static void advanceTravelWindow(long second) {
+        if (second <= travelSecond) return;
+        long stale = Math.min(second - travelSecond, TRAVEL_WINDOW_SECONDS);
+        for (long s = second - stale + 1; s <= second; s++) {
+            travelBuckets[(int) (s % TRAVEL_WINDOW_SECONDS)] = 0;
+        }
+        travelSecond = second;
+    }
+
+    /**
+     * A counter family; each distinct set of label values is its own series
+     */
+    public static final class Counter {
+        private final String name;
+        private final String help;
+        private final String[] labels;
+        private final Map<String, LongAdder> series = new ConcurrentHashMap<>();
+
+        private Counter(String name, String help, String[] labels) {
+            this.name = name;
+            this.help = help;
+            this.labels = labels;
+        }
+
+        /**
+         * Values in the order the labels were declared; a missing value is exported as ""
+         */
+        public void inc(long amount, String... values) {
+            series.computeIfAbsent(labelSet(values), key -> new LongAdder()).add(amount);
+        }
+
+        public void inc(String... values) {
+            inc(1, values);
+        }
+
+        private String labelSet(String[] values) {
+            StringBuilder set = new StringBuilder();
+            for (int i = 0; i < labels.length; i++) {
+                if (i > 0) set.append(',');
+                set.append(labels[i]).append("=\"");
+                String value = i < values.length && values[i] != null ? values[i] : "";
+                for (int c = 0; c < value.length(); c++) {
+                    char ch = value.charAt(c);
+                    if (ch == '\\' || ch == '"') set.append('\\').append(ch);
+                    else if (ch == '\n') set.append("\\n");
+                    else set.append(ch);
+                }
+                set.append('"');
+            }
+            return set.toString();
+        }
+
+        public String getName() { return name; }
+        public String getHelp() { return help; }
+
+        /**
+         * Label sets like searcher="astar",outcome="found" and their totals, sorted for stable output
+         */
+        public Map<String, Long> snapshot() {
+            Map<String, Long> totals = new ConcurrentSkipListMap<>();
+            series.forEach((labelSet, adder) -> totals.put(labelSet, adder.sum()));
+            return totals;
+        }
+    }
+
+    /**
+     * Cumulative histogram over fixed nanosecond bounds, exported in seconds
+     */
+    public static final class Histogram {
+        private final String name;
+        private final String help;
+        private final long[] boundsNanos;
+        private final LongAdder[] buckets;
+        private final LongAdder sumNanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        private Histogram(String name, String help, long... boundsNanos) {
+            this.name = name;
+            this.help = help;
+            this.boundsNanos = boundsNanos;
+            this.buckets = new LongAdder[boundsNanos.length];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void observe(long nanos) {
+            for (int i = 0; i < boundsNanos.length; i++) {
+                if (nanos <= boundsNanos[i]) {
+                    buckets[i].increment();
+                    break;
+                }
+            }
+            sumNanos.add(nanos);
+            count.increment();
+        }
+
+        public String getName() { return name; }
+        public String getHelp() { return help; }
+        public long[] getBoundsNanos() { return boundsNanos.clone(); }
+
+        /**
+         * Observations at or below each bound, cumulative as Prometheus expects
+         */
+        public long[] cumulativeCounts() {
+            long[] cumulative = new long[buckets.length];
+            long running = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                running += buckets[i].sum();
+                cumulative[i] = running;
+            }
+            return cumulative;
+        }
+
+        public long getSumNanos() { return sumNanos.sum(); }
+        public long getCount() { return count.sum(); }
+    }
+}
\ No newline at end of file
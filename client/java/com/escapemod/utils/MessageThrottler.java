@@ -1,40 +1,163 @@
 package com.escapemod.utils;
 
+import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.text.Text;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 public class MessageThrottler {
-    private static final Map<String, Long> lastMessageTimes = new HashMap<>();
+    // Keys handed out by key() may be held forever, so they are never evicted; keys only
+    // looked up by name live in a bounded map
+    private static final Map<String, ThrottleKey> pinnedKeys = new ConcurrentHashMap<>();
+    private static final Map<String, ThrottleKey> keys = new ConcurrentHashMap<>();
     private static final long DEFAULT_THROTTLE_TIME = 5000; // 5 seconds
-    
+    private static final int MAX_KEYS = 512;
+    private static final int KEYS_AFTER_EVICTION = MAX_KEYS * 3 / 4;
+
+    /**
+     * Intern a message key once (e.g. in a static final field) so hot call sites skip the map lookup
+     * Interned keys are pinned: every later lookup by the same name shares their state
+     */
+    public static ThrottleKey key(String messageKey) {
+        ThrottleKey key = pinnedKeys.get(messageKey);
+        if (key != null) {
+            return key;
+        }
+
+        // Keep the state of a key that was already in use by name
+        key = pinnedKeys.computeIfAbsent(messageKey, name -> {
+            ThrottleKey existing = keys.get(name);
+            return existing != null ? existing : new ThrottleKey(name);
+        });
+        keys.remove(messageKey, key);
+        return key;
+    }
+
+    private static ThrottleKey lookup(String messageKey) {
+        ThrottleKey key = pinnedKeys.get(messageKey);
+        if (key == null) {
+            key = keys.get(messageKey);
+        }
+        if (key != null) {
+            return key;
+        }
+
+        if (keys.size() >= MAX_KEYS) {
+            evictKeys();
+        }
+        return keys.computeIfAbsent(messageKey, name -> {
+            ThrottleKey pinned = pinnedKeys.get(name); // Pinned since the check above
+            return pinned != null ? pinned : new ThrottleKey(name);
+        });
+    }
+
     public static boolean canSendMessage(String messageKey) {
         return canSendMessage(messageKey, DEFAULT_THROTTLE_TIME);
     }
-    
+
     public static boolean canSendMessage(String messageKey, long throttleTimeMs) {
-        long currentTime = System.currentTimeMillis();
-        Long lastTime = lastMessageTimes.get(messageKey);
-        
-        if (lastTime == null || currentTime - lastTime >= throttleTimeMs) {
-            lastMessageTimes.put(messageKey, currentTime);
-            return true;
-        }
-        
-        return false;
+        return lookup(messageKey).tryAcquire(throttleTimeMs);
     }
-    
+
     public static void sendThrottledMessage(ClientPlayerEntity player, String messageKey, Text message, boolean overlay) {
-        if (canSendMessage(messageKey)) {
-            player.sendMessage(message, overlay);
-        }
+        sendThrottledMessage(player, lookup(messageKey), () -> message, overlay, DEFAULT_THROTTLE_TIME);
     }
-    
+
     public static void sendThrottledMessage(ClientPlayerEntity player, String messageKey, Text message, boolean overlay, long throttleTimeMs) {
-        if (canSendMessage(messageKey, throttleTimeMs)) {
-            player.sendMessage(message, overlay);
+        sendThrottledMessage(player, lookup(messageKey), () -> message, overlay, throttleTimeMs);
+    }
+
+    /**
+     * Lazy variant - the supplier only runs (and formats its string) when the message is actually sent
+     */
+    public static void sendThrottledMessage(ClientPlayerEntity player, String messageKey, Supplier<Text> message, boolean overlay, long throttleTimeMs) {
+        sendThrottledMessage(player, lookup(messageKey), message, overlay, throttleTimeMs);
+    }
+
+    public static void sendThrottledMessage(ClientPlayerEntity player, ThrottleKey key, Supplier<Text> message, boolean overlay, long throttleTimeMs) {
+        if (!key.tryAcquire(throttleTimeMs)) {
+            return;
+        }
+
+        Text text = message.get();
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.isOnThread()) {
+            player.sendMessage(text, overlay);
+        } else {
+            // Chat must be touched from the client thread
+            client.execute(() -> player.sendMessage(text, overlay));
+        }
+    }
+
+    /**
+     * Number of times a message was suppressed since it was last sent
+     */
+    public static int getSuppressedCount(String messageKey) {
+        ThrottleKey key = pinnedKeys.get(messageKey);
+        if (key == null) {
+            key = keys.get(messageKey);
+        }
+        return key != null ? key.getSuppressedCount() : 0;
+    }
+
+    /**
+     * Drop the least recently sent unpinned keys down to KEYS_AFTER_EVICTION, so the next eviction
+     * is a quarter of MAX_KEYS new keys away rather than on the very next one
+     */
+    private static void evictKeys() {
+        synchronized (keys) {
+            if (keys.size() < MAX_KEYS) return;
+
+            List<ThrottleKey> oldestFirst = new ArrayList<>(keys.values());
+            oldestFirst.sort(Comparator.comparingLong(key -> key.lastSent.get()));
+            for (int i = 0; i < oldestFirst.size() - KEYS_AFTER_EVICTION; i++) {
+                keys.remove(oldestFirst.get(i).name, oldestFirst.get(i));
+            }
+        }
+    }
+
+    /**
+     * Throttle state for one message: primitive timestamp plus suppressed-repeat counter
+     */
+    public static class ThrottleKey {
+        private final String name;
+        private final AtomicLong lastSent = new AtomicLong(Long.MIN_VALUE / 2);
+        private final AtomicInteger suppressed = new AtomicInteger();
+
+        private ThrottleKey(String name) {
+            this.name = name;
+        }
+
+        /**
+         * True (and the timestamp is claimed) if the throttle window has passed; safe from any thread
+         */
+        public boolean tryAcquire(long throttleTimeMs) {
+            long now = System.currentTimeMillis();
+            long last = lastSent.get();
+
+            if (now - last >= throttleTimeMs && lastSent.compareAndSet(last, now)) {
+                suppressed.set(0);
+                return true;
+            }
+
+            suppressed.incrementAndGet();
+            return false;
+        }
+
+        public int getSuppressedCount() {
+            return suppressed.get();
+        }
+
+        public String getName() {
+            return name;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,245 @@
+package com.escapemod.utils;
+
+import com.escapemod.EscapeBot;
+import com.escapemod.events.WorldEventBus;
+import com.escapemod.rendering.VisualBudget;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Metrics Server - Serves the bot's counters and gauges in Prometheus text format on /metrics
+ * Bound to the loopback address only, so other machines can't reach it; a scraper on the same host
+ * (or an SSH tunnel) can. Requests are answered on one daemon thread that only reads counters,
+ * profiler windows and MXBeans, never the client world, so a scrape can't stall a tick. Values
+ * written by the client thread may be a tick behind
+ *
+ * Started with % metrics start [port], or at launch with -Descapemod.metrics.port=<port>
+ */
+public class MetricsServer {
+    private static final MetricsServer INSTANCE = new MetricsServer();
+    public static final int DEFAULT_PORT = 9464;
+    public static final String PORT_PROPERTY = "escapemod.metrics.port";
+
+    private HttpServer server = null;
+    private ExecutorService executor = null;
+    private EscapeBot bot = null;
+
+    public static MetricsServer get() {
+        return INSTANCE;
+    }
+
+    private MetricsServer() {}
+
+    /**
+     * Start serving on 127.0.0.1:port; false if already running. Throws if the port is taken
+     */
+    public synchronized boolean start(int port, EscapeBot bot) throws IOException {
+        if (server != null) return false;
+
+        HttpServer started = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService pool = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "EscapeMod-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        started.createContext("/metrics", this::handle);
+        started.setExecutor(pool);
+        started.start();
+
+        this.bot = bot;
+        this.server = started;
+        this.executor = pool;
+        return true;
+    }
+
+    public synchronized boolean stop() {
+        if (server == null) return false;
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+        return true;
+    }
+
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * The whole exposition, built fresh for each scrape
+     */
+    String render() {
+        StringBuilder out = new StringBuilder(8192);
+
+        // Travel
+        EscapeBot current;
+        synchronized (this) {
+            current = bot;
+        }
+        if (current != null) {
+            gauge(out, "escapemod_escaping", "1 while an escape is running", current.isEscaping() ? 1 : 0);
+        }
+        family(out, "escapemod_blocks_travelled_total", "Horizontal blocks moved while escaping", "counter");
+        sample(out, "escapemod_blocks_travelled_total", "", BotMetrics.getBlocksTravelled());
+        gauge(out, "escapemod_blocks_per_minute", "Horizontal blocks moved in the last minute", BotMetrics.getBlocksPerMinute());
+
+        // Tick time
+        BotMetrics.Histogram tick = BotMetrics.TICK_SECONDS;
+        family(out, tick.getName(), tick.getHelp(), "histogram");
+        long[] bounds = tick.getBoundsNanos();
+        long[] cumulative = tick.cumulativeCounts();
+        for (int i = 0; i < bounds.length; i++) {
+            sample(out, tick.getName() + "_bucket", "le=\"" + number(bounds[i] / 1e9) + "\"", cumulative[i]);
+        }
+        sample(out, tick.getName() + "_bucket", "le=\"+Inf\"", tick.getCount());
+        sample(out, tick.getName() + "_sum", "", tick.getSumNanos() / 1e9);
+        sample(out, tick.getName() + "_count", "", tick.getCount());
+
+        // Profiler sections, as summaries over each section's rolling window
+        SystemProfiler profiler = SystemProfiler.get();
+        var sections = profiler.snapshot();
+        family(out, "escapemod_section_seconds", "Time per profiled section over its last samples", "summary");
+        for (SystemProfiler.Stats section : sections) {
+            String name = "section=\"" + section.name() + "\"";
+            sample(out, "escapemod_section_seconds", name + ",quantile=\"0.5\"", section.p50Nanos() / 1e9);
+            sample(out, "escapemod_section_seconds", name + ",quantile=\"0.99\"", section.p99Nanos() / 1e9);
+            sample(out, "escapemod_section_seconds_count", name, section.calls());
+        }
+        if (profiler.isTrackingAllocations()) {
+            family(out, "escapemod_section_alloc_bytes", "Bytes allocated per profiled section over its last samples", "summary");
+            for (SystemProfiler.Stats section : sections) {
+                String name = "section=\"" + section.name() + "\"";
+                sample(out, "escapemod_section_alloc_bytes", name + ",quantile=\"0.5\"", section.p50Bytes());
+                sample(out, "escapemod_section_alloc_bytes", name + ",quantile=\"0.99\"", section.p99Bytes());
+                sample(out, "escapemod_section_alloc_bytes_count", name, section.calls());
+            }
+        }
+
+        // Scheduler
+        if (current != null) {
+            TickScheduler scheduler = current.getScheduler();
+            family(out, "escapemod_ticks_over_budget_total", "Ticks where scheduled work ran past the tick budget", "counter");
+            sample(out, "escapemod_ticks_over_budget_total", "", scheduler.getOverBudgetTicks());
+            var tasks = scheduler.getTasks();
+            family(out, "escapemod_task_runs_total", "Scheduled task runs", "counter");
+            for (TickScheduler.Task task : tasks) {
+                sample(out, "escapemod_task_runs_total", "task=\"" + task.name + "\"", task.getRuns());
+            }
+            family(out, "escapemod_task_overruns_total", "Scheduled task runs over their own budget", "counter");
+            for (TickScheduler.Task task : tasks) {
+                sample(out, "escapemod_task_overruns_total", "task=\"" + task.name + "\"", task.getOverruns());
+            }
+            family(out, "escapemod_task_deferrals_total", "Scheduled task runs pushed to a later tick", "counter");
+            for (TickScheduler.Task task : tasks) {
+                sample(out, "escapemod_task_deferrals_total", "task=\"" + task.name + "\"", task.getDeferrals());
+            }
+            family(out, "escapemod_task_skips_total", "Scheduled task runs dropped", "counter");
+            for (TickScheduler.Task task : tasks) {
+                sample(out, "escapemod_task_skips_total", "task=\"" + task.name + "\"", task.getSkips());
+            }
+
+            // Caches
+            var terrain = current.getNavigator().getTerrainAnalyzer();
+            var crafting = current.getAutoCrafting().getPlanner();
+            family(out, "escapemod_cache_hits_total", "Cache lookups answered from the cache", "counter");
+            sample(out, "escapemod_cache_hits_total", "cache=\"terrain\"", terrain.getCacheHits());
+            sample(out, "escapemod_cache_hits_total", "cache=\"crafting_plan\"", crafting.getCacheHits());
+            family(out, "escapemod_cache_misses_total", "Cache lookups that had to compute", "counter");
+            sample(out, "escapemod_cache_misses_total", "cache=\"terrain\"", terrain.getCacheMisses());
+            sample(out, "escapemod_cache_misses_total", "cache=\"crafting_plan\"", crafting.getCacheMisses());
+        }
+
+        // Decision and search counters
+        for (BotMetrics.Counter counter : BotMetrics.counters()) {
+            family(out, counter.getName(), counter.getHelp(), "counter");
+            for (Map.Entry<String, Long> series : counter.snapshot().entrySet()) {
+                sample(out, counter.getName(), series.getKey(), series.getValue());
+            }
+        }
+        family(out, "escapemod_block_changes_total", "Block updates received from the server", "counter");
+        sample(out, "escapemod_block_changes_total", "", WorldEventBus.get().getBlockChanges());
+        VisualBudget visuals = VisualBudget.get();
+        family(out, "escapemod_particles_total", "Bot particles by what the visual budget did with them", "counter");
+        sample(out, "escapemod_particles_total", "result=\"spawned\"", visuals.getSpawned());
+        sample(out, "escapemod_particles_total", "result=\"culled\"", visuals.getCulled());
+        sample(out, "escapemod_particles_total", "result=\"thinned\"", visuals.getThinned());
+        sample(out, "escapemod_particles_total", "result=\"over_budget\"", visuals.getOverBudget());
+
+        // JVM
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        gauge(out, "jvm_memory_heap_used_bytes", "Heap in use", heap.getUsed());
+        gauge(out, "jvm_memory_heap_committed_bytes", "Heap reserved from the OS", heap.getCommitted());
+        gauge(out, "jvm_memory_heap_max_bytes", "Heap limit", heap.getMax());
+        var collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        family(out, "jvm_gc_collections_total", "Collections per collector", "counter");
+        for (GarbageCollectorMXBean gc : collectors) {
+            sample(out, "jvm_gc_collections_total", "gc=\"" + gc.getName() + "\"", Math.max(0, gc.getCollectionCount()));
+        }
+        family(out, "jvm_gc_collection_seconds_total", "Time spent collecting per collector", "counter");
+        for (GarbageCollectorMXBean gc : collectors) {
+            sample(out, "jvm_gc_collection_seconds_total", "gc=\"" + gc.getName() + "\"", Math.max(0, gc.getCollectionTime()) / 1e3);
+        }
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            family(out, "process_cpu_seconds_total", "CPU time used by the client process", "counter");
+            sample(out, "process_cpu_seconds_total", "", os.getProcessCpuTime() / 1e9);
+        }
+        return out.toString();
+    }
+
+    private static void family(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        family(out, name, help, "gauge");
+        sample(out, name, "", value);
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(number(value)).append('\n');
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return String.format(Locale.ROOT, "%.6g", value);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.escapemod.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * System Profiler - Rolling time and allocation histograms for each system tick and major operation
+ * A section keeps its last WINDOW samples of wall time and of bytes allocated by the calling thread.
+ * Recording is two clock reads, two allocation counter reads and two array stores; percentiles are
+ * only worked out when the table is printed, so it is cheap enough to leave on
+ *
+ * Usage: try (var scope = SECTION.time()) { ... }
+ */
+public class SystemProfiler {
+    private static final SystemProfiler INSTANCE = new SystemProfiler();
+    private static final int WINDOW = 512;
+
+    private final Map<String, Section> sections = new ConcurrentHashMap<>();
+    private final com.sun.management.ThreadMXBean allocationCounter;
+    private volatile boolean enabled = true;
+
+    public static SystemProfiler get() {
+        return INSTANCE;
+    }
+
+    private SystemProfiler() {
+        com.sun.management.ThreadMXBean counter = null;
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads &&
+            threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            counter = threads;
+        }
+        this.allocationCounter = counter;
+    }
+
+    /**
+     * The section with this name, created on first use; callers keep it in a static field
+     */
+    public Section section(String name) {
+        return sections.computeIfAbsent(name, Section::new);
+    }
+
+    private long allocatedBytes() {
+        return allocationCounter != null ? allocationCounter.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public boolean isEnabled() { return enabled; }
+    public boolean isTrackingAllocations() { return allocationCounter != null; }
+
+    public void reset() {
+        for (Section section : sections.values()) {
+            section.reset();
+        }
+    }
+
+    /**
+     * Sections with samples, slowest p99 first
+     */
+    public List<Stats> snapshot() {
+        List<Stats> stats = new ArrayList<>();
+        for (Section section : sections.values()) {
+            Stats sectionStats = section.stats();
+            if (sectionStats != null) {
+                stats.add(sectionStats);
+            }
+        }
+        stats.sort(Comparator.comparingLong(Stats::p99Nanos).reversed());
+        return stats;
+    }
+
+    /**
+     * Percentiles over the section's window; calls counts every sample since the last reset
+     */
+    public record Stats(String name, long calls, long p50Nanos, long p99Nanos, long maxNanos,
+                        long p50Bytes, long p99Bytes, long maxBytes) {}
+
+    /**
+     * One timed operation in progress; closing it records the sample
+     */
+    public static final class Scope implements AutoCloseable {
+        private static final Scope DISABLED = new Scope(null, 0, 0);
+
+        private final Section section;
+        private final long startNanos;
+        private final long startBytes;
+
+        private Scope(Section section, long startNanos, long startBytes) {
+            this.section = section;
+            this.startNanos = startNanos;
+            this.startBytes = startBytes;
+        }
+
+        @Override
+        public void close() {
+            if (section == null) return;
+            section.record(System.nanoTime() - startNanos, INSTANCE.allocatedBytes() - startBytes);
+        }
+    }
+
+    public static final class Section {
+        private final String name;
+        private final long[] nanos = new long[WINDOW];
+        private final long[] bytes = new long[WINDOW];
+        private long calls = 0;
+
+        private Section(String name) {
+            this.name = name;
+        }
+
+        public Scope time() {
+            if (!INSTANCE.enabled) return Scope.DISABLED;
+            return new Scope(this, System.nanoTime(), INSTANCE.allocatedBytes());
+        }
+
+        private synchronized void record(long elapsedNanos, long allocated) {
+            int slot = (int) (calls % WINDOW);
+            nanos[slot] = elapsedNanos;
+            bytes[slot] = allocated;
+            calls++;
+        }
+
+        private synchronized void reset() {
+            calls = 0;
+        }
+
+        private synchronized Stats stats() {
+            int samples = (int) Math.min(calls, WINDOW);
+            if (samples == 0) return null;
+
+            long[] sortedNanos = Arrays.copyOf(nanos, samples);
+            long[] sortedBytes = Arrays.copyOf(bytes, samples);
+            Arrays.sort(sortedNanos);
+            Arrays.sort(sortedBytes);
+            return new Stats(name, calls,
+                percentile(sortedNanos, 0.50), percentile(sortedNanos, 0.99), sortedNanos[samples - 1],
+                percentile(sortedBytes, 0.50), percentile(sortedBytes, 0.99), sortedBytes[samples - 1]);
+        }
+
+        private static long percentile(long[] sorted, double fraction) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,201 @@
+package com.escapemod.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tick Scheduler - Runs periodic client-side work under a shared per-tick time budget
+ * Each task declares a period in ticks, a priority and the microseconds it expects to need.
+ * Tasks with the same period get different phases so their runs don't pile onto one tick.
+ * When a tick is running over budget, non-critical tasks whose expected cost doesn't fit are
+ * deferred to the next tick, and dropped for this period if they can't catch up
+ */
+public class TickScheduler {
+    public static final long DEFAULT_TICK_BUDGET_MICROS = 4000; // A fifth of a 50 ms tick
+    private static final int PHASE_HORIZON = 20;              // Ticks looked at when choosing a phase
+    private static final double COST_SMOOTHING = 0.1;
+
+    public enum Priority {
+        CRITICAL, // Always runs when due (safety)
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    private final List<Task> tasks = new ArrayList<>();
+    private final long[] plannedLoad = new long[PHASE_HORIZON];
+    private final long tickBudgetMicros;
+    private long currentTick = 0;
+    private long lastTickMicros = 0;
+    private long overBudgetTicks = 0;
+
+    public TickScheduler() {
+        this(DEFAULT_TICK_BUDGET_MICROS);
+    }
+
+    public TickScheduler(long tickBudgetMicros) {
+        this.tickBudgetMicros = tickBudgetMicros;
+    }
+
+    /**
+     * Register periodic work; the phase is picked to spread load across ticks
+     */
+    public Task register(String name, int periodTicks, Priority priority, long budgetMicros, Runnable work) {
+        Task task = new Task(name, Math.max(1, periodTicks), priority, budgetMicros, work);
+        task.phase = pickPhase(task);
+        task.nextRun = currentTick + Math.floorMod(task.phase - currentTick, task.period);
+
+        for (int t = task.phase; t < PHASE_HORIZON; t += task.period) {
+            plannedLoad[t] += budgetMicros;
+        }
+
+        tasks.add(task);
+        tasks.sort(Comparator.comparing((Task registered) -> registered.priority));
+        return task;
+    }
+
+    /**
+     * Phase whose ticks carry the least declared budget so far
+     */
+    private int pickPhase(Task task) {
+        int bestPhase = 0;
+        long bestLoad = Long.MAX_VALUE;
+
+        for (int phase = 0; phase < Math.min(task.period, PHASE_HORIZON); phase++) {
+            long load = 0;
+            for (int t = phase; t < PHASE_HORIZON; t += task.period) {
+                load = Math.max(load, plannedLoad[t]);
+            }
+            if (load < bestLoad) {
+                bestLoad = load;
+                bestPhase = phase;
+            }
+        }
+
+        return bestPhase;
+    }
+
+    /**
+     * Run everything due this tick, most important first
+     */
+    public void tick() {
+        long tickStart = System.nanoTime();
+
+        for (Task task : tasks) {
+            if (!task.enabled || currentTick < task.nextRun) continue;
+
+            long spent = (System.nanoTime() - tickStart) / 1000;
+            // A task bigger than the whole budget still runs on a tick that is otherwise quiet
+            boolean fits = spent + task.expectedMicros() <= tickBudgetMicros || spent < tickBudgetMicros / 4;
+            if (task.priority != Priority.CRITICAL && !fits) {
+                defer(task);
+                continue;
+            }
+
+            long start = System.nanoTime();
+            try (var scope = task.section.time()) {
+                task.work.run();
+            } finally {
+                task.recordRun((System.nanoTime() - start) / 1000);
+            }
+            task.deferredTicks = 0;
+            task.nextRun = nextOnPhase(task);
+        }
+
+        lastTickMicros = (System.nanoTime() - tickStart) / 1000;
+        if (lastTickMicros > tickBudgetMicros) {
+            overBudgetTicks++;
+        }
+        currentTick++;
+    }
+
+    private void defer(Task task) {
+        task.deferrals++;
+        task.deferredTicks++;
+
+        if (task.deferredTicks >= task.period) {
+            // A whole period behind: drop this run rather than let the backlog grow
+            task.skips++;
+            task.deferredTicks = 0;
+            task.nextRun = nextOnPhase(task);
+        } else {
+            task.nextRun = currentTick + 1;
+        }
+    }
+
+    private long nextOnPhase(Task task) {
+        return currentTick + 1 + Math.floorMod(task.phase - (currentTick + 1), task.period);
+    }
+
+    public List<Task> getTasks() {
+        return Collections.unmodifiableList(tasks);
+    }
+
+    public long getCurrentTick() { return currentTick; }
+    public long getLastTickMicros() { return lastTickMicros; }
+    public long getTickBudgetMicros() { return tickBudgetMicros; }
+    public long getOverBudgetTicks() { return overBudgetTicks; }
+
+    /**
+     * A registered unit of periodic work and its timing statistics
+     */
+    public static class Task {
+        public final String name;
+        public final int period;
+        public final Priority priority;
+        public final long budgetMicros;
+        private final Runnable work;
+        private final SystemProfiler.Section section;
+        private int phase;
+        private long nextRun;
+        private int deferredTicks = 0;
+        private boolean enabled = true;
+
+        // Timing
+        private long runs = 0;
+        private long totalMicros = 0;
+        private long maxMicros = 0;
+        private double averageMicros = -1; // Smoothed; -1 until the first run
+        private long overruns = 0;
+        private long deferrals = 0;
+        private long skips = 0;
+
+        private Task(String name, int period, Priority priority, long budgetMicros, Runnable work) {
+            this.name = name;
+            this.period = period;
+            this.priority = priority;
+            this.budgetMicros = budgetMicros;
+            this.work = work;
+            this.section = SystemProfiler.get().section("tick." + name);
+        }
+
+        private void recordRun(long micros) {
+            runs++;
+            totalMicros += micros;
+            maxMicros = Math.max(maxMicros, micros);
+            averageMicros = averageMicros < 0 ? micros : averageMicros + (micros - averageMicros) * COST_SMOOTHING;
+            if (micros > budgetMicros) {
+                overruns++;
+            }
+        }
+
+        /**
+         * Cost used to decide whether the task fits the rest of the tick: measured once it has run
+         */
+        private long expectedMicros() {
+            return averageMicros < 0 ? budgetMicros : (long) averageMicros;
+        }
+
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public boolean isEnabled() { return enabled; }
+        public long getRuns() { return runs; }
+        public double getAverageMicros() { return Math.max(0, averageMicros); }
+        public long getMeanMicros() { return runs > 0 ? totalMicros / runs : 0; }
+        public long getMaxMicros() { return maxMicros; }
+        public long getOverruns() { return overruns; }
+        public long getDeferrals() { return deferrals; }
+        public long getSkips() { return skips; }
+    }
+}
\ No newline at end of file
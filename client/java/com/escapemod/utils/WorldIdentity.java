@@ -0,0 +1,69 @@
+package com.escapemod.utils;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+
+import java.util.regex.Pattern;
+
+/**
+ * File-name-safe names for the current server and dimension, used to keep per-world data apart
+ * Callers ask every tick or chunk load, so the names are worked out once per ClientWorld (a new
+ * one comes with every join and dimension change) and kept until the next one or a disconnect
+ */
+public class WorldIdentity {
+    private static final Pattern UNSAFE = Pattern.compile("[^a-zA-Z0-9._-]");
+
+    private record Identity(ClientWorld world, String server, String dimension, String key) {}
+
+    private static volatile Identity cached = null;
+
+    public static String serverName(MinecraftClient client) {
+        return current(client).server();
+    }
+
+    public static String dimensionName(MinecraftClient client) {
+        return current(client).dimension();
+    }
+
+    /**
+     * "server/dimension", for data kept per dimension
+     */
+    public static String worldKey(MinecraftClient client) {
+        return current(client).key();
+    }
+
+    /**
+     * Forget the cached names; called on disconnect so the old world isn't held
+     */
+    public static void clear() {
+        cached = null;
+    }
+
+    private static Identity current(MinecraftClient client) {
+        ClientWorld world = client.world;
+        Identity identity = cached;
+        if (identity != null && identity.world() == world) return identity;
+
+        String server = computeServerName(client);
+        String dimension = world != null ? sanitize(world.getRegistryKey().getValue().toString()) : "none";
+        identity = new Identity(world, server, dimension, server + "/" + dimension);
+        if (world != null) {
+            cached = identity; // Outside a world the server entry may still change, so don't keep it
+        }
+        return identity;
+    }
+
+    private static String computeServerName(MinecraftClient client) {
+        if (client.getServer() != null) {
+            return "local_" + sanitize(client.getServer().getSaveProperties().getLevelName());
+        }
+        if (client.getCurrentServerEntry() != null) {
+            return sanitize(client.getCurrentServerEntry().address);
+        }
+        return "unknown";
+    }
+
+    public static String sanitize(String name) {
+        return UNSAFE.matcher(name).replaceAll("_");
+    }
+}
\ No newline at end of file
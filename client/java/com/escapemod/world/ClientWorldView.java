@@ -0,0 +1,172 @@
+package com.escapemod.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client World View - WorldView over the live client world
+ * The world is looked up on every read, so one instance survives dimension changes and reconnects
+ */
+public class ClientWorldView implements WorldView {
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+
+    private final MinecraftClient client;
+
+    public ClientWorldView(MinecraftClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return client.world != null;
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        return client.world.getBlockState(pos);
+    }
+
+    @Override
+    public boolean isChunkLoaded(int chunkX, int chunkZ) {
+        return client.world.isChunkLoaded(chunkX, chunkZ);
+    }
+
+    @Override
+    public int getBottomY() {
+        return client.world.getBottomY();
+    }
+
+    @Override
+    public int getTopY() {
+        return client.world.getTopY();
+    }
+
+    @Override
+    public int getFloorHeight(int x, int z) {
+        return floorBelow(this, x, client.world.getTopY(Heightmap.Type.MOTION_BLOCKING, x, z), z);
+    }
+
+    @Override
+    public List<PlayerView> getPlayersNear(Vec3d center, double radius) {
+        List<PlayerView> players = new ArrayList<>();
+        for (PlayerEntity player : client.world.getEntitiesByClass(PlayerEntity.class,
+                new Box(center, center).expand(radius), p -> p != client.player)) {
+            players.add(new PlayerView(player.getName().getString(), player.getPos()));
+        }
+        return players;
+    }
+
+    /**
+     * A copy of the chunk taken now, on the client thread; see ChunkSnapshot
+     */
+    @Override
+    public WorldView snapshotChunk(int chunkX, int chunkZ) {
+        if (!client.world.isChunkLoaded(chunkX, chunkZ)) return null;
+        return new ChunkSnapshot(client.world.getChunk(chunkX, chunkZ));
+    }
+
+    /**
+     * Floor height worked out from the MOTION_BLOCKING surface, the heightmap servers send (the
+     * client would have to compute OCEAN_FLOOR itself, writing into the chunk). Below that surface
+     * the first block that blocks movement is the floor; above it are only fluids
+     */
+    static int floorBelow(WorldView view, int x, int surface, int z) {
+        BlockPos.Mutable pos = new BlockPos.Mutable(x, surface - 1, z);
+        int bottomY = view.getBottomY();
+        while (pos.getY() >= bottomY && !view.getBlockState(pos).blocksMovement()) {
+            pos.move(Direction.DOWN);
+        }
+        return pos.getY() + 1;
+    }
+
+    /**
+     * One chunk's block palettes and surface heights, copied on the client thread. Nothing in it is
+     * shared with the live chunk, so a worker can read it while the client thread changes or
+     * unloads the original. Copying is a few array clones per non-empty section
+     */
+    private static final class ChunkSnapshot implements WorldView {
+        private final int chunkX;
+        private final int chunkZ;
+        private final int bottomY;
+        private final int topY;
+        private final PalettedContainer<BlockState>[] sections; // null where the section is empty
+        private final int[] surface = new int[256];               // MOTION_BLOCKING, one above the top block
+
+        @SuppressWarnings("unchecked")
+        ChunkSnapshot(WorldChunk chunk) {
+            this.chunkX = chunk.getPos().x;
+            this.chunkZ = chunk.getPos().z;
+            this.bottomY = chunk.getBottomY();
+            this.topY = chunk.getTopY();
+
+            ChunkSection[] source = chunk.getSectionArray();
+            this.sections = new PalettedContainer[source.length];
+            for (int i = 0; i < source.length; i++) {
+                if (!source[i].isEmpty()) {
+                    sections[i] = source[i].getBlockStateContainer().copy();
+                }
+            }
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    surface[(z << 4) | x] = chunk.sampleHeightmap(Heightmap.Type.MOTION_BLOCKING, x, z) + 1;
+                }
+            }
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public BlockState getBlockState(BlockPos pos) {
+            int y = pos.getY();
+            if (y < bottomY || y >= topY) return AIR;
+            PalettedContainer<BlockState> section = sections[(y - bottomY) >> 4];
+            return section != null ? section.get(pos.getX() & 15, y & 15, pos.getZ() & 15) : AIR;
+        }
+
+        @Override
+        public boolean isChunkLoaded(int chunkX, int chunkZ) {
+            return this.chunkX == chunkX && this.chunkZ == chunkZ;
+        }
+
+        @Override
+        public int getBottomY() {
+            return bottomY;
+        }
+
+        @Override
+        public int getTopY() {
+            return topY;
+        }
+
+        @Override
+        public int getFloorHeight(int x, int z) {
+            return floorBelow(this, x, surface[((z & 15) << 4) | (x & 15)], z);
+        }
+
+        @Override
+        public List<PlayerView> getPlayersNear(Vec3d center, double radius) {
+            return List.of();
+        }
+
+        @Override
+        public WorldView snapshotChunk(int chunkX, int chunkZ) {
+            return isChunkLoaded(chunkX, chunkZ) ? this : null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.escapemod.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replay World View - The world as rebuilt from a session recording's voxel windows
+ * A chunk counts as loaded once any block of it has been recorded; the rest of that chunk reads as
+ * air, as the recording only holds the window around the player. Sections are allocated on first
+ * write and chunks far behind the player can be evicted, so a multi-hour replay stays small.
+ * TerrainAnalyzer reads from worker threads while the replay writes, which at worst shows them a
+ * block one tick old, the same as the live client
+ */
+public class ReplayWorldView implements WorldView {
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+
+    private final Map<Long, ReplayChunk> chunks = new ConcurrentHashMap<>();
+    private volatile int bottomY = -64;
+    private volatile int topY = 320;
+    private volatile List<PlayerView> players = List.of();
+
+    private final class ReplayChunk {
+        final BlockState[][] sections = new BlockState[(topY - bottomY) >> 4][];
+        final int[] floors = new int[256];
+
+        ReplayChunk() {
+            Arrays.fill(floors, bottomY);
+        }
+    }
+
+    /**
+     * Drop everything, as after a dimension change, and take the new world's height range
+     */
+    public void reset(int bottomY, int topY) {
+        chunks.clear();
+        this.bottomY = bottomY;
+        this.topY = topY;
+        this.players = List.of();
+    }
+
+    public void setBlockState(int x, int y, int z, BlockState state) {
+        if (y < bottomY || y >= topY) return;
+        ReplayChunk chunk = chunks.computeIfAbsent(ChunkPos.toLong(x >> 4, z >> 4), key -> new ReplayChunk());
+
+        int local = y - bottomY;
+        BlockState[] section = chunk.sections[local >> 4];
+        if (section == null) {
+            if (state == AIR) return;
+            section = new BlockState[4096];
+            Arrays.fill(section, AIR);
+            chunk.sections[local >> 4] = section;
+        }
+        section[((local & 15) << 8) | ((z & 15) << 4) | (x & 15)] = state;
+
+        int column = ((z & 15) << 4) | (x & 15);
+        if (isFloor(state)) {
+            if (y + 1 > chunk.floors[column]) chunk.floors[column] = y + 1;
+        } else if (y + 1 == chunk.floors[column]) {
+            chunk.floors[column] = findFloor(chunk, x, y - 1, z);
+        }
+    }
+
+    private int findFloor(ReplayChunk chunk, int x, int fromY, int z) {
+        for (int y = fromY; y >= bottomY; y--) {
+            BlockState[] section = chunk.sections[(y - bottomY) >> 4];
+            if (section == null) {
+                y = bottomY + (((y - bottomY) >> 4) << 4); // Skip the empty section
+                continue;
+            }
+            if (isFloor(section[(((y - bottomY) & 15) << 8) | ((z & 15) << 4) | (x & 15)])) return y + 1;
+        }
+        return bottomY;
+    }
+
+    private static boolean isFloor(BlockState state) {
+        return state.blocksMovement() && state.getFluidState().isEmpty();
+    }
+
+    /**
+     * Forget chunks more than radiusChunks from the given chunk, like the client unloading them
+     */
+    public void evictBeyond(int chunkX, int chunkZ, int radiusChunks) {
+        chunks.keySet().removeIf(key ->
+            Math.max(Math.abs(ChunkPos.getPackedX(key) - chunkX), Math.abs(ChunkPos.getPackedZ(key) - chunkZ)) > radiusChunks);
+    }
+
+    public void setPlayers(List<PlayerView> players) {
+        this.players = List.copyOf(players);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        int y = pos.getY();
+        if (y < bottomY || y >= topY) return AIR;
+        ReplayChunk chunk = chunks.get(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (chunk == null) return AIR;
+
+        int local = y - bottomY;
+        BlockState[] section = chunk.sections[local >> 4];
+        return section != null ? section[((local & 15) << 8) | ((pos.getZ() & 15) << 4) | (pos.getX() & 15)] : AIR;
+    }
+
+    @Override
+    public boolean isChunkLoaded(int chunkX, int chunkZ) {
+        return chunks.containsKey(ChunkPos.toLong(chunkX, chunkZ));
+    }
+
+    @Override
+    public int getBottomY() {
+        return bottomY;
+    }
+
+    @Override
+    public int getTopY() {
+        return topY;
+    }
+
+    @Override
+    public int getFloorHeight(int x, int z) {
+        ReplayChunk chunk = chunks.get(ChunkPos.toLong(x >> 4, z >> 4));
+        return chunk != null ? chunk.floors[((z & 15) << 4) | (x & 15)] : bottomY;
+    }
+
+    @Override
+    public List<PlayerView> getPlayersNear(Vec3d center, double radius) {
+        List<PlayerView> near = new ArrayList<>();
+        for (PlayerView player : players) {
+            if (player.pos().squaredDistanceTo(center) <= radius * radius) {
+                near.add(player);
+            }
+        }
+        return near;
+    }
+
+    public int getChunkCount() { return chunks.size(); }
+}
\ No newline at end of file
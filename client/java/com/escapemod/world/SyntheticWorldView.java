@@ -0,0 +1,331 @@
+package com.escapemod.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.*;
+
+/**
+ * Synthetic World View - Generated terrain held in memory, for running the bot's logic without a client
+ * A square of (2 * radiusChunks + 1)^2 chunks around the origin is "loaded"; everything outside reads
+ * as unloaded air. Columns are stored as one surface height each and expanded into blocks on read,
+ * so a 64 chunk radius costs a few MB. Blocks can be placed on top with setBlockState.
+ * Needs the Minecraft registries bootstrapped (Bootstrap.initialize) before the first instance
+ */
+public class SyntheticWorldView implements WorldView {
+    private static final int SEA_LEVEL = 62;
+    private static final int MAZE_CELL = 4;     // 3 wide corridors, 1 wide walls
+    private static final int MAZE_WALL_HEIGHT = 3;
+    private static final int HIGHWAY_Y = 120;   // Feet level inside the nether highway tunnel
+
+    public enum Terrain {
+        PLAINS,         // Gentle hills with ponds
+        MOUNTAINS,      // Steep ridges up to ~160
+        OCEAN,          // Deep water with the odd island
+        MAZE,           // Flat ground covered in 1-block walls
+        NETHER_HIGHWAY  // Solid netherrack with a 3x4 tunnel along +X at z=0
+    }
+
+    private final Terrain terrain;
+    private final int radiusChunks;
+    private final int minBlock;
+    private final int size;
+    private final int bottomY;
+    private final int topY;
+    private final short[] heights; // Top solid block per column
+    private final BlockState surface;
+    private final BlockState subsurface;
+    private final BlockState filler;
+    private final BlockState fluid;
+    private final int fluidLevel;
+
+    // Maze passages between neighbouring cells, set where the wall is knocked through
+    private BitSet mazeOpenEast;
+    private BitSet mazeOpenSouth;
+    private int mazeCells;
+
+    // Blocks placed after generation, and columns they raised
+    private final Map<Long, BlockState> placed = new HashMap<>();
+    private final Map<Integer, Integer> raisedFloors = new HashMap<>();
+    private final List<PlayerView> players = new ArrayList<>();
+
+    public static SyntheticWorldView generate(Terrain terrain, long seed, int radiusChunks) {
+        return new SyntheticWorldView(terrain, seed, radiusChunks);
+    }
+
+    private SyntheticWorldView(Terrain terrain, long seed, int radiusChunks) {
+        this.terrain = terrain;
+        this.radiusChunks = radiusChunks;
+        this.minBlock = -radiusChunks * 16;
+        this.size = (radiusChunks * 2 + 1) * 16;
+        this.heights = new short[size * size];
+
+        boolean nether = terrain == Terrain.NETHER_HIGHWAY;
+        this.bottomY = nether ? 0 : -64;
+        this.topY = nether ? 256 : 320;
+        this.surface = nether ? Blocks.NETHERRACK.getDefaultState()
+            : terrain == Terrain.OCEAN ? Blocks.SAND.getDefaultState() : Blocks.GRASS_BLOCK.getDefaultState();
+        this.subsurface = nether ? Blocks.NETHERRACK.getDefaultState()
+            : terrain == Terrain.OCEAN ? Blocks.SAND.getDefaultState() : Blocks.DIRT.getDefaultState();
+        this.filler = nether ? Blocks.NETHERRACK.getDefaultState() : Blocks.STONE.getDefaultState();
+        this.fluid = nether ? Blocks.LAVA.getDefaultState() : Blocks.WATER.getDefaultState();
+        this.fluidLevel = nether ? 31 : SEA_LEVEL;
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                heights[j * size + i] = (short) generateHeight(seed, minBlock + i, minBlock + j);
+            }
+        }
+
+        if (terrain == Terrain.MAZE) {
+            generateMaze(new Random(seed));
+        }
+    }
+
+    private int generateHeight(long seed, int x, int z) {
+        switch (terrain) {
+            case PLAINS:
+                return 63 + (int) Math.round(fractalNoise(seed, x / 64.0, z / 64.0, 3) * 6 - 2);
+            case MOUNTAINS: {
+                double ridge = fractalNoise(seed, x / 160.0, z / 160.0, 4);
+                return 70 + (int) Math.round(ridge * ridge * 110);
+            }
+            case OCEAN: {
+                double island = fractalNoise(seed ^ 0x5DEECE66DL, x / 256.0, z / 256.0, 2);
+                int floor = 38 + (int) Math.round(fractalNoise(seed, x / 48.0, z / 48.0, 3) * 16);
+                return island > 0.72 ? SEA_LEVEL + 1 + (int) ((island - 0.72) * 20) : floor;
+            }
+            case MAZE:
+                return 64;
+            case NETHER_HIGHWAY:
+            default:
+                return 127;
+        }
+    }
+
+    /**
+     * Perfect maze over the whole area by randomised depth-first search
+     */
+    private void generateMaze(Random random) {
+        mazeCells = (size - 2) / MAZE_CELL;
+        mazeOpenEast = new BitSet(mazeCells * mazeCells);
+        mazeOpenSouth = new BitSet(mazeCells * mazeCells);
+        boolean[] visited = new boolean[mazeCells * mazeCells];
+        int[][] steps = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+        Deque<Integer> stack = new ArrayDeque<>();
+        int start = (mazeCells / 2) * mazeCells + mazeCells / 2;
+        visited[start] = true;
+        stack.push(start);
+
+        while (!stack.isEmpty()) {
+            int cell = stack.peek();
+            int cx = cell % mazeCells;
+            int cz = cell / mazeCells;
+
+            int[] order = {0, 1, 2, 3};
+            for (int i = 3; i > 0; i--) {
+                int k = random.nextInt(i + 1);
+                int tmp = order[i]; order[i] = order[k]; order[k] = tmp;
+            }
+
+            boolean moved = false;
+            for (int index : order) {
+                int nx = cx + steps[index][0];
+                int nz = cz + steps[index][1];
+                if (nx < 0 || nz < 0 || nx >= mazeCells || nz >= mazeCells) continue;
+                int next = nz * mazeCells + nx;
+                if (visited[next]) continue;
+
+                if (nx != cx) {
+                    mazeOpenEast.set(cz * mazeCells + Math.min(cx, nx));
+                } else {
+                    mazeOpenSouth.set(Math.min(cz, nz) * mazeCells + cx);
+                }
+                visited[next] = true;
+                stack.push(next);
+                moved = true;
+                break;
+            }
+            if (!moved) stack.pop();
+        }
+    }
+
+    /**
+     * Cells are offset by 2 so the origin sits in the middle of a corridor
+     */
+    private boolean isMazeWall(int x, int z) {
+        int lx = x - minBlock - 2;
+        int lz = z - minBlock - 2;
+        if (lx < 0 || lz < 0) return true;
+
+        int cx = lx / MAZE_CELL;
+        int cz = lz / MAZE_CELL;
+        if (cx >= mazeCells || cz >= mazeCells) return true;
+
+        boolean westEdge = lx % MAZE_CELL == 0;
+        boolean northEdge = lz % MAZE_CELL == 0;
+        if (westEdge && northEdge) return true;
+        if (westEdge) return cx == 0 || !mazeOpenEast.get(cz * mazeCells + cx - 1);
+        if (northEdge) return cz == 0 || !mazeOpenSouth.get((cz - 1) * mazeCells + cx);
+        return false;
+    }
+
+    private int columnIndex(int x, int z) {
+        int i = x - minBlock;
+        int j = z - minBlock;
+        if (i < 0 || j < 0 || i >= size || j >= size) return -1;
+        return j * size + i;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        int x = pos.getX();
+        int y = pos.getY();
+        int z = pos.getZ();
+        int column = columnIndex(x, z);
+        if (column < 0 || y < bottomY || y >= topY) return Blocks.AIR.getDefaultState();
+
+        if (!placed.isEmpty()) {
+            BlockState state = placed.get(pos.asLong());
+            if (state != null) return state;
+        }
+
+        int height = heights[column];
+        if (y == bottomY) return Blocks.BEDROCK.getDefaultState();
+
+        if (terrain == Terrain.NETHER_HIGHWAY && Math.abs(z) <= 1) {
+            if (y >= HIGHWAY_Y && y < HIGHWAY_Y + 4) return Blocks.AIR.getDefaultState();
+            if (y == HIGHWAY_Y - 1) return Blocks.OBSIDIAN.getDefaultState();
+        }
+
+        if (y < height - 3) return filler;
+        if (y < height) return subsurface;
+        if (y == height) return height <= fluidLevel + 1 && terrain != Terrain.NETHER_HIGHWAY ? Blocks.SAND.getDefaultState() : surface;
+        if (y <= fluidLevel) return fluid;
+
+        if (mazeOpenEast != null && y <= height + MAZE_WALL_HEIGHT && isMazeWall(x, z)) {
+            return Blocks.STONE_BRICKS.getDefaultState();
+        }
+        return Blocks.AIR.getDefaultState();
+    }
+
+    @Override
+    public boolean isChunkLoaded(int chunkX, int chunkZ) {
+        return Math.abs(chunkX) <= radiusChunks && Math.abs(chunkZ) <= radiusChunks;
+    }
+
+    @Override
+    public int getBottomY() {
+        return bottomY;
+    }
+
+    @Override
+    public int getTopY() {
+        return topY;
+    }
+
+    @Override
+    public int getFloorHeight(int x, int z) {
+        int column = columnIndex(x, z);
+        if (column < 0) return bottomY;
+
+        int floor = heights[column] + 1;
+        if (mazeOpenEast != null && isMazeWall(x, z)) {
+            floor += MAZE_WALL_HEIGHT;
+        }
+        Integer raised = raisedFloors.get(column);
+        return raised != null ? Math.max(floor, raised) : floor;
+    }
+
+    @Override
+    public List<PlayerView> getPlayersNear(Vec3d center, double radius) {
+        List<PlayerView> near = new ArrayList<>();
+        for (PlayerView player : players) {
+            if (player.pos().squaredDistanceTo(center) <= radius * radius) {
+                near.add(player);
+            }
+        }
+        return near;
+    }
+
+    /**
+     * Place a block over the generated terrain; not thread-safe against concurrent reads
+     */
+    public void setBlockState(BlockPos pos, BlockState state) {
+        placed.put(pos.asLong(), state);
+
+        int column = columnIndex(pos.getX(), pos.getZ());
+        if (column >= 0 && state.blocksMovement() && state.getFluidState().isEmpty()) {
+            raisedFloors.merge(column, pos.getY() + 1, Math::max);
+        }
+    }
+
+    public void addPlayer(String name, Vec3d pos) {
+        players.add(new PlayerView(name, pos));
+    }
+
+    /**
+     * Where a walker should start: the origin's surface, or the west end of the highway
+     */
+    public BlockPos getSpawn() {
+        if (terrain == Terrain.NETHER_HIGHWAY) {
+            return new BlockPos(minBlock + 8, HIGHWAY_Y, 0);
+        }
+        return new BlockPos(0, Math.max(getFloorHeight(0, 0), fluidLevel + 1), 0);
+    }
+
+    public Terrain getTerrain() { return terrain; }
+    public int getRadiusChunks() { return radiusChunks; }
+
+    /**
+     * Smooth value noise in [0, 1), summed over octaves of halving amplitude
+     */
+    private static double fractalNoise(long seed, double x, double z, int octaves) {
+        double total = 0;
+        double amplitude = 1;
+        double norm = 0;
+        for (int octave = 0; octave < octaves; octave++) {
+            total += valueNoise(seed + octave * 0x9E3779B97F4A7C15L, x, z) * amplitude;
+            norm += amplitude;
+            amplitude *= 0.5;
+            x *= 2;
+            z *= 2;
+        }
+        return total / norm;
+    }
+
+    private static double valueNoise(long seed, double x, double z) {
+        int x0 = (int) Math.floor(x);
+        int z0 = (int) Math.floor(z);
+        double fx = smooth(x - x0);
+        double fz = smooth(z - z0);
+
+        double top = lerp(lattice(seed, x0, z0), lattice(seed, x0 + 1, z0), fx);
+        double bottom = lerp(lattice(seed, x0, z0 + 1), lattice(seed, x0 + 1, z0 + 1), fx);
+        return lerp(top, bottom, fz);
+    }
+
+    private static double lattice(long seed, int x, int z) {
+        long h = seed ^ (x * 0x9E3779B97F4A7C15L) ^ (z * 0xC2B2AE3D27D4EB4FL);
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return (h >>> 11) * 0x1.0p-53;
+    }
+
+    private static double smooth(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,292 @@
+package com.escapemod.world;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Terrain Snapshot - A square of chunks copied out of a WorldView, for replaying real terrain offline
+ * Blocks are stored as raw block state ids, which only hold for one game version, so the file
+ * records the version it was taken with and refuses to load under another
+ *
+ * File layout (gzip): "ETS2", UTF game version, i32 origin x, y, z, i32 min chunk x, i32 min chunk z,
+ *   i32 chunks per side, i32 bottom y, i32 top y, i32 palette size, i32 raw state id per palette entry,
+ *   then u16 palette index per block (x fastest, then z, then y), i32 floor height per column and
+ *   u8 loaded flag per chunk (x fastest). "ETS1" files have no flags; all their chunks count as loaded
+ */
+public class TerrainSnapshot implements WorldView {
+    private static final byte[] MAGIC = {'E', 'T', 'S', '2'};
+    private static final byte[] MAGIC_V1 = {'E', 'T', 'S', '1'};
+
+    private final BlockPos origin;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int chunksPerSide;
+    private final int bottomY;
+    private final int topY;
+    private final int width;
+    private final BlockState[] palette;
+    private final char[] blocks;
+    private final int[] floors;
+    private final boolean[] loadedChunks;
+
+    private TerrainSnapshot(BlockPos origin, int minChunkX, int minChunkZ, int chunksPerSide, int bottomY, int topY,
+                            BlockState[] palette, char[] blocks, int[] floors, boolean[] loadedChunks) {
+        this.origin = origin;
+        this.minChunkX = minChunkX;
+        this.minChunkZ = minChunkZ;
+        this.chunksPerSide = chunksPerSide;
+        this.bottomY = bottomY;
+        this.topY = topY;
+        this.width = chunksPerSide * 16;
+        this.palette = palette;
+        this.blocks = blocks;
+        this.floors = floors;
+        this.loadedChunks = loadedChunks;
+    }
+
+    /**
+     * Copy the full height of the chunks within radiusChunks of origin's chunk in one go
+     * Unloaded chunks are copied as air. For a live world, use Capture to spread the copying over ticks
+     */
+    public static TerrainSnapshot capture(WorldView source, BlockPos origin, int radiusChunks) {
+        Capture capture = new Capture(source, origin, radiusChunks);
+        capture.step(source, Integer.MAX_VALUE);
+        return capture.build();
+    }
+
+    /**
+     * A snapshot taken in two parts: step() copies a few chunks at a time on the thread that owns the
+     * source (see WorldView.snapshotChunk), then build() flattens the copies on any thread
+     */
+    public static final class Capture {
+        private final BlockPos origin;
+        private final int minChunkX;
+        private final int minChunkZ;
+        private final int chunksPerSide;
+        private final int bottomY;
+        private final int topY;
+        private final WorldView[] chunks; // null where the chunk wasn't loaded
+        private int copied = 0;
+
+        public Capture(WorldView source, BlockPos origin, int radiusChunks) {
+            this.origin = origin.toImmutable();
+            this.minChunkX = (origin.getX() >> 4) - radiusChunks;
+            this.minChunkZ = (origin.getZ() >> 4) - radiusChunks;
+            this.chunksPerSide = radiusChunks * 2 + 1;
+            this.bottomY = source.getBottomY();
+            this.topY = source.getTopY();
+            this.chunks = new WorldView[chunksPerSide * chunksPerSide];
+        }
+
+        /**
+         * Copy up to maxChunks more chunks; returns true once every chunk has been copied
+         */
+        public boolean step(WorldView source, int maxChunks) {
+            for (int i = 0; i < maxChunks && copied < chunks.length; i++, copied++) {
+                chunks[copied] = source.snapshotChunk(minChunkX + copied % chunksPerSide, minChunkZ + copied / chunksPerSide);
+            }
+            return isDone();
+        }
+
+        public boolean isDone() {
+            return copied == chunks.length;
+        }
+
+        public int getChunkCount() {
+            return chunks.length;
+        }
+
+        /**
+         * Flatten the copied chunks into a snapshot; reads only the copies, so it may run off-thread
+         */
+        public TerrainSnapshot build() {
+            int width = chunksPerSide * 16;
+            Map<BlockState, Integer> paletteIndex = new IdentityHashMap<>();
+            List<BlockState> palette = new ArrayList<>();
+            char[] blocks = new char[width * width * (topY - bottomY)];
+            int[] floors = new int[width * width];
+            boolean[] loadedChunks = new boolean[chunks.length];
+            BlockPos.Mutable pos = new BlockPos.Mutable();
+            BlockState air = Blocks.AIR.getDefaultState();
+            paletteIndex.put(air, 0);
+            palette.add(air);
+
+            for (int c = 0; c < chunks.length; c++) {
+                WorldView chunk = chunks[c];
+                int offsetX = (c % chunksPerSide) * 16;
+                int offsetZ = (c / chunksPerSide) * 16;
+                int minX = minChunkX * 16 + offsetX;
+                int minZ = minChunkZ * 16 + offsetZ;
+                loadedChunks[c] = chunk != null;
+
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        int column = (offsetZ + z) * width + offsetX + x;
+                        floors[column] = chunk != null ? chunk.getFloorHeight(minX + x, minZ + z) : bottomY;
+                        if (chunk == null) continue; // Left as palette entry 0, air
+
+                        for (int y = bottomY; y < topY; y++) {
+                            BlockState state = chunk.getBlockState(pos.set(minX + x, y, minZ + z));
+                            Integer index = paletteIndex.get(state);
+                            if (index == null) {
+                                index = palette.size();
+                                paletteIndex.put(state, index);
+                                palette.add(state);
+                            }
+                            blocks[(y - bottomY) * width * width + column] = (char) index.intValue();
+                        }
+                    }
+                }
+            }
+
+            return new TerrainSnapshot(origin, minChunkX, minChunkZ, chunksPerSide, bottomY, topY,
+                palette.toArray(new BlockState[0]), blocks, floors, loadedChunks);
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file)), 1 << 16))) {
+            out.write(MAGIC);
+            out.writeUTF(SharedConstants.getGameVersion().getName());
+            out.writeInt(origin.getX());
+            out.writeInt(origin.getY());
+            out.writeInt(origin.getZ());
+            out.writeInt(minChunkX);
+            out.writeInt(minChunkZ);
+            out.writeInt(chunksPerSide);
+            out.writeInt(bottomY);
+            out.writeInt(topY);
+            out.writeInt(palette.length);
+            for (BlockState state : palette) {
+                out.writeInt(Block.getRawIdFromState(state));
+            }
+            for (char block : blocks) {
+                out.writeChar(block);
+            }
+            for (int floor : floors) {
+                out.writeInt(floor);
+            }
+            for (boolean loaded : loadedChunks) {
+                out.writeByte(loaded ? 1 : 0);
+            }
+        }
+    }
+
+    public static TerrainSnapshot read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file)), 1 << 16))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            boolean hasLoadedFlags = Arrays.equals(magic, MAGIC);
+            if (!hasLoadedFlags && !Arrays.equals(magic, MAGIC_V1)) {
+                throw new IOException("Not a terrain snapshot: " + file);
+            }
+            String version = in.readUTF();
+            if (!version.equals(SharedConstants.getGameVersion().getName())) {
+                throw new IOException("Snapshot was taken with " + version + ", block ids don't match this version");
+            }
+
+            BlockPos origin = new BlockPos(in.readInt(), in.readInt(), in.readInt());
+            int minChunkX = in.readInt();
+            int minChunkZ = in.readInt();
+            int chunksPerSide = in.readInt();
+            int bottomY = in.readInt();
+            int topY = in.readInt();
+            int width = chunksPerSide * 16;
+
+            BlockState[] palette = new BlockState[in.readInt()];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = Block.getStateFromRawId(in.readInt());
+            }
+            char[] blocks = new char[width * width * (topY - bottomY)];
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = in.readChar();
+            }
+            int[] floors = new int[width * width];
+            for (int i = 0; i < floors.length; i++) {
+                floors[i] = in.readInt();
+            }
+            boolean[] loadedChunks = new boolean[chunksPerSide * chunksPerSide];
+            for (int i = 0; i < loadedChunks.length; i++) {
+                loadedChunks[i] = !hasLoadedFlags || in.readByte() != 0;
+            }
+
+            return new TerrainSnapshot(origin, minChunkX, minChunkZ, chunksPerSide, bottomY, topY, palette, blocks, floors,
+                loadedChunks);
+        }
+    }
+
+    private int columnIndex(int x, int z) {
+        int i = x - minChunkX * 16;
+        int j = z - minChunkZ * 16;
+        if (i < 0 || j < 0 || i >= width || j >= width) return -1;
+        return j * width + i;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        int column = columnIndex(pos.getX(), pos.getZ());
+        if (column < 0 || pos.getY() < bottomY || pos.getY() >= topY) return Blocks.AIR.getDefaultState();
+        return palette[blocks[(pos.getY() - bottomY) * width * width + column]];
+    }
+
+    @Override
+    public boolean isChunkLoaded(int chunkX, int chunkZ) {
+        int i = chunkX - minChunkX;
+        int j = chunkZ - minChunkZ;
+        return i >= 0 && j >= 0 && i < chunksPerSide && j < chunksPerSide && loadedChunks[j * chunksPerSide + i];
+    }
+
+    @Override
+    public int getBottomY() {
+        return bottomY;
+    }
+
+    @Override
+    public int getTopY() {
+        return topY;
+    }
+
+    @Override
+    public int getFloorHeight(int x, int z) {
+        int column = columnIndex(x, z);
+        return column >= 0 ? floors[column] : bottomY;
+    }
+
+    /**
+     * Players aren't captured
+     */
+    @Override
+    public List<PlayerView> getPlayersNear(Vec3d center, double radius) {
+        return List.of();
+    }
+
+    /**
+     * Where the player stood when the snapshot was taken
+     */
+    public BlockPos getOrigin() { return origin; }
+    public int getChunksPerSide() { return chunksPerSide; }
+    public int getPaletteSize() { return palette.length; }
+}
\ No newline at end of file
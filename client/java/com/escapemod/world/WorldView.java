@@ -0,0 +1,64 @@
+package com.escapemod.world;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.List;
+
+/**
+ * World View - The block and entity reads the pathfinders, terrain analysis and scanners need
+ * ClientWorldView answers them from the live client world; SyntheticWorldView from generated
+ * terrain held in memory, so the same logic can be run and timed without a game client
+ */
+public interface WorldView {
+
+    /**
+     * Nearby player as seen by the scanners
+     */
+    record PlayerView(String name, Vec3d pos) {}
+
+    /**
+     * Whether there is a world to read at all; every other method may assume it
+     */
+    boolean isAvailable();
+
+    /**
+     * Block at pos; unloaded positions read as air
+     */
+    BlockState getBlockState(BlockPos pos);
+
+    default Block getBlock(BlockPos pos) {
+        return getBlockState(pos).getBlock();
+    }
+
+    boolean isChunkLoaded(int chunkX, int chunkZ);
+
+    int getBottomY();
+
+    /**
+     * One above the highest buildable Y
+     */
+    int getTopY();
+
+    /**
+     * Y just above the top motion-blocking, non-fluid block of a column (what the OCEAN_FLOOR
+     * heightmap holds), or getBottomY() for an empty column
+     */
+    int getFloorHeight(int x, int z);
+
+    /**
+     * Other players within radius of center
+     */
+    List<PlayerView> getPlayersNear(Vec3d center, double radius);
+
+    /**
+     * View of one loaded chunk that is safe to read from a worker thread, or null if it isn't loaded
+     * Views over a world that changes return a copy taken at the call; views that never change
+     * may return themselves. Reads outside that chunk are unspecified
+     */
+    default WorldView snapshotChunk(int chunkX, int chunkZ) {
+        return isChunkLoaded(chunkX, chunkZ) ? this : null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.escapemod.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark Runner - Runs the benchmarks with the GC profiler and writes JSON results
+ * The profiler adds gc.alloc.rate and gc.alloc.rate.norm (bytes per operation) to every result,
+ * and the JSON file can be diffed between commits or fed to a JMH result comparer.
+ * Usage: BenchmarkRunner [result file, default build/jmh-results.json] [benchmark regex]
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = args.length > 0 ? args[0] : "build/jmh-results.json";
+        String include = args.length > 1 ? args[1] : BenchmarkRunner.class.getPackageName() + ".*";
+
+        Options options = new OptionsBuilder()
+            .include(include)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile)
+            .build();
+
+        new Runner(options).run();
+    }
+}
\ No newline at end of file
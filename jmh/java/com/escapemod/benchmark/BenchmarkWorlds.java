@@ -0,0 +1,72 @@
+package com.escapemod.benchmark;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.util.math.BlockPos;
+
+import com.escapemod.world.SyntheticWorldView;
+import com.escapemod.world.TerrainSnapshot;
+import com.escapemod.world.WorldView;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Benchmark Worlds - Terrain fixtures shared by the benchmarks
+ * Synthetic fixtures come from a fixed seed, so runs on different commits see identical terrain.
+ * "recorded" loads the snapshot named by -Descapemod.snapshot=<file>, as saved in game with % snapshot
+ */
+final class BenchmarkWorlds {
+    static final long SEED = 42L;
+    static final int RADIUS_CHUNKS = 32;
+    static final String SNAPSHOT_PROPERTY = "escapemod.snapshot";
+
+    private static boolean bootstrapped = false;
+
+    private BenchmarkWorlds() {}
+
+    static synchronized void bootstrap() {
+        if (bootstrapped) return;
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        bootstrapped = true;
+    }
+
+    static WorldView load(String fixture) throws IOException {
+        bootstrap();
+        if (fixture.equals("recorded")) {
+            String file = System.getProperty(SNAPSHOT_PROPERTY);
+            if (file == null) {
+                throw new IllegalStateException("Set -D" + SNAPSHOT_PROPERTY + "=<file> to benchmark recorded terrain");
+            }
+            return TerrainSnapshot.read(Path.of(file));
+        }
+        return SyntheticWorldView.generate(SyntheticWorldView.Terrain.valueOf(fixture.toUpperCase(Locale.ROOT)), SEED, RADIUS_CHUNKS);
+    }
+
+    /**
+     * Where the walker starts: the generated spawn, or where the player stood when the snapshot was taken
+     */
+    static BlockPos start(WorldView world) {
+        if (world instanceof SyntheticWorldView synthetic) return synthetic.getSpawn();
+        if (world instanceof TerrainSnapshot snapshot) return snapshot.getOrigin();
+        return BlockPos.ORIGIN;
+    }
+
+    /**
+     * A standing position dx blocks east of start near its height: solid below, two free blocks above
+     */
+    static BlockPos standingSpot(WorldView world, BlockPos start, int dx) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (int dy = 8; dy >= -16; dy--) {
+            pos.set(start.getX() + dx, start.getY() + dy, start.getZ());
+            if (!world.getBlockState(pos).blocksMovement() &&
+                !world.getBlockState(pos.up()).blocksMovement() &&
+                world.getBlockState(pos.down()).blocksMovement()) {
+                return pos.toImmutable();
+            }
+        }
+        return start.add(dx, 0, 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.escapemod.benchmark;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+
+import com.escapemod.systems.CraftingPlanner;
+import com.escapemod.systems.InventorySortPlanner;
+import com.escapemod.systems.ItemValuationTable;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inventory Benchmark - Sorting, valuation and crafting queries over a typical mid-escape inventory
+ * The inventory is generated from a fixed seed: mostly full, with partial stacks to merge
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryBenchmark {
+    private static final Item[] ITEM_POOL = {
+        Items.COBBLESTONE, Items.DIRT, Items.OAK_LOG, Items.OAK_PLANKS, Items.STICK,
+        Items.IRON_INGOT, Items.DIAMOND, Items.BREAD, Items.COOKED_BEEF, Items.TORCH,
+        Items.STONE_SWORD, Items.IRON_PICKAXE, Items.ROTTEN_FLESH, Items.STRING, Items.BONE,
+        Items.ARROW, Items.GRAVEL, Items.SAND, Items.COAL, Items.CRAFTING_TABLE
+    };
+
+    private ItemStack[] slots;
+    private Item[] hotbarLayout;
+    private int[] counts;
+    private CraftingPlanner planner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkWorlds.bootstrap();
+        Random random = new Random(BenchmarkWorlds.SEED);
+
+        slots = new ItemStack[InventorySortPlanner.INVENTORY_SIZE];
+        for (int i = 0; i < slots.length; i++) {
+            if (random.nextInt(6) == 0) {
+                slots[i] = ItemStack.EMPTY;
+                continue;
+            }
+            Item item = ITEM_POOL[random.nextInt(ITEM_POOL.length)];
+            slots[i] = new ItemStack(item, 1 + random.nextInt(item.getMaxCount()));
+        }
+
+        hotbarLayout = new Item[] {
+            Items.STONE_SWORD, Items.IRON_PICKAXE, Items.COOKED_BEEF, Items.COBBLESTONE, Items.TORCH,
+            Items.CRAFTING_TABLE, Items.FURNACE, Items.CHEST, null
+        };
+
+        counts = new int[CraftingPlanner.getNodeCount()];
+        for (ItemStack stack : slots) {
+            int node = stack.isEmpty() ? -1 : CraftingPlanner.getNodeIndex(stack.getItem());
+            if (node >= 0) {
+                counts[node] += stack.getCount();
+            }
+        }
+        planner = new CraftingPlanner();
+    }
+
+    @Benchmark
+    public InventorySortPlanner.SortPlan sortPlan() {
+        return InventorySortPlanner.plan(slots, ItemValuationTable::getValue, hotbarLayout);
+    }
+
+    @Benchmark
+    public void valuationScan(Blackhole blackhole) {
+        for (ItemStack stack : slots) {
+            if (stack.isEmpty()) continue;
+            Item item = stack.getItem();
+            blackhole.consume(ItemValuationTable.getValue(item) * stack.getCount());
+            blackhole.consume(ItemValuationTable.isEssential(item));
+            blackhole.consume(ItemValuationTable.getDropThreshold(item));
+        }
+    }
+
+    @Benchmark
+    public CraftingPlanner.CraftingPlan craftingPlanCold() {
+        planner.clearCache();
+        return planner.plan(Items.STONE_PICKAXE, counts);
+    }
+
+    @Benchmark
+    public CraftingPlanner.CraftingPlan craftingPlanCached() {
+        return planner.plan(Items.STONE_PICKAXE, counts);
+    }
+}
\ No newline at end of file
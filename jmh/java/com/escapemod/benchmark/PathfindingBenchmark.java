@@ -0,0 +1,98 @@
+package com.escapemod.benchmark;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+import com.escapemod.pathfinding.BaritonePathfinder;
+import com.escapemod.pathfinding.SimplePathfinder;
+import com.escapemod.pathfinding.TerrainAnalyzer;
+import com.escapemod.systems.PathfindingSystem;
+import com.escapemod.world.WorldView;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pathfinding Benchmark - The path searches and per-tick steering decisions, per terrain fixture
+ * Targets lie east of the start, so every fixture asks the same question of different ground
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathfindingBenchmark {
+    private static final Vec3d EAST = new Vec3d(1, 0, 0);
+    private static final int ANALYSIS_DISTANCE = 500; // Keeps every sample inside the fixture
+
+    @Param({"plains", "mountains", "ocean", "maze", "nether_highway"})
+    public String terrain;
+
+    private BlockPos start;
+    private BlockPos nearTarget;
+    private BlockPos farTarget;
+    private BlockPos[] walkPositions;
+    private PathfindingSystem pathfindingSystem;
+    private BaritonePathfinder baritonePathfinder;
+    private SimplePathfinder simplePathfinder;
+    private TerrainAnalyzer terrainAnalyzer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        WorldView world = BenchmarkWorlds.load(terrain);
+        start = BenchmarkWorlds.start(world);
+        nearTarget = BenchmarkWorlds.standingSpot(world, start, 24);
+        farTarget = BenchmarkWorlds.standingSpot(world, start, 64);
+
+        // The positions a walker passes over in the first 64 blocks, as the bot samples them each tick
+        walkPositions = new BlockPos[64];
+        for (int i = 0; i < walkPositions.length; i++) {
+            walkPositions[i] = BenchmarkWorlds.standingSpot(world, start, i);
+        }
+
+        pathfindingSystem = new PathfindingSystem(world);
+        baritonePathfinder = new BaritonePathfinder(world);
+        simplePathfinder = new SimplePathfinder(world);
+        terrainAnalyzer = new TerrainAnalyzer(world);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        terrainAnalyzer.shutdown();
+    }
+
+    @Benchmark
+    public List<Vec3d> pathfindingSystemFindPath() {
+        return pathfindingSystem.findPath(start, nearTarget);
+    }
+
+    @Benchmark
+    public boolean baritonePathfinderCalculatePath() {
+        baritonePathfinder.clearPath();
+        return baritonePathfinder.calculatePath(start, farTarget);
+    }
+
+    @Benchmark
+    public void simplePathfinderSteering(Blackhole blackhole) {
+        for (BlockPos pos : walkPositions) {
+            blackhole.consume(simplePathfinder.getMovementDirection(pos, EAST));
+            blackhole.consume(simplePathfinder.shouldJump(pos, EAST));
+        }
+    }
+
+    @Benchmark
+    public double terrainAnalyzeDirectionCold() {
+        terrainAnalyzer.clearCache();
+        return terrainAnalyzer.analyzeDirection(start, EAST, ANALYSIS_DISTANCE);
+    }
+
+    @Benchmark
+    public double terrainAnalyzeDirectionCached() {
+        return terrainAnalyzer.analyzeDirection(start, EAST, ANALYSIS_DISTANCE);
+    }
+}
\ No newline at end of file
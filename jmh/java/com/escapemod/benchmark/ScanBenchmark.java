@@ -0,0 +1,72 @@
+package com.escapemod.benchmark;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import com.escapemod.systems.AntiGriefSystem;
+import com.escapemod.systems.NetherHighwayDetector;
+import com.escapemod.systems.NetherHighwayNavigator;
+import com.escapemod.world.WorldView;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scan Benchmark - The world scanners: the anti-grief area scan and nether highway probing
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScanBenchmark {
+    private static final int PROBE_CHUNKS = 16;
+
+    @Param({"plains", "mountains", "ocean", "maze", "nether_highway"})
+    public String terrain;
+
+    private WorldView world;
+    private BlockPos center;
+    private AntiGriefSystem antiGrief;
+    private NetherHighwayDetector highwayDetector;
+    private int shift = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        world = BenchmarkWorlds.load(terrain);
+        center = BenchmarkWorlds.start(world);
+        antiGrief = new AntiGriefSystem(world);
+        highwayDetector = new NetherHighwayDetector();
+    }
+
+    /**
+     * Every block of the 31x11x31 area, as after a dimension change or paranoid mode
+     */
+    @Benchmark
+    public void antiGriefFullScan() {
+        antiGrief.onDimensionChange();
+        antiGrief.scanArea(center);
+    }
+
+    /**
+     * Only the slice uncovered by a one block move, as on a normal periodic scan while walking
+     */
+    @Benchmark
+    public void antiGriefIncrementalScan() {
+        shift ^= 1;
+        antiGrief.scanArea(center.east(shift));
+    }
+
+    @Benchmark
+    public List<NetherHighwayNavigator.NetherHighway> netherHighwayProbe() {
+        ChunkPos origin = new ChunkPos(center);
+        for (int i = 0; i < PROBE_CHUNKS; i++) {
+            highwayDetector.onChunkLoad(new ChunkPos(origin.x + i % 4, origin.z - 2 + i / 4));
+        }
+        return highwayDetector.processPending(world, center.getY(), PROBE_CHUNKS, (pos, direction) -> false);
+    }
+}
\ No newline at end of file